@@ -0,0 +1,85 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.watson.developer_cloud.concept_expansion.v1.ConceptExpansion;
+import com.ibm.watson.developer_cloud.concept_expansion.v1.model.Concept;
+import com.ibm.watson.developer_cloud.concept_expansion.v1.model.ConceptExpansionDataset;
+import com.ibm.watson.developer_cloud.concept_expansion.v1.model.Job;
+import com.ibm.watson.developer_cloud.mock.CannedResponses;
+
+/**
+ * Benchmarks the decoding of the Concept Expansion results. The service
+ * answers from memory so that only the decoding and parsing are measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConceptExpansionBenchmark {
+
+	/** The service. */
+	private ConceptExpansion service;
+
+	/** The job. */
+	private Job job;
+
+	/**
+	 * Sets up the service.
+	 */
+	@Setup
+	public void setUp() {
+		final HttpResponse result = ResponseBenchmark
+				.newResponse(CannedResponses
+						.getFixture("concept_expansion/result.json"));
+		service = new ConceptExpansion() {
+			@Override
+			protected HttpResponse execute(HttpRequestBase request) {
+				return result;
+			}
+		};
+		service.setDataset(ConceptExpansionDataset.MT_SAMPLES);
+		job = new Job("a1b2c3d4-0000-4000-8000-000000000001");
+	}
+
+	/**
+	 * Decodes and parses the concepts of a job.
+	 * 
+	 * @return the concepts
+	 */
+	@Benchmark
+	public List<Concept> getJobResult() {
+		return service.getJobResult(job);
+	}
+}
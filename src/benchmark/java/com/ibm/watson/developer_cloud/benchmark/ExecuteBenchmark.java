@@ -0,0 +1,111 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.watson.developer_cloud.mock.MockWatsonServer;
+import com.ibm.watson.developer_cloud.natural_language_classifier.v1.NaturalLanguageClassifier;
+import com.ibm.watson.developer_cloud.natural_language_classifier.v1.model.Classification;
+import com.ibm.watson.developer_cloud.personality_insights.v2.PersonalityInsights;
+import com.ibm.watson.developer_cloud.personality_insights.v2.model.Profile;
+
+/**
+ * Benchmarks complete calls, request building, execution over a local
+ * connection and response parsing, against a {@link MockWatsonServer} that
+ * answers without latency. Run it with <code>-t</code> to see how the calls
+ * scale with the number of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecuteBenchmark {
+
+	/** The text of the profile request. */
+	private static final String TEXT = "Call me Ishmael. Some years ago, never "
+			+ "mind how long precisely, having little or no money in my purse, "
+			+ "and nothing particular to interest me on shore, I thought I would "
+			+ "sail about a little and see the watery part of the world.";
+
+	/** The server. */
+	private MockWatsonServer server;
+
+	/** The classifier. */
+	private NaturalLanguageClassifier classifier;
+
+	/** The personality insights. */
+	private PersonalityInsights personalityInsights;
+
+	/**
+	 * Starts the server and configures the services.
+	 * 
+	 * @throws IOException
+	 *             Signals that the server could not start.
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		server = new MockWatsonServer();
+		server.start();
+		classifier = new NaturalLanguageClassifier();
+		server.configure(classifier);
+		personalityInsights = new PersonalityInsights();
+		server.configure(personalityInsights);
+	}
+
+	/**
+	 * Stops the server.
+	 */
+	@TearDown
+	public void tearDown() {
+		server.stop();
+	}
+
+	/**
+	 * A classification, small request and response.
+	 * 
+	 * @return the classification
+	 */
+	@Benchmark
+	public Classification classify() {
+		return classifier.classify("10D41B-nlc-1", "How hot will it be today?");
+	}
+
+	/**
+	 * A personality profile, a larger response with a deep tree.
+	 * 
+	 * @return the profile
+	 */
+	@Benchmark
+	public Profile getProfile() {
+		return personalityInsights.getProfile(TEXT);
+	}
+}
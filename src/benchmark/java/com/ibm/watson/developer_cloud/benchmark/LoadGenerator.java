@@ -0,0 +1,590 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.ibm.watson.developer_cloud.language_translation.v2.LanguageTranslation;
+import com.ibm.watson.developer_cloud.mock.CannedResponses;
+import com.ibm.watson.developer_cloud.mock.LatencyDistribution;
+import com.ibm.watson.developer_cloud.mock.MockWatsonServer;
+import com.ibm.watson.developer_cloud.natural_language_classifier.v1.NaturalLanguageClassifier;
+import com.ibm.watson.developer_cloud.personality_insights.v2.PersonalityInsights;
+import com.ibm.watson.developer_cloud.service.ConnectionManager;
+import com.ibm.watson.developer_cloud.service.Histogram;
+import com.ibm.watson.developer_cloud.speech_to_text.v1.SpeechToText;
+import com.ibm.watson.developer_cloud.text_to_speech.v1.TextToSpeech;
+import com.ibm.watson.developer_cloud.text_to_speech.v1.model.Voice;
+
+/**
+ * Load generator that drives a service call from many threads and reports
+ * throughput, latency percentiles and the bytes allocated per call. It runs
+ * closed-loop, a fixed number of threads calling back to back, or open-loop,
+ * calls started at a target rate whether or not the previous ones finished.
+ * In open-loop the latency is measured from the time a call should have
+ * started, so the time spent waiting for a free thread or connection is not
+ * hidden.
+ * <br>
+ * Example: <pre>
+ * {@code
+ *  final NaturalLanguageClassifier service = new NaturalLanguageClassifier();
+ *  server.configure(service);
+ *  LoadGenerator generator = new LoadGenerator(new Callable<Object>() {
+ *    public Object call() {
+ *      return service.classify("classifier", "Is it sunny?");
+ *    }
+ *  });
+ *  System.out.println(LoadGenerator.Result.HEADER);
+ *  for (int threads = 1; threads <= 64; threads *= 2)
+ *    System.out.println(generator.runClosedLoop(threads));
+ * }</pre>
+ * From the command line it runs one of the predefined scenarios against a
+ * {@link MockWatsonServer}, see {@link #main(String[])}.
+ */
+public class LoadGenerator {
+
+	/**
+	 * The result of a run.
+	 */
+	public static final class Result {
+
+		/** The header of the {@link #toString()} table. */
+		public static final String HEADER = String.format(Locale.ENGLISH,
+				"%8s %9s %9s %7s %10s %9s %9s %9s %9s %11s", "threads",
+				"rate", "requests", "errors", "req/s", "p50 ms", "p99 ms",
+				"p99.9 ms", "max ms", "bytes/call");
+
+		/** The threads. */
+		private final int threads;
+
+		/** The target rate, 0 for a closed-loop run. */
+		private final double rate;
+
+		/** The latency of the successful calls. */
+		private final Histogram latency;
+
+		/** The errors. */
+		private final long errors;
+
+		/** The elapsed time in nanoseconds. */
+		private final long elapsedNanos;
+
+		/** The allocated bytes, -1 if unknown. */
+		private final long allocatedBytes;
+
+		/**
+		 * Instantiates a new result.
+		 * 
+		 * @param threads
+		 *            the threads
+		 * @param rate
+		 *            the target rate
+		 * @param latency
+		 *            the latency
+		 * @param errors
+		 *            the errors
+		 * @param elapsedNanos
+		 *            the elapsed time
+		 * @param allocatedBytes
+		 *            the allocated bytes
+		 */
+		private Result(int threads, double rate, Histogram latency,
+				long errors, long elapsedNanos, long allocatedBytes) {
+			this.threads = threads;
+			this.rate = rate;
+			this.latency = latency;
+			this.errors = errors;
+			this.elapsedNanos = elapsedNanos;
+			this.allocatedBytes = allocatedBytes;
+		}
+
+		/**
+		 * Gets the number of threads.
+		 * 
+		 * @return the threads
+		 */
+		public int getThreads() {
+			return threads;
+		}
+
+		/**
+		 * Gets the latency of the successful calls.
+		 * 
+		 * @return the latency histogram
+		 */
+		public Histogram getLatency() {
+			return latency;
+		}
+
+		/**
+		 * Gets the number of calls that threw an exception.
+		 * 
+		 * @return the errors
+		 */
+		public long getErrors() {
+			return errors;
+		}
+
+		/**
+		 * Gets the number of completed calls per second, errors included.
+		 * 
+		 * @return the throughput
+		 */
+		public double getThroughput() {
+			return (latency.getCount() + errors) * 1e9 / elapsedNanos;
+		}
+
+		/**
+		 * Gets the bytes allocated per call by the calling threads.
+		 * 
+		 * @return the bytes per call, -1 if the JVM does not report them
+		 */
+		public long getBytesPerCall() {
+			final long calls = latency.getCount() + errors;
+			return allocatedBytes < 0 || calls == 0 ? -1 : allocatedBytes
+					/ calls;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			final TimeUnit ms = TimeUnit.MILLISECONDS;
+			return String.format(Locale.ENGLISH,
+					"%8d %9s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %11d",
+					threads, rate > 0 ? String.format(Locale.ENGLISH, "%.0f",
+							rate) : "-", latency.getCount(), errors,
+					getThroughput(), latency.getPercentile(50, ms),
+					latency.getPercentile(99, ms),
+					latency.getPercentile(99.9, ms), latency.getMax(ms),
+					getBytesPerCall());
+		}
+	}
+
+	/** The thread bean, null if allocations can not be measured. */
+	private static final com.sun.management.ThreadMXBean threadBean = getThreadBean();
+
+	/**
+	 * Gets the thread bean if it reports the allocated bytes.
+	 * 
+	 * @return the thread bean, or null
+	 */
+	private static com.sun.management.ThreadMXBean getThreadBean() {
+		final Object bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean))
+			return null;
+		final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+		if (!threadBean.isThreadAllocatedMemorySupported())
+			return null;
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+		return threadBean;
+	}
+
+	/**
+	 * Gets the bytes allocated by the current thread.
+	 * 
+	 * @return the allocated bytes, -1 if unknown
+	 */
+	private static long getAllocatedBytes() {
+		return threadBean == null ? -1 : threadBean
+				.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/** The call. */
+	private final Callable<?> call;
+
+	/** The warm up time in nanoseconds. */
+	private long warmupNanos = TimeUnit.SECONDS.toNanos(2);
+
+	/** The measured time in nanoseconds. */
+	private long durationNanos = TimeUnit.SECONDS.toNanos(5);
+
+	/**
+	 * Instantiates a new load generator.
+	 * 
+	 * @param call
+	 *            the call to drive, it must be thread safe
+	 */
+	public LoadGenerator(Callable<?> call) {
+		if (call == null)
+			throw new IllegalArgumentException("call can not be null");
+		this.call = call;
+	}
+
+	/**
+	 * Sets how long the calls run, unmeasured, before each run.
+	 * 
+	 * @param warmup
+	 *            the warm up time
+	 * @param unit
+	 *            the unit of the warm up time
+	 */
+	public void setWarmup(long warmup, TimeUnit unit) {
+		if (warmup < 0)
+			throw new IllegalArgumentException("warmup should not be negative");
+		warmupNanos = unit.toNanos(warmup);
+	}
+
+	/**
+	 * Sets how long each run is measured.
+	 * 
+	 * @param duration
+	 *            the duration
+	 * @param unit
+	 *            the unit of the duration
+	 */
+	public void setDuration(long duration, TimeUnit unit) {
+		if (duration <= 0)
+			throw new IllegalArgumentException(
+					"duration should be greater than 0");
+		durationNanos = unit.toNanos(duration);
+	}
+
+	/**
+	 * Runs <code>threads</code> threads that call back to back.
+	 * 
+	 * @param threads
+	 *            the number of threads
+	 * @return the result
+	 * @throws InterruptedException
+	 *             if the current thread is interrupted
+	 */
+	public Result runClosedLoop(int threads) throws InterruptedException {
+		if (threads < 1)
+			throw new IllegalArgumentException(
+					"threads should be greater than 0");
+		return run(threads, 0);
+	}
+
+	/**
+	 * Starts calls at <code>rate</code> calls per second, on up to
+	 * <code>maxThreads</code> threads. When all the threads are busy the
+	 * calls are delayed, and the delay is part of their latency.
+	 * 
+	 * @param rate
+	 *            the calls per second
+	 * @param maxThreads
+	 *            the maximum number of concurrent calls
+	 * @return the result
+	 * @throws InterruptedException
+	 *             if the current thread is interrupted
+	 */
+	public Result runOpenLoop(double rate, int maxThreads)
+			throws InterruptedException {
+		if (rate <= 0)
+			throw new IllegalArgumentException("rate should be greater than 0");
+		if (maxThreads < 1)
+			throw new IllegalArgumentException(
+					"maxThreads should be greater than 0");
+		return run(maxThreads, rate);
+	}
+
+	/**
+	 * Warms up and runs the calls.
+	 * 
+	 * @param threads
+	 *            the threads
+	 * @param rate
+	 *            the target rate, 0 for a closed loop
+	 * @return the result
+	 * @throws InterruptedException
+	 *             if the current thread is interrupted
+	 */
+	private Result run(int threads, double rate) throws InterruptedException {
+		if (warmupNanos > 0)
+			run(threads, rate, warmupNanos);
+		return run(threads, rate, durationNanos);
+	}
+
+	/**
+	 * Runs the calls.
+	 * 
+	 * @param threads
+	 *            the threads
+	 * @param rate
+	 *            the target rate, 0 for a closed loop
+	 * @param duration
+	 *            the duration in nanoseconds
+	 * @return the result
+	 * @throws InterruptedException
+	 *             if the current thread is interrupted
+	 */
+	private Result run(final int threads, final double rate,
+			final long duration) throws InterruptedException {
+		final Histogram latency = new Histogram();
+		final AtomicLong errors = new AtomicLong();
+		final AtomicLong allocated = new AtomicLong();
+		final AtomicLong ticket = new AtomicLong();
+		final CountDownLatch ready = new CountDownLatch(threads);
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(threads);
+		final long[] startTime = new long[1];
+		final double interval = rate > 0 ? 1e9 / rate : 0;
+
+		for (int i = 0; i < threads; i++) {
+			final Thread thread = new Thread("load-generator-" + (i + 1)) {
+				@Override
+				public void run() {
+					try {
+						ready.countDown();
+						start.await();
+						final long begin = startTime[0];
+						final long deadline = begin + duration;
+						final long allocatedBefore = getAllocatedBytes();
+						while (true) {
+							long scheduled;
+							if (rate > 0) {
+								scheduled = begin
+										+ (long) (ticket.getAndIncrement() * interval);
+								if (scheduled >= deadline)
+									break;
+								long wait;
+								while ((wait = scheduled - System.nanoTime()) > 0)
+									LockSupport.parkNanos(wait);
+							} else {
+								scheduled = System.nanoTime();
+								if (scheduled >= deadline)
+									break;
+							}
+							try {
+								call.call();
+								latency.record(System.nanoTime() - scheduled,
+										TimeUnit.NANOSECONDS);
+							} catch (Exception e) {
+								errors.incrementAndGet();
+							}
+						}
+						final long allocatedAfter = getAllocatedBytes();
+						if (allocatedBefore < 0 || allocatedAfter < 0)
+							allocated.set(Long.MIN_VALUE);
+						else
+							allocated.addAndGet(allocatedAfter - allocatedBefore);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					} finally {
+						done.countDown();
+					}
+				}
+			};
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		ready.await();
+		startTime[0] = System.nanoTime();
+		start.countDown();
+		done.await();
+		final long elapsed = Math.max(System.nanoTime() - startTime[0],
+				duration);
+		return new Result(threads, rate, latency, errors.get(), elapsed,
+				Math.max(allocated.get(), -1));
+	}
+
+	/**
+	 * Runs a scenario against a {@link MockWatsonServer}. Options:
+	 * <ul>
+	 * <li><code>--scenario</code> classify (default), profile, translate,
+	 * recognize or synthesize</li>
+	 * <li><code>--threads</code> the closed-loop thread counts, default
+	 * 1,2,4,8,16,32,64</li>
+	 * <li><code>--rate</code> the open-loop rates in calls per second, run
+	 * instead of the closed-loop runs</li>
+	 * <li><code>--max-threads</code> the threads of the open-loop runs, default
+	 * 200</li>
+	 * <li><code>--latency</code> the median and 99th percentile latency of the
+	 * server in milliseconds, for example 20,200, default none</li>
+	 * <li><code>--max-connections</code> the total and per route connection
+	 * limits, for example 200,100, default those of {@link ConnectionManager}</li>
+	 * <li><code>--duration</code> and <code>--warmup</code> in seconds,
+	 * default 5 and 2</li>
+	 * </ul>
+	 * 
+	 * @param args
+	 *            the arguments
+	 * @throws Exception
+	 *             if the scenario fails
+	 */
+	public static void main(String[] args) throws Exception {
+		String scenario = "classify";
+		String threads = "1,2,4,8,16,32,64";
+		String rates = null;
+		int maxThreads = 200;
+		String latency = null;
+		String maxConnections = null;
+		long duration = 5;
+		long warmup = 2;
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			final String name = args[i];
+			final String value = args[i + 1];
+			if ("--scenario".equals(name))
+				scenario = value;
+			else if ("--threads".equals(name))
+				threads = value;
+			else if ("--rate".equals(name))
+				rates = value;
+			else if ("--max-threads".equals(name))
+				maxThreads = Integer.parseInt(value);
+			else if ("--latency".equals(name))
+				latency = value;
+			else if ("--max-connections".equals(name))
+				maxConnections = value;
+			else if ("--duration".equals(name))
+				duration = Long.parseLong(value);
+			else if ("--warmup".equals(name))
+				warmup = Long.parseLong(value);
+			else
+				throw new IllegalArgumentException("unknown option " + name);
+		}
+
+		if (maxConnections != null) {
+			final String[] limits = maxConnections.split(",");
+			ConnectionManager.setInstance(new ConnectionManager(Integer
+					.parseInt(limits[0]), Integer.parseInt(limits[limits.length - 1])));
+		}
+
+		final MockWatsonServer server = new MockWatsonServer();
+		if (latency != null) {
+			final String[] values = latency.split(",");
+			server.setLatency(LatencyDistribution.logNormal(
+					Long.parseLong(values[0]),
+					Long.parseLong(values[values.length - 1]),
+					TimeUnit.MILLISECONDS));
+		}
+		server.start();
+		try {
+			final LoadGenerator generator = new LoadGenerator(newScenario(
+					scenario, server));
+			generator.setWarmup(warmup, TimeUnit.SECONDS);
+			generator.setDuration(duration, TimeUnit.SECONDS);
+
+			System.out.println("scenario: " + scenario + ", server latency: "
+					+ (latency != null ? latency + " ms" : "none"));
+			System.out.println(Result.HEADER);
+			if (rates != null) {
+				for (String rate : rates.split(","))
+					System.out.println(generator.runOpenLoop(
+							Double.parseDouble(rate), maxThreads));
+			} else {
+				for (String count : threads.split(","))
+					System.out.println(generator.runClosedLoop(Integer
+							.parseInt(count)));
+			}
+			System.out.println("pooled connections: "
+					+ ConnectionManager.getInstance().getConnectionsInPool());
+		} finally {
+			server.stop();
+		}
+	}
+
+	/**
+	 * Builds the call of a predefined scenario.
+	 * 
+	 * @param scenario
+	 *            the scenario name
+	 * @param server
+	 *            the server
+	 * @return the call
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static Callable<?> newScenario(String scenario,
+			MockWatsonServer server) throws IOException {
+		if ("classify".equals(scenario)) {
+			final NaturalLanguageClassifier service = new NaturalLanguageClassifier();
+			server.configure(service);
+			return new Callable<Object>() {
+				@Override
+				public Object call() {
+					return service.classify("10D41B-nlc-1",
+							"How hot will it be today?");
+				}
+			};
+		} else if ("profile".equals(scenario)) {
+			final PersonalityInsights service = new PersonalityInsights();
+			server.configure(service);
+			return new Callable<Object>() {
+				@Override
+				public Object call() {
+					return service.getProfile("Call me Ishmael. Some years ago,"
+							+ " never mind how long precisely, having little or"
+							+ " no money in my purse.");
+				}
+			};
+		} else if ("translate".equals(scenario)) {
+			final LanguageTranslation service = new LanguageTranslation();
+			server.configure(service);
+			return new Callable<Object>() {
+				@Override
+				public Object call() {
+					return service.translate("Hello, how are you?", "en", "es");
+				}
+			};
+		} else if ("recognize".equals(scenario)) {
+			final SpeechToText service = new SpeechToText();
+			server.configure(service);
+			final File audio = File.createTempFile("load-generator", ".wav");
+			audio.deleteOnExit();
+			final OutputStream out = new FileOutputStream(audio);
+			try {
+				out.write(CannedResponses.getSilence());
+			} finally {
+				out.close();
+			}
+			return new Callable<Object>() {
+				@Override
+				public Object call() {
+					return service.recognize(audio, "audio/wav");
+				}
+			};
+		} else if ("synthesize".equals(scenario)) {
+			final TextToSpeech service = new TextToSpeech();
+			server.configure(service);
+			final Voice voice = service.getVoices().get(0);
+			return new Callable<Object>() {
+				@Override
+				public Object call() throws IOException {
+					final InputStream in = service.synthesize("Hello world",
+							voice, null);
+					try {
+						long length = 0;
+						int read;
+						final byte[] bytes = new byte[8192];
+						while ((read = in.read(bytes)) != -1)
+							length += read;
+						return length;
+					} finally {
+						in.close();
+					}
+				}
+			};
+		}
+		throw new IllegalArgumentException("unknown scenario " + scenario);
+	}
+}
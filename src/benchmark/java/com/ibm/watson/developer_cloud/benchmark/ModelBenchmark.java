@@ -0,0 +1,176 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.ibm.watson.developer_cloud.language_translation.v2.model.TranslationResult;
+import com.ibm.watson.developer_cloud.mock.CannedResponses;
+import com.ibm.watson.developer_cloud.natural_language_classifier.v1.model.Classification;
+import com.ibm.watson.developer_cloud.personality_insights.v2.model.Profile;
+import com.ibm.watson.developer_cloud.question_and_answer.v1.model.Pipeline;
+import com.ibm.watson.developer_cloud.speech_to_text.v1.model.SpeechResults;
+import com.ibm.watson.developer_cloud.tradeoff_analytics.v1.model.Dilemma;
+import com.ibm.watson.developer_cloud.util.GsonSingleton;
+import com.ibm.watson.developer_cloud.util.ResponseUtil;
+
+/**
+ * Benchmarks the deserialization of the model families from a response
+ * body, the way the services do it with
+ * {@link ResponseUtil#getObject(HttpResponse, Gson, Class)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+	/** The gson. */
+	private final Gson gson = GsonSingleton.getGson();
+
+	/** The answer response. */
+	private HttpResponse answer;
+
+	/** The profile response. */
+	private HttpResponse profile;
+
+	/** The speech results response. */
+	private HttpResponse speechResults;
+
+	/** The translation response. */
+	private HttpResponse translation;
+
+	/** The dilemma response. */
+	private HttpResponse dilemma;
+
+	/** The classification response. */
+	private HttpResponse classification;
+
+	/**
+	 * Sets up the responses.
+	 */
+	@Setup
+	public void setUp() {
+		answer = response("question_and_answer/answer.json");
+		profile = response("personality_insights/profile.json");
+		speechResults = response("speech_to_text/recognize.json");
+		translation = response("language_translation/translate.json");
+		dilemma = response("tradeoff_analytics/dilemma.json");
+		classification = response("natural_language_classifier/classify.json");
+	}
+
+	/**
+	 * Builds a response from a fixture.
+	 * 
+	 * @param fixture
+	 *            the fixture
+	 * @return the response
+	 */
+	private HttpResponse response(String fixture) {
+		return ResponseBenchmark.newResponse(CannedResponses
+				.getFixture(fixture));
+	}
+
+	/**
+	 * Question and Answer.
+	 * 
+	 * @return the pipelines
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Benchmark
+	public Pipeline[] watsonAnswer() throws IOException {
+		return ResponseUtil.getObject(answer, gson, Pipeline[].class);
+	}
+
+	/**
+	 * Personality Insights.
+	 * 
+	 * @return the profile
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Benchmark
+	public Profile profile() throws IOException {
+		return ResponseUtil.getObject(profile, gson, Profile.class);
+	}
+
+	/**
+	 * Speech to Text.
+	 * 
+	 * @return the speech results
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Benchmark
+	public SpeechResults speechResults() throws IOException {
+		return ResponseUtil.getObject(speechResults, gson, SpeechResults.class);
+	}
+
+	/**
+	 * Language Translation.
+	 * 
+	 * @return the translation result
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Benchmark
+	public TranslationResult translationResult() throws IOException {
+		return ResponseUtil.getObject(translation, gson,
+				TranslationResult.class);
+	}
+
+	/**
+	 * Tradeoff Analytics.
+	 * 
+	 * @return the dilemma
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Benchmark
+	public Dilemma dilemma() throws IOException {
+		return ResponseUtil.getObject(dilemma, gson, Dilemma.class);
+	}
+
+	/**
+	 * Natural Language Classifier.
+	 * 
+	 * @return the classification
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Benchmark
+	public Classification classification() throws IOException {
+		return ResponseUtil.getObject(classification, gson,
+				Classification.class);
+	}
+}
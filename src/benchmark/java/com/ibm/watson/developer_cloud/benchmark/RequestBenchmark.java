@@ -0,0 +1,128 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.NameValuePair;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.message.BasicNameValuePair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonObject;
+import com.ibm.watson.developer_cloud.service.Request;
+import com.ibm.watson.developer_cloud.service.UrlTemplate;
+import com.ibm.watson.developer_cloud.util.MediaType;
+import com.ibm.watson.developer_cloud.util.RequestUtil;
+
+/**
+ * Benchmarks the construction of the HTTP requests: {@link Request#build()}
+ * for the common request shapes and the query string encoding.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBenchmark {
+
+	/** The classify template, as compiled by the classifier. */
+	private static final UrlTemplate CLASSIFY = UrlTemplate
+			.compile("/v1/classifiers/%s/classify");
+
+	/** The text to synthesize. */
+	private static final String TEXT = "Hello, this is a sentence with a few "
+			+ "words & symbols to escape: 100% sure? \u00bfQu\u00e9 tal?";
+
+	/** The classify body. */
+	private JsonObject classifyJson;
+
+	/** The query parameters. */
+	private List<NameValuePair> parameters;
+
+	/**
+	 * Sets up the request inputs.
+	 */
+	@Setup
+	public void setUp() {
+		classifyJson = new JsonObject();
+		classifyJson.addProperty("text", "How hot will it be today?");
+
+		parameters = new ArrayList<NameValuePair>();
+		parameters.add(new BasicNameValuePair("text", TEXT));
+		parameters.add(new BasicNameValuePair("voice", "en-US_MichaelVoice"));
+		parameters.add(new BasicNameValuePair("accept", MediaType.AUDIO_WAV));
+		parameters.add(new BasicNameValuePair("model_id", "en-es-conversational"));
+		parameters.add(new BasicNameValuePair("date_from", "2015-07-13 09:00:00"));
+		parameters.add(new BasicNameValuePair("offset", "0"));
+	}
+
+	/**
+	 * A GET with query parameters, as built by the synthesize call.
+	 * 
+	 * @return the request
+	 */
+	@Benchmark
+	public HttpRequestBase buildGetWithQuery() {
+		return Request.Get("/v1/synthesize").withQuery("text", TEXT, "voice",
+				"en-US_MichaelVoice", "accept", MediaType.AUDIO_WAV).build();
+	}
+
+	/**
+	 * A POST with a JSON body and a URL template, as built by the classify
+	 * call.
+	 * 
+	 * @return the request
+	 */
+	@Benchmark
+	public HttpRequestBase buildPostWithJson() {
+		return Request.Post(CLASSIFY, "10D41B-nlc-1")
+				.withContent(classifyJson).build();
+	}
+
+	/**
+	 * A POST with a URL formatted on every call.
+	 * 
+	 * @return the request
+	 */
+	@Benchmark
+	public HttpRequestBase buildPostWithFormattedUrl() {
+		return Request.Post("/v1/classifiers/%s/classify", "10D41B-nlc-1")
+				.withContent(classifyJson).build();
+	}
+
+	/**
+	 * The query string encoding.
+	 * 
+	 * @return the query string
+	 */
+	@Benchmark
+	public String formatQueryString() {
+		return RequestUtil.formatQueryString(parameters, "UTF-8");
+	}
+}
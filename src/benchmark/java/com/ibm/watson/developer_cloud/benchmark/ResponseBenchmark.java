@@ -0,0 +1,111 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonElement;
+import com.ibm.watson.developer_cloud.mock.CannedResponses;
+import com.ibm.watson.developer_cloud.util.MediaType;
+import com.ibm.watson.developer_cloud.util.ResponseUtil;
+
+/**
+ * Benchmarks reading a response body with {@link ResponseUtil}, from a small
+ * classification to a full personality profile.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseBenchmark {
+
+	/**
+	 * Builds a response with a repeatable body.
+	 * 
+	 * @param body
+	 *            the body
+	 * @return the response
+	 */
+	static HttpResponse newResponse(byte[] body) {
+		final BasicHttpResponse response = new BasicHttpResponse(
+				HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+		final ByteArrayEntity entity = new ByteArrayEntity(body);
+		entity.setContentType(MediaType.APPLICATION_JSON + "; charset=utf-8");
+		response.setEntity(entity);
+		return response;
+	}
+
+	/** The fixture. */
+	@Param({ "natural_language_classifier/classify.json",
+			"language_translation/models.json",
+			"personality_insights/profile.json" })
+	public String fixture;
+
+	/** The response. */
+	private HttpResponse response;
+
+	/**
+	 * Sets up the response.
+	 */
+	@Setup
+	public void setUp() {
+		response = newResponse(CannedResponses.getFixture(fixture));
+	}
+
+	/**
+	 * Reads the body as a string.
+	 * 
+	 * @return the body
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Benchmark
+	public String getString() throws IOException {
+		return ResponseUtil.getString(response);
+	}
+
+	/**
+	 * Parses the body as a JSON tree.
+	 * 
+	 * @return the JSON element
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Benchmark
+	public JsonElement getJsonElement() throws IOException {
+		return ResponseUtil.getJsonElement(response);
+	}
+}
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
@@ -33,7 +34,11 @@ import com.ibm.watson.developer_cloud.concept_expansion.v1.model.Concept;
 import com.ibm.watson.developer_cloud.concept_expansion.v1.model.ConceptExpansionDataset;
 import com.ibm.watson.developer_cloud.concept_expansion.v1.model.Job;
 import com.ibm.watson.developer_cloud.concept_expansion.v1.model.Job.Status;
+import com.ibm.watson.developer_cloud.service.JsonResponseConverter;
+import com.ibm.watson.developer_cloud.service.MaterializedResponseConverter;
 import com.ibm.watson.developer_cloud.service.Request;
+import com.ibm.watson.developer_cloud.service.ResponseConverter;
+import com.ibm.watson.developer_cloud.service.ServiceCallback;
 import com.ibm.watson.developer_cloud.service.WatsonService;
 import com.ibm.watson.developer_cloud.util.ResponseUtil;
 
@@ -57,6 +62,30 @@ public class ConceptExpansion extends WatsonService {
 	
 	/** The url. */
 	private static String URL = "https://gateway.watsonplatform.net/concept-expansion-beta/api";
+
+	/** The job converter. */
+	private final ResponseConverter<Job> jobConverter = new JsonResponseConverter<Job>(
+			getGson(), Job.class);
+
+	/** The job result converter. */
+	private final ResponseConverter<List<Concept>> jobResultConverter = new MaterializedResponseConverter<List<Concept>>() {
+		@Override
+		public List<Concept> convert(HttpResponse response) throws IOException {
+			String encodedResult = ResponseUtil.getString(response);
+			JsonParser parser = new JsonParser();
+			return formatConcepts(parser.parse(decodeResult(encodedResult))
+					.getAsJsonObject());
+		}
+	};
+
+	/** The job status converter. */
+	private final ResponseConverter<Status> jobStatusConverter = new MaterializedResponseConverter<Status>() {
+		@Override
+		public Status convert(HttpResponse response) throws IOException {
+			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
+			return Status.fromString(jsonObject.get(PARAM_STATE).getAsString());
+		}
+	};
 	
 	/** The Constant decoderHash. */
 	private static final Map<String, String> decoderHash = new HashMap<String, String>();
@@ -111,6 +140,40 @@ public class ConceptExpansion extends WatsonService {
 	 * @return the JSON object
 	 */
 	public Job createJob(final String label, final String[] seeds) {
+		return execute(buildCreateJobRequest(label, seeds), jobConverter);
+	}
+
+	/**
+	 * Creates a job without blocking the calling thread.
+	 * 
+	 * @param label
+	 *            A conceptual classification of the seed terms.
+	 * @param seeds
+	 *            List of terms to seed the concept expansion
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * 
+	 * @return the future job
+	 * @see #createJob(String, String[])
+	 */
+	public Future<Job> createJobAsync(final String label,
+			final String[] seeds, final ServiceCallback<Job> callback) {
+		return executeAsync(buildCreateJobRequest(label, seeds), jobConverter,
+				callback);
+	}
+
+	/**
+	 * Builds the create job request.
+	 * 
+	 * @param label
+	 *            A conceptual classification of the seed terms.
+	 * @param seeds
+	 *            List of terms to seed the concept expansion
+	 * 
+	 * @return the create job request
+	 */
+	private HttpRequestBase buildCreateJobRequest(final String label,
+			final String[] seeds) {
 		if (dataset == null)
 			throw new IllegalArgumentException("dataset can not be null or empty");
 		if (label == null)
@@ -118,26 +181,17 @@ public class ConceptExpansion extends WatsonService {
 		if (seeds == null || seeds.length == 0)
 			throw new IllegalArgumentException("seeds can not be null or empty");
 
-		try {
-			JsonArray seedJsonArray = new JsonArray();
-			for (String seed : seeds) {
-				seedJsonArray.add(new JsonPrimitive(seed));
-			}
-
-			JsonObject payload = new JsonObject();
-			payload.addProperty("label", label);
-			payload.addProperty("dataset", dataset.getId());
-			payload.add("seeds",seedJsonArray);
-
-			HttpRequestBase request = Request.Post("/v1/upload")
-					.withContent(payload).build();
-
-			HttpResponse response = execute(request);
-			String jsonJob = ResponseUtil.getString(response);
-			return getGson().fromJson(jsonJob,Job.class);
-		} catch (IOException e) {
-			throw new RuntimeException(e);
+		JsonArray seedJsonArray = new JsonArray();
+		for (String seed : seeds) {
+			seedJsonArray.add(new JsonPrimitive(seed));
 		}
+
+		JsonObject payload = new JsonObject();
+		payload.addProperty("label", label);
+		payload.addProperty("dataset", dataset.getId());
+		payload.add("seeds",seedJsonArray);
+
+		return Request.Post("/v1/upload").withContent(payload).build();
 	}
 
 	/**
@@ -209,25 +263,44 @@ public class ConceptExpansion extends WatsonService {
 	 * @see Job
 	 */
 	public List<Concept> getJobResult(final Job job) {
+		return execute(buildJobResultRequest(job), jobResultConverter);
+	}
+
+	/**
+	 * Gets the job result without blocking the calling thread.
+	 * 
+	 * @param job
+	 *            the job
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * 
+	 * @return the future list of concepts
+	 * @see #getJobResult(Job)
+	 */
+	public Future<List<Concept>> getJobResultAsync(final Job job,
+			final ServiceCallback<List<Concept>> callback) {
+		return executeAsync(buildJobResultRequest(job), jobResultConverter,
+				callback);
+	}
+
+	/**
+	 * Builds the job result request.
+	 * 
+	 * @param job
+	 *            the job
+	 * 
+	 * @return the job result request
+	 */
+	private HttpRequestBase buildJobResultRequest(final Job job) {
 		if (job == null)
 			throw new IllegalArgumentException("job can not be null");
 		if (job.getId() == null)
 			throw new IllegalArgumentException("job.id can not be null");
 
-		try {
-			JsonObject payload = new JsonObject();
-			payload.addProperty(PARAM_JOBID, job.getId());
-
-			HttpRequestBase request = Request.Put("/v1/result")
-					.withContent(payload).build();
+		JsonObject payload = new JsonObject();
+		payload.addProperty(PARAM_JOBID, job.getId());
 
-			HttpResponse response = execute(request);
-			String encodedResult = ResponseUtil.getString(response);
-			JsonParser parser = new JsonParser();
-			return formatConcepts(parser.parse(decodeResult(encodedResult)).getAsJsonObject());
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		return Request.Put("/v1/result").withContent(payload).build();
 	}
 
 	/**
@@ -239,21 +312,42 @@ public class ConceptExpansion extends WatsonService {
 	 * @return the job status
 	 */
 	public Status getJobStatus(final Job job) {
+		return execute(buildJobStatusRequest(job), jobStatusConverter);
+	}
+
+	/**
+	 * Gets the job status without blocking the calling thread.
+	 * 
+	 * @param job
+	 *            the job
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * 
+	 * @return the future job status
+	 * @see #getJobStatus(Job)
+	 */
+	public Future<Status> getJobStatusAsync(final Job job,
+			final ServiceCallback<Status> callback) {
+		return executeAsync(buildJobStatusRequest(job), jobStatusConverter,
+				callback);
+	}
+
+	/**
+	 * Builds the job status request.
+	 * 
+	 * @param job
+	 *            the job
+	 * 
+	 * @return the job status request
+	 */
+	private HttpRequestBase buildJobStatusRequest(final Job job) {
 		if (job == null)
 			throw new IllegalArgumentException("job can not be null");
 		if (job.getId() == null)
 			throw new IllegalArgumentException("job.id can not be null");
 
-		HttpRequestBase request = Request.Get("/v1/status")
-				.withQuery(PARAM_JOBID, job.getId()).build();
-
-		try {
-			HttpResponse response = execute(request);
-			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
-			return Status.fromString(jsonObject.get(PARAM_STATE).getAsString());
-		} catch (final IOException e) {
-			throw new RuntimeException(e);
-		}
+		return Request.Get("/v1/status").withQuery(PARAM_JOBID, job.getId())
+				.build();
 	}
 
 	/**
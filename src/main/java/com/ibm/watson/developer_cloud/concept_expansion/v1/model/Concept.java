@@ -16,8 +16,8 @@
 
 package com.ibm.watson.developer_cloud.concept_expansion.v1.model;
 
-import com.google.gson.GsonBuilder;
 import com.ibm.watson.developer_cloud.concept_expansion.v1.ConceptExpansion;
+import com.ibm.watson.developer_cloud.util.GsonSingleton;
 
 /**
  * This class map a Concept returned by {@link ConceptExpansion}.
@@ -74,7 +74,7 @@ public class Concept {
 	@Override
 	public String toString() {
 		return getClass().getName() + " "
-				+ new GsonBuilder().setPrettyPrinting().create().toJson(this);
+				+ GsonSingleton.getGsonWithPrettyPrinting().toJson(this);
 	}
 
 }
@@ -21,6 +21,7 @@ import java.lang.reflect.Type;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 import org.apache.http.HttpResponse;
@@ -29,7 +30,6 @@ import org.apache.http.entity.mime.MultipartEntity;
 import org.apache.http.entity.mime.content.FileBody;
 import org.apache.http.entity.mime.content.StringBody;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
 import com.ibm.watson.developer_cloud.dialog.v1.model.Conversation;
@@ -37,7 +37,12 @@ import com.ibm.watson.developer_cloud.dialog.v1.model.Dialog;
 import com.ibm.watson.developer_cloud.dialog.v1.model.DialogContent;
 import com.ibm.watson.developer_cloud.dialog.v1.model.NameValue;
 import com.ibm.watson.developer_cloud.dialog.v1.model.Session;
+import com.ibm.watson.developer_cloud.service.JsonResponseConverter;
+import com.ibm.watson.developer_cloud.service.MaterializedResponseConverter;
 import com.ibm.watson.developer_cloud.service.Request;
+import com.ibm.watson.developer_cloud.service.ResponseConverter;
+import com.ibm.watson.developer_cloud.service.ServiceCallback;
+import com.ibm.watson.developer_cloud.service.UrlTemplate;
 import com.ibm.watson.developer_cloud.service.WatsonService;
 import com.ibm.watson.developer_cloud.util.ResponseUtil;
 
@@ -61,9 +66,29 @@ public class DialogService extends WatsonService {
 	private static final Logger log = Logger.getLogger(DialogService.class
 			.getName());
 
+	/** The conversation URL template. */
+	private static final UrlTemplate CONVERSATION = UrlTemplate
+			.compile("/v1/dialogs/%s/conversation");
+
+	/** The dialog URL template. */
+	private static final UrlTemplate DIALOG = UrlTemplate
+			.compile("/v1/dialogs/%s");
+
+	/** The content URL template. */
+	private static final UrlTemplate CONTENT = UrlTemplate
+			.compile("/v1/dialogs/%s/content");
+
+	/** The profile URL template. */
+	private static final UrlTemplate PROFILE = UrlTemplate
+			.compile("/v1/dialogs/%s/profile");
+
 	/** The url. */
 	private static String URL = "https://gateway.watsonplatform.net/dialog-experimental/api";
 
+	/** The conversation converter. */
+	private final ResponseConverter<Conversation> conversationConverter = new JsonResponseConverter<Conversation>(
+			getGson(), Conversation.class);
+
 	/** The list dialog content type. */
 	private Type listDialogContentType = new TypeToken<List<DialogContent>>() {
 	}.getType();
@@ -84,6 +109,61 @@ public class DialogService extends WatsonService {
 	private Type listNameValueType = new TypeToken<List<NameValue>>() {
 	}.getType();
 
+	/** The dialog converter. */
+	private final ResponseConverter<Dialog> dialogConverter = new JsonResponseConverter<Dialog>(
+			getGson(), Dialog.class);
+
+	/** The content converter. */
+	private final ResponseConverter<List<DialogContent>> contentConverter = new MaterializedResponseConverter<List<DialogContent>>() {
+		@Override
+		public List<DialogContent> convert(HttpResponse response)
+				throws IOException {
+			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
+			return getGson().fromJson(jsonObject.get("items"),
+					listDialogContentType);
+		}
+	};
+
+	/** The dialogs converter. */
+	private final ResponseConverter<List<Dialog>> dialogsConverter = new MaterializedResponseConverter<List<Dialog>>() {
+		@Override
+		public List<Dialog> convert(HttpResponse response) throws IOException {
+			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
+			return getGson().fromJson(jsonObject.get("dialogs"),
+					listDialogType);
+		}
+	};
+
+	/** The profile converter. */
+	private final ResponseConverter<List<NameValue>> profileConverter = new MaterializedResponseConverter<List<NameValue>>() {
+		@Override
+		public List<NameValue> convert(HttpResponse response)
+				throws IOException {
+			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
+			return getGson().fromJson(jsonObject.get("name_values"),
+					listNameValueType);
+		}
+	};
+
+	/** The sessions converter. */
+	private final ResponseConverter<List<Session>> sessionsConverter = new MaterializedResponseConverter<List<Session>>() {
+		@Override
+		public List<Session> convert(HttpResponse response) throws IOException {
+			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
+			return getGson().fromJson(jsonObject.get("conversations"),
+					listSessionType);
+		}
+	};
+
+	/** The empty converter, consumes the response body. */
+	private final ResponseConverter<Void> emptyConverter = new MaterializedResponseConverter<Void>() {
+		@Override
+		public Void convert(HttpResponse response) throws IOException {
+			ResponseUtil.consume(response);
+			return null;
+		}
+	};
+
 	/**
 	 * Instantiates a new Dialog service.
 	 */
@@ -125,6 +205,74 @@ public class DialogService extends WatsonService {
 	 */
 	public Conversation converse(final String dialogId, final Integer clientId,
 			final Integer conversationId, final String input) {
+		return execute(
+				buildConverseRequest(dialogId, clientId, conversationId, input),
+				conversationConverter);
+	}
+
+	/**
+	 * Starts or continue conversations without blocking the calling thread.
+	 * 
+	 * @param dialogId
+	 *            the dialog id
+	 * @param conversation
+	 *            the conversation
+	 * @param input
+	 *            the user input message
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future conversation
+	 * @see #converse(String, Conversation, String)
+	 */
+	public Future<Conversation> converseAsync(String dialogId,
+			Conversation conversation, String input,
+			ServiceCallback<Conversation> callback) {
+		return converseAsync(dialogId, conversation.getClientId(),
+				conversation.getId(), input, callback);
+	}
+
+	/**
+	 * Starts or continue conversations without blocking the calling thread.
+	 * 
+	 * @param dialogId
+	 *            the dialog id
+	 * @param clientId
+	 *            A client Id number generated by the Dialog service. If not
+	 *            specified a new client Id will be issued.
+	 * @param conversationId
+	 *            the conversation id. If not specified, a new conversation will
+	 *            be started.
+	 * @param input
+	 *            the user input message
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future conversation with the response
+	 * @see #converse(String, Integer, Integer, String)
+	 */
+	public Future<Conversation> converseAsync(final String dialogId,
+			final Integer clientId, final Integer conversationId,
+			final String input, final ServiceCallback<Conversation> callback) {
+		return executeAsync(
+				buildConverseRequest(dialogId, clientId, conversationId, input),
+				conversationConverter, callback);
+	}
+
+	/**
+	 * Builds the conversation request.
+	 * 
+	 * @param dialogId
+	 *            the dialog id
+	 * @param clientId
+	 *            the client id
+	 * @param conversationId
+	 *            the conversation id
+	 * @param input
+	 *            the user input message
+	 * @return the conversation request
+	 */
+	private HttpRequestBase buildConverseRequest(final String dialogId,
+			final Integer clientId, final Integer conversationId,
+			final String input) {
 		if (dialogId == null || dialogId.isEmpty())
 			throw new IllegalArgumentException(
 					"dialogId can not be null or empty");
@@ -137,22 +285,10 @@ public class DialogService extends WatsonService {
 			log.info("Creating a new client id with for dialog: " + dialogId);
 		}
 
-		String path = String.format("/v1/dialogs/%s/conversation", dialogId);
-
-		HttpRequestBase request = Request
-				.Post(path)
+		return Request
+				.Post(CONVERSATION, dialogId)
 				.withForm("conversation_id", conversationId, "client_id",
 						clientId, "input", input).build();
-
-		try {
-			HttpResponse response = execute(request);
-			String conversationAsJson = ResponseUtil.getString(response);
-			Conversation conversation = getGson().fromJson(conversationAsJson,
-					Conversation.class);
-			return conversation;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
 	}
 
 	/**
@@ -175,6 +311,34 @@ public class DialogService extends WatsonService {
 	 * @see Dialog
 	 */
 	public Dialog createDialog(final String name, final File dialogFile) {
+		return execute(buildCreateDialogRequest(name, dialogFile),
+				dialogConverter);
+	}
+
+	/**
+	 * Creates a dialog without blocking the calling thread.
+	 *
+	 * @param name            The dialog name
+	 * @param dialogFile            The dialog file created by using the Dialog service Applet.
+	 * @param callback            notified when the call completes, can be null
+	 * @return the future created dialog
+	 * @see #createDialog(String, File)
+	 */
+	public Future<Dialog> createDialogAsync(final String name,
+			final File dialogFile, final ServiceCallback<Dialog> callback) {
+		return executeAsync(buildCreateDialogRequest(name, dialogFile),
+				dialogConverter, callback);
+	}
+
+	/**
+	 * Builds the create dialog request.
+	 *
+	 * @param name            The dialog name
+	 * @param dialogFile            The dialog file
+	 * @return the create dialog request
+	 */
+	private HttpRequestBase buildCreateDialogRequest(final String name,
+			final File dialogFile) {
 		if (name == null || name.isEmpty())
 			throw new IllegalArgumentException("name can not be null or empty");
 
@@ -187,13 +351,7 @@ public class DialogService extends WatsonService {
 			reqEntity.addPart("file", new FileBody(dialogFile));
 			reqEntity.addPart("name", new StringBody(name));
 
-			HttpRequestBase request = Request.Post("/v1/dialogs")
-					.withEntity(reqEntity).build();
-
-			HttpResponse response = execute(request);
-			String DialogAsJson = ResponseUtil.getString(response);
-			Dialog dialog = getGson().fromJson(DialogAsJson, Dialog.class);
-			return dialog;
+			return Request.Post("/v1/dialogs").withEntity(reqEntity).build();
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
@@ -206,13 +364,35 @@ public class DialogService extends WatsonService {
 	 * @see DialogService
 	 */
 	public void deleteDialog(final String dialogId) {
+		execute(buildDeleteDialogRequest(dialogId), emptyConverter);
+	}
+
+	/**
+	 * Deletes a dialog without blocking the calling thread.
+	 *
+	 * @param dialogId            the dialog id
+	 * @param callback            notified when the call completes, can be null
+	 * @return the future that completes when the dialog is deleted
+	 * @see #deleteDialog(String)
+	 */
+	public Future<Void> deleteDialogAsync(final String dialogId,
+			final ServiceCallback<Void> callback) {
+		return executeAsync(buildDeleteDialogRequest(dialogId),
+				emptyConverter, callback);
+	}
+
+	/**
+	 * Builds the delete dialog request.
+	 *
+	 * @param dialogId            the dialog id
+	 * @return the delete dialog request
+	 */
+	private HttpRequestBase buildDeleteDialogRequest(final String dialogId) {
 		if (dialogId == null || dialogId.isEmpty())
 			throw new IllegalArgumentException(
 					"dialogId can not be null or empty");
 
-		HttpRequestBase request = Request.Delete("/v1/dialogs/" + dialogId)
-				.build();
-		execute(request);
+		return Request.Delete(DIALOG, dialogId).build();
 	}
 
 	/**
@@ -223,22 +403,38 @@ public class DialogService extends WatsonService {
 	 * @return the {@link DialogContent} for nodes
 	 */
 	public List<DialogContent> getContent(final String dialogId) {
+		return execute(buildContentRequest(dialogId), contentConverter);
+	}
+
+	/**
+	 * Get content for nodes without blocking the calling thread.
+	 * 
+	 * @param dialogId
+	 *            the dialog id
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future {@link DialogContent} for nodes
+	 * @see #getContent(String)
+	 */
+	public Future<List<DialogContent>> getContentAsync(final String dialogId,
+			final ServiceCallback<List<DialogContent>> callback) {
+		return executeAsync(buildContentRequest(dialogId), contentConverter,
+				callback);
+	}
+
+	/**
+	 * Builds the content request.
+	 * 
+	 * @param dialogId
+	 *            the dialog id
+	 * @return the content request
+	 */
+	private HttpRequestBase buildContentRequest(final String dialogId) {
 		if (dialogId == null || dialogId.isEmpty())
 			throw new IllegalArgumentException(
 					"dialogId can not be null or empty");
 
-		HttpRequestBase request = Request.Get(
-				"/v1/dialogs/" + dialogId + "/content").build();
-
-		try {
-			HttpResponse response = execute(request);
-			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
-			List<DialogContent> content = new Gson().fromJson(
-					jsonObject.get("items"), listDialogContentType);
-			return content;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		return Request.Get(CONTENT, dialogId).build();
 	}
 
 	/**
@@ -248,16 +444,21 @@ public class DialogService extends WatsonService {
 	 */
 	public List<Dialog> getDialogs() {
 		HttpRequestBase request = Request.Get("/v1/dialogs").build();
+		return execute(request, dialogsConverter);
+	}
 
-		try {
-			HttpResponse response = execute(request);
-			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
-			List<Dialog> dialogs = new Gson().fromJson(
-					jsonObject.get("dialogs"), listDialogType);
-			return dialogs;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+	/**
+	 * Retrieves the list of Dialogs for the user without blocking the calling
+	 * thread.
+	 *
+	 * @param callback            notified when the call completes, can be null
+	 * @return the future {@link Dialog} list
+	 * @see #getDialogs()
+	 */
+	public Future<List<Dialog>> getDialogsAsync(
+			final ServiceCallback<List<Dialog>> callback) {
+		HttpRequestBase request = Request.Get("/v1/dialogs").build();
+		return executeAsync(request, dialogsConverter, callback);
 	}
 
 	/**
@@ -269,6 +470,35 @@ public class DialogService extends WatsonService {
 	 * @see Dialog
 	 */
 	public List<NameValue> getProfile(String dialogId, Integer clientId) {
+		return execute(buildProfileRequest(dialogId, clientId),
+				profileConverter);
+	}
+
+	/**
+	 * Returns a list of name-value pars associated with a client id without
+	 * blocking the calling thread.
+	 *
+	 * @param dialogId            The dialog identifier
+	 * @param clientId the client id
+	 * @param callback            notified when the call completes, can be null
+	 * @return the future name-value pairs
+	 * @see #getProfile(String, Integer)
+	 */
+	public Future<List<NameValue>> getProfileAsync(String dialogId,
+			Integer clientId, ServiceCallback<List<NameValue>> callback) {
+		return executeAsync(buildProfileRequest(dialogId, clientId),
+				profileConverter, callback);
+	}
+
+	/**
+	 * Builds the profile request.
+	 *
+	 * @param dialogId            The dialog identifier
+	 * @param clientId the client id
+	 * @return the profile request
+	 */
+	private HttpRequestBase buildProfileRequest(String dialogId,
+			Integer clientId) {
 		if (dialogId == null || dialogId.isEmpty())
 			throw new IllegalArgumentException(
 					"dialogId can not be null or empty");
@@ -277,19 +507,8 @@ public class DialogService extends WatsonService {
 			throw new IllegalArgumentException(
 					"clientId can not be null");
 
-		HttpRequestBase request = Request.Get(
-				"/v1/dialogs/" + dialogId + "/profile")
-				.withQuery("client_id",clientId)
+		return Request.Get(PROFILE, dialogId).withQuery("client_id", clientId)
 				.build();
-		try {
-			HttpResponse response = execute(request);
-			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
-			List<NameValue> content = new Gson().fromJson(
-					jsonObject.get("name_values"), listNameValueType);
-			return content;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
 	}
 
 	/**
@@ -326,6 +545,55 @@ public class DialogService extends WatsonService {
 	 */
 	public List<Session> getSession(final String dialogId, final Date from,
 			final Date to, final Integer offset, final Integer limit) {
+		return execute(buildSessionRequest(dialogId, from, to, offset, limit),
+				sessionsConverter);
+	}
+
+	/**
+	 * Returns chat session data dump for a given date rage without blocking
+	 * the calling thread.
+	 * 
+	 * @param dialogId
+	 *            the dialog id
+	 * @param from
+	 *            Date from where to start the data dump
+	 * @param to
+	 *            Date to where to end the data dump
+	 * @param offset
+	 *            the offset from where to return conversations, can be null
+	 * @param limit
+	 *            the number of conversations to return, can be null
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future sessions
+	 * @see #getSession(String, Date, Date, Integer, Integer)
+	 */
+	public Future<List<Session>> getSessionAsync(final String dialogId,
+			final Date from, final Date to, final Integer offset,
+			final Integer limit, final ServiceCallback<List<Session>> callback) {
+		return executeAsync(
+				buildSessionRequest(dialogId, from, to, offset, limit),
+				sessionsConverter, callback);
+	}
+
+	/**
+	 * Builds the session request.
+	 * 
+	 * @param dialogId
+	 *            the dialog id
+	 * @param from
+	 *            Date from where to start the data dump
+	 * @param to
+	 *            Date to where to end the data dump
+	 * @param offset
+	 *            the offset from where to return conversations, can be null
+	 * @param limit
+	 *            the number of conversations to return, can be null
+	 * @return the session request
+	 */
+	private HttpRequestBase buildSessionRequest(final String dialogId,
+			final Date from, final Date to, final Integer offset,
+			final Integer limit) {
 		if (dialogId == null || dialogId.isEmpty())
 			throw new IllegalArgumentException(
 					"dialogId can not be null or empty");
@@ -342,9 +610,7 @@ public class DialogService extends WatsonService {
 		String fromString = sdfDate.format(from);
 		String toString = sdfDate.format(to);
 
-		String path = String.format("/v1/dialogs/%s/conversation", dialogId);
-
-		Request requestBuilder = Request.Get(path).withQuery("date_from",
+		Request requestBuilder = Request.Get(CONVERSATION, dialogId).withQuery("date_from",
 				fromString, "date_to", toString);
 
 		if (offset != null)
@@ -352,17 +618,7 @@ public class DialogService extends WatsonService {
 		if (limit != null)
 			requestBuilder.withQuery("limit", limit);
 
-		HttpRequestBase request = requestBuilder.build();
-
-		try {
-			HttpResponse response = execute(request);
-			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
-			List<Session> sessions = new Gson().fromJson(
-					jsonObject.get("conversations"), listSessionType);
-			return sessions;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		return requestBuilder.build();
 	}
 
 	/*
@@ -386,6 +642,34 @@ public class DialogService extends WatsonService {
 	 * @param dialogFile the dialog file
 	 */
 	public void updateContent(final String dialogId, final File dialogFile) {
+		execute(buildUpdateContentRequest(dialogId, dialogFile),
+				emptyConverter);
+	}
+
+	/**
+	 * Updates a dialog content without blocking the calling thread.
+	 *
+	 * @param dialogId the dialog id
+	 * @param dialogFile the dialog file
+	 * @param callback notified when the call completes, can be null
+	 * @return the future that completes when the content is updated
+	 * @see #updateContent(String, File)
+	 */
+	public Future<Void> updateContentAsync(final String dialogId,
+			final File dialogFile, final ServiceCallback<Void> callback) {
+		return executeAsync(buildUpdateContentRequest(dialogId, dialogFile),
+				emptyConverter, callback);
+	}
+
+	/**
+	 * Builds the update content request.
+	 *
+	 * @param dialogId the dialog id
+	 * @param dialogFile the dialog file
+	 * @return the update content request
+	 */
+	private HttpRequestBase buildUpdateContentRequest(final String dialogId,
+			final File dialogFile) {
 		if (dialogId == null || dialogId.isEmpty())
 			throw new IllegalArgumentException(
 					"dialogId can not be null or empty");
@@ -399,10 +683,8 @@ public class DialogService extends WatsonService {
 			reqEntity.addPart("file", new FileBody(dialogFile));
 			reqEntity.addPart("dialog_id", new StringBody(dialogId));
 
-			HttpRequestBase request = Request
-					.Put("/v1/dialogs/" + dialogId + "/content")
-					.withEntity(reqEntity).build();
-			execute(request);
+			return Request.Put(CONTENT, dialogId).withEntity(reqEntity)
+					.build();
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
@@ -417,6 +699,34 @@ public class DialogService extends WatsonService {
 	 * @see Dialog
 	 */
 	public Dialog updateDialog(final String dialogId, final File dialogFile) {
+		return execute(buildUpdateDialogRequest(dialogId, dialogFile),
+				dialogConverter);
+	}
+
+	/**
+	 * Updates a dialog without blocking the calling thread.
+	 *
+	 * @param dialogId            The dialog identifier
+	 * @param dialogFile            The dialog file
+	 * @param callback            notified when the call completes, can be null
+	 * @return the future updated dialog
+	 * @see #updateDialog(String, File)
+	 */
+	public Future<Dialog> updateDialogAsync(final String dialogId,
+			final File dialogFile, final ServiceCallback<Dialog> callback) {
+		return executeAsync(buildUpdateDialogRequest(dialogId, dialogFile),
+				dialogConverter, callback);
+	}
+
+	/**
+	 * Builds the update dialog request.
+	 *
+	 * @param dialogId            The dialog identifier
+	 * @param dialogFile            The dialog file
+	 * @return the update dialog request
+	 */
+	private HttpRequestBase buildUpdateDialogRequest(final String dialogId,
+			final File dialogFile) {
 		if (dialogId == null || dialogId.isEmpty())
 			throw new IllegalArgumentException(
 					"dialogId can not be null or empty");
@@ -428,16 +738,7 @@ public class DialogService extends WatsonService {
 		MultipartEntity reqEntity = new MultipartEntity();
 		reqEntity.addPart("file", new FileBody(dialogFile));
 
-		HttpRequestBase request = Request.Put("/v1/dialogs/" + dialogId)
-				.withEntity(reqEntity).build();
-		try {
-			HttpResponse response = execute(request);
-			String dialogAsJson = ResponseUtil.getString(response);
-			Dialog dialog = getGson().fromJson(dialogAsJson, Dialog.class);
-			return dialog;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		return Request.Put(DIALOG, dialogId).withEntity(reqEntity).build();
 	}
 
 	/**
@@ -452,6 +753,45 @@ public class DialogService extends WatsonService {
 	 * @see Dialog
 	 */
 	public void updateProfile(final String dialogId, final Integer clientId, final List<NameValue> nameValues) {
+		execute(buildUpdateProfileRequest(dialogId, clientId, nameValues),
+				emptyConverter);
+	}
+
+	/**
+	 * Updates dialog profile without blocking the calling thread.
+	 * 
+	 * @param dialogId
+	 *            The dialog identifier
+	 * @param clientId
+	 *            the client id
+	 * @param nameValues
+	 *            the name values to update
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future that completes when the profile is updated
+	 * @see #updateProfile(String, Integer, List)
+	 */
+	public Future<Void> updateProfileAsync(final String dialogId,
+			final Integer clientId, final List<NameValue> nameValues,
+			final ServiceCallback<Void> callback) {
+		return executeAsync(
+				buildUpdateProfileRequest(dialogId, clientId, nameValues),
+				emptyConverter, callback);
+	}
+
+	/**
+	 * Builds the update profile request.
+	 * 
+	 * @param dialogId
+	 *            The dialog identifier
+	 * @param clientId
+	 *            the client id
+	 * @param nameValues
+	 *            the name values to update
+	 * @return the update profile request
+	 */
+	private HttpRequestBase buildUpdateProfileRequest(final String dialogId,
+			final Integer clientId, final List<NameValue> nameValues) {
 		if (dialogId == null || dialogId.isEmpty())
 			throw new IllegalArgumentException(
 					"dialogId can not be null or empty");
@@ -469,10 +809,7 @@ public class DialogService extends WatsonService {
 		contentJson.addProperty("client_id", clientId);
 		contentJson.add("name_values", getGson().toJsonTree(nameValues));
 
-		HttpRequestBase request = Request
-				.Put("/v1/dialogs/" + dialogId + "/profile")
-				.withContent(contentJson).build();
-		execute(request);
+		return Request.Put(PROFILE, dialogId).withContent(contentJson).build();
 	}
 
 }
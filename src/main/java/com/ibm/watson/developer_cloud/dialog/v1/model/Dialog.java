@@ -15,9 +15,9 @@
  */
 package com.ibm.watson.developer_cloud.dialog.v1.model;
 
-import com.google.gson.GsonBuilder;
 import com.google.gson.annotations.SerializedName;
 import com.ibm.watson.developer_cloud.dialog.v1.DialogService;
+import com.ibm.watson.developer_cloud.util.GsonSingleton;
 
 /**
  * Dialog used by the {@link DialogService}.
@@ -103,6 +103,6 @@ public class Dialog {
 	@Override
 	public String toString() {
 		return getClass().getName() + " "
-				+ new GsonBuilder().setPrettyPrinting().create().toJson(this);
+				+ GsonSingleton.getGsonWithPrettyPrinting().toJson(this);
 	}
 }
\ No newline at end of file
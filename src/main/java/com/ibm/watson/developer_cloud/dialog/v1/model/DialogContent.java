@@ -1,7 +1,7 @@
 package com.ibm.watson.developer_cloud.dialog.v1.model;
 
-import com.google.gson.GsonBuilder;
 import com.ibm.watson.developer_cloud.dialog.v1.DialogService;
+import com.ibm.watson.developer_cloud.util.GsonSingleton;
 
 /**
  * Dialog content used by the {@link DialogService}.
@@ -82,6 +82,6 @@ public class DialogContent {
 	@Override
 	public String toString() {
 		return getClass().getName() + " "
-				+ new GsonBuilder().setPrettyPrinting().create().toJson(this);
+				+ GsonSingleton.getGsonWithPrettyPrinting().toJson(this);
 	}
 }
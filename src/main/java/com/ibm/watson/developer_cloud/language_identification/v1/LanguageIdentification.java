@@ -16,13 +16,17 @@
 package com.ibm.watson.developer_cloud.language_identification.v1;
 
 import java.io.IOException;
+import java.util.concurrent.Future;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
 
 import com.google.gson.JsonObject;
 import com.ibm.watson.developer_cloud.language_identification.v1.model.IdentifiedLanguage;
+import com.ibm.watson.developer_cloud.service.MaterializedResponseConverter;
 import com.ibm.watson.developer_cloud.service.Request;
+import com.ibm.watson.developer_cloud.service.ResponseConverter;
+import com.ibm.watson.developer_cloud.service.ServiceCallback;
 import com.ibm.watson.developer_cloud.service.WatsonService;
 import com.ibm.watson.developer_cloud.util.ResponseUtil;
 
@@ -44,6 +48,16 @@ public class LanguageIdentification extends WatsonService {
 	/** The url. */
 	private static String URL = "https://gateway.watsonplatform.net/language-identification-beta/api";
 
+	/** The identified language converter. */
+	private final ResponseConverter<IdentifiedLanguage> identifiedLanguageConverter = new MaterializedResponseConverter<IdentifiedLanguage>() {
+		@Override
+		public IdentifiedLanguage convert(HttpResponse response)
+				throws IOException {
+			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
+			return new IdentifiedLanguage(jsonObject.get(LANG).getAsString());
+		}
+	};
+
 	/**
 	 * Instantiates a new language identification.
 	 */
@@ -59,17 +73,37 @@ public class LanguageIdentification extends WatsonService {
 	 * @return the identified language
 	 */
 	public IdentifiedLanguage identify(final String text) {
-		HttpRequestBase request = Request.Post("/v1/txtlid/0")
+		return execute(buildIdentifyRequest(text), identifiedLanguageConverter);
+	}
+
+	/**
+	 * Identify language in which text is written without blocking the
+	 * calling thread.
+	 * 
+	 * @param text
+	 *            the text to identify
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future identified language
+	 * @see #identify(String)
+	 */
+	public Future<IdentifiedLanguage> identifyAsync(final String text,
+			final ServiceCallback<IdentifiedLanguage> callback) {
+		return executeAsync(buildIdentifyRequest(text),
+				identifiedLanguageConverter, callback);
+	}
+
+	/**
+	 * Builds the identify request.
+	 * 
+	 * @param text
+	 *            the text to identify
+	 * @return the identify request
+	 */
+	private HttpRequestBase buildIdentifyRequest(final String text) {
+		return Request.Post("/v1/txtlid/0")
 				.withForm("sid", "lid-generic", "rt", "json", "txt", text)
 				.build();
-
-		try {
-			HttpResponse response = execute(request);
-			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
-			return new IdentifiedLanguage(jsonObject.get(LANG).getAsString());
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
 	}
 
 	/*
@@ -18,6 +18,7 @@ package com.ibm.watson.developer_cloud.language_translation.v2;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
@@ -30,7 +31,11 @@ import com.ibm.watson.developer_cloud.language_translation.v2.model.Identifiable
 import com.ibm.watson.developer_cloud.language_translation.v2.model.IdentifiedLanguage;
 import com.ibm.watson.developer_cloud.language_translation.v2.model.LanguageModel;
 import com.ibm.watson.developer_cloud.language_translation.v2.model.TranslationResult;
+import com.ibm.watson.developer_cloud.service.JsonResponseConverter;
+import com.ibm.watson.developer_cloud.service.MaterializedResponseConverter;
 import com.ibm.watson.developer_cloud.service.Request;
+import com.ibm.watson.developer_cloud.service.ResponseConverter;
+import com.ibm.watson.developer_cloud.service.ServiceCallback;
 import com.ibm.watson.developer_cloud.service.WatsonService;
 import com.ibm.watson.developer_cloud.util.MediaType;
 import com.ibm.watson.developer_cloud.util.ResponseUtil;
@@ -50,18 +55,54 @@ public class LanguageTranslation extends WatsonService {
 	/** The url. */
 	private static String URL = "https://gateway.watsonplatform.net/language-translation/api";
 
+	/** The translation converter. */
+	private final ResponseConverter<TranslationResult> translationConverter = new JsonResponseConverter<TranslationResult>(
+			getGson(), TranslationResult.class);
+
 	/** The model list type. */
 	private final Type modelListType = new TypeToken<List<LanguageModel>>() {
 	}.getType();
 
+	/** The models converter. */
+	private final ResponseConverter<List<LanguageModel>> modelsConverter = new MaterializedResponseConverter<List<LanguageModel>>() {
+		@Override
+		public List<LanguageModel> convert(HttpResponse response)
+				throws IOException {
+			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
+			return getGson().fromJson(jsonObject.get("models"), modelListType);
+		}
+	};
+
 	/** The language model list type. */
 	private final Type languageModelListType = new TypeToken<List<IdentifiedLanguage>>() {
 	}.getType();
 
+	/** The identified languages converter. */
+	private final ResponseConverter<List<IdentifiedLanguage>> identifiedLanguagesConverter = new MaterializedResponseConverter<List<IdentifiedLanguage>>() {
+		@Override
+		public List<IdentifiedLanguage> convert(HttpResponse response)
+				throws IOException {
+			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
+			return getGson().fromJson(jsonObject.get("languages"),
+					languageModelListType);
+		}
+	};
+
 	/** The identifiable languages list type. */
 	private final Type identifiableLanguagesListType = new TypeToken<List<IdentifiableLanguage>>() {
 	}.getType();
 
+	/** The identifiable languages converter. */
+	private final ResponseConverter<List<IdentifiableLanguage>> identifiableLanguagesConverter = new MaterializedResponseConverter<List<IdentifiableLanguage>>() {
+		@Override
+		public List<IdentifiableLanguage> convert(HttpResponse response)
+				throws IOException {
+			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
+			return getGson().fromJson(jsonObject.get("languages"),
+					identifiableLanguagesListType);
+		}
+	};
+
 	/**
 	 * Instantiates a new Language Translation service.
 	 */
@@ -130,6 +171,45 @@ public class LanguageTranslation extends WatsonService {
 		return translate(new String[] { text }, source, target, null);
 	}
 
+	/**
+	 * Translate text using a model without blocking the calling thread.
+	 * 
+	 * @param text
+	 *            The submitted text to translate
+	 * @param modelId
+	 *            the model id
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future translation of text from source to target
+	 * @see #translate(String, String)
+	 */
+	public Future<TranslationResult> translateAsync(final String text,
+			final String modelId,
+			final ServiceCallback<TranslationResult> callback) {
+		return executeAsync(
+				buildTranslateRequest(new String[] { text }, null, null,
+						modelId), translationConverter, callback);
+	}
+
+	/**
+	 * Translate text using a source and target without blocking the calling
+	 * thread.
+	 *
+	 * @param text            The submitted text to translate
+	 * @param source            Source language in 2 or 5 letter language code.
+	 * @param target            the target language
+	 * @param callback            notified when the call completes, can be null
+	 * @return the future translation of text from source to target
+	 * @see #translate(String, String, String)
+	 */
+	public Future<TranslationResult> translateAsync(final String text,
+			final String source, final String target,
+			final ServiceCallback<TranslationResult> callback) {
+		return executeAsync(
+				buildTranslateRequest(new String[] { text }, source, target,
+						null), translationConverter, callback);
+	}
+
 	/**
 	 * Translate paragraphs of text using a model and or source and target
 	 * modeId or source and target needs to be specified.
@@ -142,6 +222,22 @@ public class LanguageTranslation extends WatsonService {
 	 */
 	private TranslationResult translate(final String[] text,
 			final String source, final String target, final String modelId) {
+		return execute(buildTranslateRequest(text, source, target, modelId),
+				translationConverter);
+	}
+
+	/**
+	 * Builds the translate request, modeId or source and target needs to be
+	 * specified.
+	 *
+	 * @param text            The submitted paragraphs to translate
+	 * @param source            the source language
+	 * @param target            the target language
+	 * @param modelId            the model id
+	 * @return the translate request
+	 */
+	private HttpRequestBase buildTranslateRequest(final String[] text,
+			final String source, final String target, final String modelId) {
 		if ((modelId == null || modelId.isEmpty())
 				&& (source == null || source.isEmpty() || target == null || target
 						.isEmpty()))
@@ -161,7 +257,8 @@ public class LanguageTranslation extends WatsonService {
 		contentJson.add("text", paragraphs);
 
 		Request requestBuilder = Request.Post("/v2/translate")
-				.withContent(contentJson);
+				.withContent(contentJson).withIdempotent(true)
+				.withCacheable(true);
 		
 		if (source != null && !source.isEmpty())
 			requestBuilder.withQuery("source", source);
@@ -172,17 +269,7 @@ public class LanguageTranslation extends WatsonService {
 		if (modelId != null && !modelId.isEmpty())
 			requestBuilder.withQuery("model_id", modelId);
 
-		HttpRequestBase request = requestBuilder.build();
-
-		try {
-			HttpResponse response = execute(request);
-			String translationResult = ResponseUtil.getString(response);
-			TranslationResult translation = getGson().fromJson(
-					translationResult, TranslationResult.class);
-			return translation;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		return requestBuilder.build();
 	}
 
 	/**
@@ -193,19 +280,38 @@ public class LanguageTranslation extends WatsonService {
 	 * @return the identified language
 	 */
 	public List<IdentifiedLanguage> identify(final String text) {
-		HttpRequestBase request = Request.Post("/v2/identify")
-				.withContent(text, "text/plain")
-				.withHeader("accept", MediaType.APPLICATION_JSON).build();
+		return execute(buildIdentifyRequest(text),
+				identifiedLanguagesConverter);
+	}
 
-		try {
-			HttpResponse response = execute(request);
-			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
-			List<IdentifiedLanguage> identifiedLanguages = getGson().fromJson(
-					jsonObject.get("languages"), languageModelListType);
-			return identifiedLanguages;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+	/**
+	 * Identify language in which text is written without blocking the calling
+	 * thread.
+	 * 
+	 * @param text
+	 *            the text to identify
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future identified language
+	 * @see #identify(String)
+	 */
+	public Future<List<IdentifiedLanguage>> identifyAsync(final String text,
+			final ServiceCallback<List<IdentifiedLanguage>> callback) {
+		return executeAsync(buildIdentifyRequest(text),
+				identifiedLanguagesConverter, callback);
+	}
+
+	/**
+	 * Builds the identify request.
+	 * 
+	 * @param text
+	 *            the text to identify
+	 * @return the identify request
+	 */
+	private HttpRequestBase buildIdentifyRequest(final String text) {
+		return Request.Post("/v2/identify").withContent(text, "text/plain")
+				.withHeader("accept", MediaType.APPLICATION_JSON)
+				.withIdempotent(true).build();
 	}
 
 	/**
@@ -222,27 +328,57 @@ public class LanguageTranslation extends WatsonService {
 	 */
 	public List<LanguageModel> getModels(final Boolean showDefault,
 			final String source, final String target) {
+		return execute(buildModelsRequest(showDefault, source, target),
+				modelsConverter);
+	}
+
+	/**
+	 * Retrieves the list of models without blocking the calling thread.
+	 * 
+	 * @param showDefault
+	 *            show default models
+	 * @param source
+	 *            the source
+	 * @param target
+	 *            the target
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future translation models
+	 * @see #getModels(Boolean, String, String)
+	 */
+	public Future<List<LanguageModel>> getModelsAsync(
+			final Boolean showDefault, final String source,
+			final String target,
+			final ServiceCallback<List<LanguageModel>> callback) {
+		return executeAsync(buildModelsRequest(showDefault, source, target),
+				modelsConverter, callback);
+	}
+
+	/**
+	 * Builds the models request.
+	 * 
+	 * @param showDefault
+	 *            show default models
+	 * @param source
+	 *            the source
+	 * @param target
+	 *            the target
+	 * @return the models request
+	 */
+	private HttpRequestBase buildModelsRequest(final Boolean showDefault,
+			final String source, final String target) {
 		Request request = Request.Get("/v2/models");
 
 		if (source != null && !source.isEmpty())
 			request.withQuery("source", source);
 
 		if (target != null && !target.isEmpty())
-			request.withQuery("target", source);
+			request.withQuery("target", target);
 
 		if (showDefault != null)
 			request.withQuery("default", showDefault.booleanValue());
 
-		HttpRequestBase requestBase = request.build();
-		try {
-			HttpResponse response = execute(requestBase);
-			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
-			List<LanguageModel> models = getGson().fromJson(
-					jsonObject.get("models"), modelListType);
-			return models;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		return request.build();
 	}
 
 	/**
@@ -252,18 +388,25 @@ public class LanguageTranslation extends WatsonService {
 	 * @see LanguageModel
 	 */
 	public List<IdentifiableLanguage> getIdentifiableLanguages() {
-		Request request = Request.Get("/v2/identifiable_languages");
+		HttpRequestBase request = Request.Get("/v2/identifiable_languages")
+				.build();
+		return execute(request, identifiableLanguagesConverter);
+	}
 
-		HttpRequestBase requestBase = request.build();
-		try {
-			HttpResponse response = execute(requestBase);
-			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
-			List<IdentifiableLanguage> langs = getGson().fromJson(
-					jsonObject.get("languages"), identifiableLanguagesListType);
-			return langs;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+	/**
+	 * Retrieves the list of identifiable languages without blocking the
+	 * calling thread.
+	 * 
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future identifiable languages
+	 * @see #getIdentifiableLanguages()
+	 */
+	public Future<List<IdentifiableLanguage>> getIdentifiableLanguagesAsync(
+			final ServiceCallback<List<IdentifiableLanguage>> callback) {
+		HttpRequestBase request = Request.Get("/v2/identifiable_languages")
+				.build();
+		return executeAsync(request, identifiableLanguagesConverter, callback);
 	}
 
 	/**
@@ -276,6 +419,19 @@ public class LanguageTranslation extends WatsonService {
 		return getModels(null, null, null);
 	}
 
+	/**
+	 * Retrieves the list of models without blocking the calling thread.
+	 * 
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future translation models
+	 * @see #getModels()
+	 */
+	public Future<List<LanguageModel>> getModelsAsync(
+			final ServiceCallback<List<LanguageModel>> callback) {
+		return getModelsAsync(null, null, null, callback);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
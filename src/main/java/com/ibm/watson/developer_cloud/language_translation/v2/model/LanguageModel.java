@@ -1,8 +1,8 @@
 package com.ibm.watson.developer_cloud.language_translation.v2.model;
 
-import com.google.gson.GsonBuilder;
 import com.google.gson.annotations.SerializedName;
 import com.ibm.watson.developer_cloud.language_translation.v2.LanguageTranslation;
+import com.ibm.watson.developer_cloud.util.GsonSingleton;
 
 /**
  * Language Model used by the {@link LanguageTranslation}.
@@ -362,6 +362,6 @@ public class LanguageModel {
 	@Override
 	public String toString() {
 		return getClass().getName() + " "
-				+ new GsonBuilder().setPrettyPrinting().create().toJson(this);
+				+ GsonSingleton.getGsonWithPrettyPrinting().toJson(this);
 	}
 }
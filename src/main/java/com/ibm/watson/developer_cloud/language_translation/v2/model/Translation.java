@@ -1,8 +1,8 @@
 package com.ibm.watson.developer_cloud.language_translation.v2.model;
 
-import com.google.gson.GsonBuilder;
 import com.google.gson.annotations.Expose;
 import com.ibm.watson.developer_cloud.language_translation.v2.LanguageTranslation;
+import com.ibm.watson.developer_cloud.util.GsonSingleton;
 
 /**
  * The Translation result used as POJO by the {@link LanguageTranslation}.
@@ -54,6 +54,6 @@ public class Translation {
 	@Override
 	public String toString() {
 		return getClass().getName() + " "
-				+ new GsonBuilder().setPrettyPrinting().create().toJson(this);
+				+ GsonSingleton.getGsonWithPrettyPrinting().toJson(this);
 	}
 }
@@ -18,12 +18,16 @@ package com.ibm.watson.developer_cloud.machine_translation.v1;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
 
 import com.ibm.watson.developer_cloud.machine_translation.v1.model.Language;
+import com.ibm.watson.developer_cloud.service.MaterializedResponseConverter;
 import com.ibm.watson.developer_cloud.service.Request;
+import com.ibm.watson.developer_cloud.service.ResponseConverter;
+import com.ibm.watson.developer_cloud.service.ServiceCallback;
 import com.ibm.watson.developer_cloud.service.WatsonService;
 import com.ibm.watson.developer_cloud.util.ResponseUtil;
 
@@ -41,6 +45,14 @@ public class MachineTranslation extends WatsonService {
 	/** The url. */
 	private static String URL = "https://gateway.watsonplatform.net/machine-translation-beta/api";
 	
+	/** The translation converter, returns the translated text. */
+	private final ResponseConverter<String> translationConverter = new MaterializedResponseConverter<String>() {
+		@Override
+		public String convert(HttpResponse response) throws IOException {
+			return ResponseUtil.getString(response);
+		}
+	};
+
 	/** The supported sids. */
 	private static List<String> supportedSids = new ArrayList<String>();
 
@@ -88,21 +100,52 @@ public class MachineTranslation extends WatsonService {
 	 * @return the translated result
 	 */
 	public String translate(final String text, final Language from, final Language to) {
+		return execute(buildTranslateRequest(text, from, to),
+				translationConverter);
+	}
+
+	/**
+	 * Translate text from one language to another without blocking the
+	 * calling thread.
+	 * 
+	 * @param text
+	 *            the text to translate
+	 * @param from
+	 *            the origin language
+	 * @param to
+	 *            the target language
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future translated result
+	 * @see #translate(String, Language, Language)
+	 */
+	public Future<String> translateAsync(final String text,
+			final Language from, final Language to,
+			final ServiceCallback<String> callback) {
+		return executeAsync(buildTranslateRequest(text, from, to),
+				translationConverter, callback);
+	}
+
+	/**
+	 * Builds the translate request.
+	 * 
+	 * @param text
+	 *            the text to translate
+	 * @param from
+	 *            the origin language
+	 * @param to
+	 *            the target language
+	 * @return the translate request
+	 */
+	private HttpRequestBase buildTranslateRequest(final String text,
+			final Language from, final Language to) {
 		String sid = createSid(from, to);
 
 		if (!supportedSids.contains(sid))
 			throw new IllegalArgumentException(String.format(
 					"Translation from: %s to: %s is not supported.", from, to));
 
-		try {
-			HttpRequestBase request = Request.Post("/v1/smt/0")
-					.withForm("sid", sid, "rt", "text", "txt", text).build();
-
-			HttpResponse response = execute(request);
-
-			return ResponseUtil.getString(response);
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		return Request.Post("/v1/smt/0")
+				.withForm("sid", sid, "rt", "text", "txt", text).build();
 	}
 }
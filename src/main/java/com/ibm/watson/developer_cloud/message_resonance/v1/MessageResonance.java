@@ -18,6 +18,8 @@ package com.ibm.watson.developer_cloud.message_resonance.v1;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
@@ -26,6 +28,7 @@ import com.ibm.watson.developer_cloud.message_resonance.v1.model.Message;
 import com.ibm.watson.developer_cloud.message_resonance.v1.model.MessageResonanceDataset;
 import com.ibm.watson.developer_cloud.message_resonance.v1.model.Resonance;
 import com.ibm.watson.developer_cloud.service.Request;
+import com.ibm.watson.developer_cloud.service.ServiceCallback;
 import com.ibm.watson.developer_cloud.service.WatsonService;
 import com.ibm.watson.developer_cloud.util.ResponseUtil;
 
@@ -116,6 +119,34 @@ public class MessageResonance extends WatsonService {
 		return formatResponseMessage(text, resonances);
 	}
 
+	/**
+	 * Returns the resonance for the given text without blocking the calling
+	 * thread. The words are scored one after the other on the same worker.
+	 * 
+	 * @param text
+	 *            the text
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * 
+	 * @return the future message
+	 * @see #getResonance(String)
+	 */
+	public Future<Message> getResonanceAsync(final String text,
+			final ServiceCallback<Message> callback) {
+		if (dataset == null)
+			throw new IllegalArgumentException("dataset can not be null");
+
+		if (text == null)
+			throw new IllegalArgumentException("text can not be null");
+
+		return executeAsync(new Callable<Message>() {
+			@Override
+			public Message call() {
+				return getResonance(text);
+			}
+		}, callback);
+	}
+
 	/**
 	 * Gets the resonance for a given word and dataset.
 	 * 
@@ -130,8 +161,8 @@ public class MessageResonance extends WatsonService {
 
 		try {
 			HttpResponse response = execute(request);
-			String resonanceJson = ResponseUtil.getString(response);
-			return getGson().fromJson(resonanceJson, Resonance.class);
+			return ResponseUtil.getObject(response, getGson(),
+					Resonance.class);
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
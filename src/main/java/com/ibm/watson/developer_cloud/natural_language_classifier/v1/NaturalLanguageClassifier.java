@@ -18,18 +18,23 @@ package com.ibm.watson.developer_cloud.natural_language_classifier.v1;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.List;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
 import com.ibm.watson.developer_cloud.natural_language_classifier.v1.model.Classification;
 import com.ibm.watson.developer_cloud.natural_language_classifier.v1.model.Classifier;
 import com.ibm.watson.developer_cloud.natural_language_classifier.v1.model.TrainingData;
+import com.ibm.watson.developer_cloud.service.JsonResponseConverter;
+import com.ibm.watson.developer_cloud.service.MaterializedResponseConverter;
 import com.ibm.watson.developer_cloud.service.Request;
+import com.ibm.watson.developer_cloud.service.ResponseConverter;
+import com.ibm.watson.developer_cloud.service.ServiceCallback;
+import com.ibm.watson.developer_cloud.service.UrlTemplate;
 import com.ibm.watson.developer_cloud.service.WatsonService;
 import com.ibm.watson.developer_cloud.util.ResponseUtil;
 
@@ -55,10 +60,45 @@ public class NaturalLanguageClassifier extends WatsonService {
 	private static final Logger log = Logger
 			.getLogger(NaturalLanguageClassifier.class.getName());
 
+	/** The classifier URL template. */
+	private static final UrlTemplate CLASSIFIER = UrlTemplate
+			.compile("/v1/classifiers/%s");
+
+	/** The classify URL template. */
+	private static final UrlTemplate CLASSIFY = UrlTemplate
+			.compile("/v1/classifiers/%s/classify");
+
+	/** The classification converter. */
+	private final ResponseConverter<Classification> classificationConverter = new JsonResponseConverter<Classification>(
+			getGson(), Classification.class);
+
+	/** The classifier converter. */
+	private final ResponseConverter<Classifier> classifierConverter = new JsonResponseConverter<Classifier>(
+			getGson(), Classifier.class);
+
 	/** The list type. */
 	private Type listType = new TypeToken<List<Classifier>>() {
 	}.getType();
 
+	/** The classifiers converter. */
+	private final ResponseConverter<List<Classifier>> classifiersConverter = new MaterializedResponseConverter<List<Classifier>>() {
+		@Override
+		public List<Classifier> convert(HttpResponse response)
+				throws IOException {
+			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
+			return getGson().fromJson(jsonObject.get("classifiers"), listType);
+		}
+	};
+
+	/** The empty converter, consumes the response body. */
+	private final ResponseConverter<Void> emptyConverter = new MaterializedResponseConverter<Void>() {
+		@Override
+		public Void convert(HttpResponse response) throws IOException {
+			ResponseUtil.consume(response);
+			return null;
+		}
+	};
+
 	/**
 	 * Instantiates a new Natural Language Classifier service.
 	 */
@@ -80,6 +120,44 @@ public class NaturalLanguageClassifier extends WatsonService {
 	 * @see Classifier
 	 */
 	public Classifier createClassifier(String language, List<TrainingData> trainingData) {
+		return execute(buildCreateClassifierRequest(language, trainingData),
+				classifierConverter);
+	}
+
+	/**
+	 * Sends data to create and train a classifier without blocking the calling
+	 * thread.
+	 * 
+	 * @param language
+	 *            IETF primary language for the classifier
+	 * @param trainingData
+	 *            The set of questions and their "keys" used to adapt a system
+	 *            to a domain (the ground truth)
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future classifier
+	 * @see #createClassifier(String, List)
+	 */
+	public Future<Classifier> createClassifierAsync(String language,
+			List<TrainingData> trainingData,
+			ServiceCallback<Classifier> callback) {
+		return executeAsync(
+				buildCreateClassifierRequest(language, trainingData),
+				classifierConverter, callback);
+	}
+
+	/**
+	 * Builds the create classifier request.
+	 * 
+	 * @param language
+	 *            IETF primary language for the classifier
+	 * @param trainingData
+	 *            The set of questions and their "keys" used to adapt a system
+	 *            to a domain (the ground truth)
+	 * @return the create classifier request
+	 */
+	private HttpRequestBase buildCreateClassifierRequest(String language,
+			List<TrainingData> trainingData) {
 		if (trainingData == null)
 			throw new IllegalArgumentException("data can not be null");
 
@@ -95,20 +173,9 @@ public class NaturalLanguageClassifier extends WatsonService {
 
 		contentJson.addProperty("training_data", getGson().toJson(trainingData));
 
-		log.info("createClassifier with: " + contentJson.getAsString());
-		HttpRequestBase request = Request
-				.Post("/v1/classifiers")
-				.withContent(contentJson).build();
-
-		try {
-			HttpResponse response = execute(request);
-			String classifierAsJson = ResponseUtil.getString(response);
-			Classifier classifier = getGson().fromJson(classifierAsJson,
-					Classifier.class);
-			return classifier;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		log.info("createClassifier with: " + contentJson);
+		return Request.Post("/v1/classifiers").withContent(contentJson)
+				.build();
 	}
 
 	/**
@@ -119,6 +186,35 @@ public class NaturalLanguageClassifier extends WatsonService {
 	 * @return the classification of a phrase with a given classifier
 	 */
 	public Classification classify(String classifierId, String text) {
+		return execute(buildClassifyRequest(classifierId, text),
+				classificationConverter);
+	}
+
+	/**
+	 * Returns classification information for a classifier on a phrase without
+	 * blocking the calling thread.
+	 *
+	 * @param classifierId            The classifier id
+	 * @param text            The submitted phrase to classify
+	 * @param callback            notified when the call completes, can be null
+	 * @return the future classification of a phrase with a given classifier
+	 * @see #classify(String, String)
+	 */
+	public Future<Classification> classifyAsync(String classifierId,
+			String text, ServiceCallback<Classification> callback) {
+		return executeAsync(buildClassifyRequest(classifierId, text),
+				classificationConverter, callback);
+	}
+
+	/**
+	 * Builds the classify request.
+	 *
+	 * @param classifierId            The classifier id
+	 * @param text            The submitted phrase to classify
+	 * @return the classify request
+	 */
+	private HttpRequestBase buildClassifyRequest(String classifierId,
+			String text) {
 		if (classifierId == null || classifierId.isEmpty())
 			throw new IllegalArgumentException(
 					"classifierId can not be null or empty");
@@ -129,22 +225,8 @@ public class NaturalLanguageClassifier extends WatsonService {
 		JsonObject contentJson = new JsonObject();
 		contentJson.addProperty("text", text);
 
-		String path = String
-				.format("/v1/classifiers/%s/classify", classifierId);
-
-		HttpRequestBase request = Request
-				.Post(path)
-				.withContent(contentJson).build();
-
-		try {
-			HttpResponse response = execute(request);
-			String classifierAsJson = ResponseUtil.getString(response);
-			Classification classification = getGson().fromJson(
-					classifierAsJson, Classification.class);
-			return classification;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		return Request.Post(CLASSIFY, classifierId).withContent(contentJson)
+				.withIdempotent(true).withCacheable(true).build();
 	}
 
 	/**
@@ -155,16 +237,21 @@ public class NaturalLanguageClassifier extends WatsonService {
 	 */
 	public List<Classifier> getClassifiers() {
 		HttpRequestBase request = Request.Get("/v1/classifiers").build();
+		return execute(request, classifiersConverter);
+	}
 
-		try {
-			HttpResponse response = execute(request);
-			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
-			List<Classifier> classifiers = new Gson().fromJson(
-					jsonObject.get("classifiers"), listType);
-			return classifiers;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+	/**
+	 * Retrieves the list of classifiers for the user without blocking the
+	 * calling thread.
+	 *
+	 * @param callback notified when the call completes, can be null
+	 * @return the future classifier list
+	 * @see #getClassifiers()
+	 */
+	public Future<List<Classifier>> getClassifiersAsync(
+			ServiceCallback<List<Classifier>> callback) {
+		HttpRequestBase request = Request.Get("/v1/classifiers").build();
+		return executeAsync(request, classifiersConverter, callback);
 	}
 
 	/**
@@ -174,12 +261,35 @@ public class NaturalLanguageClassifier extends WatsonService {
 	 * @see Classifier
 	 */
 	public void deleteClassifier(String classifierId) {
+		execute(buildDeleteClassifierRequest(classifierId), emptyConverter);
+	}
+
+	/**
+	 * Deletes a classifier without blocking the calling thread.
+	 *
+	 * @param classifierId the classifier ID
+	 * @param callback notified when the call completes, can be null
+	 * @return the future that completes when the classifier is deleted
+	 * @see #deleteClassifier(String)
+	 */
+	public Future<Void> deleteClassifierAsync(String classifierId,
+			ServiceCallback<Void> callback) {
+		return executeAsync(buildDeleteClassifierRequest(classifierId),
+				emptyConverter, callback);
+	}
+
+	/**
+	 * Builds the delete classifier request.
+	 *
+	 * @param classifierId the classifier ID
+	 * @return the delete classifier request
+	 */
+	private HttpRequestBase buildDeleteClassifierRequest(String classifierId) {
 		if (classifierId == null || classifierId.isEmpty())
 			throw new IllegalArgumentException(
 					"classifierId can not be null or empty");
 
-		HttpRequestBase request = Request.Delete("/v1/classifiers/"+ classifierId).build();
-		execute(request);
+		return Request.Delete(CLASSIFIER, classifierId).build();
 	}
 
 	/**
@@ -190,20 +300,36 @@ public class NaturalLanguageClassifier extends WatsonService {
 	 * @see Classifier
 	 */
 	public Classifier getClassifier(String classifierId) {
+		return execute(buildGetClassifierRequest(classifierId),
+				classifierConverter);
+	}
+
+	/**
+	 * Retrieves a classifier without blocking the calling thread.
+	 *
+	 * @param classifierId the classifier ID
+	 * @param callback notified when the call completes, can be null
+	 * @return the future classifier
+	 * @see #getClassifier(String)
+	 */
+	public Future<Classifier> getClassifierAsync(String classifierId,
+			ServiceCallback<Classifier> callback) {
+		return executeAsync(buildGetClassifierRequest(classifierId),
+				classifierConverter, callback);
+	}
+
+	/**
+	 * Builds the get classifier request.
+	 *
+	 * @param classifierId the classifier ID
+	 * @return the get classifier request
+	 */
+	private HttpRequestBase buildGetClassifierRequest(String classifierId) {
 		if (classifierId == null || classifierId.isEmpty())
 			throw new IllegalArgumentException(
 					"classifierId can not be null or empty");
 
-		HttpRequestBase request = Request.Get("/v1/classifiers/"+classifierId).build();
-
-		try {
-			HttpResponse response = execute(request);
-			String classifierJson = ResponseUtil.getString(response);
-			Classifier classifier = new Gson().fromJson(classifierJson,Classifier.class);
-			return classifier;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		return Request.Get(CLASSIFIER, classifierId).build();
 	}
 
 	/*
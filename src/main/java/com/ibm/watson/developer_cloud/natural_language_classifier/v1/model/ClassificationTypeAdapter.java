@@ -0,0 +1,194 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.natural_language_classifier.v1.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Reads and writes {@link Classification} without reflection. It reads and
+ * writes the same JSON as the reflective adapter of Gson.
+ */
+public class ClassificationTypeAdapter extends TypeAdapter<Classification> {
+
+	/** The Constant CLASS_NAME. */
+	private static final String CLASS_NAME = "class_name";
+
+	/** The Constant CLASSES. */
+	private static final String CLASSES = "classes";
+
+	/** The Constant CLASSIFIER_ID. */
+	private static final String CLASSIFIER_ID = "classifier_id";
+
+	/** The Constant CONFIDENCE. */
+	private static final String CONFIDENCE = "confidence";
+
+	/** The Constant TEXT. */
+	private static final String TEXT = "text";
+
+	/** The Constant TOP_CLASS. */
+	private static final String TOP_CLASS = "top_class";
+
+	/** The Constant URL. */
+	private static final String URL = "url";
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.google.gson.TypeAdapter#read(com.google.gson.stream.JsonReader)
+	 */
+	@Override
+	public Classification read(JsonReader reader) throws IOException {
+		if (reader.peek() == JsonToken.NULL) {
+			reader.nextNull();
+			return null;
+		}
+
+		final Classification classification = new Classification();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			final String name = reader.nextName();
+			if (CLASSIFIER_ID.equals(name)) {
+				classification.setId(readString(reader));
+			} else if (URL.equals(name)) {
+				classification.setUrl(readString(reader));
+			} else if (TEXT.equals(name)) {
+				classification.setText(readString(reader));
+			} else if (TOP_CLASS.equals(name)) {
+				classification.setTopClass(readString(reader));
+			} else if (reader.peek() == JsonToken.NULL) {
+				reader.nextNull();
+				if (CLASSES.equals(name))
+					classification.setClasses(null);
+			} else if (CLASSES.equals(name)) {
+				final List<ClassifiedClass> classes = new ArrayList<ClassifiedClass>();
+				reader.beginArray();
+				while (reader.hasNext()) {
+					classes.add(readClassifiedClass(reader));
+				}
+				reader.endArray();
+				classification.setClasses(classes);
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return classification;
+	}
+
+	/**
+	 * Reads a classified class.
+	 * 
+	 * @param reader
+	 *            the JSON reader
+	 * @return the classified class
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private ClassifiedClass readClassifiedClass(JsonReader reader)
+			throws IOException {
+		if (reader.peek() == JsonToken.NULL) {
+			reader.nextNull();
+			return null;
+		}
+
+		final ClassifiedClass classifiedClass = new ClassifiedClass();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			final String name = reader.nextName();
+			if (CLASS_NAME.equals(name)) {
+				classifiedClass.setName(readString(reader));
+			} else if (reader.peek() == JsonToken.NULL) {
+				reader.nextNull();
+			} else if (CONFIDENCE.equals(name)) {
+				classifiedClass.setConfidence(reader.nextDouble());
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return classifiedClass;
+	}
+
+	/**
+	 * Reads a string, a boolean or a number as a string.
+	 * 
+	 * @param reader
+	 *            the JSON reader
+	 * @return the string or null
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static String readString(JsonReader reader) throws IOException {
+		final JsonToken token = reader.peek();
+		if (token == JsonToken.NULL) {
+			reader.nextNull();
+			return null;
+		}
+		if (token == JsonToken.BOOLEAN)
+			return Boolean.toString(reader.nextBoolean());
+		return reader.nextString();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.google.gson.TypeAdapter#write(com.google.gson.stream.JsonWriter,
+	 * java.lang.Object)
+	 */
+	@Override
+	public void write(JsonWriter writer, Classification classification)
+			throws IOException {
+		if (classification == null) {
+			writer.nullValue();
+			return;
+		}
+
+		writer.beginObject();
+		if (classification.getId() != null)
+			writer.name(CLASSIFIER_ID).value(classification.getId());
+		if (classification.getUrl() != null)
+			writer.name(URL).value(classification.getUrl());
+		if (classification.getText() != null)
+			writer.name(TEXT).value(classification.getText());
+		if (classification.getTopClass() != null)
+			writer.name(TOP_CLASS).value(classification.getTopClass());
+		if (classification.getClasses() != null) {
+			writer.name(CLASSES).beginArray();
+			for (final ClassifiedClass classifiedClass : classification
+					.getClasses()) {
+				if (classifiedClass == null) {
+					writer.nullValue();
+				} else {
+					writer.beginObject();
+					if (classifiedClass.getName() != null)
+						writer.name(CLASS_NAME).value(classifiedClass.getName());
+					writer.name(CONFIDENCE).value(
+							classifiedClass.getConfidence());
+					writer.endObject();
+				}
+			}
+			writer.endArray();
+		}
+		writer.endObject();
+	}
+}
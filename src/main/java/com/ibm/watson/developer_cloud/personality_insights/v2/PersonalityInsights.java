@@ -15,18 +15,19 @@
  */
 package com.ibm.watson.developer_cloud.personality_insights.v2;
 
-import java.io.IOException;
+import java.util.concurrent.Future;
 
-import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.protocol.HTTP;
 
 import com.ibm.watson.developer_cloud.personality_insights.v2.model.Content;
 import com.ibm.watson.developer_cloud.personality_insights.v2.model.Profile;
+import com.ibm.watson.developer_cloud.service.JsonResponseConverter;
 import com.ibm.watson.developer_cloud.service.Request;
+import com.ibm.watson.developer_cloud.service.ResponseConverter;
+import com.ibm.watson.developer_cloud.service.ServiceCallback;
 import com.ibm.watson.developer_cloud.service.WatsonService;
 import com.ibm.watson.developer_cloud.util.MediaType;
-import com.ibm.watson.developer_cloud.util.ResponseUtil;
 
 /**
  * The Watson Personality Insights service uses linguistic analytics to extract
@@ -44,6 +45,10 @@ public class PersonalityInsights extends WatsonService {
 	/** The url. */
 	private static String URL = "https://gateway.watsonplatform.net/personality-insights/api";
 
+	/** The profile converter. */
+	private final ResponseConverter<Profile> profileConverter = new JsonResponseConverter<Profile>(
+			getGson(), Profile.class);
+
 	/**
 	 * Instantiates a new Personality Insights service.
 	 */
@@ -64,6 +69,34 @@ public class PersonalityInsights extends WatsonService {
 	 * @see Content
 	 */
 	public Profile getProfile(Content content) {
+		return execute(buildProfileRequest(content), profileConverter);
+	}
+
+	/**
+	 * Accepts a {@link Content} object and analyzes the text without blocking
+	 * the calling thread.
+	 * 
+	 * @param content
+	 *            the content
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future profile
+	 * @see #getProfile(Content)
+	 */
+	public Future<Profile> getProfileAsync(Content content,
+			ServiceCallback<Profile> callback) {
+		return executeAsync(buildProfileRequest(content), profileConverter,
+				callback);
+	}
+
+	/**
+	 * Builds the profile request.
+	 * 
+	 * @param content
+	 *            the content
+	 * @return the profile request
+	 */
+	private HttpRequestBase buildProfileRequest(Content content) {
 		if (content == null)
 			throw new IllegalArgumentException("content can not be null");
 
@@ -71,17 +104,9 @@ public class PersonalityInsights extends WatsonService {
 			throw new IllegalArgumentException("content needs to have contentItems.");
 
 		String contentJson = getGson().toJson(content);
-		HttpRequestBase request = Request.Post("/v2/profile")
-				.withContent(contentJson, MediaType.APPLICATION_JSON).build();
-
-		try {
-			HttpResponse response = execute(request);
-			String profileJson = ResponseUtil.getString(response);
-			Profile profile = getGson().fromJson(profileJson, Profile.class);
-			return profile;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		return Request.Post("/v2/profile")
+				.withContent(contentJson, MediaType.APPLICATION_JSON)
+				.withIdempotent(true).build();
 	}
 
 	/**
@@ -100,16 +125,10 @@ public class PersonalityInsights extends WatsonService {
 			throw new IllegalArgumentException("text can not be null");
 
 		HttpRequestBase request = Request.Post("/v2/profile")
-				.withContent(text, HTTP.PLAIN_TEXT_TYPE).build();
-
-		HttpResponse response = execute(request);
-		try {
-			String profileJson = ResponseUtil.getString(response);
-			Profile profile = getGson().fromJson(profileJson, Profile.class);
-			return profile;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+				.withContent(text, HTTP.PLAIN_TEXT_TYPE).withIdempotent(true)
+				.build();
+
+		return execute(request, profileConverter);
 	}
 
 	/*
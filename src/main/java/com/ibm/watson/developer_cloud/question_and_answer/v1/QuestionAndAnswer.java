@@ -16,6 +16,7 @@
 package com.ibm.watson.developer_cloud.question_and_answer.v1;
 
 import java.io.IOException;
+import java.util.concurrent.Future;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
@@ -25,7 +26,11 @@ import com.ibm.watson.developer_cloud.question_and_answer.v1.model.Question;
 import com.ibm.watson.developer_cloud.question_and_answer.v1.model.QuestionAndAnswerDataset;
 import com.ibm.watson.developer_cloud.question_and_answer.v1.model.WatsonAnswer;
 import com.ibm.watson.developer_cloud.question_and_answer.v1.model.WatsonQuestion;
+import com.ibm.watson.developer_cloud.service.MaterializedResponseConverter;
 import com.ibm.watson.developer_cloud.service.Request;
+import com.ibm.watson.developer_cloud.service.ResponseConverter;
+import com.ibm.watson.developer_cloud.service.ServiceCallback;
+import com.ibm.watson.developer_cloud.service.UrlTemplate;
 import com.ibm.watson.developer_cloud.service.WatsonService;
 import com.ibm.watson.developer_cloud.util.MediaType;
 import com.ibm.watson.developer_cloud.util.ResponseUtil;
@@ -43,9 +48,23 @@ import com.ibm.watson.developer_cloud.util.ResponseUtil;
  */
 public class QuestionAndAnswer extends WatsonService {
 
+	/** The question URL template. */
+	private static final UrlTemplate QUESTION = UrlTemplate
+			.compile("/v1/question/%s");
+
 	/** The url. */
 	private static String URL = "https://gateway.watsonplatform.net/question-and-answer-beta/api";
 
+	/** The answer converter, returns the results from the first pipeline. */
+	private final ResponseConverter<WatsonAnswer> answerConverter = new MaterializedResponseConverter<WatsonAnswer>() {
+		@Override
+		public WatsonAnswer convert(HttpResponse response) throws IOException {
+			Pipeline[] pipelines = ResponseUtil.getObject(response,
+					getGson(), Pipeline[].class);
+			return pipelines[0].getWatsonAnswer();
+		}
+	};
+
 	/** The dataset. */
 	private QuestionAndAnswerDataset dataset;
 
@@ -80,27 +99,44 @@ public class QuestionAndAnswer extends WatsonService {
 	 * @return the JSON array
 	 */
 	public WatsonAnswer ask(Question question) {
+		return execute(buildAskRequest(question), answerConverter);
+	}
+
+	/**
+	 * Interprets and answers user questions without blocking the calling
+	 * thread.
+	 * 
+	 * @param question
+	 *            the question
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future answers
+	 * @see #ask(Question)
+	 */
+	public Future<WatsonAnswer> askAsync(Question question,
+			ServiceCallback<WatsonAnswer> callback) {
+		return executeAsync(buildAskRequest(question), answerConverter,
+				callback);
+	}
+
+	/**
+	 * Builds the question request.
+	 * 
+	 * @param question
+	 *            the question
+	 * @return the question request
+	 */
+	private HttpRequestBase buildAskRequest(Question question) {
 		if (dataset == null)
 			throw new IllegalArgumentException("dataset can not be null");
 
 		if (question == null)
 			throw new IllegalArgumentException("question can not be null");
 
-		HttpRequestBase request = Request.Post("/v1/question/%s", dataset.getId())
+		return Request.Post(QUESTION, dataset.getId())
 				.withHeader("X-synctimeout", "30")
-				.withContent(getGson().toJson(new WatsonQuestion(question)), MediaType.APPLICATION_JSON).build();
-
-		try {
-			HttpResponse response = execute(request);
-			String answersString = ResponseUtil.getString(response);
-			Pipeline[] pipelines = getGson().fromJson(answersString,
-					Pipeline[].class);
-			// Return the results from the first pipeline
-			return pipelines[0].getWatsonAnswer();
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
-
+				.withContent(getGson().toJson(new WatsonQuestion(question)), MediaType.APPLICATION_JSON)
+				.withIdempotent(true).build();
 	}
 
 	/**
@@ -16,12 +16,16 @@
 package com.ibm.watson.developer_cloud.relationship_extraction.v1;
 
 import java.io.IOException;
+import java.util.concurrent.Future;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
 
 import com.ibm.watson.developer_cloud.relationship_extraction.v1.model.RelationshipExtractionDataset;
+import com.ibm.watson.developer_cloud.service.MaterializedResponseConverter;
 import com.ibm.watson.developer_cloud.service.Request;
+import com.ibm.watson.developer_cloud.service.ResponseConverter;
+import com.ibm.watson.developer_cloud.service.ServiceCallback;
 import com.ibm.watson.developer_cloud.service.WatsonService;
 import com.ibm.watson.developer_cloud.util.ResponseUtil;
 
@@ -40,6 +44,14 @@ public class RelationshipExtraction extends WatsonService {
 	/** The url. */
 	private static String URL = "https://gateway.watsonplatform.net/relationship-extraction-beta/api";
 	
+	/** The relations converter, returns the XML response. */
+	private final ResponseConverter<String> relationsConverter = new MaterializedResponseConverter<String>() {
+		@Override
+		public String convert(HttpResponse response) throws IOException {
+			return ResponseUtil.getString(response);
+		}
+	};
+
 	/** The dataset. */
 	private RelationshipExtractionDataset dataset;
 
@@ -60,22 +72,40 @@ public class RelationshipExtraction extends WatsonService {
 	 * @return the string
 	 */
 	public String extract(String text) {
+		return execute(buildExtractRequest(text), relationsConverter);
+	}
+
+	/**
+	 * Extract without blocking the calling thread.
+	 * 
+	 * @param text
+	 *            the text
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future relations
+	 * @see #extract(String)
+	 */
+	public Future<String> extractAsync(String text,
+			ServiceCallback<String> callback) {
+		return executeAsync(buildExtractRequest(text), relationsConverter,
+				callback);
+	}
+
+	/**
+	 * Builds the extract request.
+	 * 
+	 * @param text
+	 *            the text
+	 * @return the extract request
+	 */
+	private HttpRequestBase buildExtractRequest(String text) {
 		if (dataset == null)
 			throw new IllegalArgumentException("dataset can not be null");
 		if (text == null)
 			throw new IllegalArgumentException("text can not be null");
 
-		HttpRequestBase request = Request.Post("/v1/sire/0")
+		return Request.Post("/v1/sire/0")
 				.withForm("sid", dataset.getId(), "rt", "xml", "txt", text).build();
-		String relations = null;
-		try {
-			HttpResponse response = execute(request);
-			relations = ResponseUtil.getString(response);
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
-
-		return relations;
 	}
 
 	/**
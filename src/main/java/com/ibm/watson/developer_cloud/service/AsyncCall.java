@@ -0,0 +1,100 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * Future of an asynchronous service call. Cancelling it aborts the underlying
+ * HTTP request, which releases the connection and unblocks the thread that is
+ * waiting for the response.
+ *
+ * @param <T>
+ *            the type of the service response
+ */
+class AsyncCall<T> extends FutureTask<T> {
+
+	/** The Constant log. */
+	private static final Logger log = Logger.getLogger(AsyncCall.class
+			.getName());
+
+	/** The request, null if the call is not a single request. */
+	private final HttpRequestBase request;
+
+	/** The callback. */
+	private final ServiceCallback<T> callback;
+
+	/**
+	 * Instantiates a new asynchronous call.
+	 *
+	 * @param request
+	 *            the HTTP request executed by <code>call</code>, null if the
+	 *            call executes several requests
+	 * @param call
+	 *            executes the request and converts the response
+	 * @param callback
+	 *            the callback, can be null
+	 */
+	AsyncCall(HttpRequestBase request, Callable<T> call,
+			ServiceCallback<T> callback) {
+		super(call);
+		this.request = request;
+		this.callback = callback;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.concurrent.FutureTask#cancel(boolean)
+	 */
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		final boolean cancelled = super.cancel(mayInterruptIfRunning);
+		if (cancelled && request != null) {
+			request.abort();
+		}
+		return cancelled;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.concurrent.FutureTask#done()
+	 */
+	@Override
+	protected void done() {
+		if (callback == null || isCancelled())
+			return;
+
+		try {
+			callback.onResponse(get());
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			callback.onFailure(cause instanceof Exception ? (Exception) cause
+					: e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (RuntimeException e) {
+			log.log(Level.SEVERE, "Callback failed", e);
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * The call listener and request executed by the current thread. HttpClient
+ * runs a request on the calling thread, so the connection manager, socket
+ * factories and request executor find the call they work for here.
+ */
+final class CallEvents {
+
+	/** The call of the current thread. */
+	private static final ThreadLocal<CallEvents> CURRENT = new ThreadLocal<CallEvents>();
+
+	/**
+	 * Gets the call of the current thread.
+	 * 
+	 * @return the call, null if no listener is registered
+	 */
+	static CallEvents current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Binds a call to the current thread.
+	 * 
+	 * @param listener
+	 *            the listener
+	 * @param request
+	 *            the request
+	 */
+	static void begin(CallListener listener, HttpRequestBase request) {
+		CURRENT.set(new CallEvents(listener, request));
+	}
+
+	/**
+	 * Unbinds the call from the current thread.
+	 */
+	static void end() {
+		CURRENT.remove();
+	}
+
+	/** The listener. */
+	final CallListener listener;
+
+	/** The request. */
+	final HttpRequestBase request;
+
+	/**
+	 * Whether the TCP connection of a secure connection is being opened, so its
+	 * end is still to be reported.
+	 */
+	boolean connecting;
+
+	/**
+	 * Instantiates new call events.
+	 * 
+	 * @param listener
+	 *            the listener
+	 * @param request
+	 *            the request
+	 */
+	private CallEvents(CallListener listener, HttpRequestBase request) {
+		this.listener = listener;
+		this.request = request;
+	}
+}
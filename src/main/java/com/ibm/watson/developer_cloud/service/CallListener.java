@@ -0,0 +1,199 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * Listener notified of the phases of every request executed by a
+ * {@link WatsonService}, to find out where the time of a slow call goes.
+ * Every callback receives a {@link System#nanoTime()} timestamp taken when
+ * the phase ended. The methods do nothing by default, override the ones you
+ * need. <br>
+ * Example: <pre>
+ * {@code
+ *  service.setCallListener(new CallListener() {
+ *    public void responseHeadersReceived(HttpRequestBase request, long nanoTime) {
+ *      ...
+ *    }
+ *  });
+ * }</pre>
+ * Callbacks run on the thread that executes the request, so they have to be
+ * thread safe and fast. The connection phases are only reported when a new
+ * connection is opened, pooled connections skip them. A request that is
+ * retried reports its phases once per attempt.
+ *
+ * @see WatsonService#setCallListener(CallListener)
+ */
+public abstract class CallListener {
+
+	/**
+	 * Gets the endpoint of a request, the HTTP method and the URL template,
+	 * for example <code>POST /v1/classifiers/%s/classify</code>, as reported
+	 * to the {@link MetricsCollector}.
+	 * 
+	 * @param request
+	 *            the request
+	 * @return the endpoint
+	 */
+	protected static String getEndpoint(HttpRequestBase request) {
+		return WatsonService.getMetricsEndpoint(request);
+	}
+
+	/**
+	 * Called when the built request is handed to the service to be executed.
+	 * 
+	 * @param request
+	 *            the request
+	 * @param nanoTime
+	 *            the timestamp
+	 */
+	public void callStart(HttpRequestBase request, long nanoTime) {
+	}
+
+	/**
+	 * Called when a connection was leased from the pool.
+	 * 
+	 * @param request
+	 *            the request
+	 * @param nanoTime
+	 *            the timestamp
+	 * @param waitTime
+	 *            nanoseconds spent waiting for the connection
+	 */
+	public void connectionAcquired(HttpRequestBase request, long nanoTime,
+			long waitTime) {
+	}
+
+	/**
+	 * Called before a new connection is opened.
+	 * 
+	 * @param request
+	 *            the request
+	 * @param nanoTime
+	 *            the timestamp
+	 */
+	public void connectStart(HttpRequestBase request, long nanoTime) {
+	}
+
+	/**
+	 * Called when the TCP connection was established.
+	 * 
+	 * @param request
+	 *            the request
+	 * @param nanoTime
+	 *            the timestamp
+	 */
+	public void connectEnd(HttpRequestBase request, long nanoTime) {
+	}
+
+	/**
+	 * Called before the TLS handshake of a new HTTPS connection.
+	 * 
+	 * @param request
+	 *            the request
+	 * @param nanoTime
+	 *            the timestamp
+	 */
+	public void secureConnectStart(HttpRequestBase request, long nanoTime) {
+	}
+
+	/**
+	 * Called when the TLS handshake finished.
+	 * 
+	 * @param request
+	 *            the request
+	 * @param nanoTime
+	 *            the timestamp
+	 */
+	public void secureConnectEnd(HttpRequestBase request, long nanoTime) {
+	}
+
+	/**
+	 * Called when the request line, headers and body were written.
+	 * 
+	 * @param request
+	 *            the request
+	 * @param nanoTime
+	 *            the timestamp
+	 */
+	public void requestSent(HttpRequestBase request, long nanoTime) {
+	}
+
+	/**
+	 * Called when the status line and headers of the response were read,
+	 * shortly after the first byte of the response arrived.
+	 * 
+	 * @param request
+	 *            the request
+	 * @param nanoTime
+	 *            the timestamp
+	 */
+	public void responseHeadersReceived(HttpRequestBase request, long nanoTime) {
+	}
+
+	/**
+	 * Called when the response body was read, closed or discarded.
+	 * 
+	 * @param request
+	 *            the request
+	 * @param nanoTime
+	 *            the timestamp
+	 * @param bytesReceived
+	 *            the bytes of the body read from the connection
+	 */
+	public void responseBodyConsumed(HttpRequestBase request, long nanoTime,
+			long bytesReceived) {
+	}
+
+	/**
+	 * Called before the response is parsed into the model object returned by
+	 * the service method.
+	 * 
+	 * @param request
+	 *            the request
+	 * @param nanoTime
+	 *            the timestamp
+	 */
+	public void responseConversionStart(HttpRequestBase request, long nanoTime) {
+	}
+
+	/**
+	 * Called when the response was parsed into the model object returned by
+	 * the service method.
+	 * 
+	 * @param request
+	 *            the request
+	 * @param nanoTime
+	 *            the timestamp
+	 */
+	public void responseConverted(HttpRequestBase request, long nanoTime) {
+	}
+
+	/**
+	 * Called when the call failed with an exception.
+	 * 
+	 * @param request
+	 *            the request
+	 * @param nanoTime
+	 *            the timestamp
+	 * @param e
+	 *            the exception thrown to the caller
+	 */
+	public void callFailed(HttpRequestBase request, long nanoTime,
+			RuntimeException e) {
+	}
+}
@@ -0,0 +1,432 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Circuit breaker that stops sending requests to a service end point that is
+ * failing or responding too slowly. Each end point has its own circuit:
+ * <ul>
+ * <li><b>CLOSED</b>: requests are sent and their outcome is recorded in a
+ * window of the last calls. When the failure rate or the slow call rate of a
+ * full window reaches its threshold the circuit opens.</li>
+ * <li><b>OPEN</b>: requests fail right away with a
+ * {@link CircuitBreakerOpenException} until the open duration elapses.</li>
+ * <li><b>HALF_OPEN</b>: a few trial requests are sent. The circuit closes if
+ * all of them succeed and opens again as soon as one fails.</li>
+ * </ul>
+ * I/O errors and 5xx responses count as failures.
+ * <br>
+ * Example: <pre>
+ * {@code
+ *  CircuitBreaker breaker = new CircuitBreaker()
+ *     .withFailureRateThreshold(0.5)
+ *     .withSlowCallThreshold(5, TimeUnit.SECONDS, 0.8)
+ *     .withOpenDuration(30, TimeUnit.SECONDS);
+ *  service.setCircuitBreaker(breaker);
+ * }</pre>
+ */
+public class CircuitBreaker {
+
+	/**
+	 * The state of a circuit.
+	 */
+	public enum State {
+
+		/** Requests are sent. */
+		CLOSED,
+
+		/** Requests fail right away. */
+		OPEN,
+
+		/** A few trial requests are sent. */
+		HALF_OPEN
+	}
+
+	/**
+	 * The circuit of a single end point.
+	 */
+	private final class Circuit {
+
+		/** The window size, captured when the circuit is created. */
+		private final int size = windowSize;
+
+		/** The outcome of the last calls, true if it was a failure. */
+		private final boolean[] failures = new boolean[size];
+
+		/** The latency of the last calls, true if it was slow. */
+		private final boolean[] slow = new boolean[size];
+
+		/** The next position in the window. */
+		private int position;
+
+		/** The number of calls in the window. */
+		private int calls;
+
+		/** The state. */
+		private State state = State.CLOSED;
+
+		/** The time the circuit was opened. */
+		private long openedAt;
+
+		/** The trial calls sent while half open. */
+		private int trials;
+
+		/** The successful trial calls. */
+		private int successfulTrials;
+
+		/**
+		 * Checks whether a request can be sent. Trial calls that never
+		 * recorded their outcome are given up after the open duration.
+		 * 
+		 * @param now
+		 *            the current time in nanoseconds
+		 * @return true, if the request can be sent
+		 */
+		boolean allow(long now) {
+			switch (state) {
+			case OPEN:
+				if (now - openedAt < openDuration)
+					return false;
+				moveTo(State.HALF_OPEN);
+				openedAt = now;
+				trials = 1;
+				return true;
+			case HALF_OPEN:
+				if (trials >= halfOpenCalls) {
+					if (now - openedAt < openDuration)
+						return false;
+					openedAt = now;
+					trials = 0;
+					successfulTrials = 0;
+				}
+				trials++;
+				return true;
+			default:
+				return true;
+			}
+		}
+
+		/**
+		 * Records the outcome of a call.
+		 * 
+		 * @param failure
+		 *            true if the call failed
+		 * @param latency
+		 *            the latency in nanoseconds
+		 * @param now
+		 *            the current time in nanoseconds
+		 */
+		void record(boolean failure, long latency, long now) {
+			final boolean isSlow = latency >= slowCallDuration;
+			if (state == State.HALF_OPEN) {
+				if (failure || isSlow) {
+					open(now);
+				} else if (++successfulTrials >= halfOpenCalls) {
+					moveTo(State.CLOSED);
+				}
+				return;
+			}
+			if (state == State.OPEN)
+				return;
+
+			failures[position] = failure;
+			slow[position] = isSlow;
+			position = (position + 1) % size;
+			if (calls < size) {
+				calls++;
+				if (calls < size)
+					return;
+			}
+
+			int failed = 0;
+			int slowCalls = 0;
+			for (int i = 0; i < size; i++) {
+				if (failures[i])
+					failed++;
+				if (slow[i])
+					slowCalls++;
+			}
+			if (failed >= failureRateThreshold * size
+					|| slowCalls >= slowCallRateThreshold * size) {
+				open(now);
+			}
+		}
+
+		/**
+		 * Opens the circuit.
+		 * 
+		 * @param now
+		 *            the current time in nanoseconds
+		 */
+		private void open(long now) {
+			moveTo(State.OPEN);
+			openedAt = now;
+		}
+
+		/**
+		 * Moves to a new state and clears the recorded calls.
+		 * 
+		 * @param newState
+		 *            the new state
+		 */
+		private void moveTo(State newState) {
+			state = newState;
+			calls = 0;
+			position = 0;
+			trials = 0;
+			successfulTrials = 0;
+		}
+	}
+
+	/** The Constant log. */
+	private static final Logger log = Logger.getLogger(CircuitBreaker.class
+			.getName());
+
+	/** The circuits by end point. */
+	private final ConcurrentMap<String, Circuit> circuits = new ConcurrentHashMap<String, Circuit>();
+
+	/** The listeners. */
+	private final List<CircuitBreakerListener> listeners = new CopyOnWriteArrayList<CircuitBreakerListener>();
+
+	/** The number of calls used to compute the rates. */
+	private volatile int windowSize = 20;
+
+	/** The failure rate threshold. */
+	private volatile double failureRateThreshold = 0.5;
+
+	/** The slow call duration in nanoseconds. */
+	private volatile long slowCallDuration = TimeUnit.SECONDS.toNanos(30);
+
+	/** The slow call rate threshold. */
+	private volatile double slowCallRateThreshold = 1.0;
+
+	/** The open duration in nanoseconds. */
+	private volatile long openDuration = TimeUnit.SECONDS.toNanos(30);
+
+	/** The number of trial calls while half open. */
+	private volatile int halfOpenCalls = 3;
+
+	/**
+	 * Sets the number of calls used to compute the failure and slow call
+	 * rates. Circuits that already exist keep the window size they were
+	 * created with, the new size applies to the end points used afterwards.
+	 * 
+	 * @param windowSize
+	 *            the window size
+	 * @return this
+	 */
+	public CircuitBreaker withWindowSize(int windowSize) {
+		if (windowSize < 1)
+			throw new IllegalArgumentException(
+					"windowSize should be greater than 0");
+		this.windowSize = windowSize;
+		return this;
+	}
+
+	/**
+	 * Sets the failure rate that opens the circuit.
+	 * 
+	 * @param threshold
+	 *            a rate between 0 and 1
+	 * @return this
+	 */
+	public CircuitBreaker withFailureRateThreshold(double threshold) {
+		if (threshold <= 0 || threshold > 1)
+			throw new IllegalArgumentException(
+					"threshold should be between 0 and 1");
+		this.failureRateThreshold = threshold;
+		return this;
+	}
+
+	/**
+	 * Sets the latency that makes a call slow and the slow call rate that
+	 * opens the circuit.
+	 * 
+	 * @param duration
+	 *            the latency of a slow call
+	 * @param unit
+	 *            the time unit of the duration
+	 * @param threshold
+	 *            a rate between 0 and 1
+	 * @return this
+	 */
+	public CircuitBreaker withSlowCallThreshold(long duration, TimeUnit unit,
+			double threshold) {
+		if (duration <= 0)
+			throw new IllegalArgumentException(
+					"duration should be greater than 0");
+		if (threshold <= 0 || threshold > 1)
+			throw new IllegalArgumentException(
+					"threshold should be between 0 and 1");
+		this.slowCallDuration = unit.toNanos(duration);
+		this.slowCallRateThreshold = threshold;
+		return this;
+	}
+
+	/**
+	 * Sets how long the circuit stays open before trial calls are sent.
+	 * 
+	 * @param duration
+	 *            the open duration
+	 * @param unit
+	 *            the time unit
+	 * @return this
+	 */
+	public CircuitBreaker withOpenDuration(long duration, TimeUnit unit) {
+		if (duration < 0)
+			throw new IllegalArgumentException(
+					"duration should not be negative");
+		this.openDuration = unit.toNanos(duration);
+		return this;
+	}
+
+	/**
+	 * Sets the number of trial calls sent while the circuit is half open.
+	 * 
+	 * @param calls
+	 *            the number of trial calls
+	 * @return this
+	 */
+	public CircuitBreaker withHalfOpenCalls(int calls) {
+		if (calls < 1)
+			throw new IllegalArgumentException("calls should be greater than 0");
+		this.halfOpenCalls = calls;
+		return this;
+	}
+
+	/**
+	 * Adds a listener notified when a circuit changes state.
+	 * 
+	 * @param listener
+	 *            the listener
+	 * @return this
+	 */
+	public CircuitBreaker addListener(CircuitBreakerListener listener) {
+		if (listener == null)
+			throw new IllegalArgumentException("listener is null");
+		listeners.add(listener);
+		return this;
+	}
+
+	/**
+	 * Gets the state of the circuit of an end point.
+	 * 
+	 * @param endPoint
+	 *            the service end point
+	 * @return the state
+	 */
+	public State getState(String endPoint) {
+		final Circuit circuit = circuits.get(endPoint);
+		if (circuit == null)
+			return State.CLOSED;
+		synchronized (circuit) {
+			return circuit.state;
+		}
+	}
+
+	/**
+	 * Gets the circuit of an end point.
+	 * 
+	 * @param endPoint
+	 *            the service end point
+	 * @return the circuit
+	 */
+	private Circuit getCircuit(String endPoint) {
+		Circuit circuit = circuits.get(endPoint);
+		if (circuit == null) {
+			circuit = new Circuit();
+			final Circuit previous = circuits.putIfAbsent(endPoint, circuit);
+			if (previous != null)
+				circuit = previous;
+		}
+		return circuit;
+	}
+
+	/**
+	 * Checks whether a request can be sent to the end point.
+	 * 
+	 * @param endPoint
+	 *            the service end point
+	 * @return true, if the request can be sent
+	 */
+	boolean allowRequest(String endPoint) {
+		final Circuit circuit = getCircuit(endPoint);
+		final State from;
+		final State to;
+		final boolean allowed;
+		synchronized (circuit) {
+			from = circuit.state;
+			allowed = circuit.allow(System.nanoTime());
+			to = circuit.state;
+		}
+		if (from != to)
+			notifyListeners(endPoint, from, to);
+		return allowed;
+	}
+
+	/**
+	 * Records the outcome of a request sent to the end point.
+	 * 
+	 * @param endPoint
+	 *            the service end point
+	 * @param failure
+	 *            true if the request failed
+	 * @param latency
+	 *            the latency in nanoseconds
+	 */
+	void record(String endPoint, boolean failure, long latency) {
+		final Circuit circuit = getCircuit(endPoint);
+		final State from;
+		final State to;
+		synchronized (circuit) {
+			from = circuit.state;
+			circuit.record(failure, latency, System.nanoTime());
+			to = circuit.state;
+		}
+		if (from != to)
+			notifyListeners(endPoint, from, to);
+	}
+
+	/**
+	 * Notifies the listeners of a state change.
+	 * 
+	 * @param endPoint
+	 *            the service end point
+	 * @param from
+	 *            the previous state
+	 * @param to
+	 *            the new state
+	 */
+	private void notifyListeners(String endPoint, State from, State to) {
+		log.log(Level.WARNING, "Circuit for " + endPoint + " moved from "
+				+ from + " to " + to);
+		for (CircuitBreakerListener listener : listeners) {
+			try {
+				listener.onStateChange(endPoint, from, to);
+			} catch (RuntimeException e) {
+				log.log(Level.SEVERE, "CircuitBreakerListener failed", e);
+			}
+		}
+	}
+}
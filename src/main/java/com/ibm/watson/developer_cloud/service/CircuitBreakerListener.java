@@ -0,0 +1,37 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+/**
+ * Listener notified when the circuit of a service end point changes state.
+ *
+ * @see CircuitBreaker#addListener(CircuitBreakerListener)
+ */
+public interface CircuitBreakerListener {
+
+	/**
+	 * Called after the circuit of a service end point changed state.
+	 *
+	 * @param endPoint
+	 *            the service end point
+	 * @param from
+	 *            the previous state
+	 * @param to
+	 *            the new state
+	 */
+	void onStateChange(String endPoint, CircuitBreaker.State from,
+			CircuitBreaker.State to);
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+/**
+ * Thrown without contacting the service when the {@link CircuitBreaker} of the
+ * service end point is open.
+ */
+public class CircuitBreakerOpenException extends ServiceUnavailableException {
+
+	/**
+	 * Instantiates a new Circuit Breaker Open Exception.
+	 * 
+	 * @param message
+	 *            the error message
+	 */
+	public CircuitBreakerOpenException(String message) {
+		super(message);
+	}
+
+	/**
+	 * The Constant serialVersionUID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+}
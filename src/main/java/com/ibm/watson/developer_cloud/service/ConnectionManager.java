@@ -0,0 +1,651 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.params.ConnManagerParams;
+import org.apache.http.conn.params.ConnPerRouteBean;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.conn.tsccm.AbstractConnPool;
+import org.apache.http.impl.conn.tsccm.BasicPoolEntry;
+import org.apache.http.impl.conn.tsccm.ConnPoolByRoute;
+import org.apache.http.impl.conn.tsccm.RouteSpecificPool;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Process-wide pool of HTTP connections shared by every {@link WatsonService}.
+ * Each service keeps its own HTTP client configuration (timeouts, user agent)
+ * but borrows sockets from the same thread-safe pool, so running several
+ * services side by side does not multiply the number of open connections.
+ * <br>
+ * Example: <pre>
+ * {@code
+ *  ConnectionManager manager = new ConnectionManager(200, 50);
+ *  manager.setMaxForRoute("https://stream.watsonplatform.net", 100);
+ *  manager.startIdleConnectionEvictor(30, TimeUnit.SECONDS);
+ *  manager.keepWarm("https://gateway.watsonplatform.net", 10);
+ *  ConnectionManager.setInstance(manager);
+ * }</pre>
+ * The instance has to be configured before the first request is executed,
+ * services that already created their HTTP client keep using the previous
+ * manager.
+ * <p>
+ * All the services are served by two hosts, so the routes to
+ * <code>gateway.watsonplatform.net</code> and
+ * <code>stream.watsonplatform.net</code> can use every connection of the
+ * pool, otherwise concurrent calls to different services would queue for the
+ * few connections of a single route while the rest of the pool stays idle.
+ * <p>
+ * A pooled connection is kept alive for as long as the server allows in its
+ * <code>Keep-Alive</code> header, and never longer than
+ * {@link #setKeepAlive(long, TimeUnit) the keep-alive duration}. Connections
+ * can be opened in advance with {@link #warmUp(String, int)}, so the first
+ * calls after a deploy do not pay for the DNS lookup and the TCP and TLS
+ * handshakes.
+ */
+public class ConnectionManager {
+
+	/** The Constant log. */
+	private static final Logger log = Logger.getLogger(ConnectionManager.class
+			.getName());
+
+	/**
+	 * Field DEFAULT_MAX_TOTAL_CONNECTIONS. (value is 100)
+	 */
+	public static final int DEFAULT_MAX_TOTAL_CONNECTIONS = 100;
+
+	/**
+	 * Field DEFAULT_MAX_CONNECTIONS_PER_ROUTE. (value is 20)
+	 */
+	public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+
+	/**
+	 * Field DEFAULT_KEEP_ALIVE_SECONDS. (value is 30)
+	 */
+	public static final int DEFAULT_KEEP_ALIVE_SECONDS = 30;
+
+	/**
+	 * Field WARM_UP_TIMEOUT. (value is 60000)
+	 */
+	private static final int WARM_UP_TIMEOUT = 60000;
+
+	/**
+	 * Field WARM_UP_LEASE_TIMEOUT. (value is 100)
+	 */
+	private static final int WARM_UP_LEASE_TIMEOUT = 100;
+
+	/**
+	 * Field WARM_UP_THREADS. (value is 8)
+	 */
+	private static final int WARM_UP_THREADS = 8;
+
+	/**
+	 * Field WARM_UP_STATE. No pooled connection matches it, so a lease with
+	 * it always gets a new connection.
+	 */
+	private static final Object WARM_UP_STATE = new Object();
+
+	/**
+	 * Field HTTP_PORT. (value is 80)
+	 */
+	private static final int HTTP_PORT = 80;
+
+	/**
+	 * Field HTTPS_PORT. (value is 443)
+	 */
+	private static final int HTTPS_PORT = 443;
+
+	/** The hosts that serve the Watson services. */
+	private static final String[] WATSON_HOSTS = {
+			"https://gateway.watsonplatform.net",
+			"https://stream.watsonplatform.net" };
+
+	/** The shared instance. */
+	private static ConnectionManager instance;
+
+	/**
+	 * Gets the connection manager shared by all the services. It is created
+	 * with the default limits the first time it is requested.
+	 *
+	 * @return the shared connection manager
+	 */
+	public static synchronized ConnectionManager getInstance() {
+		if (instance == null) {
+			instance = new ConnectionManager();
+		}
+		return instance;
+	}
+
+	/**
+	 * Replaces the connection manager shared by all the services. The
+	 * previous manager is not shut down because services that already built
+	 * their HTTP client may still be using it.
+	 *
+	 * @param connectionManager
+	 *            the new shared connection manager
+	 */
+	public static synchronized void setInstance(
+			ConnectionManager connectionManager) {
+		if (connectionManager == null)
+			throw new IllegalArgumentException("connectionManager is null");
+		instance = connectionManager;
+	}
+
+	/** The connection manager. */
+	private final ThreadSafeClientConnManager connManager;
+
+	/** The per route limits. */
+	private final ConnPerRouteBean connPerRoute;
+
+	/** The maximum number of connections across all the routes. */
+	private final int maxTotalConnections;
+
+	/** The idle connection evictor. */
+	private Thread evictor;
+
+	/** The threads that open the warm-up connections, created when needed. */
+	private ThreadPoolExecutor opener;
+
+	/** The maximum keep-alive duration in milliseconds. */
+	private volatile long keepAliveMillis = TimeUnit.SECONDS
+			.toMillis(DEFAULT_KEEP_ALIVE_SECONDS);
+
+	/** The number of connections kept open by host URL. */
+	private final Map<String, Integer> warmTargets = new LinkedHashMap<String, Integer>();
+
+	/** The keep-alive strategy. */
+	private final ConnectionKeepAliveStrategy keepAliveStrategy = new ConnectionKeepAliveStrategy() {
+		@Override
+		public long getKeepAliveDuration(HttpResponse response,
+				HttpContext context) {
+			final long max = keepAliveMillis;
+			final HeaderElementIterator it = new BasicHeaderElementIterator(
+					response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+			while (it.hasNext()) {
+				final HeaderElement element = it.nextElement();
+				if ("timeout".equalsIgnoreCase(element.getName())
+						&& element.getValue() != null) {
+					try {
+						return Math.min(max, TimeUnit.SECONDS.toMillis(Long
+								.parseLong(element.getValue().trim())));
+					} catch (NumberFormatException e) {
+						log.log(Level.FINEST, "Invalid keep-alive timeout: "
+								+ element.getValue());
+					}
+				}
+			}
+			return max;
+		}
+	};
+
+	/**
+	 * Instantiates a new connection manager with the default limits.
+	 */
+	public ConnectionManager() {
+		this(DEFAULT_MAX_TOTAL_CONNECTIONS, DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+	}
+
+	/**
+	 * Instantiates a new connection manager.
+	 *
+	 * @param maxTotalConnections
+	 *            the maximum number of connections across all the routes
+	 * @param defaultMaxPerRoute
+	 *            the maximum number of connections to a single host when no
+	 *            route specific limit was set, the Watson hosts can use up to
+	 *            <code>maxTotalConnections</code>
+	 */
+	public ConnectionManager(int maxTotalConnections, int defaultMaxPerRoute) {
+		if (maxTotalConnections < 1)
+			throw new IllegalArgumentException(
+					"maxTotalConnections should be greater than 0");
+		if (defaultMaxPerRoute < 1)
+			throw new IllegalArgumentException(
+					"defaultMaxPerRoute should be greater than 0");
+
+		connPerRoute = new ConnPerRouteBean(defaultMaxPerRoute);
+		this.maxTotalConnections = maxTotalConnections;
+		for (String host : WATSON_HOSTS) {
+			connPerRoute.setMaxForRoute(getRoute(host), maxTotalConnections);
+		}
+
+		final HttpParams params = new BasicHttpParams();
+		ConnManagerParams.setMaxTotalConnections(params, maxTotalConnections);
+		ConnManagerParams.setMaxConnectionsPerRoute(params, connPerRoute);
+
+		// the socket factories report connect and TLS handshake times to the
+		// call listener of the request that opens the connection
+		final SchemeRegistry registry = new SchemeRegistry();
+		registry.register(new Scheme("http", new InstrumentedSocketFactory(
+				PlainSocketFactory.getSocketFactory()), HTTP_PORT));
+		registry.register(new Scheme("https",
+				new InstrumentedSSLSocketFactory(PlainSocketFactory
+						.getSocketFactory(), SSLSocketFactory.getSocketFactory()),
+				HTTPS_PORT));
+
+		connManager = new ThreadSafeClientConnManager(params, registry) {
+			@Override
+			protected ClientConnectionOperator createConnectionOperator(
+					SchemeRegistry schreg) {
+				return new InstrumentedConnectionOperator(schreg);
+			}
+
+			@Override
+			protected AbstractConnPool createConnectionPool(HttpParams params) {
+				return new ConnPoolByRoute(connOperator, params) {
+					@Override
+					protected BasicPoolEntry getFreeEntry(
+							RouteSpecificPool rospl, Object state) {
+						return state == WARM_UP_STATE ? null : super
+								.getFreeEntry(rospl, state);
+					}
+				};
+			}
+		};
+	}
+
+	/**
+	 * Sets the maximum number of connections to the host of the given URL, for
+	 * example <code>https://stream.watsonplatform.net</code>.
+	 *
+	 * @param url
+	 *            the URL of the host, only scheme, host and port are used
+	 * @param max
+	 *            the maximum number of connections to that host
+	 */
+	public synchronized void setMaxForRoute(String url, int max) {
+		if (url == null)
+			throw new IllegalArgumentException("url is null");
+		if (max < 1)
+			throw new IllegalArgumentException("max should be greater than 0");
+
+		connPerRoute.setMaxForRoute(getRoute(url), max);
+	}
+
+	/**
+	 * Gets the route to the host of a URL, as planned by the HTTP client for
+	 * a direct connection.
+	 * 
+	 * @param url
+	 *            the URL of the host, only scheme, host and port are used
+	 * @return the route
+	 */
+	private static HttpRoute getRoute(String url) {
+		final URI uri = URI.create(url);
+		final boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+		final HttpHost target = new HttpHost(uri.getHost(), uri.getPort(),
+				uri.getScheme());
+		return new HttpRoute(target, null, secure);
+	}
+
+	/**
+	 * Sets the maximum time a pooled connection is kept alive, 30 seconds by
+	 * default. A shorter <code>Keep-Alive: timeout</code> sent by the server
+	 * takes precedence. Expired connections are closed when they are leased
+	 * or by the idle connection evictor.
+	 * 
+	 * @param duration
+	 *            the keep-alive duration
+	 * @param unit
+	 *            the unit of the duration
+	 */
+	public void setKeepAlive(long duration, TimeUnit unit) {
+		if (duration <= 0)
+			throw new IllegalArgumentException(
+					"duration should be greater than 0");
+		keepAliveMillis = unit.toMillis(duration);
+	}
+
+	/**
+	 * Gets the keep-alive strategy the services install on their HTTP
+	 * client. It honours the <code>Keep-Alive</code> header of the server,
+	 * bounded by {@link #setKeepAlive(long, TimeUnit) the keep-alive
+	 * duration}.
+	 * 
+	 * @return the keep-alive strategy
+	 */
+	public ConnectionKeepAliveStrategy getKeepAliveStrategy() {
+		return keepAliveStrategy;
+	}
+
+	/**
+	 * Opens connections to the host of a URL, in parallel, until the pool
+	 * holds <code>connections</code> of them or the route limit. The
+	 * connections are established, including the TLS handshake, and put in
+	 * the pool as idle, ready for the next requests. The idle connections of
+	 * the pool stay available to the requests meanwhile, and nothing is opened
+	 * when the pool has no room left. The method blocks until every
+	 * connection was opened or failed, failures are logged.
+	 * 
+	 * @param url
+	 *            the URL of the host, for example
+	 *            <code>https://stream.watsonplatform.net</code>
+	 * @param connections
+	 *            the number of connections the pool should hold to the host
+	 * @return the number of connections opened
+	 */
+	public int warmUp(String url, int connections) {
+		final HttpParams params = new BasicHttpParams();
+		HttpConnectionParams.setConnectionTimeout(params, WARM_UP_TIMEOUT);
+		HttpConnectionParams.setSoTimeout(params, WARM_UP_TIMEOUT);
+		return warmUp(url, connections, params);
+	}
+
+	/**
+	 * Opens connections to the host of a URL, see
+	 * {@link #warmUp(String, int)}.
+	 * 
+	 * @param url
+	 *            the URL of the host
+	 * @param connections
+	 *            the number of connections the pool should hold to the host
+	 * @param params
+	 *            the connection parameters, for example the timeouts
+	 * @return the number of connections opened
+	 */
+	int warmUp(final String url, int connections, final HttpParams params) {
+		if (url == null)
+			throw new IllegalArgumentException("url is null");
+		if (connections < 1)
+			throw new IllegalArgumentException(
+					"connections should be greater than 0");
+
+		final HttpRoute route = getRoute(url);
+		final int target = Math.min(connections,
+				connPerRoute.getMaxForRoute(route));
+		// without room left in the pool, the pool would close an idle
+		// connection to make room for the new one
+		final int missing = Math.min(target
+				- connManager.getConnectionsInPool(route), maxTotalConnections
+				- connManager.getConnectionsInPool());
+		if (missing <= 0)
+			return 0;
+
+		// the warm-up state makes the pool create new connections, the idle
+		// ones stay available to the requests
+		final List<ManagedClientConnection> closed = new ArrayList<ManagedClientConnection>();
+		try {
+			while (closed.size() < missing) {
+				final ManagedClientConnection connection = connManager
+						.requestConnection(route, WARM_UP_STATE).getConnection(
+								WARM_UP_LEASE_TIMEOUT, TimeUnit.MILLISECONDS);
+				closed.add(connection);
+			}
+		} catch (ConnectionPoolTimeoutException e) {
+			log.log(Level.FINE, "No free connection to warm up to " + url);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (closed.isEmpty())
+			return 0;
+
+		final AtomicInteger opened = new AtomicInteger();
+		final CountDownLatch done = new CountDownLatch(closed.size());
+		final ExecutorService executor = getOpener();
+		for (final ManagedClientConnection connection : closed) {
+			try {
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							connection.open(route, new BasicHttpContext(),
+									params);
+							opened.incrementAndGet();
+						} catch (IOException e) {
+							log.log(Level.WARNING,
+									"Could not open a connection to " + url, e);
+						} finally {
+							release(connection);
+							done.countDown();
+						}
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				// the manager was shut down
+				release(connection);
+				done.countDown();
+			}
+		}
+		try {
+			done.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		log.log(Level.FINE, "Opened " + opened + " connections to " + url);
+		return opened.get();
+	}
+
+	/**
+	 * Gives a warm-up connection back to the pool as idle, or drops it from
+	 * the pool if it could not be opened.
+	 * 
+	 * @param connection
+	 *            the connection
+	 */
+	private void release(ManagedClientConnection connection) {
+		if (connection.isOpen())
+			connection.markReusable();
+		else
+			connection.unmarkReusable();
+		connManager.releaseConnection(connection, keepAliveMillis,
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Gets the executor that opens the warm-up connections. Its threads stop
+	 * when they have been idle for a minute, so keeping hosts warm does not
+	 * keep threads around between the evictor passes that open connections.
+	 * 
+	 * @return the executor
+	 */
+	private synchronized ExecutorService getOpener() {
+		if (opener == null) {
+			opener = new ThreadPoolExecutor(WARM_UP_THREADS, WARM_UP_THREADS,
+					WARM_UP_TIMEOUT, TimeUnit.MILLISECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+						private final AtomicInteger count = new AtomicInteger();
+
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread thread = new Thread(r, "watson-warm-up-"
+									+ count.incrementAndGet());
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			opener.allowCoreThreadTimeOut(true);
+		}
+		return opener;
+	}
+
+	/**
+	 * Opens connections to the host of a URL like
+	 * {@link #warmUp(String, int)}, and opens them again whenever the idle
+	 * connection evictor closed some of them. The evictor is started with
+	 * the keep-alive duration if it is not running.
+	 * 
+	 * @param url
+	 *            the URL of the host
+	 * @param connections
+	 *            the number of connections to keep, 0 to stop keeping them
+	 * @return the number of connections opened
+	 */
+	public int keepWarm(String url, int connections) {
+		if (url == null)
+			throw new IllegalArgumentException("url is null");
+		if (connections < 0)
+			throw new IllegalArgumentException(
+					"connections should not be negative");
+
+		synchronized (this) {
+			if (connections == 0) {
+				warmTargets.remove(url);
+				return 0;
+			}
+			warmTargets.put(url, connections);
+			if (evictor == null)
+				startIdleConnectionEvictor(keepAliveMillis,
+						TimeUnit.MILLISECONDS);
+		}
+		return warmUp(url, connections);
+	}
+
+	/**
+	 * Opens the connections closed since the last check to the hosts that
+	 * are kept warm.
+	 */
+	private void restoreWarmConnections() {
+		final Map<String, Integer> targets;
+		synchronized (this) {
+			targets = new LinkedHashMap<String, Integer>(warmTargets);
+		}
+		for (Map.Entry<String, Integer> target : targets.entrySet()) {
+			try {
+				warmUp(target.getKey(), target.getValue());
+			} catch (RuntimeException e) {
+				log.log(Level.WARNING, "Could not warm up connections to "
+						+ target.getKey(), e);
+			}
+		}
+	}
+
+	/**
+	 * Closes the connections that have been idle longer than the given
+	 * period.
+	 *
+	 * @param idleTime
+	 *            the idle time
+	 * @param unit
+	 *            the unit of the idle time
+	 */
+	public void closeIdleConnections(long idleTime, TimeUnit unit) {
+		connManager.closeExpiredConnections();
+		connManager.closeIdleConnections(idleTime, unit);
+	}
+
+	/**
+	 * Starts a daemon thread that periodically closes the connections that
+	 * have expired or been idle longer than <code>idleTime</code>, and then
+	 * opens again the ones {@link #keepWarm(String, int) kept warm}. Calling
+	 * it again replaces the previous evictor.
+	 *
+	 * @param idleTime
+	 *            the idle time, also used as the check interval
+	 * @param unit
+	 *            the unit of the idle time
+	 */
+	public synchronized void startIdleConnectionEvictor(final long idleTime,
+			final TimeUnit unit) {
+		if (idleTime <= 0)
+			throw new IllegalArgumentException(
+					"idleTime should be greater than 0");
+
+		stopIdleConnectionEvictor();
+		evictor = new Thread("watson-idle-connection-evictor") {
+			@Override
+			public void run() {
+				try {
+					while (!isInterrupted()) {
+						unit.sleep(idleTime);
+						closeIdleConnections(idleTime, unit);
+						restoreWarmConnections();
+					}
+				} catch (InterruptedException e) {
+					log.log(Level.FINEST, "Idle connection evictor stopped");
+				}
+			}
+		};
+		evictor.setDaemon(true);
+		evictor.start();
+	}
+
+	/**
+	 * Stops the idle connection evictor if it was started.
+	 */
+	public synchronized void stopIdleConnectionEvictor() {
+		if (evictor != null) {
+			evictor.interrupt();
+			evictor = null;
+		}
+	}
+
+	/**
+	 * Gets the number of connections currently in the pool, leased or idle.
+	 *
+	 * @return the number of pooled connections
+	 */
+	public int getConnectionsInPool() {
+		return connManager.getConnectionsInPool();
+	}
+
+	/**
+	 * Gets the underlying Apache HttpClient connection manager.
+	 *
+	 * @return the client connection manager
+	 */
+	public ClientConnectionManager getClientConnectionManager() {
+		return connManager;
+	}
+
+	/**
+	 * Stops the evictor and closes all the connections. The manager can not
+	 * be used after this call.
+	 */
+	public void shutdown() {
+		stopIdleConnectionEvictor();
+		synchronized (this) {
+			if (opener != null)
+				opener.shutdownNow();
+		}
+		connManager.shutdown();
+	}
+}
@@ -0,0 +1,389 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counters and latency histograms of a single service endpoint, kept by a
+ * {@link MetricsRegistry}.
+ */
+public class EndpointMetrics implements EndpointMetricsMBean {
+
+	/** The service. */
+	private final String service;
+
+	/** The endpoint. */
+	private final String endpoint;
+
+	/** The requests. */
+	private final StripedCounter requests = new StripedCounter();
+
+	/** The requests waiting for a response. */
+	private final StripedCounter inFlight = new StripedCounter();
+
+	/** The responses by status class, index 0 counts I/O errors. */
+	private final StripedCounter[] statusClasses = new StripedCounter[6];
+
+	/** The bytes sent. */
+	private final StripedCounter bytesSent = new StripedCounter();
+
+	/** The bytes received. */
+	private final StripedCounter bytesReceived = new StripedCounter();
+
+	/** The latency. */
+	private final Histogram latency = new Histogram();
+
+	/** The time to first byte. */
+	private final Histogram timeToFirstByte = new Histogram();
+
+	/** The requests delayed or rejected by the rate limiter. */
+	private final StripedCounter throttled = new StripedCounter();
+
+	/** The time spent waiting for the rate limiter. */
+	private final Histogram throttleWait = new Histogram();
+
+	/**
+	 * Instantiates new endpoint metrics.
+	 *
+	 * @param service
+	 *            the service name
+	 * @param endpoint
+	 *            the endpoint
+	 */
+	EndpointMetrics(String service, String endpoint) {
+		this.service = service;
+		this.endpoint = endpoint;
+		for (int i = 0; i < statusClasses.length; i++) {
+			statusClasses[i] = new StripedCounter();
+		}
+	}
+
+	/**
+	 * Records the start of a request.
+	 */
+	void started() {
+		inFlight.increment();
+	}
+
+	/**
+	 * Records the response of a request, or its failure.
+	 */
+	void received() {
+		inFlight.decrement();
+	}
+
+	/**
+	 * Records a request delayed or rejected by the rate limiter.
+	 *
+	 * @param wait
+	 *            the time waited in nanoseconds
+	 */
+	void throttled(long wait) {
+		throttled.increment();
+		throttleWait.record(wait, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Records a completed request.
+	 *
+	 * @param status
+	 *            the HTTP status code, 0 if there was no response
+	 * @param sent
+	 *            the bytes sent
+	 * @param received
+	 *            the bytes received
+	 * @param firstByte
+	 *            the time to first byte in nanoseconds
+	 * @param total
+	 *            the latency in nanoseconds
+	 */
+	void completed(int status, long sent, long received, long firstByte,
+			long total) {
+		requests.increment();
+		final int statusClass = status / 100;
+		statusClasses[statusClass > 0 && statusClass < statusClasses.length ? statusClass
+				: 0].increment();
+		bytesSent.add(sent);
+		bytesReceived.add(received);
+		latency.record(total, TimeUnit.NANOSECONDS);
+		if (status > 0)
+			timeToFirstByte.record(firstByte, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Gets the latency histogram.
+	 *
+	 * @return the latency histogram
+	 */
+	public Histogram getLatency() {
+		return latency;
+	}
+
+	/**
+	 * Gets the time to first byte histogram.
+	 *
+	 * @return the time to first byte histogram
+	 */
+	public Histogram getTimeToFirstByte() {
+		return timeToFirstByte;
+	}
+
+	/**
+	 * Gets the histogram of the time spent waiting for the rate limiter.
+	 *
+	 * @return the throttle wait histogram
+	 */
+	public Histogram getThrottleWait() {
+		return throttleWait;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.EndpointMetricsMBean#getService()
+	 */
+	@Override
+	public String getService() {
+		return service;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.EndpointMetricsMBean#getEndpoint()
+	 */
+	@Override
+	public String getEndpoint() {
+		return endpoint;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.EndpointMetricsMBean#getRequestCount
+	 * ()
+	 */
+	@Override
+	public long getRequestCount() {
+		return requests.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.EndpointMetricsMBean#getInFlight()
+	 */
+	@Override
+	public long getInFlight() {
+		return inFlight.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.EndpointMetricsMBean#getSuccessCount
+	 * ()
+	 */
+	@Override
+	public long getSuccessCount() {
+		return statusClasses[2].sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.ibm.watson.developer_cloud.service.EndpointMetricsMBean#
+	 * getRedirectionCount()
+	 */
+	@Override
+	public long getRedirectionCount() {
+		return statusClasses[3].sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.ibm.watson.developer_cloud.service.EndpointMetricsMBean#
+	 * getClientErrorCount()
+	 */
+	@Override
+	public long getClientErrorCount() {
+		return statusClasses[4].sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.ibm.watson.developer_cloud.service.EndpointMetricsMBean#
+	 * getServerErrorCount()
+	 */
+	@Override
+	public long getServerErrorCount() {
+		return statusClasses[5].sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.EndpointMetricsMBean#getIOErrorCount
+	 * ()
+	 */
+	@Override
+	public long getIOErrorCount() {
+		return statusClasses[0].sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.EndpointMetricsMBean#getBytesSent()
+	 */
+	@Override
+	public long getBytesSent() {
+		return bytesSent.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.EndpointMetricsMBean#getBytesReceived
+	 * ()
+	 */
+	@Override
+	public long getBytesReceived() {
+		return bytesReceived.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.EndpointMetricsMBean#getLatencyMean()
+	 */
+	@Override
+	public double getLatencyMean() {
+		return latency.getMean(TimeUnit.MILLISECONDS);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.ibm.watson.developer_cloud.service.EndpointMetricsMBean#
+	 * getLatency50thPercentile()
+	 */
+	@Override
+	public double getLatency50thPercentile() {
+		return latency.getPercentile(50, TimeUnit.MILLISECONDS);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.ibm.watson.developer_cloud.service.EndpointMetricsMBean#
+	 * getLatency90thPercentile()
+	 */
+	@Override
+	public double getLatency90thPercentile() {
+		return latency.getPercentile(90, TimeUnit.MILLISECONDS);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.ibm.watson.developer_cloud.service.EndpointMetricsMBean#
+	 * getLatency99thPercentile()
+	 */
+	@Override
+	public double getLatency99thPercentile() {
+		return latency.getPercentile(99, TimeUnit.MILLISECONDS);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.EndpointMetricsMBean#getLatencyMax()
+	 */
+	@Override
+	public double getLatencyMax() {
+		return latency.getMax(TimeUnit.MILLISECONDS);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.ibm.watson.developer_cloud.service.EndpointMetricsMBean#
+	 * getTimeToFirstByteMean()
+	 */
+	@Override
+	public double getTimeToFirstByteMean() {
+		return timeToFirstByte.getMean(TimeUnit.MILLISECONDS);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.ibm.watson.developer_cloud.service.EndpointMetricsMBean#
+	 * getTimeToFirstByte99thPercentile()
+	 */
+	@Override
+	public double getTimeToFirstByte99thPercentile() {
+		return timeToFirstByte.getPercentile(99, TimeUnit.MILLISECONDS);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.ibm.watson.developer_cloud.service.EndpointMetricsMBean#
+	 * getThrottledCount()
+	 */
+	@Override
+	public long getThrottledCount() {
+		return throttled.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.ibm.watson.developer_cloud.service.EndpointMetricsMBean#
+	 * getThrottleWaitMean()
+	 */
+	@Override
+	public double getThrottleWaitMean() {
+		return throttleWait.getMean(TimeUnit.MILLISECONDS);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return service + " " + endpoint + " requests=" + getRequestCount()
+				+ " inFlight=" + getInFlight() + " p50=" + getLatency50thPercentile()
+				+ "ms p99=" + getLatency99thPercentile() + "ms";
+	}
+}
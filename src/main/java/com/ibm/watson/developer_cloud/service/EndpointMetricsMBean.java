@@ -0,0 +1,163 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+/**
+ * JMX view of the metrics of a service endpoint. Durations are in
+ * milliseconds.
+ */
+public interface EndpointMetricsMBean {
+
+	/**
+	 * Gets the service name.
+	 *
+	 * @return the service
+	 */
+	String getService();
+
+	/**
+	 * Gets the endpoint.
+	 *
+	 * @return the endpoint
+	 */
+	String getEndpoint();
+
+	/**
+	 * Gets the number of completed requests.
+	 *
+	 * @return the request count
+	 */
+	long getRequestCount();
+
+	/**
+	 * Gets the number of requests sent and waiting for a response.
+	 *
+	 * @return the in-flight requests
+	 */
+	long getInFlight();
+
+	/**
+	 * Gets the number of 2xx responses.
+	 *
+	 * @return the 2xx count
+	 */
+	long getSuccessCount();
+
+	/**
+	 * Gets the number of 3xx responses.
+	 *
+	 * @return the 3xx count
+	 */
+	long getRedirectionCount();
+
+	/**
+	 * Gets the number of 4xx responses.
+	 *
+	 * @return the 4xx count
+	 */
+	long getClientErrorCount();
+
+	/**
+	 * Gets the number of 5xx responses.
+	 *
+	 * @return the 5xx count
+	 */
+	long getServerErrorCount();
+
+	/**
+	 * Gets the number of requests that failed without a response.
+	 *
+	 * @return the I/O error count
+	 */
+	long getIOErrorCount();
+
+	/**
+	 * Gets the bytes sent in request bodies.
+	 *
+	 * @return the bytes sent
+	 */
+	long getBytesSent();
+
+	/**
+	 * Gets the bytes received in response bodies.
+	 *
+	 * @return the bytes received
+	 */
+	long getBytesReceived();
+
+	/**
+	 * Gets the mean latency.
+	 *
+	 * @return the mean latency
+	 */
+	double getLatencyMean();
+
+	/**
+	 * Gets the median latency.
+	 *
+	 * @return the 50th percentile
+	 */
+	double getLatency50thPercentile();
+
+	/**
+	 * Gets the 90th percentile of the latency.
+	 *
+	 * @return the 90th percentile
+	 */
+	double getLatency90thPercentile();
+
+	/**
+	 * Gets the 99th percentile of the latency.
+	 *
+	 * @return the 99th percentile
+	 */
+	double getLatency99thPercentile();
+
+	/**
+	 * Gets the highest latency.
+	 *
+	 * @return the maximum latency
+	 */
+	double getLatencyMax();
+
+	/**
+	 * Gets the mean time to first byte.
+	 *
+	 * @return the mean time to first byte
+	 */
+	double getTimeToFirstByteMean();
+
+	/**
+	 * Gets the 99th percentile of the time to first byte.
+	 *
+	 * @return the 99th percentile
+	 */
+	double getTimeToFirstByte99thPercentile();
+
+	/**
+	 * Gets the number of requests delayed or rejected by the rate limiter.
+	 *
+	 * @return the throttled count
+	 */
+	long getThrottledCount();
+
+	/**
+	 * Gets the mean time spent waiting for the rate limiter.
+	 *
+	 * @return the mean throttle wait
+	 */
+	double getThrottleWaitMean();
+}
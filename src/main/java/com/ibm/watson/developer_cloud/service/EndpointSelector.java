@@ -0,0 +1,579 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+
+import com.ibm.watson.developer_cloud.util.ResponseUtil;
+
+/**
+ * Chooses, for every request, one of several equivalent end points of a
+ * service, for example regional deployments or a local proxy. Requests go
+ * to the healthy end point with the lowest latency, an exponentially
+ * weighted average of the latency of its recent calls. An end point becomes
+ * unhealthy after consecutive failures (I/O errors, 5xx responses or an open
+ * circuit breaker) and gets no traffic for a backoff period that doubles
+ * while it keeps failing.
+ * <br>
+ * Example: <pre>
+ * {@code
+ *  EndpointSelector selector = new EndpointSelector(
+ *      "https://gateway.watsonplatform.net/natural-language-classifier/api",
+ *      "https://gateway-fra.watsonplatform.net/natural-language-classifier/api")
+ *      .withHealthProbe("/v1/classifiers", 200, 299);
+ *  service.setEndPointSelector(selector);
+ *  selector.startHealthProbes(service, 10, TimeUnit.SECONDS);
+ * }</pre>
+ * A {@link WatsonService} fails over a request to the next best end point
+ * when it fails, if the request could not have reached the server or can
+ * be sent again like a retry (see {@link RetryPolicy}). Every few requests
+ * one goes to another healthy end point so the latency of all of them stays
+ * current, the health probes do the same without using real traffic.
+ */
+public class EndpointSelector {
+
+	/**
+	 * The latency and health of an end point.
+	 */
+	private final class Endpoint {
+
+		/** The URL. */
+		private final String url;
+
+		/** The average latency in nanoseconds, -1 until the first call. */
+		private volatile double latency = -1;
+
+		/** The consecutive failures. */
+		private int failures;
+
+		/** Whether the end point failed too many times. */
+		private volatile boolean unhealthy;
+
+		/** The time until which an unhealthy end point gets no traffic. */
+		private volatile long unhealthyUntil;
+
+		/**
+		 * Instantiates a new end point.
+		 * 
+		 * @param url
+		 *            the URL
+		 */
+		private Endpoint(String url) {
+			this.url = url;
+		}
+
+		/**
+		 * Records a successful call.
+		 * 
+		 * @param nanos
+		 *            the latency in nanoseconds
+		 */
+		private synchronized void success(long nanos) {
+			latency = latency < 0 ? nanos : latency + smoothing
+					* (nanos - latency);
+			failures = 0;
+			if (unhealthy) {
+				unhealthy = false;
+				log.log(Level.INFO, url + " is healthy again");
+			}
+		}
+
+		/**
+		 * Records a failed call.
+		 * 
+		 * @param now
+		 *            the current time in nanoseconds
+		 */
+		private synchronized void failure(long now) {
+			failures++;
+			if (failures < failureThreshold)
+				return;
+
+			final long ceiling = initialBackoff << Math.min(failures
+					- failureThreshold, 30);
+			final long backoff = ceiling > 0 ? Math.min(maxBackoff, ceiling)
+					: maxBackoff;
+			unhealthyUntil = now + backoff;
+			final Level level = unhealthy ? Level.FINE : Level.WARNING;
+			unhealthy = true;
+			log.log(level, url + " is unhealthy after " + failures
+					+ " failures, retrying in "
+					+ TimeUnit.NANOSECONDS.toMillis(backoff) + "ms");
+		}
+
+		/**
+		 * Checks if the end point can get traffic.
+		 * 
+		 * @param now
+		 *            the current time in nanoseconds
+		 * @return true, if it is healthy
+		 */
+		private boolean isHealthy(long now) {
+			return !unhealthy || now - unhealthyUntil >= 0;
+		}
+	}
+
+	/** The Constant log. */
+	private static final Logger log = Logger.getLogger(EndpointSelector.class
+			.getName());
+
+	/** The Constant AUTHORIZATION. */
+	private static final String AUTHORIZATION = "Authorization";
+
+	/** The end points, in order of preference when the latency is equal. */
+	private final Endpoint[] endpoints;
+
+	/** The number of selections. */
+	private final AtomicLong selections = new AtomicLong();
+
+	/** The weight of the last call in the average latency. */
+	private double smoothing = 0.3;
+
+	/** The consecutive failures that make an end point unhealthy. */
+	private int failureThreshold = 2;
+
+	/** The initial backoff in nanoseconds. */
+	private long initialBackoff = TimeUnit.SECONDS.toNanos(5);
+
+	/** The max backoff in nanoseconds. */
+	private long maxBackoff = TimeUnit.MINUTES.toNanos(2);
+
+	/** One request out of this many goes to another end point, 0 for none. */
+	private int exploration = 50;
+
+	/** The path of the health probes, relative to the end points. */
+	private String probePath = "";
+
+	/** The lowest status of a healthy probe response. */
+	private int probeMinStatus = 0;
+
+	/** The highest status of a healthy probe response. */
+	private int probeMaxStatus = 499;
+
+	/** The health probe thread. */
+	private Thread prober;
+
+	/**
+	 * Instantiates a new end point selector.
+	 * 
+	 * @param endPoints
+	 *            the equivalent end points, in order of preference
+	 */
+	public EndpointSelector(String... endPoints) {
+		if (endPoints == null || endPoints.length == 0)
+			throw new IllegalArgumentException("endPoints is empty");
+
+		endpoints = new Endpoint[endPoints.length];
+		for (int i = 0; i < endPoints.length; i++) {
+			if (endPoints[i] == null)
+				throw new IllegalArgumentException("endPoints contains null");
+			endpoints[i] = new Endpoint(endPoints[i]);
+		}
+	}
+
+	/**
+	 * Sets the weight of the last call in the average latency, 0.3 by
+	 * default. Higher values react faster to a slow end point.
+	 * 
+	 * @param smoothing
+	 *            the weight, between 0 (excluded) and 1
+	 * @return this
+	 */
+	public EndpointSelector withSmoothing(double smoothing) {
+		if (smoothing <= 0 || smoothing > 1)
+			throw new IllegalArgumentException(
+					"smoothing should be in (0, 1]");
+		this.smoothing = smoothing;
+		return this;
+	}
+
+	/**
+	 * Sets the number of consecutive failures that make an end point
+	 * unhealthy, 2 by default.
+	 * 
+	 * @param failureThreshold
+	 *            the failure threshold
+	 * @return this
+	 */
+	public EndpointSelector withFailureThreshold(int failureThreshold) {
+		if (failureThreshold < 1)
+			throw new IllegalArgumentException(
+					"failureThreshold should be greater than 0");
+		this.failureThreshold = failureThreshold;
+		return this;
+	}
+
+	/**
+	 * Sets how long an unhealthy end point gets no traffic. The period starts
+	 * at <code>initial</code> and doubles with every further failure up to
+	 * <code>max</code>, 5 seconds and 2 minutes by default.
+	 * 
+	 * @param initial
+	 *            the initial backoff
+	 * @param max
+	 *            the max backoff
+	 * @param unit
+	 *            the time unit
+	 * @return this
+	 */
+	public EndpointSelector withBackoff(long initial, long max, TimeUnit unit) {
+		if (initial < 0 || max < initial)
+			throw new IllegalArgumentException(
+					"backoff should be 0 <= initial <= max");
+		this.initialBackoff = unit.toNanos(initial);
+		this.maxBackoff = unit.toNanos(max);
+		return this;
+	}
+
+	/**
+	 * Sends one request out of <code>every</code> to another healthy end
+	 * point, 50 by default, so their latency is measured with real calls.
+	 * 
+	 * @param every
+	 *            the number of requests, 0 to always use the best end point
+	 * @return this
+	 */
+	public EndpointSelector withExploration(int every) {
+		if (every < 0)
+			throw new IllegalArgumentException("every should not be negative");
+		this.exploration = every;
+		return this;
+	}
+
+	/**
+	 * Sets the request of the health probes: a <code>GET</code> to
+	 * <code>path</code>, relative to every end point, is a successful call
+	 * when its status is between <code>minStatus</code> and
+	 * <code>maxStatus</code>. By default the probes request the end points
+	 * themselves and any status below 500 is healthy, because without
+	 * credentials the service may answer 401 or 404.
+	 * 
+	 * @param path
+	 *            the path, for example <code>/v1/models</code>
+	 * @param minStatus
+	 *            the lowest healthy status
+	 * @param maxStatus
+	 *            the highest healthy status
+	 * @return this
+	 */
+	public EndpointSelector withHealthProbe(String path, int minStatus,
+			int maxStatus) {
+		if (path == null)
+			throw new IllegalArgumentException("path is null");
+		if (minStatus > maxStatus)
+			throw new IllegalArgumentException(
+					"minStatus should not be greater than maxStatus");
+		this.probePath = path;
+		this.probeMinStatus = minStatus;
+		this.probeMaxStatus = maxStatus;
+		return this;
+	}
+
+	/**
+	 * Gets the end points.
+	 * 
+	 * @return the end points, in order of preference
+	 */
+	public List<String> getEndPoints() {
+		final String[] urls = new String[endpoints.length];
+		for (int i = 0; i < endpoints.length; i++) {
+			urls[i] = endpoints[i].url;
+		}
+		return Collections.unmodifiableList(Arrays.asList(urls));
+	}
+
+	/**
+	 * Selects the end point for a request.
+	 * 
+	 * @return the end point
+	 */
+	public String select() {
+		return select(null);
+	}
+
+	/**
+	 * Selects the end point for a request, excluding some of them, for
+	 * example the ones that already failed for this request. When all of the
+	 * others are unhealthy it is the one that will recover first.
+	 * 
+	 * @param excluded
+	 *            the end points to exclude, can be null
+	 * @return the end point, or null if all of them are excluded
+	 */
+	public String select(Collection<String> excluded) {
+		final long now = System.nanoTime();
+		final int every = exploration;
+		if (every > 0 && endpoints.length > 1) {
+			final long selection = selections.incrementAndGet();
+			if (selection % every == 0) {
+				final int first = (int) ((selection / every) % endpoints.length);
+				for (int i = 0; i < endpoints.length; i++) {
+					final Endpoint endpoint = endpoints[(first + i)
+							% endpoints.length];
+					if (endpoint.isHealthy(now)
+							&& (excluded == null || !excluded
+									.contains(endpoint.url)))
+						return endpoint.url;
+				}
+			}
+		}
+
+		Endpoint best = null;
+		double bestLatency = 0;
+		Endpoint recovering = null;
+		for (Endpoint endpoint : endpoints) {
+			if (excluded != null && excluded.contains(endpoint.url))
+				continue;
+
+			if (!endpoint.isHealthy(now)) {
+				if (recovering == null
+						|| endpoint.unhealthyUntil - recovering.unhealthyUntil < 0)
+					recovering = endpoint;
+				continue;
+			}
+
+			// end points without calls yet are tried first
+			final double latency = Math.max(0, endpoint.latency);
+			if (best == null || latency < bestLatency) {
+				best = endpoint;
+				bestLatency = latency;
+			}
+		}
+		if (best != null)
+			return best.url;
+		return recovering != null ? recovering.url : null;
+	}
+
+	/**
+	 * Records a successful call, which makes the end point healthy.
+	 * 
+	 * @param endPoint
+	 *            the end point
+	 * @param latency
+	 *            the latency
+	 * @param unit
+	 *            the unit of the latency
+	 */
+	public void recordSuccess(String endPoint, long latency, TimeUnit unit) {
+		final Endpoint endpoint = find(endPoint);
+		if (endpoint != null)
+			endpoint.success(unit.toNanos(latency));
+	}
+
+	/**
+	 * Records a failed call.
+	 * 
+	 * @param endPoint
+	 *            the end point
+	 */
+	public void recordFailure(String endPoint) {
+		final Endpoint endpoint = find(endPoint);
+		if (endpoint != null)
+			endpoint.failure(System.nanoTime());
+	}
+
+	/**
+	 * Checks if an end point gets traffic.
+	 * 
+	 * @param endPoint
+	 *            the end point
+	 * @return true, if it is healthy
+	 */
+	public boolean isHealthy(String endPoint) {
+		final Endpoint endpoint = find(endPoint);
+		return endpoint != null && endpoint.isHealthy(System.nanoTime());
+	}
+
+	/**
+	 * Gets the average latency of an end point.
+	 * 
+	 * @param endPoint
+	 *            the end point
+	 * @param unit
+	 *            the unit of the result
+	 * @return the latency, or -1 if the end point had no successful call
+	 */
+	public long getLatency(String endPoint, TimeUnit unit) {
+		final Endpoint endpoint = find(endPoint);
+		if (endpoint == null || endpoint.latency < 0)
+			return -1;
+		return unit.convert((long) endpoint.latency, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Starts a daemon thread that sends a <code>GET</code> to every end point
+	 * each <code>period</code>, without credentials. A response with a
+	 * healthy status (see {@link #withHealthProbe(String, int, int)}) counts
+	 * as a successful call with its latency, which brings an unhealthy end
+	 * point back before its backoff ends. Calling it again replaces the
+	 * previous probes.
+	 * 
+	 * @param client
+	 *            the HTTP client
+	 * @param period
+	 *            the time between probes
+	 * @param unit
+	 *            the unit of the period
+	 */
+	public void startHealthProbes(HttpClient client, long period,
+			TimeUnit unit) {
+		if (client == null)
+			throw new IllegalArgumentException("client is null");
+		startHealthProbes(client, null, period, unit);
+	}
+
+	/**
+	 * Starts the health probes with the HTTP client and the credentials of a
+	 * service, so they can request a path that needs them.
+	 * 
+	 * @param service
+	 *            the service
+	 * @param period
+	 *            the time between probes
+	 * @param unit
+	 *            the unit of the period
+	 * @see #startHealthProbes(HttpClient, long, TimeUnit)
+	 */
+	public void startHealthProbes(WatsonService service, long period,
+			TimeUnit unit) {
+		if (service == null)
+			throw new IllegalArgumentException("service is null");
+		startHealthProbes(service.getHttpClient(), service, period, unit);
+	}
+
+	/**
+	 * Starts the health probes.
+	 * 
+	 * @param client
+	 *            the HTTP client
+	 * @param service
+	 *            the service whose credentials are sent, can be null
+	 * @param period
+	 *            the time between probes
+	 * @param unit
+	 *            the unit of the period
+	 */
+	private synchronized void startHealthProbes(final HttpClient client,
+			final WatsonService service, final long period,
+			final TimeUnit unit) {
+		if (period <= 0)
+			throw new IllegalArgumentException(
+					"period should be greater than 0");
+
+		stopHealthProbes();
+		prober = new Thread("watson-endpoint-probe") {
+			@Override
+			public void run() {
+				try {
+					while (!isInterrupted()) {
+						for (Endpoint endpoint : endpoints) {
+							probe(client, service, endpoint);
+						}
+						unit.sleep(period);
+					}
+				} catch (InterruptedException e) {
+					log.log(Level.FINEST, "Health probes stopped");
+				}
+			}
+		};
+		prober.setDaemon(true);
+		prober.start();
+	}
+
+	/**
+	 * Stops the health probes if they were started.
+	 */
+	public synchronized void stopHealthProbes() {
+		if (prober != null) {
+			prober.interrupt();
+			prober = null;
+		}
+	}
+
+	/**
+	 * Probes an end point.
+	 * 
+	 * @param client
+	 *            the HTTP client
+	 * @param service
+	 *            the service whose credentials are sent, can be null
+	 * @param endpoint
+	 *            the end point
+	 */
+	private void probe(HttpClient client, WatsonService service,
+			Endpoint endpoint) {
+		final long start = System.nanoTime();
+		try {
+			final HttpGet probe = new HttpGet(endpoint.url + probePath);
+			final String authorization = service != null ? service
+					.getAuthorization() : null;
+			if (authorization != null)
+				probe.addHeader(AUTHORIZATION, authorization);
+			final HttpResponse response = client.execute(probe);
+			final int status = response.getStatusLine().getStatusCode();
+			ResponseUtil.consume(response);
+			if (status >= probeMinStatus && status <= probeMaxStatus)
+				endpoint.success(System.nanoTime() - start);
+			else
+				endpoint.failure(System.nanoTime());
+		} catch (IOException e) {
+			log.log(Level.FINE, "Health probe to " + endpoint.url + " failed",
+					e);
+			endpoint.failure(System.nanoTime());
+		} catch (RuntimeException e) {
+			log.log(Level.FINE, "Health probe to " + endpoint.url + " failed",
+					e);
+			endpoint.failure(System.nanoTime());
+		}
+	}
+
+	/**
+	 * Finds an end point.
+	 * 
+	 * @param endPoint
+	 *            the URL of the end point
+	 * @return the end point, or null if it is not one of this selector
+	 */
+	private Endpoint find(String endPoint) {
+		for (Endpoint endpoint : endpoints) {
+			if (endpoint.url.equals(endPoint))
+				return endpoint;
+		}
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "EndpointSelector [endPoints=" + getEndPoints() + "]";
+	}
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram with log-linear buckets, in the spirit of HdrHistogram.
+ * Every power of two of microseconds is split in 8 buckets, so a recorded
+ * value is reported with an error below 12.5% from one microsecond up to
+ * several days. Recording is a single atomic increment and never locks.
+ */
+public class Histogram {
+
+	/** The number of bits used to split each power of two. */
+	private static final int SUB_BUCKET_BITS = 3;
+
+	/** The number of buckets per power of two. */
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/** The highest power of two tracked, larger values go to the last bucket. */
+	private static final int MAX_EXPONENT = 42;
+
+	/** The number of buckets. */
+	private static final int BUCKETS = SUB_BUCKETS
+			+ (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	/**
+	 * Gets the bucket of a value in microseconds.
+	 *
+	 * @param value
+	 *            the value
+	 * @return the bucket index
+	 */
+	static int getBucket(long value) {
+		if (value < SUB_BUCKETS)
+			return (int) Math.max(value, 0);
+
+		final int exponent = 63 - Long.numberOfLeadingZeros(value);
+		if (exponent > MAX_EXPONENT)
+			return BUCKETS - 1;
+
+		final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS))
+				& (SUB_BUCKETS - 1);
+		return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS
+				+ subBucket;
+	}
+
+	/**
+	 * Gets the highest value in microseconds that falls in a bucket.
+	 *
+	 * @param bucket
+	 *            the bucket index
+	 * @return the upper bound of the bucket
+	 */
+	static long getUpperBound(int bucket) {
+		if (bucket < SUB_BUCKETS)
+			return bucket;
+
+		final int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+		final long subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+		return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+	}
+
+	/** The bucket counts. */
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+	/** The number of values. */
+	private final StripedCounter count = new StripedCounter();
+
+	/** The sum of the values in microseconds. */
+	private final StripedCounter sum = new StripedCounter();
+
+	/** The highest value in microseconds. */
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records a value.
+	 *
+	 * @param duration
+	 *            the duration
+	 * @param unit
+	 *            the unit of the duration
+	 */
+	public void record(long duration, TimeUnit unit) {
+		final long value = unit.toMicros(duration);
+		buckets.incrementAndGet(getBucket(value));
+		count.increment();
+		sum.add(value);
+
+		long current = max.get();
+		while (value > current && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+
+	/**
+	 * Gets the number of recorded values.
+	 *
+	 * @return the count
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Gets the mean of the recorded values.
+	 *
+	 * @param unit
+	 *            the unit of the result
+	 * @return the mean, or 0 if nothing was recorded
+	 */
+	public double getMean(TimeUnit unit) {
+		final long n = count.sum();
+		return n == 0 ? 0 : toUnit(sum.sum(), unit) / n;
+	}
+
+	/**
+	 * Gets the highest recorded value.
+	 *
+	 * @param unit
+	 *            the unit of the result
+	 * @return the maximum
+	 */
+	public double getMax(TimeUnit unit) {
+		return toUnit(max.get(), unit);
+	}
+
+	/**
+	 * Gets the value below which the given percentage of the recorded values
+	 * fall, for example 99 for the 99th percentile.
+	 *
+	 * @param percentile
+	 *            the percentile, between 0 and 100
+	 * @param unit
+	 *            the unit of the result
+	 * @return the percentile, or 0 if nothing was recorded
+	 */
+	public double getPercentile(double percentile, TimeUnit unit) {
+		if (percentile < 0 || percentile > 100)
+			throw new IllegalArgumentException(
+					"percentile should be between 0 and 100");
+
+		final long[] counts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets.get(i);
+			total += counts[i];
+		}
+		if (total == 0)
+			return 0;
+
+		final long rank = Math.max(1, (long) Math.ceil(total * percentile
+				/ 100));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank)
+				return toUnit(Math.min(getUpperBound(i), max.get()), unit);
+		}
+		return toUnit(max.get(), unit);
+	}
+
+	/**
+	 * Converts microseconds to the given unit without losing the fraction.
+	 *
+	 * @param micros
+	 *            the value in microseconds
+	 * @param unit
+	 *            the unit
+	 * @return the converted value
+	 */
+	private static double toUnit(double micros, TimeUnit unit) {
+		return micros * TimeUnit.MICROSECONDS.toNanos(1) / unit.toNanos(1);
+	}
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.SchemeRegistry;
+
+/**
+ * Connection manager that reports how long a request waited for a pooled
+ * connection to the {@link CallListener} of the current call. All the other
+ * operations go to the wrapped manager.
+ */
+class InstrumentedConnectionManager implements ClientConnectionManager {
+
+	/** The connection manager. */
+	private final ClientConnectionManager connManager;
+
+	/**
+	 * Instantiates a new instrumented connection manager.
+	 * 
+	 * @param connManager
+	 *            the connection manager to wrap
+	 */
+	InstrumentedConnectionManager(ClientConnectionManager connManager) {
+		this.connManager = connManager;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.apache.http.conn.ClientConnectionManager#getSchemeRegistry()
+	 */
+	@Override
+	public SchemeRegistry getSchemeRegistry() {
+		return connManager.getSchemeRegistry();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.apache.http.conn.ClientConnectionManager#requestConnection(org.apache
+	 * .http.conn.routing.HttpRoute, java.lang.Object)
+	 */
+	@Override
+	public ClientConnectionRequest requestConnection(HttpRoute route,
+			Object state) {
+		final ClientConnectionRequest connRequest = connManager
+				.requestConnection(route, state);
+		final CallEvents call = CallEvents.current();
+		if (call == null)
+			return connRequest;
+
+		return new ClientConnectionRequest() {
+			@Override
+			public ManagedClientConnection getConnection(long timeout,
+					TimeUnit unit) throws InterruptedException,
+					ConnectionPoolTimeoutException {
+				final long start = System.nanoTime();
+				final ManagedClientConnection conn = connRequest
+						.getConnection(timeout, unit);
+				final long now = System.nanoTime();
+				call.listener.connectionAcquired(call.request, now, now - start);
+				return conn;
+			}
+
+			@Override
+			public void abortRequest() {
+				connRequest.abortRequest();
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.apache.http.conn.ClientConnectionManager#releaseConnection(org.apache
+	 * .http.conn.ManagedClientConnection, long, java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public void releaseConnection(ManagedClientConnection conn,
+			long validDuration, TimeUnit timeUnit) {
+		connManager.releaseConnection(conn, validDuration, timeUnit);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.apache.http.conn.ClientConnectionManager#closeIdleConnections(long,
+	 * java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public void closeIdleConnections(long idletime, TimeUnit tunit) {
+		connManager.closeIdleConnections(idletime, tunit);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.apache.http.conn.ClientConnectionManager#closeExpiredConnections()
+	 */
+	@Override
+	public void closeExpiredConnections() {
+		connManager.closeExpiredConnections();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.apache.http.conn.ClientConnectionManager#shutdown()
+	 */
+	@Override
+	public void shutdown() {
+		connManager.shutdown();
+	}
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.io.IOException;
+import java.net.InetAddress;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.scheme.LayeredSocketFactory;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Connection operator that reports when a secure connection starts
+ * connecting. HttpClient opens the TCP connection of a layered (HTTPS) scheme
+ * with its own plain socket factory and only hands the connected socket to
+ * the scheme, so {@link InstrumentedSSLSocketFactory} reports the end of the
+ * connect when TLS is layered on it.
+ */
+class InstrumentedConnectionOperator extends DefaultClientConnectionOperator {
+
+	/**
+	 * Instantiates a new instrumented connection operator.
+	 * 
+	 * @param schemeRegistry
+	 *            the scheme registry
+	 */
+	InstrumentedConnectionOperator(SchemeRegistry schemeRegistry) {
+		super(schemeRegistry);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.apache.http.impl.conn.DefaultClientConnectionOperator#openConnection
+	 * (org.apache.http.conn.OperatedClientConnection, org.apache.http.HttpHost,
+	 * java.net.InetAddress, org.apache.http.protocol.HttpContext,
+	 * org.apache.http.params.HttpParams)
+	 */
+	@Override
+	public void openConnection(OperatedClientConnection conn, HttpHost target,
+			InetAddress local, HttpContext context, HttpParams params)
+			throws IOException {
+		final CallEvents call = CallEvents.current();
+		if (call == null
+				|| !(schemeRegistry.getScheme(target.getSchemeName())
+						.getSocketFactory() instanceof LayeredSocketFactory)) {
+			super.openConnection(conn, target, local, context, params);
+			return;
+		}
+
+		call.listener.connectStart(call.request, System.nanoTime());
+		call.connecting = true;
+		try {
+			super.openConnection(conn, target, local, context, params);
+		} finally {
+			call.connecting = false;
+		}
+	}
+}
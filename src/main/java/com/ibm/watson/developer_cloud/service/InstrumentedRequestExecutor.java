@@ -0,0 +1,73 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.io.IOException;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+/**
+ * Request executor that reports when the request was written and when the
+ * response headers arrived to the {@link CallListener} of the current call.
+ */
+class InstrumentedRequestExecutor extends HttpRequestExecutor {
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.apache.http.protocol.HttpRequestExecutor#doSendRequest(org.apache.
+	 * http.HttpRequest, org.apache.http.HttpClientConnection,
+	 * org.apache.http.protocol.HttpContext)
+	 */
+	@Override
+	protected HttpResponse doSendRequest(HttpRequest request,
+			HttpClientConnection conn, HttpContext context)
+			throws IOException, HttpException {
+		final HttpResponse response = super.doSendRequest(request, conn,
+				context);
+		final CallEvents call = CallEvents.current();
+		if (call != null)
+			call.listener.requestSent(call.request, System.nanoTime());
+		return response;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.apache.http.protocol.HttpRequestExecutor#doReceiveResponse(org.apache
+	 * .http.HttpRequest, org.apache.http.HttpClientConnection,
+	 * org.apache.http.protocol.HttpContext)
+	 */
+	@Override
+	protected HttpResponse doReceiveResponse(HttpRequest request,
+			HttpClientConnection conn, HttpContext context)
+			throws HttpException, IOException {
+		final HttpResponse response = super.doReceiveResponse(request, conn,
+				context);
+		final CallEvents call = CallEvents.current();
+		if (call != null)
+			call.listener.responseHeadersReceived(call.request,
+					System.nanoTime());
+		return response;
+	}
+}
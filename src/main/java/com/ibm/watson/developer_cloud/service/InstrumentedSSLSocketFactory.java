@@ -0,0 +1,116 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import org.apache.http.conn.scheme.LayeredSocketFactory;
+import org.apache.http.conn.scheme.SocketFactory;
+import org.apache.http.params.HttpParams;
+
+/**
+ * HTTPS socket factory that opens the TCP connection and performs the TLS
+ * handshake as two steps, so the {@link CallListener} of the current call can
+ * see how long each of them took. The plain socket is connected by
+ * <code>plainSocketFactory</code> and then layered with
+ * <code>sslSocketFactory</code>.
+ * <br>
+ * HttpClient 4.0 connects the socket of a layered scheme itself and only calls
+ * {@link #createSocket(Socket, String, int, boolean)}, so there the connect
+ * start is reported by {@link InstrumentedConnectionOperator} and the connect
+ * end when the connected socket arrives here.
+ */
+class InstrumentedSSLSocketFactory extends InstrumentedSocketFactory
+		implements LayeredSocketFactory {
+
+	/** The SSL socket factory. */
+	private final LayeredSocketFactory sslSocketFactory;
+
+	/**
+	 * Instantiates a new instrumented SSL socket factory.
+	 * 
+	 * @param plainSocketFactory
+	 *            the socket factory that opens the TCP connections
+	 * @param sslSocketFactory
+	 *            the socket factory that layers TLS on them
+	 */
+	InstrumentedSSLSocketFactory(SocketFactory plainSocketFactory,
+			LayeredSocketFactory sslSocketFactory) {
+		super(plainSocketFactory);
+		this.sslSocketFactory = sslSocketFactory;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.InstrumentedSocketFactory#connectSocket
+	 * (java.net.Socket, java.lang.String, int, java.net.InetAddress, int,
+	 * org.apache.http.params.HttpParams)
+	 */
+	@Override
+	public Socket connectSocket(Socket sock, String host, int port,
+			InetAddress localAddress, int localPort, HttpParams params)
+			throws IOException {
+		final Socket socket = super.connectSocket(sock, host, port,
+				localAddress, localPort, params);
+		try {
+			return createSocket(socket, host, port, true);
+		} catch (IOException e) {
+			// the handshake or the host name verification failed
+			socket.close();
+			throw e;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.apache.http.conn.scheme.LayeredSocketFactory#createSocket(java.net
+	 * .Socket, java.lang.String, int, boolean)
+	 */
+	@Override
+	public Socket createSocket(Socket socket, String host, int port,
+			boolean autoClose) throws IOException {
+		final CallEvents call = CallEvents.current();
+		if (call != null && call.connecting) {
+			call.connecting = false;
+			call.listener.connectEnd(call.request, System.nanoTime());
+		}
+		if (call != null)
+			call.listener.secureConnectStart(call.request, System.nanoTime());
+		final Socket sslSocket = sslSocketFactory.createSocket(socket, host,
+				port, autoClose);
+		if (call != null)
+			call.listener.secureConnectEnd(call.request, System.nanoTime());
+		return sslSocket;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.InstrumentedSocketFactory#isSecure
+	 * (java.net.Socket)
+	 */
+	@Override
+	public boolean isSecure(Socket sock) {
+		return sslSocketFactory.isSecure(sock);
+	}
+}
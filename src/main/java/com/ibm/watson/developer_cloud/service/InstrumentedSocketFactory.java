@@ -0,0 +1,85 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import org.apache.http.conn.scheme.SocketFactory;
+import org.apache.http.params.HttpParams;
+
+/**
+ * Socket factory that reports when a new connection starts and finishes
+ * connecting to the {@link CallListener} of the current call. Without a
+ * listener it only costs a thread local lookup per new connection.
+ */
+class InstrumentedSocketFactory implements SocketFactory {
+
+	/** The socket factory. */
+	private final SocketFactory socketFactory;
+
+	/**
+	 * Instantiates a new instrumented socket factory.
+	 * 
+	 * @param socketFactory
+	 *            the socket factory that opens the TCP connections
+	 */
+	InstrumentedSocketFactory(SocketFactory socketFactory) {
+		this.socketFactory = socketFactory;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.apache.http.conn.scheme.SocketFactory#createSocket()
+	 */
+	@Override
+	public Socket createSocket() throws IOException {
+		return socketFactory.createSocket();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.apache.http.conn.scheme.SocketFactory#connectSocket(java.net.Socket,
+	 * java.lang.String, int, java.net.InetAddress, int,
+	 * org.apache.http.params.HttpParams)
+	 */
+	@Override
+	public Socket connectSocket(Socket sock, String host, int port,
+			InetAddress localAddress, int localPort, HttpParams params)
+			throws IOException {
+		final CallEvents call = CallEvents.current();
+		if (call != null)
+			call.listener.connectStart(call.request, System.nanoTime());
+		final Socket socket = socketFactory.connectSocket(sock, host, port,
+				localAddress, localPort, params);
+		if (call != null)
+			call.listener.connectEnd(call.request, System.nanoTime());
+		return socket;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.apache.http.conn.scheme.SocketFactory#isSecure(java.net.Socket)
+	 */
+	@Override
+	public boolean isSecure(Socket sock) {
+		return socketFactory.isSecure(sock);
+	}
+}
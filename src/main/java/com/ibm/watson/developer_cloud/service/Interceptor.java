@@ -0,0 +1,93 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.io.IOException;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * Observes, modifies or short-circuits the requests executed by a
+ * {@link WatsonService}. Interceptors run in the order they were added, after
+ * the request was prepared (credentials, <code>Accept</code> header and
+ * absolute URI) and before the response status is turned into an exception.
+ * The last interceptor proceeds to the network, which applies the rate
+ * limiter, circuit breaker and retry policy of the service. <br>
+ * Example: <pre>
+ * {@code
+ *  service.addInterceptor(new Interceptor() {
+ *    public HttpResponse intercept(Chain chain) throws IOException {
+ *      HttpRequestBase request = chain.getRequest();
+ *      request.addHeader("X-Trace-Id", traceId());
+ *      return chain.proceed(request);
+ *    }
+ *  });
+ * }</pre>
+ * An interceptor can call {@link Chain#proceed(HttpRequestBase)} more than
+ * once, for example to retry, or not at all and return its own response, for
+ * example from a cache. Responses that are discarded have to be consumed to
+ * release their connection.
+ *
+ * @see WatsonService#addInterceptor(Interceptor)
+ */
+public interface Interceptor {
+
+	/**
+	 * A position in the interceptor chain of a single call. It is not thread
+	 * safe, {@link #proceed(HttpRequestBase)} has to be called by the thread
+	 * that runs the interceptor.
+	 */
+	interface Chain {
+
+		/**
+		 * Gets the request that reached this interceptor.
+		 * 
+		 * @return the request
+		 */
+		HttpRequestBase getRequest();
+
+		/**
+		 * Gets the service that executes the request.
+		 * 
+		 * @return the service
+		 */
+		WatsonService getService();
+
+		/**
+		 * Passes the request to the next interceptor, or to the network if
+		 * this is the last one.
+		 * 
+		 * @param request
+		 *            the request
+		 * @return the response, whatever its status code
+		 * @throws IOException
+		 *             Signals that an I/O exception has occurred.
+		 */
+		HttpResponse proceed(HttpRequestBase request) throws IOException;
+	}
+
+	/**
+	 * Intercepts a request.
+	 * 
+	 * @param chain
+	 *            the chain, with the request and the next step
+	 * @return the response
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	HttpResponse intercept(Chain chain) throws IOException;
+}
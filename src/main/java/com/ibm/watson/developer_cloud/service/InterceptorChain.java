@@ -0,0 +1,118 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.io.IOException;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * The interceptor chain of a single call. One instance walks the whole
+ * interceptor array by moving an index, so a call allocates a single chain
+ * whatever the number of interceptors.
+ */
+abstract class InterceptorChain implements Interceptor.Chain {
+
+	/** The service. */
+	private final WatsonService service;
+
+	/** The interceptors. */
+	private final Interceptor[] interceptors;
+
+	/** The index of the next interceptor. */
+	private int index;
+
+	/** The request of the current interceptor. */
+	private HttpRequestBase request;
+
+	/**
+	 * Instantiates a new interceptor chain.
+	 * 
+	 * @param service
+	 *            the service
+	 * @param interceptors
+	 *            the interceptors, in order
+	 */
+	InterceptorChain(WatsonService service, Interceptor[] interceptors) {
+		this.service = service;
+		this.interceptors = interceptors;
+	}
+
+	/**
+	 * Executes the request on the network.
+	 * 
+	 * @param request
+	 *            the request
+	 * @return the response
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	abstract HttpResponse proceedToNetwork(HttpRequestBase request)
+			throws IOException;
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.Interceptor.Chain#getRequest()
+	 */
+	@Override
+	public HttpRequestBase getRequest() {
+		return request;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.Interceptor.Chain#getService()
+	 */
+	@Override
+	public WatsonService getService() {
+		return service;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.Interceptor.Chain#proceed(org.
+	 * apache.http.client.methods.HttpRequestBase)
+	 */
+	@Override
+	public HttpResponse proceed(HttpRequestBase request) throws IOException {
+		if (request == null)
+			throw new IllegalArgumentException("request is null");
+
+		if (index == interceptors.length)
+			return proceedToNetwork(request);
+
+		final HttpRequestBase previous = this.request;
+		final Interceptor interceptor = interceptors[index++];
+		this.request = request;
+		try {
+			final HttpResponse response = interceptor.intercept(this);
+			if (response == null)
+				throw new IllegalStateException(interceptor
+						+ " returned a null response");
+			return response;
+		} finally {
+			index--;
+			this.request = previous;
+		}
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import org.apache.http.HttpResponse;
+
+import com.google.gson.Gson;
+import com.ibm.watson.developer_cloud.util.ResponseUtil;
+
+/**
+ * {@link ResponseConverter} that deserializes the JSON body of the response
+ * with {@link Gson}. The JSON is parsed while it is read from the connection.
+ *
+ * @param <T>
+ *            the type of the converted response
+ */
+public class JsonResponseConverter<T> implements
+		MaterializedResponseConverter<T> {
+
+	/** The gson. */
+	private final Gson gson;
+
+	/** The type. */
+	private final Type type;
+
+	/**
+	 * Instantiates a new JSON response converter.
+	 *
+	 * @param gson
+	 *            the gson used to deserialize the response
+	 * @param type
+	 *            the type of the response, a class or a generic type
+	 */
+	public JsonResponseConverter(Gson gson, Type type) {
+		if (gson == null)
+			throw new IllegalArgumentException("gson is null");
+		if (type == null)
+			throw new IllegalArgumentException("type is null");
+		this.gson = gson;
+		this.type = type;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.ibm.watson.developer_cloud.service.ResponseConverter#convert(org.apache.http.HttpResponse)
+	 */
+	@Override
+	public T convert(HttpResponse response) throws IOException {
+		return ResponseUtil.getObject(response, gson, type);
+	}
+}
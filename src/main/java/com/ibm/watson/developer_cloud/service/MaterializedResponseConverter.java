@@ -0,0 +1,29 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+/**
+ * {@link ResponseConverter} that reads the whole response body into the
+ * object it returns, so the object stays valid once the response is released
+ * and can be given to several callers. Only the calls that use one are
+ * coalesced by {@link WatsonService#setRequestCoalescing(boolean)}, a
+ * converter that returns the body as a stream is not shared.
+ *
+ * @param <T>
+ *            the type of the converted response
+ */
+public interface MaterializedResponseConverter<T> extends ResponseConverter<T> {
+}
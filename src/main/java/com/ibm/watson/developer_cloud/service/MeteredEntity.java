@@ -0,0 +1,139 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+/**
+ * Response entity that counts the bytes read from the connection and calls
+ * {@link #completed(long)} once, when the body has been read, closed or
+ * discarded.
+ */
+abstract class MeteredEntity extends HttpEntityWrapper {
+
+	/** The bytes received. */
+	private volatile long bytesReceived;
+
+	/** Whether the body was already reported. */
+	private final AtomicBoolean completed = new AtomicBoolean();
+
+	/**
+	 * Instantiates a new metered entity.
+	 *
+	 * @param entity
+	 *            the response entity
+	 */
+	MeteredEntity(HttpEntity entity) {
+		super(entity);
+	}
+
+	/**
+	 * Called once the body has been read, closed or discarded.
+	 *
+	 * @param bytesReceived
+	 *            the bytes read from the connection
+	 */
+	abstract void completed(long bytesReceived);
+
+	/**
+	 * Reports the body once.
+	 */
+	private void complete() {
+		if (completed.compareAndSet(false, true)) {
+			completed(bytesReceived);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.apache.http.entity.HttpEntityWrapper#getContent()
+	 */
+	@Override
+	public InputStream getContent() throws IOException {
+		final InputStream is = wrappedEntity.getContent();
+		if (is == null) {
+			complete();
+			return null;
+		}
+		return new FilterInputStream(is) {
+			@Override
+			public int read() throws IOException {
+				final int b = super.read();
+				if (b == -1)
+					complete();
+				else
+					bytesReceived++;
+				return b;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				final int n = super.read(b, off, len);
+				if (n == -1)
+					complete();
+				else
+					bytesReceived += n;
+				return n;
+			}
+
+			@Override
+			public void close() throws IOException {
+				try {
+					super.close();
+				} finally {
+					complete();
+				}
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.apache.http.entity.HttpEntityWrapper#writeTo(java.io.OutputStream)
+	 */
+	@Override
+	public void writeTo(OutputStream outstream) throws IOException {
+		try {
+			super.writeTo(outstream);
+			bytesReceived = Math.max(0, wrappedEntity.getContentLength());
+		} finally {
+			complete();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.apache.http.entity.HttpEntityWrapper#consumeContent()
+	 */
+	@Override
+	public void consumeContent() throws IOException {
+		try {
+			super.consumeContent();
+		} finally {
+			complete();
+		}
+	}
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+/**
+ * Receives the metrics of every HTTP request executed by a
+ * {@link WatsonService}. Implementations are called on the request thread
+ * and have to be thread safe and cheap. {@link MetricsRegistry} is the
+ * built-in implementation.
+ * <p>
+ * The endpoint is the HTTP method and the URL template, for example
+ * <code>POST /v1/classifiers/%s/classify</code>, or the request path when the
+ * request was not built from a {@link UrlTemplate}.
+ *
+ * @see WatsonService#setMetricsCollector(MetricsCollector)
+ */
+public interface MetricsCollector {
+
+	/**
+	 * Called before a request is sent.
+	 *
+	 * @param service
+	 *            the service name
+	 * @param endpoint
+	 *            the endpoint
+	 */
+	void requestStarted(String service, String endpoint);
+
+	/**
+	 * Called when the response headers were received or the request failed
+	 * without a response, whether or not the body is read later.
+	 *
+	 * @param service
+	 *            the service name
+	 * @param endpoint
+	 *            the endpoint
+	 */
+	void responseReceived(String service, String endpoint);
+
+	/**
+	 * Called when the {@link RateLimiter} delayed or rejected a request
+	 * before it was sent.
+	 *
+	 * @param service
+	 *            the service name
+	 * @param endpoint
+	 *            the endpoint
+	 * @param waitTime
+	 *            nanoseconds spent waiting for a permit, 0 if the request was
+	 *            rejected without waiting
+	 */
+	void requestThrottled(String service, String endpoint, long waitTime);
+
+	/**
+	 * Called once the response body was read or discarded, or when the
+	 * request failed with an I/O error.
+	 *
+	 * @param service
+	 *            the service name
+	 * @param endpoint
+	 *            the endpoint
+	 * @param status
+	 *            the HTTP status code, 0 if there was no response
+	 * @param bytesSent
+	 *            the size of the request body, 0 if unknown
+	 * @param bytesReceived
+	 *            the bytes of the response body read from the connection
+	 * @param timeToFirstByte
+	 *            nanoseconds until the response headers were received
+	 * @param latency
+	 *            nanoseconds until the response body was read
+	 */
+	void requestCompleted(String service, String endpoint, int status,
+			long bytesSent, long bytesReceived, long timeToFirstByte,
+			long latency);
+}
@@ -0,0 +1,377 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Built-in {@link MetricsCollector} that keeps counters and latency
+ * histograms per service and endpoint. When JMX is enabled every endpoint is
+ * registered in the platform MBean server as
+ * <code>com.ibm.watson.developer_cloud:type=EndpointMetrics,registry=...,service=...,endpoint=...</code>
+ * so it can be read from JConsole or any JMX agent. The registry key is the
+ * name of the registry, which keeps the metrics of several registries in the
+ * same JVM apart. <br>
+ * Example: <pre>
+ * {@code
+ *  MetricsRegistry registry = new MetricsRegistry();
+ *  service.setMetricsCollector(registry);
+ *  ...
+ *  for (EndpointMetrics metrics : registry.getMetrics())
+ *    System.out.println(metrics);
+ * }</pre>
+ * Response caches can be registered too, see
+ * {@link #register(String, ResponseCache)}.
+ * <p>
+ * Recording takes no locks. The number of endpoints is capped to
+ * {@link #MAX_ENDPOINTS}, requests to other endpoints are counted under
+ * {@link #OTHER_ENDPOINT}.
+ */
+public class MetricsRegistry implements MetricsCollector {
+
+	/** The Constant log. */
+	private static final Logger log = Logger.getLogger(MetricsRegistry.class
+			.getName());
+
+	/**
+	 * Field JMX_DOMAIN. (value is ""com.ibm.watson.developer_cloud"")
+	 */
+	public static final String JMX_DOMAIN = "com.ibm.watson.developer_cloud";
+
+	/**
+	 * Field MAX_ENDPOINTS. (value is 1000)
+	 */
+	public static final int MAX_ENDPOINTS = 1000;
+
+	/**
+	 * Field OTHER_ENDPOINT. (value is ""other"")
+	 */
+	public static final String OTHER_ENDPOINT = "other";
+
+	/** The number of registries created, used to name them. */
+	private static final AtomicInteger registryCount = new AtomicInteger();
+
+	/** The name, the registry key of the JMX object names. */
+	private final String name;
+
+	/** The metrics by service, then by endpoint. */
+	private final ConcurrentMap<String, ConcurrentMap<String, EndpointMetrics>> metrics = new ConcurrentHashMap<String, ConcurrentMap<String, EndpointMetrics>>();
+
+	/** The number of endpoints of all the services. */
+	private final AtomicInteger endpointCount = new AtomicInteger();
+
+	/** The response caches by name. */
+	private final ConcurrentMap<String, ResponseCache> caches = new ConcurrentHashMap<String, ResponseCache>();
+
+	/** The MBean server, null if JMX is disabled. */
+	private final MBeanServer mbeanServer;
+
+	/**
+	 * Instantiates a new metrics registry that registers its metrics in the
+	 * platform MBean server.
+	 */
+	public MetricsRegistry() {
+		this(true);
+	}
+
+	/**
+	 * Instantiates a new metrics registry named after the number of
+	 * registries created so far.
+	 * 
+	 * @param jmx
+	 *            true to register the metrics in the platform MBean server
+	 */
+	public MetricsRegistry(boolean jmx) {
+		this(String.valueOf(registryCount.incrementAndGet()), jmx);
+	}
+
+	/**
+	 * Instantiates a new metrics registry.
+	 * 
+	 * @param name
+	 *            the name of the registry, unique in the JVM
+	 * @param jmx
+	 *            true to register the metrics in the platform MBean server
+	 */
+	public MetricsRegistry(String name, boolean jmx) {
+		if (name == null || name.isEmpty())
+			throw new IllegalArgumentException("name can not be null or empty");
+		this.name = name;
+		mbeanServer = jmx ? ManagementFactory.getPlatformMBeanServer() : null;
+	}
+
+	/**
+	 * Gets the name of the registry.
+	 * 
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the metrics of an endpoint, creating them if needed.
+	 * 
+	 * @param service
+	 *            the service name
+	 * @param endpoint
+	 *            the endpoint
+	 * @return the endpoint metrics
+	 */
+	private EndpointMetrics getOrCreate(String service, String endpoint) {
+		ConcurrentMap<String, EndpointMetrics> byEndpoint = metrics
+				.get(service);
+		if (byEndpoint == null) {
+			byEndpoint = new ConcurrentHashMap<String, EndpointMetrics>();
+			final ConcurrentMap<String, EndpointMetrics> previous = metrics
+					.putIfAbsent(service, byEndpoint);
+			if (previous != null)
+				byEndpoint = previous;
+		}
+
+		EndpointMetrics endpointMetrics = byEndpoint.get(endpoint);
+		if (endpointMetrics != null)
+			return endpointMetrics;
+
+		if (endpointCount.get() >= MAX_ENDPOINTS
+				&& !OTHER_ENDPOINT.equals(endpoint))
+			return getOrCreate(service, OTHER_ENDPOINT);
+
+		endpointMetrics = new EndpointMetrics(service, endpoint);
+		final EndpointMetrics previous = byEndpoint.putIfAbsent(endpoint,
+				endpointMetrics);
+		if (previous != null)
+			return previous;
+
+		endpointCount.incrementAndGet();
+		register(endpointMetrics);
+		return endpointMetrics;
+	}
+
+	/**
+	 * Gets the metrics of an endpoint.
+	 * 
+	 * @param service
+	 *            the service name, for example
+	 *            <code>NaturalLanguageClassifier</code>
+	 * @param endpoint
+	 *            the endpoint, for example
+	 *            <code>POST /v1/classifiers/%s/classify</code>
+	 * @return the endpoint metrics or null if there were no requests
+	 */
+	public EndpointMetrics getMetrics(String service, String endpoint) {
+		final ConcurrentMap<String, EndpointMetrics> byEndpoint = metrics
+				.get(service);
+		return byEndpoint != null ? byEndpoint.get(endpoint) : null;
+	}
+
+	/**
+	 * Gets the metrics of all the endpoints.
+	 * 
+	 * @return the endpoint metrics
+	 */
+	public Collection<EndpointMetrics> getMetrics() {
+		final Collection<EndpointMetrics> all = new ArrayList<EndpointMetrics>(
+				endpointCount.get());
+		for (final ConcurrentMap<String, EndpointMetrics> byEndpoint : metrics
+				.values())
+			all.addAll(byEndpoint.values());
+		return all;
+	}
+
+	/**
+	 * Gets the JMX object name of an endpoint.
+	 * 
+	 * @param endpointMetrics
+	 *            the endpoint metrics
+	 * @return the object name
+	 * @throws JMException
+	 *             if the name is not valid
+	 */
+	private ObjectName getObjectName(EndpointMetrics endpointMetrics)
+			throws JMException {
+		return new ObjectName(JMX_DOMAIN + ":type=EndpointMetrics,registry="
+				+ ObjectName.quote(name) + ",service="
+				+ ObjectName.quote(endpointMetrics.getService()) + ",endpoint="
+				+ ObjectName.quote(endpointMetrics.getEndpoint()));
+	}
+
+	/**
+	 * Registers the endpoint metrics in the MBean server.
+	 * 
+	 * @param endpointMetrics
+	 *            the endpoint metrics
+	 */
+	private void register(EndpointMetrics endpointMetrics) {
+		if (mbeanServer == null)
+			return;
+		try {
+			mbeanServer.registerMBean(endpointMetrics,
+					getObjectName(endpointMetrics));
+		} catch (JMException e) {
+			log.log(Level.WARNING, "Could not register the metrics of "
+					+ endpointMetrics.getEndpoint() + " in JMX", e);
+		}
+	}
+
+	/**
+	 * Registers the counters of a response cache, in the MBean server as
+	 * <code>com.ibm.watson.developer_cloud:type=ResponseCache,registry=...,name=...</code>
+	 * when JMX is enabled. Registering another cache with the same name
+	 * replaces it.
+	 * 
+	 * @param name
+	 *            the name of the cache
+	 * @param cache
+	 *            the response cache
+	 */
+	public void register(String name, ResponseCache cache) {
+		if (name == null)
+			throw new IllegalArgumentException("name is null");
+		if (cache == null)
+			throw new IllegalArgumentException("cache is null");
+
+		caches.put(name, cache);
+		if (mbeanServer == null)
+			return;
+		try {
+			final ObjectName objectName = getObjectName(name);
+			if (mbeanServer.isRegistered(objectName))
+				mbeanServer.unregisterMBean(objectName);
+			mbeanServer.registerMBean(cache, objectName);
+		} catch (JMException e) {
+			log.log(Level.WARNING, "Could not register the response cache "
+					+ name + " in JMX", e);
+		}
+	}
+
+	/**
+	 * Gets a registered response cache.
+	 * 
+	 * @param name
+	 *            the name of the cache
+	 * @return the response cache, or null if there is none with the name
+	 */
+	public ResponseCache getResponseCache(String name) {
+		return caches.get(name);
+	}
+
+	/**
+	 * Gets the JMX object name of a response cache.
+	 * 
+	 * @param cacheName
+	 *            the name of the cache
+	 * @return the object name
+	 * @throws JMException
+	 *             if the name is not valid
+	 */
+	private ObjectName getObjectName(String cacheName) throws JMException {
+		return new ObjectName(JMX_DOMAIN + ":type=ResponseCache,registry="
+				+ ObjectName.quote(name) + ",name="
+				+ ObjectName.quote(cacheName));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.MetricsCollector#requestStarted
+	 * (java.lang.String, java.lang.String)
+	 */
+	@Override
+	public void requestStarted(String service, String endpoint) {
+		getOrCreate(service, endpoint).started();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.MetricsCollector#responseReceived
+	 * (java.lang.String, java.lang.String)
+	 */
+	@Override
+	public void responseReceived(String service, String endpoint) {
+		getOrCreate(service, endpoint).received();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.MetricsCollector#requestThrottled
+	 * (java.lang.String, java.lang.String, long)
+	 */
+	@Override
+	public void requestThrottled(String service, String endpoint, long waitTime) {
+		getOrCreate(service, endpoint).throttled(waitTime);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.MetricsCollector#requestCompleted
+	 * (java.lang.String, java.lang.String, int, long, long, long, long)
+	 */
+	@Override
+	public void requestCompleted(String service, String endpoint, int status,
+			long bytesSent, long bytesReceived, long timeToFirstByte,
+			long latency) {
+		getOrCreate(service, endpoint).completed(status, bytesSent,
+				bytesReceived, timeToFirstByte, latency);
+	}
+
+	/**
+	 * Removes the metrics and the response caches of this registry from the
+	 * MBean server.
+	 */
+	public void unregister() {
+		if (mbeanServer == null)
+			return;
+		for (final EndpointMetrics endpointMetrics : getMetrics()) {
+			try {
+				final ObjectName name = getObjectName(endpointMetrics);
+				if (mbeanServer.isRegistered(name))
+					mbeanServer.unregisterMBean(name);
+			} catch (JMException e) {
+				log.log(Level.FINE, "Could not unregister the metrics of "
+						+ endpointMetrics.getEndpoint(), e);
+			}
+		}
+		for (final String name : caches.keySet()) {
+			try {
+				final ObjectName objectName = getObjectName(name);
+				if (mbeanServer.isRegistered(objectName))
+					mbeanServer.unregisterMBean(objectName);
+			} catch (JMException e) {
+				log.log(Level.FINE, "Could not unregister the response cache "
+						+ name, e);
+			}
+		}
+	}
+}
@@ -0,0 +1,313 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client-side token bucket rate limiter. Each combination of service end point
+ * and API key gets its own bucket that refills at
+ * <code>permitsPerSecond</code> and holds up to <code>burst</code> permits,
+ * so requests are throttled before they leave the client instead of being
+ * rejected with <code>429 Too Many Requests</code>. A request that would wait
+ * longer than the max wait, 30 seconds by default, fails right away with a
+ * {@link TooManyRequestsException} instead of borrowing more permits.
+ * <br>
+ * Example: <pre>
+ * {@code
+ *  RateLimiter limiter = new RateLimiter(20, 5);
+ *  classifier.setRateLimiter(limiter);
+ *  translation.setRateLimiter(limiter);
+ * }</pre>
+ */
+public class RateLimiter {
+
+	/**
+	 * A token bucket. Permits can be borrowed ahead of time, the threads that
+	 * borrow them wait in order until the bucket is refilled.
+	 */
+	private static final class Bucket {
+
+		/** The permits added per nanosecond. */
+		private final double permitsPerNano;
+
+		/** The max permits. */
+		private final double maxPermits;
+
+		/** The available permits, negative when borrowed ahead of time. */
+		private double permits;
+
+		/** The time of the last refill. */
+		private long lastRefill;
+
+		/**
+		 * Instantiates a new full bucket.
+		 * 
+		 * @param permitsPerSecond
+		 *            the refill rate
+		 * @param burst
+		 *            the bucket size
+		 */
+		Bucket(double permitsPerSecond, int burst) {
+			this.permitsPerNano = permitsPerSecond
+					/ TimeUnit.SECONDS.toNanos(1);
+			this.maxPermits = burst;
+			this.permits = burst;
+			this.lastRefill = System.nanoTime();
+		}
+
+		/**
+		 * Refills the bucket.
+		 * 
+		 * @param now
+		 *            the current time in nanoseconds
+		 */
+		private void refill(long now) {
+			if (now > lastRefill) {
+				permits = Math.min(maxPermits, permits
+						+ (now - lastRefill) * permitsPerNano);
+				lastRefill = now;
+			}
+		}
+
+		/**
+		 * Takes a permit, borrowing it if the bucket is empty and the permit
+		 * is available within <code>maxWait</code>.
+		 * 
+		 * @param maxWait
+		 *            the max wait in nanoseconds
+		 * @return the nanoseconds to wait before the permit can be used, or -1
+		 *         if no permit was taken because the wait would be longer
+		 */
+		synchronized long reserve(long maxWait) {
+			refill(System.nanoTime());
+			final double remaining = permits - 1;
+			final long wait = remaining >= 0 ? 0
+					: (long) (-remaining / permitsPerNano);
+			if (wait > maxWait)
+				return -1;
+			permits = remaining;
+			return wait;
+		}
+
+		/**
+		 * Gives back a permit that was taken but not used.
+		 */
+		synchronized void release() {
+			permits = Math.min(maxPermits, permits + 1);
+		}
+
+		/**
+		 * Takes a permit only if one is available.
+		 * 
+		 * @return true, if a permit was taken
+		 */
+		synchronized boolean tryAcquire() {
+			refill(System.nanoTime());
+			if (permits < 1)
+				return false;
+			permits -= 1;
+			return true;
+		}
+	}
+
+	/** The buckets by end point and API key. */
+	private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<String, Bucket>();
+
+	/** The permits per second. */
+	private final double permitsPerSecond;
+
+	/** The burst. */
+	private final int burst;
+
+	/** Whether requests wait for a permit or fail right away. */
+	private volatile boolean blocking = true;
+
+	/** The max time to wait for a permit in nanoseconds. */
+	private volatile long maxWait = TimeUnit.SECONDS.toNanos(30);
+
+	/** The total time spent waiting for permits. */
+	private final AtomicLong waitTime = new AtomicLong();
+
+	/** The number of requests that had to wait or were rejected. */
+	private final AtomicLong throttledRequests = new AtomicLong();
+
+	/**
+	 * Instantiates a new rate limiter.
+	 * 
+	 * @param permitsPerSecond
+	 *            the sustained number of requests per second
+	 * @param burst
+	 *            the number of requests that can be sent at once after an
+	 *            idle period
+	 */
+	public RateLimiter(double permitsPerSecond, int burst) {
+		if (permitsPerSecond <= 0)
+			throw new IllegalArgumentException(
+					"permitsPerSecond should be greater than 0");
+		if (burst < 1)
+			throw new IllegalArgumentException("burst should be greater than 0");
+		this.permitsPerSecond = permitsPerSecond;
+		this.burst = burst;
+	}
+
+	/**
+	 * Sets whether {@link WatsonService} waits for a permit or fails with a
+	 * {@link TooManyRequestsException} when none is available. It waits by
+	 * default.
+	 * 
+	 * @param blocking
+	 *            true to wait for a permit
+	 * @return this
+	 */
+	public RateLimiter withBlocking(boolean blocking) {
+		this.blocking = blocking;
+		return this;
+	}
+
+	/**
+	 * Sets the max time a request waits for a permit. A request that would
+	 * wait longer fails with a {@link TooManyRequestsException} without
+	 * taking a permit.
+	 * 
+	 * @param maxWait
+	 *            the max wait
+	 * @param unit
+	 *            the time unit
+	 * @return this
+	 */
+	public RateLimiter withMaxWait(long maxWait, TimeUnit unit) {
+		if (maxWait < 0)
+			throw new IllegalArgumentException("maxWait can not be negative");
+		this.maxWait = unit.toNanos(maxWait);
+		return this;
+	}
+
+	/**
+	 * Gets the max time a request waits for a permit.
+	 * 
+	 * @param unit
+	 *            the time unit
+	 * @return the max wait
+	 */
+	public long getMaxWait(TimeUnit unit) {
+		return unit.convert(maxWait, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Checks if the limiter waits for a permit.
+	 * 
+	 * @return true, if blocking
+	 */
+	public boolean isBlocking() {
+		return blocking;
+	}
+
+	/**
+	 * Gets the bucket for the end point and API key.
+	 * 
+	 * @param endPoint
+	 *            the service end point
+	 * @param apiKey
+	 *            the API key
+	 * @return the bucket
+	 */
+	private Bucket getBucket(String endPoint, String apiKey) {
+		final String key = endPoint + '\n' + apiKey;
+		Bucket bucket = buckets.get(key);
+		if (bucket == null) {
+			bucket = new Bucket(permitsPerSecond, burst);
+			final Bucket previous = buckets.putIfAbsent(key, bucket);
+			if (previous != null)
+				bucket = previous;
+		}
+		return bucket;
+	}
+
+	/**
+	 * Takes a permit, waiting until one is available or failing if that
+	 * takes longer than the max wait.
+	 * 
+	 * @param endPoint
+	 *            the service end point
+	 * @param apiKey
+	 *            the API key
+	 * @return the time waited in nanoseconds, or -1 if no permit is available
+	 *         within the max wait
+	 * @throws InterruptedException
+	 *             if the thread was interrupted while waiting, the permit is
+	 *             given back
+	 */
+	public long acquire(String endPoint, String apiKey)
+			throws InterruptedException {
+		final Bucket bucket = getBucket(endPoint, apiKey);
+		final long wait = bucket.reserve(maxWait);
+		if (wait != 0)
+			throttledRequests.incrementAndGet();
+		if (wait > 0) {
+			final long start = System.nanoTime();
+			try {
+				TimeUnit.NANOSECONDS.sleep(wait);
+			} catch (InterruptedException e) {
+				bucket.release();
+				waitTime.addAndGet(System.nanoTime() - start);
+				throw e;
+			}
+			waitTime.addAndGet(wait);
+		}
+		return wait;
+	}
+
+	/**
+	 * Takes a permit if one is available without waiting.
+	 * 
+	 * @param endPoint
+	 *            the service end point
+	 * @param apiKey
+	 *            the API key
+	 * @return true, if the permit was taken
+	 */
+	public boolean tryAcquire(String endPoint, String apiKey) {
+		final boolean acquired = getBucket(endPoint, apiKey).tryAcquire();
+		if (!acquired)
+			throttledRequests.incrementAndGet();
+		return acquired;
+	}
+
+	/**
+	 * Gets the total time requests spent waiting for a permit.
+	 * 
+	 * @param unit
+	 *            the time unit
+	 * @return the total wait time
+	 */
+	public long getWaitTime(TimeUnit unit) {
+		return unit.convert(waitTime.get(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Gets the number of requests that had to wait for a permit or were
+	 * rejected because none was available.
+	 * 
+	 * @return the throttled requests
+	 */
+	public long getThrottledRequests() {
+		return throttledRequests.get();
+	}
+}
@@ -17,10 +17,10 @@ package com.ibm.watson.developer_cloud.service;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
-import java.net.URLDecoder;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.NameValuePair;
@@ -54,6 +54,22 @@ public class Request {
 	/** The Constant UTF_8. */
 	private static final String UTF_8 = "UTF-8";
 
+	/**
+	 * Request parameter with the URL template the request was built from,
+	 * used to group metrics by endpoint.
+	 */
+	static final String URL_TEMPLATE = "watson.request.url_template";
+
+	/**
+	 * Field MAX_CACHED_TEMPLATES. (value is 256) Templates are usually
+	 * constants, the bound keeps URLs built by concatenation from filling
+	 * the cache.
+	 */
+	private static final int MAX_CACHED_TEMPLATES = 256;
+
+	/** The URL templates compiled from the string overloads. */
+	private static final ConcurrentMap<String, UrlTemplate> templates = new ConcurrentHashMap<String, UrlTemplate>();
+
 	/**
 	 * The DELETE method requests that the origin server delete the resource
 	 * identified by the Request-URI.
@@ -66,7 +82,22 @@ public class Request {
 	 * @return this
 	 */
 	public static Request Delete(String url, Object... args) {
-		return new Request(HttpDelete.class, url, args);
+		return new Request(new HttpDelete(), url, format(url, args));
+	}
+
+	/**
+	 * Same as {@link #Delete(String, Object...)} with a precompiled URL template.
+	 * 
+	 * @param template
+	 *            the URL template
+	 * @param args
+	 *            the list of arguments to expand the template
+	 * 
+	 * @return this
+	 */
+	public static Request Delete(UrlTemplate template, Object... args) {
+		return new Request(new HttpDelete(), template.toString(),
+				template.expand(args));
 	}
 
 	/**
@@ -81,7 +112,22 @@ public class Request {
 	 * @return this
 	 */
 	public static Request Get(String url, Object... args) {
-		return new Request(HttpGet.class, url, args);
+		return new Request(new HttpGet(), url, format(url, args));
+	}
+
+	/**
+	 * Same as {@link #Get(String, Object...)} with a precompiled URL template.
+	 * 
+	 * @param template
+	 *            the URL template
+	 * @param args
+	 *            the list of arguments to expand the template
+	 * 
+	 * @return this
+	 */
+	public static Request Get(UrlTemplate template, Object... args) {
+		return new Request(new HttpGet(), template.toString(),
+				template.expand(args));
 	}
 
 	/**
@@ -97,7 +143,22 @@ public class Request {
 	 * @return this
 	 */
 	public static Request Post(String url, Object... args) {
-		return new Request(HttpPost.class, url, args);
+		return new Request(new HttpPost(), url, format(url, args));
+	}
+
+	/**
+	 * Same as {@link #Post(String, Object...)} with a precompiled URL template.
+	 * 
+	 * @param template
+	 *            the URL template
+	 * @param args
+	 *            the list of arguments to expand the template
+	 * 
+	 * @return this
+	 */
+	public static Request Post(UrlTemplate template, Object... args) {
+		return new Request(new HttpPost(), template.toString(),
+				template.expand(args));
 	}
 
 	/**
@@ -112,7 +173,22 @@ public class Request {
 	 * @return this
 	 */
 	public static Request Put(String url, Object... args) {
-		return new Request(HttpPut.class, url, args);
+		return new Request(new HttpPut(), url, format(url, args));
+	}
+
+	/**
+	 * Same as {@link #Put(String, Object...)} with a precompiled URL template.
+	 * 
+	 * @param template
+	 *            the URL template
+	 * @param args
+	 *            the list of arguments to expand the template
+	 * 
+	 * @return this
+	 */
+	public static Request Put(UrlTemplate template, Object... args) {
+		return new Request(new HttpPut(), template.toString(),
+				template.expand(args));
 	}
 
 	/** The form params. */
@@ -129,65 +205,83 @@ public class Request {
 	
 	/** The method. */
 	private HttpRequestBase method;
+
+	/** Whether the request can be safely sent more than once. */
+	private boolean idempotent;
+
+	/** Whether the result of the request can be cached. */
+	private boolean cacheable;
 	
 	/** The url. */
 	private String url;
 
+	/** The URL template without the query string. */
+	private String template;
+
+	/**
+	 * Formats the URL with the given arguments.
+	 * 
+	 * @param url
+	 *            the URL
+	 * @param args
+	 *            the list of arguments to format the URL
+	 * @return the formatted URL
+	 */
+	private static String format(String url, Object... args) {
+		if (url == null)
+			throw new IllegalArgumentException("url is null");
+		if (args == null || args.length == 0)
+			return url;
+
+		UrlTemplate template = templates.get(url);
+		if (template == null) {
+			template = UrlTemplate.compile(url);
+			if (templates.size() < MAX_CACHED_TEMPLATES)
+				templates.putIfAbsent(url, template);
+		}
+		return template.expand(args);
+	}
+
 	/**
 	 * Instantiates a new request.
 	 * 
-	 * @param <T>
-	 *            the generic type
 	 * @param method
 	 *            the method, PUT, POST, GET or DELETE
+	 * @param template
+	 *            the URL template the URL was expanded from
 	 * @param url
 	 *            the request URL
-	 * @param args
-	 *            the list of arguments to format the URL
 	 */
-	private <T extends HttpRequestBase> Request(Class<T> method, String url,
-			Object... args) {
+	private Request(HttpRequestBase method, String template, String url) {
 		if (url == null)
 			throw new IllegalArgumentException("url is null");
-		if (method == null)
-			throw new IllegalArgumentException("method is null");
 
-		try {
-			this.method = method.newInstance();
-			// format url
-			if (args != null && args.length > 0) {
-				url = String.format(Locale.ENGLISH, url, args);
-			}
+		this.method = method;
+		final int templateQueryStart = template.indexOf('?');
+		this.template = templateQueryStart == -1 ? template : template
+				.substring(0, templateQueryStart);
+		final int queryStart = url.indexOf('?');
+		if (queryStart == -1) {
+			this.url = url;
+			return;
+		}
 
-			if (url.contains("?")) {
-				String query = url.substring(
-						Math.min(url.length(), url.indexOf("?") + 1),
-						url.length());
-				for (String s : query.split("&")) {
-					String[] kv = s.split("=", 2);
-					if (kv != null) {
-						try {
-							if (kv.length == 2) {
-								queryParams.add(new BasicNameValuePair(
-										URLDecoder.decode(kv[0], UTF_8),
-										URLDecoder.decode(kv[1], UTF_8)));
-							} else if (kv.length == 1) {
-								queryParams.add(new BasicNameValuePair(
-										URLDecoder.decode(kv[0], UTF_8), null));
-							}
-						} catch (UnsupportedEncodingException e) {
-							throw new RuntimeException(e);
-						}
-					}
-				}
-				this.url = url.substring(0, url.indexOf("?"));
-			} else {
-				this.url = url;
+		this.url = url.substring(0, queryStart);
+		int start = queryStart + 1;
+		while (start < url.length()) {
+			int end = url.indexOf('&', start);
+			if (end == -1)
+				end = url.length();
+			final int separator = url.indexOf('=', start);
+			if (separator != -1 && separator < end) {
+				queryParams.add(new BasicNameValuePair(RequestUtil.decode(
+						url.substring(start, separator), UTF_8), RequestUtil
+						.decode(url.substring(separator + 1, end), UTF_8)));
+			} else if (start < end) {
+				queryParams.add(new BasicNameValuePair(RequestUtil.decode(
+						url.substring(start, end), UTF_8), null));
 			}
-		} catch (InstantiationException e) {
-			throw new RuntimeException(e);
-		} catch (IllegalAccessException e) {
-			throw new RuntimeException(e);
+			start = end + 1;
 		}
 	}
 
@@ -290,6 +384,14 @@ public class Request {
 			addHeaders(method, headers);
 		}
 
+		if (idempotent) {
+			method.getParams().setBooleanParameter(RetryPolicy.IDEMPOTENT, true);
+		}
+		if (cacheable) {
+			method.getParams().setBooleanParameter(ResultCache.CACHEABLE, true);
+		}
+		method.getParams().setParameter(URL_TEMPLATE, template);
+
 		return method;
 	}
 
@@ -390,6 +492,36 @@ public class Request {
 		return this;
 	}
 
+	/**
+	 * Marks the request as safe to send more than once, for example a POST
+	 * that only computes a result. GET, PUT and DELETE requests are always
+	 * considered idempotent by the {@link RetryPolicy}.
+	 * 
+	 * @param idempotent
+	 *            true if the request can be retried
+	 * 
+	 * @return this
+	 */
+	public Request withIdempotent(boolean idempotent) {
+		this.idempotent = idempotent;
+		return this;
+	}
+
+	/**
+	 * Marks the result of the request as cacheable, the same request always
+	 * gets the same response. These requests are answered by the
+	 * {@link ResultCache} of the service, if there is one.
+	 * 
+	 * @param cacheable
+	 *            true if the result can be cached
+	 * 
+	 * @return this
+	 */
+	public Request withCacheable(boolean cacheable) {
+		this.cacheable = cacheable;
+		return this;
+	}
+
 	/**
 	 * Adds form parameters.
 	 * 
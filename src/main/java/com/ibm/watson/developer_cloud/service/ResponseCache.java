@@ -0,0 +1,663 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.util.EntityUtils;
+
+import com.ibm.watson.developer_cloud.util.ResponseUtil;
+
+/**
+ * In-memory cache of <code>GET</code> responses. Only the paths that have a
+ * time to live are cached, the least recently used responses are evicted when
+ * the bodies take more than <code>maxSize</code> bytes. A response that
+ * expired is revalidated with <code>If-None-Match</code> or
+ * <code>If-Modified-Since</code> when the server sent an <code>ETag</code> or
+ * a <code>Last-Modified</code> header, and reused if the server answers
+ * <code>304 Not Modified</code>. <br>
+ * Example: <pre>
+ * {@code
+ *  ResponseCache cache = new ResponseCache(1024 * 1024)
+ *      .withTtl("/v1/voices", 1, TimeUnit.HOURS)
+ *      .withTtl("/v1/classifiers", 30, TimeUnit.SECONDS)
+ *      .withTtl("/v1/classifiers/*", 0, TimeUnit.SECONDS);
+ *  textToSpeech.setResponseCache(cache);
+ *  classifier.setResponseCache(cache);
+ * }</pre>
+ * The paths are relative to the service end point and <code>*</code> matches
+ * a single path segment. Responses are cached by URI and request headers, so
+ * a cache can be shared by services with different credentials. A successful
+ * <code>PUT</code>, <code>PATCH</code> or <code>DELETE</code> removes the
+ * responses of its path and of the parent path, for example deleting
+ * <code>/v1/classifiers/abc</code> removes <code>/v1/classifiers</code>. A
+ * <code>POST</code> does not, most of them only compute a result, like
+ * <code>/v1/classifiers/abc/classify</code>, so the responses of the paths
+ * where a <code>POST</code> creates resources should have a short time to
+ * live.
+ * <p>
+ * The counters can be read from JMX with
+ * {@link MetricsRegistry#register(String, ResponseCache)}.
+ * 
+ * @see WatsonService#setResponseCache(ResponseCache)
+ */
+public class ResponseCache implements ResponseCacheMBean {
+
+	/**
+	 * The time to live of the paths that match a pattern.
+	 */
+	private static final class Ttl {
+
+		/** The segments of the pattern. */
+		private final String[] segments;
+
+		/** The time to live in nanoseconds. */
+		private final long nanos;
+
+		/**
+		 * Instantiates a new time to live.
+		 * 
+		 * @param path
+		 *            the path pattern
+		 * @param nanos
+		 *            the time to live in nanoseconds
+		 */
+		Ttl(String path, long nanos) {
+			this.segments = path.split("/", -1);
+			this.nanos = nanos;
+		}
+
+		/**
+		 * Checks if a path matches the pattern.
+		 * 
+		 * @param path
+		 *            the segments of the path
+		 * @return true, if the path matches
+		 */
+		boolean matches(String[] path) {
+			if (path.length != segments.length)
+				return false;
+			for (int i = 0; i < path.length; i++) {
+				if (!segments[i].equals("*") && !segments[i].equals(path[i]))
+					return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * A cached response.
+	 */
+	private static final class Entry {
+
+		/** The key. */
+		private final String key;
+
+		/** The path. */
+		private final String path;
+
+		/** The response headers. */
+		private final Header[] headers;
+
+		/** The response body. */
+		private final byte[] body;
+
+		/** The time to live in nanoseconds. */
+		private final long ttl;
+
+		/** The time the response expires, see {@link System#nanoTime()}. */
+		private volatile long expires;
+
+		/**
+		 * Instantiates a new entry.
+		 * 
+		 * @param key
+		 *            the key
+		 * @param path
+		 *            the path
+		 * @param headers
+		 *            the response headers
+		 * @param body
+		 *            the response body
+		 * @param ttl
+		 *            the time to live in nanoseconds
+		 */
+		Entry(String key, String path, Header[] headers, byte[] body, long ttl) {
+			this.key = key;
+			this.path = path;
+			this.headers = headers;
+			this.body = body;
+			this.ttl = ttl;
+			this.expires = System.nanoTime() + ttl;
+		}
+
+		/**
+		 * Gets the value of a response header.
+		 * 
+		 * @param name
+		 *            the header name
+		 * @return the value, null if there is no such header
+		 */
+		String getHeader(String name) {
+			for (Header header : headers) {
+				if (header.getName().equalsIgnoreCase(name))
+					return header.getValue();
+			}
+			return null;
+		}
+
+		/**
+		 * Creates the entry of a revalidated response, with the headers of
+		 * the <code>304 Not Modified</code> response in place of the cached
+		 * ones of the same name.
+		 * 
+		 * @param updates
+		 *            the headers of the 304 response
+		 * @return the entry
+		 */
+		Entry revalidate(Header[] updates) {
+			final List<Header> merged = new ArrayList<Header>(headers.length
+					+ updates.length);
+			for (Header header : headers) {
+				if (!contains(updates, header.getName()))
+					merged.add(header);
+			}
+			merged.addAll(Arrays.asList(updates));
+			return new Entry(key, path, merged.toArray(new Header[merged
+					.size()]), body, ttl);
+		}
+
+		/**
+		 * Builds a response from the cached one.
+		 * 
+		 * @return the response
+		 */
+		HttpResponse toResponse() {
+			final HttpResponse response = new BasicHttpResponse(
+					HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+			response.setHeaders(headers);
+			final ByteArrayEntity entity = new ByteArrayEntity(body);
+			entity.setContentType(response.getFirstHeader(HTTP.CONTENT_TYPE));
+			response.setEntity(entity);
+			return response;
+		}
+	}
+
+	/** The Constant ETAG. */
+	private static final String ETAG = "ETag";
+
+	/** The Constant LAST_MODIFIED. */
+	private static final String LAST_MODIFIED = "Last-Modified";
+
+	/** The Constant IF_NONE_MATCH. */
+	private static final String IF_NONE_MATCH = "If-None-Match";
+
+	/** The Constant IF_MODIFIED_SINCE. */
+	private static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+
+	/** The Constant CACHE_CONTROL. */
+	private static final String CACHE_CONTROL = "Cache-Control";
+
+	/** The Constant PATCH. */
+	private static final String PATCH = "PATCH";
+
+	/** The longest time to live, so the expiry can not overflow. */
+	private static final long MAX_TTL = TimeUnit.DAYS.toNanos(365 * 100);
+
+	/** The max size of the bodies in bytes. */
+	private final long maxSize;
+
+	/** The entries, from the least to the most recently used. */
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(
+			16, 0.75f, true);
+
+	/** The times to live, in the order they were added. */
+	private volatile Ttl[] ttls = new Ttl[0];
+
+	/** The size of the bodies in bytes. */
+	private long size;
+
+	/** The hit count. */
+	private long hits;
+
+	/** The miss count. */
+	private long misses;
+
+	/** The revalidation count. */
+	private long revalidations;
+
+	/** The eviction count. */
+	private long evictions;
+
+	/** The invalidation count. */
+	private long invalidations;
+
+	/**
+	 * Instantiates a new response cache.
+	 * 
+	 * @param maxSize
+	 *            the max size of the cached bodies in bytes
+	 */
+	public ResponseCache(long maxSize) {
+		if (maxSize <= 0)
+			throw new IllegalArgumentException("maxSize should be positive");
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Caches the responses of the paths that match a pattern. With a time to
+	 * live of 0 responses are revalidated on every call, which saves the body
+	 * transfer when the server sends validators. The first pattern that
+	 * matches a path is used.
+	 * 
+	 * @param path
+	 *            the path pattern, for example <code>/v1/classifiers/*</code>
+	 * @param duration
+	 *            the time to live
+	 * @param unit
+	 *            the unit of the duration
+	 * @return the response cache
+	 */
+	public synchronized ResponseCache withTtl(String path, long duration,
+			TimeUnit unit) {
+		if (path == null || !path.startsWith("/"))
+			throw new IllegalArgumentException("path should start with /");
+		if (duration < 0)
+			throw new IllegalArgumentException("duration can not be negative");
+		if (unit == null)
+			throw new IllegalArgumentException("unit is null");
+
+		final Ttl[] current = ttls;
+		final Ttl[] updated = Arrays.copyOf(current, current.length + 1);
+		updated[current.length] = new Ttl(path, Math.min(
+				unit.toNanos(duration), MAX_TTL));
+		ttls = updated;
+		return this;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.ibm.watson.developer_cloud.service.ResponseCacheMBean#clear()
+	 */
+	@Override
+	public synchronized void clear() {
+		entries.clear();
+		size = 0;
+	}
+
+	/**
+	 * Gets the number of cached responses.
+	 * 
+	 * @return the number of cached responses
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.ResponseCacheMBean#getEntryCount()
+	 */
+	@Override
+	public int getEntryCount() {
+		return size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.ResponseCacheMBean#getSizeInBytes
+	 * ()
+	 */
+	@Override
+	public synchronized long getSizeInBytes() {
+		return size;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.ResponseCacheMBean#getMaxSizeInBytes
+	 * ()
+	 */
+	@Override
+	public long getMaxSizeInBytes() {
+		return maxSize;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.ResponseCacheMBean#getHitCount()
+	 */
+	@Override
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.ResponseCacheMBean#getMissCount()
+	 */
+	@Override
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.ibm.watson.developer_cloud.service.ResponseCacheMBean#
+	 * getRevalidationCount()
+	 */
+	@Override
+	public synchronized long getRevalidationCount() {
+		return revalidations;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.ResponseCacheMBean#getEvictionCount
+	 * ()
+	 */
+	@Override
+	public synchronized long getEvictionCount() {
+		return evictions;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.ibm.watson.developer_cloud.service.ResponseCacheMBean#
+	 * getInvalidationCount()
+	 */
+	@Override
+	public synchronized long getInvalidationCount() {
+		return invalidations;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public synchronized String toString() {
+		return "ResponseCache [entries=" + entries.size() + ", size=" + size
+				+ ", hits=" + hits + ", misses=" + misses + ", revalidations="
+				+ revalidations + ", evictions=" + evictions
+				+ ", invalidations=" + invalidations + "]";
+	}
+
+	/**
+	 * Executes a prepared request, from the cache when possible.
+	 * 
+	 * @param request
+	 *            the http request, with an absolute URI
+	 * @param path
+	 *            the path of the request relative to the service end point
+	 * @param chain
+	 *            proceeds to the interceptors and the network
+	 * @return the http response
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	HttpResponse execute(HttpRequestBase request, String path,
+			Interceptor.Chain chain) throws IOException {
+		final String method = request.getMethod();
+		if (!HttpGet.METHOD_NAME.equals(method)) {
+			final HttpResponse response = chain.proceed(request);
+			if (response.getStatusLine().getStatusCode() < 400
+					&& (HttpPut.METHOD_NAME.equals(method)
+							|| HttpDelete.METHOD_NAME.equals(method) || PATCH
+								.equals(method)))
+				invalidate(path);
+			return response;
+		}
+
+		final Ttl ttl = getTtl(path);
+		if (ttl == null)
+			return chain.proceed(request);
+
+		final String key = SingleFlight.key(request);
+		final Entry entry;
+		synchronized (this) {
+			entry = entries.get(key);
+			if (entry != null && System.nanoTime() - entry.expires < 0) {
+				hits++;
+				return entry.toResponse();
+			}
+		}
+
+		if (entry != null) {
+			final String etag = entry.getHeader(ETAG);
+			final String lastModified = entry.getHeader(LAST_MODIFIED);
+			if (etag != null && !request.containsHeader(IF_NONE_MATCH))
+				request.addHeader(IF_NONE_MATCH, etag);
+			if (lastModified != null
+					&& !request.containsHeader(IF_MODIFIED_SINCE))
+				request.addHeader(IF_MODIFIED_SINCE, lastModified);
+		}
+
+		final HttpResponse response = chain.proceed(request);
+		final int status = response.getStatusLine().getStatusCode();
+		if (status == HttpStatus.SC_NOT_MODIFIED && entry != null) {
+			ResponseUtil.consume(response);
+			final Entry revalidated = entry.revalidate(cachedHeaders(response));
+			synchronized (this) {
+				revalidations++;
+				if (entries.get(key) == entry) {
+					if (isNoStore(response))
+						remove(entry);
+					else
+						entries.put(key, revalidated);
+				}
+			}
+			return revalidated.toResponse();
+		}
+
+		synchronized (this) {
+			misses++;
+		}
+		if (status != HttpStatus.SC_OK || isNoStore(response))
+			return response;
+
+		final Header[] headers = cachedHeaders(response);
+		if (ttl.nanos == 0 && !hasValidators(headers))
+			return response;
+
+		final HttpEntity entity = response.getEntity();
+		final byte[] body = entity != null ? EntityUtils.toByteArray(entity)
+				: new byte[0];
+		final ByteArrayEntity buffered = new ByteArrayEntity(body);
+		buffered.setContentType(entity != null ? entity.getContentType()
+				: null);
+		response.setEntity(buffered);
+		if (body.length <= maxSize)
+			put(new Entry(key, path, headers, body, ttl.nanos));
+		return response;
+	}
+
+	/**
+	 * Gets the time to live of a path.
+	 * 
+	 * @param path
+	 *            the path
+	 * @return the time to live, null if the path is not cached
+	 */
+	private Ttl getTtl(String path) {
+		final Ttl[] current = ttls;
+		if (current.length == 0)
+			return null;
+
+		final String[] segments = path.split("/", -1);
+		for (Ttl ttl : current) {
+			if (ttl.matches(segments))
+				return ttl;
+		}
+		return null;
+	}
+
+	/**
+	 * Adds an entry, evicting the least recently used ones if the cache is
+	 * full.
+	 * 
+	 * @param entry
+	 *            the entry
+	 */
+	private synchronized void put(Entry entry) {
+		final Entry previous = entries.put(entry.key, entry);
+		if (previous != null)
+			size -= previous.body.length;
+		size += entry.body.length;
+
+		final Iterator<Entry> eldest = entries.values().iterator();
+		while (size > maxSize) {
+			final Entry evicted = eldest.next();
+			eldest.remove();
+			size -= evicted.body.length;
+			evictions++;
+		}
+	}
+
+	/**
+	 * Removes the responses of a path and of its parent path.
+	 * 
+	 * @param path
+	 *            the path that was modified
+	 */
+	private synchronized void invalidate(String path) {
+		if (entries.isEmpty())
+			return;
+
+		final int slash = path.lastIndexOf('/');
+		final String parent = slash > 0 ? path.substring(0, slash) : null;
+		final Iterator<Entry> iterator = entries.values().iterator();
+		while (iterator.hasNext()) {
+			final Entry entry = iterator.next();
+			if (entry.path.equals(path) || entry.path.equals(parent)) {
+				iterator.remove();
+				size -= entry.body.length;
+				invalidations++;
+			}
+		}
+	}
+
+	/**
+	 * Removes an entry.
+	 * 
+	 * @param entry
+	 *            the entry
+	 */
+	private synchronized void remove(Entry entry) {
+		if (entries.remove(entry.key) != null)
+			size -= entry.body.length;
+	}
+
+	/**
+	 * Checks if there is a header with a name.
+	 * 
+	 * @param headers
+	 *            the headers
+	 * @param name
+	 *            the header name
+	 * @return true, if one of the headers has the name
+	 */
+	private static boolean contains(Header[] headers, String name) {
+		for (Header header : headers) {
+			if (header.getName().equalsIgnoreCase(name))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if the server does not allow the response to be stored.
+	 * 
+	 * @param response
+	 *            the response
+	 * @return true, if the response has <code>Cache-Control: no-store</code>
+	 */
+	private static boolean isNoStore(HttpResponse response) {
+		for (Header header : response.getHeaders(CACHE_CONTROL)) {
+			if (header.getValue().toLowerCase().contains("no-store"))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if the headers have an <code>ETag</code> or a
+	 * <code>Last-Modified</code> header.
+	 * 
+	 * @param headers
+	 *            the headers
+	 * @return true, if the response can be revalidated
+	 */
+	private static boolean hasValidators(Header[] headers) {
+		return contains(headers, ETAG) || contains(headers, LAST_MODIFIED);
+	}
+
+	/**
+	 * Gets the response headers worth caching, the headers that describe the
+	 * transfer of the body are dropped since the cached body is decompressed.
+	 * 
+	 * @param response
+	 *            the response
+	 * @return the headers
+	 */
+	private static Header[] cachedHeaders(HttpResponse response) {
+		final Header[] all = response.getAllHeaders();
+		final List<Header> headers = new ArrayList<Header>(all.length);
+		for (Header header : all) {
+			final String name = header.getName();
+			if (!HTTP.CONTENT_LEN.equalsIgnoreCase(name)
+					&& !HTTP.CONTENT_ENCODING.equalsIgnoreCase(name)
+					&& !HTTP.TRANSFER_ENCODING.equalsIgnoreCase(name)
+					&& !HTTP.CONN_DIRECTIVE.equalsIgnoreCase(name))
+				headers.add(header);
+		}
+		return headers.toArray(new Header[headers.size()]);
+	}
+}
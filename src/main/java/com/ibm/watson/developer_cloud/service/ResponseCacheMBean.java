@@ -0,0 +1,86 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+/**
+ * JMX view of the counters of a {@link ResponseCache}.
+ */
+public interface ResponseCacheMBean {
+
+	/**
+	 * Gets the number of cached responses.
+	 *
+	 * @return the entry count
+	 */
+	int getEntryCount();
+
+	/**
+	 * Gets the size of the cached bodies.
+	 *
+	 * @return the size in bytes
+	 */
+	long getSizeInBytes();
+
+	/**
+	 * Gets the max size of the cached bodies.
+	 *
+	 * @return the max size in bytes
+	 */
+	long getMaxSizeInBytes();
+
+	/**
+	 * Gets the number of requests answered from the cache without a call.
+	 *
+	 * @return the hit count
+	 */
+	long getHitCount();
+
+	/**
+	 * Gets the number of cacheable requests that got a new response from the
+	 * server.
+	 *
+	 * @return the miss count
+	 */
+	long getMissCount();
+
+	/**
+	 * Gets the number of requests answered from the cache after the server
+	 * replied <code>304 Not Modified</code>.
+	 *
+	 * @return the revalidation count
+	 */
+	long getRevalidationCount();
+
+	/**
+	 * Gets the number of responses evicted to make room for new ones.
+	 *
+	 * @return the eviction count
+	 */
+	long getEvictionCount();
+
+	/**
+	 * Gets the number of responses removed because a <code>PUT</code>,
+	 * <code>PATCH</code> or <code>DELETE</code> modified their path.
+	 *
+	 * @return the invalidation count
+	 */
+	long getInvalidationCount();
+
+	/**
+	 * Removes all the responses.
+	 */
+	void clear();
+}
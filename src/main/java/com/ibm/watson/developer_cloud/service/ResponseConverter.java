@@ -0,0 +1,41 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.io.IOException;
+
+import org.apache.http.HttpResponse;
+
+/**
+ * Converts a successful HTTP response into the object returned by a service
+ * method.
+ *
+ * @param <T>
+ *            the type of the converted response
+ */
+public interface ResponseConverter<T> {
+
+	/**
+	 * Converts the HTTP response.
+	 *
+	 * @param response
+	 *            the HTTP response
+	 * @return the converted response
+	 * @throws IOException
+	 *             if the response body could not be read
+	 */
+	T convert(HttpResponse response) throws IOException;
+}
@@ -0,0 +1,813 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * Persistent cache of the results of deterministic calls, for example a
+ * translation with a fixed model or a classification with a trained
+ * classifier. Only the requests marked with
+ * {@link Request#withCacheable(boolean)} are cached, and only their
+ * <code>200 OK</code> responses. <br>
+ * Example: <pre>
+ * {@code
+ *  ResultCache results = ResultCache.open(new File("watson.cache"), 100000,
+ *      256 * 1024 * 1024);
+ *  translation.setResultCache(results);
+ *  classifier.setResultCache(results);
+ * }</pre>
+ * The key is a SHA-1 hash of the method, the URI with the end point that
+ * answered (so the end points of an {@link EndpointSelector} do not share
+ * results) and the model or classifier id, the credentials, the
+ * <code>Accept</code> and <code>Content-Type</code> headers and the request
+ * body. The results are appended to a memory-mapped file that starts with an
+ * open addressing index of the hashes, so the cache survives restarts and can
+ * be opened by several processes on the same host. A lookup hashes the
+ * request with a per-thread digest and probes the mapped index, without
+ * allocating. Once the file is full new results are not stored; delete the
+ * file to start over. A file should be opened once per process, and the
+ * instance shared by the services.
+ * <p>
+ * Writers hold a lock on the file, readers take none. A result is written
+ * before the index slot that references it, but a mapped file does not order
+ * the writes as seen by other threads or processes, so every result carries
+ * a CRC-32 of its content type and body. A lookup that finds a reference to
+ * a result that is not completely visible yet fails the checksum and is
+ * treated as a miss.
+ * 
+ * @see WatsonService#setResultCache(ResultCache)
+ */
+public class ResultCache implements Closeable {
+
+	/**
+	 * Hashes the key of a request. It is an output stream so the request
+	 * body can be written to it.
+	 */
+	private static final class Hasher extends OutputStream {
+
+		/** The digest. */
+		private final MessageDigest digest;
+
+		/** The hash. */
+		private final byte[] hash = new byte[20];
+
+		/** The buffer used to hash strings and to checksum results. */
+		private final byte[] chars = new byte[512];
+
+		/** The checksum of the results. */
+		private final CRC32 crc = new CRC32();
+
+		/** The first half of the hash. */
+		private long h1;
+
+		/** The second half of the hash. */
+		private long h2;
+
+		/**
+		 * Instantiates a new hasher.
+		 */
+		Hasher() {
+			try {
+				digest = MessageDigest.getInstance("SHA-1");
+			} catch (NoSuchAlgorithmException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		/**
+		 * Hashes a request.
+		 * 
+		 * @param request
+		 *            the request, with the URI of the end point it is sent to
+		 * @param entity
+		 *            the request body, can be null
+		 * @throws IOException
+		 *             Signals that an I/O exception has occurred.
+		 */
+		void hash(HttpRequestBase request, HttpEntity entity)
+				throws IOException {
+			digest.reset();
+			update(request.getMethod());
+			update(request.getURI().toString());
+			update(request.getFirstHeader(AUTHORIZATION));
+			update(request.getFirstHeader(ACCEPT));
+			update(entity != null ? entity.getContentType() : null);
+			if (entity != null)
+				entity.writeTo(this);
+
+			try {
+				digest.digest(hash, 0, hash.length);
+			} catch (DigestException e) {
+				throw new IOException(e.getMessage());
+			}
+			h1 = getLong(hash, 0);
+			h2 = getLong(hash, 8);
+		}
+
+		/**
+		 * Hashes the value of a header.
+		 * 
+		 * @param header
+		 *            the header, can be null
+		 */
+		private void update(Header header) {
+			update(header != null ? header.getValue() : null);
+		}
+
+		/**
+		 * Hashes a string preceded by its length.
+		 * 
+		 * @param value
+		 *            the string, can be null
+		 */
+		private void update(String value) {
+			final int length = value != null ? value.length() : -1;
+			chars[0] = (byte) (length >>> 24);
+			chars[1] = (byte) (length >>> 16);
+			chars[2] = (byte) (length >>> 8);
+			chars[3] = (byte) length;
+			int n = 4;
+			for (int i = 0; i < length; i++) {
+				if (n == chars.length) {
+					digest.update(chars, 0, n);
+					n = 0;
+				}
+				final char c = value.charAt(i);
+				chars[n++] = (byte) (c >>> 8);
+				chars[n++] = (byte) c;
+			}
+			digest.update(chars, 0, n);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.io.OutputStream#write(int)
+		 */
+		@Override
+		public void write(int b) {
+			digest.update((byte) b);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.io.OutputStream#write(byte[], int, int)
+		 */
+		@Override
+		public void write(byte[] b, int off, int len) {
+			digest.update(b, off, len);
+		}
+
+		/**
+		 * Reads a big-endian long.
+		 * 
+		 * @param bytes
+		 *            the bytes
+		 * @param offset
+		 *            the offset of the long
+		 * @return the long
+		 */
+		private static long getLong(byte[] bytes, int offset) {
+			long value = 0;
+			for (int i = offset; i < offset + 8; i++)
+				value = (value << 8) | (bytes[i] & 0xff);
+			return value;
+		}
+	}
+
+	/**
+	 * A cached body, read from the mapped file as it is consumed.
+	 */
+	private static final class MappedEntity extends AbstractHttpEntity {
+
+		/** The mapped file. */
+		private final MappedByteBuffer buffer;
+
+		/** The position of the body in the file. */
+		private final int offset;
+
+		/** The length of the body. */
+		private final int length;
+
+		/**
+		 * Instantiates a new mapped entity.
+		 * 
+		 * @param buffer
+		 *            the mapped file
+		 * @param offset
+		 *            the position of the body
+		 * @param length
+		 *            the length of the body
+		 */
+		MappedEntity(MappedByteBuffer buffer, int offset, int length) {
+			this.buffer = buffer;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see org.apache.http.HttpEntity#isRepeatable()
+		 */
+		@Override
+		public boolean isRepeatable() {
+			return true;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see org.apache.http.HttpEntity#isStreaming()
+		 */
+		@Override
+		public boolean isStreaming() {
+			return false;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see org.apache.http.HttpEntity#getContentLength()
+		 */
+		@Override
+		public long getContentLength() {
+			return length;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see org.apache.http.HttpEntity#getContent()
+		 */
+		@Override
+		public InputStream getContent() {
+			return new InputStream() {
+				private int position = offset;
+
+				@Override
+				public int read() {
+					if (position == offset + length)
+						return -1;
+					return buffer.get(position++) & 0xff;
+				}
+
+				@Override
+				public int read(byte[] b, int off, int len) {
+					final int remaining = offset + length - position;
+					if (remaining == 0)
+						return -1;
+					final int n = Math.min(len, remaining);
+					for (int i = 0; i < n; i++)
+						b[off + i] = buffer.get(position++);
+					return n;
+				}
+
+				@Override
+				public int available() {
+					return offset + length - position;
+				}
+			};
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see org.apache.http.HttpEntity#writeTo(java.io.OutputStream)
+		 */
+		@Override
+		public void writeTo(OutputStream out) throws IOException {
+			final byte[] chunk = new byte[Math.min(length, 8192)];
+			int position = offset;
+			while (position < offset + length) {
+				final int n = Math.min(chunk.length, offset + length - position);
+				for (int i = 0; i < n; i++)
+					chunk[i] = buffer.get(position++);
+				out.write(chunk, 0, n);
+			}
+		}
+	}
+
+	/**
+	 * Request parameter that marks the result of a request as cacheable.
+	 * (value is "watson.request.cacheable")
+	 */
+	public static final String CACHEABLE = "watson.request.cacheable";
+
+	/** The Constant log. */
+	private static final Logger log = Logger.getLogger(ResultCache.class
+			.getName());
+
+	/** The Constant AUTHORIZATION. */
+	private static final String AUTHORIZATION = "Authorization";
+
+	/** The Constant ACCEPT. */
+	private static final String ACCEPT = "Accept";
+
+	/** The magic number of the file, "WCRC". */
+	private static final int MAGIC = 0x57435243;
+
+	/** The version of the file format. */
+	private static final int VERSION = 2;
+
+	/** The size of the header. */
+	private static final int HEADER_SIZE = 64;
+
+	/** The position of the number of index slots in the header. */
+	private static final int SLOTS = 8;
+
+	/** The position of the max number of results in the header. */
+	private static final int MAX_ENTRIES = 12;
+
+	/** The position of the data size in the header. */
+	private static final int DATA_SIZE = 16;
+
+	/** The position of the end of the data in the header. */
+	private static final int END = 24;
+
+	/** The position of the number of results in the header. */
+	private static final int COUNT = 32;
+
+	/** The size of an index slot: two longs of hash and a reference. */
+	private static final int SLOT_SIZE = 24;
+
+	/**
+	 * The size of a result before its content type: two longs of hash, the
+	 * checksum and the length of the content type.
+	 */
+	private static final int RECORD_HEADER_SIZE = 24;
+
+	/** The hashers, one per thread. */
+	private static final ThreadLocal<Hasher> hashers = new ThreadLocal<Hasher>() {
+		@Override
+		protected Hasher initialValue() {
+			return new Hasher();
+		}
+	};
+
+	/** The file. */
+	private final RandomAccessFile file;
+
+	/** The mapped file. */
+	private final MappedByteBuffer buffer;
+
+	/** The number of index slots, a power of two. */
+	private final int slots;
+
+	/** The max number of results. */
+	private final int maxEntries;
+
+	/** The position of the data. */
+	private final int dataStart;
+
+	/** The size of the data. */
+	private final int dataSize;
+
+	/** The hit count. */
+	private final StripedCounter hits = new StripedCounter();
+
+	/** The miss count. */
+	private final StripedCounter misses = new StripedCounter();
+
+	/** Whether the full cache was logged. */
+	private boolean fullLogged;
+
+	/**
+	 * Instantiates a new result cache.
+	 * 
+	 * @param file
+	 *            the file
+	 * @param buffer
+	 *            the mapped file
+	 */
+	private ResultCache(RandomAccessFile file, MappedByteBuffer buffer) {
+		this.file = file;
+		this.buffer = buffer;
+		this.slots = buffer.getInt(SLOTS);
+		this.maxEntries = buffer.getInt(MAX_ENTRIES);
+		this.dataStart = HEADER_SIZE + slots * SLOT_SIZE;
+		this.dataSize = (int) buffer.getLong(DATA_SIZE);
+	}
+
+	/**
+	 * Opens a result cache, creating the file if it does not exist. An
+	 * existing file keeps the limits it was created with.
+	 * 
+	 * @param file
+	 *            the file
+	 * @param maxEntries
+	 *            the max number of results
+	 * @param maxSize
+	 *            the max size of the results in bytes
+	 * @return the result cache
+	 * @throws IOException
+	 *             Signals that the file could not be created or is not a
+	 *             result cache.
+	 */
+	public static ResultCache open(File file, int maxEntries, long maxSize)
+			throws IOException {
+		if (file == null)
+			throw new IllegalArgumentException("file is null");
+		if (maxEntries <= 0)
+			throw new IllegalArgumentException(
+					"maxEntries should be positive");
+		if (maxSize <= 0)
+			throw new IllegalArgumentException("maxSize should be positive");
+
+		int slots = Integer.highestOneBit(maxEntries) << 2;
+		final long length = HEADER_SIZE + (long) slots * SLOT_SIZE + maxSize;
+		if (slots <= 0 || length > Integer.MAX_VALUE)
+			throw new IllegalArgumentException(
+					"the cache can not be larger than 2GB");
+
+		final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			final FileChannel channel = raf.getChannel();
+			final FileLock lock = channel.lock();
+			try {
+				if (raf.length() == 0) {
+					raf.setLength(length);
+					final MappedByteBuffer header = channel.map(
+							FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+					header.putInt(0, MAGIC);
+					header.putInt(4, VERSION);
+					header.putInt(SLOTS, slots);
+					header.putInt(MAX_ENTRIES, maxEntries);
+					header.putLong(DATA_SIZE, maxSize);
+					header.force();
+				}
+
+				final MappedByteBuffer header = channel.map(
+						FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+				if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION)
+					throw new IOException(file + " is not a result cache");
+				slots = header.getInt(SLOTS);
+				final long size = HEADER_SIZE + (long) slots * SLOT_SIZE
+						+ header.getLong(DATA_SIZE);
+				if (raf.length() < size)
+					throw new IOException(file + " is truncated");
+
+				return new ResultCache(raf, channel.map(
+						FileChannel.MapMode.READ_WRITE, 0, size));
+			} finally {
+				lock.release();
+			}
+		} catch (IOException e) {
+			raf.close();
+			throw e;
+		} catch (RuntimeException e) {
+			raf.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Gets the number of cached results, including the ones added by other
+	 * processes.
+	 * 
+	 * @return the number of cached results
+	 */
+	public int size() {
+		return buffer.getInt(COUNT);
+	}
+
+	/**
+	 * Gets the size of the cached results.
+	 * 
+	 * @return the size in bytes
+	 */
+	public long getSizeInBytes() {
+		return buffer.getLong(END);
+	}
+
+	/**
+	 * Gets the number of requests answered from the cache.
+	 * 
+	 * @return the hit count
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * Gets the number of cacheable requests that were not in the cache.
+	 * 
+	 * @return the miss count
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * Writes the results to the file and closes it. The services that use
+	 * the cache should not be called afterwards.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Override
+	public void close() throws IOException {
+		buffer.force();
+		file.close();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "ResultCache [entries=" + size() + ", size="
+				+ getSizeInBytes() + ", hits=" + getHitCount() + ", misses="
+				+ getMissCount() + "]";
+	}
+
+	/**
+	 * Checks if the result of a request can be cached.
+	 * 
+	 * @param request
+	 *            the request
+	 * @return true, if the request was marked as cacheable
+	 */
+	static boolean isCacheable(HttpRequestBase request) {
+		return request.getParams().isParameterTrue(CACHEABLE);
+	}
+
+	/**
+	 * Executes a prepared request, from the cache when possible.
+	 * 
+	 * @param request
+	 *            the http request, with an absolute URI
+	 * @param chain
+	 *            proceeds to the interceptors and the network
+	 * @return the http response
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	HttpResponse execute(HttpRequestBase request, Interceptor.Chain chain)
+			throws IOException {
+		final HttpEntity entity = request instanceof HttpEntityEnclosingRequest ? ((HttpEntityEnclosingRequest) request)
+				.getEntity() : null;
+		if (entity != null && !entity.isRepeatable())
+			return chain.proceed(request);
+
+		final Hasher hasher = hashers.get();
+		final URI uri = request.getURI();
+		hasher.hash(request, entity);
+		long h1 = hasher.h1;
+		long h2 = hasher.h2;
+
+		final int record = find(h1, h2);
+		if (record >= 0) {
+			hits.increment();
+			return toResponse(record);
+		}
+
+		misses.increment();
+		final HttpResponse response = chain.proceed(request);
+		if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK)
+			return response;
+
+		final HttpEntity result = response.getEntity();
+		final byte[] body = result != null ? EntityUtils.toByteArray(result)
+				: new byte[0];
+		final Header contentType = result != null ? result.getContentType()
+				: null;
+		final ByteArrayEntity buffered = new ByteArrayEntity(body);
+		buffered.setContentType(contentType);
+		response.setEntity(buffered);
+		if (!uri.equals(request.getURI())) {
+			// failed over, the result belongs to the end point that answered
+			hasher.hash(request, entity);
+			h1 = hasher.h1;
+			h2 = hasher.h2;
+		}
+		put(h1, h2, contentType != null ? contentType.getValue() : null, body);
+		return response;
+	}
+
+	/**
+	 * Finds a result in the index.
+	 * 
+	 * @param h1
+	 *            the first half of the hash
+	 * @param h2
+	 *            the second half of the hash
+	 * @return the position of the result, -1 if it is not cached
+	 */
+	private int find(long h1, long h2) {
+		final int mask = slots - 1;
+		int slot = (int) h1 & mask;
+		for (int probe = 0; probe < slots; probe++) {
+			final int position = HEADER_SIZE + slot * SLOT_SIZE;
+			final long reference = buffer.getLong(position + 16);
+			if (reference == 0)
+				return -1;
+			if (buffer.getLong(position) == h1
+					&& buffer.getLong(position + 8) == h2)
+				return isComplete(reference - 1, h1, h2) ? dataStart
+						+ (int) (reference - 1) : -1;
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Checks if a result is completely visible: within the data, with the
+	 * expected hash and a matching checksum.
+	 * 
+	 * @param offset
+	 *            the position of the result in the data
+	 * @param h1
+	 *            the first half of the hash
+	 * @param h2
+	 *            the second half of the hash
+	 * @return true, if the result can be read
+	 */
+	private boolean isComplete(long offset, long h1, long h2) {
+		if (offset < 0 || offset + RECORD_HEADER_SIZE + 4 > dataSize)
+			return false;
+		final int record = dataStart + (int) offset;
+		if (buffer.getLong(record) != h1 || buffer.getLong(record + 8) != h2)
+			return false;
+
+		final int contentTypeLength = buffer.getInt(record + 20);
+		if (contentTypeLength < -1
+				|| offset + RECORD_HEADER_SIZE + Math.max(contentTypeLength, 0)
+						+ 4 > dataSize)
+			return false;
+		final int lengthPosition = record + RECORD_HEADER_SIZE
+				+ Math.max(contentTypeLength, 0);
+		final int length = buffer.getInt(lengthPosition);
+		if (length < 0
+				|| (long) lengthPosition - dataStart + 4 + length > dataSize)
+			return false;
+		return buffer.getInt(record + 16) == checksum(record + 20,
+				lengthPosition + 4 + length);
+	}
+
+	/**
+	 * Computes the CRC-32 of a range of the mapped file.
+	 * 
+	 * @param from
+	 *            the start of the range
+	 * @param to
+	 *            the end of the range, excluded
+	 * @return the checksum
+	 */
+	private int checksum(int from, int to) {
+		final Hasher hasher = hashers.get();
+		final CRC32 crc = hasher.crc;
+		final byte[] chunk = hasher.chars;
+		crc.reset();
+		int position = from;
+		while (position < to) {
+			final int n = Math.min(chunk.length, to - position);
+			for (int i = 0; i < n; i++)
+				chunk[i] = buffer.get(position++);
+			crc.update(chunk, 0, n);
+		}
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Builds a response from a cached result.
+	 * 
+	 * @param record
+	 *            the position of the result
+	 * @return the response
+	 */
+	private HttpResponse toResponse(int record) {
+		int position = record + 20;
+		final int contentTypeLength = buffer.getInt(position);
+		position += 4;
+		String contentType = null;
+		if (contentTypeLength >= 0) {
+			final char[] chars = new char[contentTypeLength];
+			for (int i = 0; i < contentTypeLength; i++)
+				chars[i] = (char) (buffer.get(position++) & 0xff);
+			contentType = new String(chars);
+		}
+		final int length = buffer.getInt(position);
+		position += 4;
+
+		final HttpResponse response = new BasicHttpResponse(
+				HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+		final MappedEntity entity = new MappedEntity(buffer, position, length);
+		if (contentType != null) {
+			entity.setContentType(contentType);
+			response.setHeader(entity.getContentType());
+		}
+		response.setEntity(entity);
+		return response;
+	}
+
+	/**
+	 * Appends a result to the file and adds it to the index. Other threads
+	 * and processes may read the index meanwhile, so the result, its checksum
+	 * and the hash are written before the reference that publishes them.
+	 * 
+	 * @param h1
+	 *            the first half of the hash
+	 * @param h2
+	 *            the second half of the hash
+	 * @param contentType
+	 *            the content type, can be null
+	 * @param body
+	 *            the body
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private synchronized void put(long h1, long h2, String contentType,
+			byte[] body) throws IOException {
+		final FileLock lock = file.getChannel().lock(0, HEADER_SIZE, false);
+		try {
+			if (find(h1, h2) >= 0)
+				return;
+
+			final int count = buffer.getInt(COUNT);
+			final long end = buffer.getLong(END);
+			final int contentTypeLength = contentType != null ? contentType
+					.length() : -1;
+			final long length = RECORD_HEADER_SIZE
+					+ Math.max(contentTypeLength, 0) + 4 + body.length;
+			if (count >= maxEntries || end + length > dataSize) {
+				if (!fullLogged) {
+					log.log(Level.WARNING, "The result cache is full, "
+							+ count + " results in " + end + " bytes");
+					fullLogged = true;
+				}
+				return;
+			}
+
+			final int record = dataStart + (int) end;
+			buffer.putLong(record, h1);
+			buffer.putLong(record + 8, h2);
+			buffer.putInt(record + 20, contentTypeLength);
+			int position = record + RECORD_HEADER_SIZE;
+			for (int i = 0; i < contentTypeLength; i++)
+				buffer.put(position++, (byte) contentType.charAt(i));
+			buffer.putInt(position, body.length);
+			position += 4;
+			for (byte b : body)
+				buffer.put(position++, b);
+			buffer.putInt(record + 16, checksum(record + 20, position));
+			buffer.putLong(END, end + length);
+			buffer.putInt(COUNT, count + 1);
+
+			final int mask = slots - 1;
+			int slot = (int) h1 & mask;
+			while (buffer.getLong(HEADER_SIZE + slot * SLOT_SIZE + 16) != 0)
+				slot = (slot + 1) & mask;
+			final int index = HEADER_SIZE + slot * SLOT_SIZE;
+			buffer.putLong(index, h1);
+			buffer.putLong(index + 8, h2);
+			buffer.putLong(index + 16, end + 1);
+		} finally {
+			lock.release();
+		}
+	}
+}
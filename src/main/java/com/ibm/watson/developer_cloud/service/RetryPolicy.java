@@ -0,0 +1,297 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.impl.cookie.DateParseException;
+import org.apache.http.impl.cookie.DateUtils;
+
+/**
+ * Retry policy used by {@link WatsonService} when a request fails with
+ * <code>429 Too Many Requests</code>, <code>503 Service Unavailable</code>
+ * or an I/O error. The delay between attempts grows exponentially with full
+ * jitter and the <code>Retry-After</code> header is honored when present.
+ * <br>
+ * POST requests are only retried when they were marked as idempotent with
+ * {@link Request#withIdempotent(boolean)}. A retry budget shared by all the
+ * requests that use the policy stops retrying when most of the recent
+ * requests are failing, so a degraded service is not hit by a retry storm.
+ * <br>
+ * Example: <pre>
+ * {@code
+ *  service.setRetryPolicy(new RetryPolicy()
+ *     .withMaxAttempts(4)
+ *     .withBackoff(200, 5000, TimeUnit.MILLISECONDS));
+ * }</pre>
+ */
+public class RetryPolicy {
+
+	/**
+	 * Request parameter that marks a request as safe to retry. (value is
+	 * "watson.request.idempotent")
+	 */
+	public static final String IDEMPOTENT = "watson.request.idempotent";
+
+	/**
+	 * Field RETRY_AFTER. (value is ""Retry-After"")
+	 */
+	private static final String RETRY_AFTER = "Retry-After";
+
+	/**
+	 * Field TOO_MANY_REQUESTS. (value is 429)
+	 */
+	private static final int TOO_MANY_REQUESTS = 429;
+
+	/**
+	 * Field TOKEN_SCALE. (value is 1000) Tokens are stored in thousandths so
+	 * fractional ratios can be added atomically.
+	 */
+	private static final long TOKEN_SCALE = 1000;
+
+	/** The random used to jitter the backoff. */
+	private static final Random random = new Random();
+
+	/** The max attempts. */
+	private int maxAttempts = 3;
+
+	/** The initial backoff in milliseconds. */
+	private long initialBackoff = 100;
+
+	/** The max backoff in milliseconds. */
+	private long maxBackoff = 10000;
+
+	/** The maximum number of tokens in the retry budget. */
+	private long maxTokens = 10 * TOKEN_SCALE;
+
+	/** The tokens added to the budget by every successful request. */
+	private long tokenRatio = TOKEN_SCALE / 10;
+
+	/** The available tokens. */
+	private final AtomicLong tokens = new AtomicLong(maxTokens);
+
+	/**
+	 * Sets the maximum number of attempts, including the first one.
+	 * 
+	 * @param maxAttempts
+	 *            the max attempts
+	 * @return this
+	 */
+	public RetryPolicy withMaxAttempts(int maxAttempts) {
+		if (maxAttempts < 1)
+			throw new IllegalArgumentException(
+					"maxAttempts should be greater than 0");
+		this.maxAttempts = maxAttempts;
+		return this;
+	}
+
+	/**
+	 * Sets the exponential backoff. The delay before the attempt
+	 * <code>n</code> is a random value between 0 and
+	 * <code>min(max, initial * 2^n)</code>. A <code>Retry-After</code> longer
+	 * than <code>max</code> is not waited for and the error is returned.
+	 * 
+	 * @param initial
+	 *            the initial backoff
+	 * @param max
+	 *            the max backoff
+	 * @param unit
+	 *            the time unit
+	 * @return this
+	 */
+	public RetryPolicy withBackoff(long initial, long max, TimeUnit unit) {
+		if (initial < 0 || max < initial)
+			throw new IllegalArgumentException(
+					"backoff should be 0 <= initial <= max");
+		this.initialBackoff = unit.toMillis(initial);
+		this.maxBackoff = unit.toMillis(max);
+		return this;
+	}
+
+	/**
+	 * Sets the retry budget. Every retry takes a token out of the budget and
+	 * every successful request gives back <code>tokenRatio</code> tokens.
+	 * Failures that are not retried leave the budget untouched. Retries stop
+	 * when taking a token would leave half of <code>maxTokens</code> or less.
+	 * 
+	 * @param maxTokens
+	 *            the maximum number of tokens
+	 * @param tokenRatio
+	 *            the tokens given back by a successful request
+	 * @return this
+	 */
+	public RetryPolicy withRetryBudget(int maxTokens, double tokenRatio) {
+		if (maxTokens < 1)
+			throw new IllegalArgumentException(
+					"maxTokens should be greater than 0");
+		if (tokenRatio <= 0)
+			throw new IllegalArgumentException(
+					"tokenRatio should be greater than 0");
+		this.maxTokens = maxTokens * TOKEN_SCALE;
+		this.tokenRatio = (long) (tokenRatio * TOKEN_SCALE);
+		this.tokens.set(this.maxTokens);
+		return this;
+	}
+
+	/**
+	 * Gets the max attempts.
+	 * 
+	 * @return the max attempts
+	 */
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * Records a successful request in the retry budget.
+	 */
+	void onSuccess() {
+		long current;
+		do {
+			current = tokens.get();
+			if (current >= maxTokens)
+				return;
+		} while (!tokens.compareAndSet(current,
+				Math.min(maxTokens, current + tokenRatio)));
+	}
+
+	/**
+	 * Takes a token out of the retry budget for a retry that is about to
+	 * happen. Nothing is taken when the budget is exhausted.
+	 * 
+	 * @return true if the budget allows another attempt
+	 */
+	boolean acquireRetry() {
+		long current;
+		do {
+			current = tokens.get();
+			if (current - TOKEN_SCALE <= maxTokens / 2)
+				return false;
+		} while (!tokens.compareAndSet(current, current - TOKEN_SCALE));
+		return true;
+	}
+
+	/**
+	 * Checks whether the request can be sent again. Requests with a
+	 * non-repeatable entity, like a stream, can not be retried.
+	 * 
+	 * @param request
+	 *            the request
+	 * @param attempt
+	 *            the number of attempts already made
+	 * @return true, if the request can be retried
+	 */
+	boolean isRetryable(HttpRequestBase request, int attempt) {
+		return attempt < maxAttempts && isResendable(request);
+	}
+
+	/**
+	 * Checks whether a request that may have reached the server can be sent
+	 * again. POST requests have to be marked as idempotent and requests with
+	 * a non-repeatable entity, like a stream, can not be sent again.
+	 * 
+	 * @param request
+	 *            the request
+	 * @return true, if the request can be sent again
+	 */
+	static boolean isResendable(HttpRequestBase request) {
+		if (request.isAborted())
+			return false;
+
+		if (HttpPost.METHOD_NAME.equals(request.getMethod())
+				&& !request.getParams().isParameterTrue(IDEMPOTENT))
+			return false;
+
+		if (request instanceof HttpEntityEnclosingRequest) {
+			final HttpEntity entity = ((HttpEntityEnclosingRequest) request)
+					.getEntity();
+			if (entity != null && !entity.isRepeatable())
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether the HTTP status is worth retrying.
+	 * 
+	 * @param status
+	 *            the HTTP status
+	 * @return true, if the status is 429 or 503
+	 */
+	boolean isRetryableStatus(int status) {
+		return status == TOO_MANY_REQUESTS
+				|| status == HttpStatus.SC_SERVICE_UNAVAILABLE;
+	}
+
+	/**
+	 * Gets the delay before the next attempt.
+	 * 
+	 * @param response
+	 *            the failed response, null if the request failed with an I/O
+	 *            error
+	 * @param attempt
+	 *            the number of attempts already made
+	 * @return the delay in milliseconds or -1 if the service asked to wait
+	 *         longer than the max backoff
+	 */
+	long getDelay(HttpResponse response, int attempt) {
+		final long retryAfter = response != null ? getRetryAfter(response) : -1;
+		if (retryAfter >= 0)
+			return retryAfter <= maxBackoff ? retryAfter : -1;
+
+		final long ceiling = initialBackoff << Math.min(attempt - 1, 30);
+		final long backoff = ceiling > 0 ? Math.min(maxBackoff, ceiling)
+				: maxBackoff;
+		return (long) (random.nextDouble() * backoff);
+	}
+
+	/**
+	 * Parses the <code>Retry-After</code> header, which can be a number of
+	 * seconds or an HTTP date.
+	 * 
+	 * @param response
+	 *            the response
+	 * @return the delay in milliseconds or -1 if the header is missing or
+	 *         invalid
+	 */
+	static long getRetryAfter(HttpResponse response) {
+		final Header header = response.getFirstHeader(RETRY_AFTER);
+		if (header == null || header.getValue() == null)
+			return -1;
+
+		final String value = header.getValue().trim();
+		try {
+			return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(value)));
+		} catch (NumberFormatException e) {
+			try {
+				final Date date = DateUtils.parseDate(value);
+				return Math.max(0, date.getTime() - System.currentTimeMillis());
+			} catch (DateParseException dpe) {
+				return -1;
+			}
+		}
+	}
+}
@@ -0,0 +1,43 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+/**
+ * Callback notified when an asynchronous service call completes. Callbacks
+ * run on the thread that executed the request so they should not block.
+ *
+ * @param <T>
+ *            the type of the service response
+ */
+public interface ServiceCallback<T> {
+
+	/**
+	 * Called when the service responded successfully.
+	 *
+	 * @param response
+	 *            the service response
+	 */
+	void onResponse(T response);
+
+	/**
+	 * Called when the request could not be executed, the service returned an
+	 * error or the response could not be parsed.
+	 *
+	 * @param e
+	 *            the exception
+	 */
+	void onFailure(Exception e);
+}
@@ -0,0 +1,214 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.http.Header;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * Coalesces identical idempotent calls that are in flight at the same time.
+ * The first thread to make a call executes it, the threads that make the same
+ * call before it completes wait for it and get the same converted response,
+ * or the same exception. Once the call completes the next one goes to the
+ * network again, nothing is cached. When the first call fails because its own
+ * request was aborted, for example by cancelling its {@link AsyncCall}, the
+ * waiting threads do not get the failure, they make the call again.
+ */
+final class SingleFlight {
+
+	/**
+	 * A call in flight.
+	 */
+	private static final class Flight {
+
+		/** The response converter, only calls that use it share the result. */
+		private final ResponseConverter<?> converter;
+
+		/** Released when the call completes. */
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		/** The converted response. */
+		private volatile Object result;
+
+		/** The failure, null if the call succeeded. */
+		private volatile Throwable failure;
+
+		/** Whether the call was cancelled by the thread that made it. */
+		private volatile boolean abandoned;
+
+		/**
+		 * Instantiates a new flight.
+		 * 
+		 * @param converter
+		 *            the response converter
+		 */
+		Flight(ResponseConverter<?> converter) {
+			this.converter = converter;
+		}
+	}
+
+	/** The calls in flight by key. */
+	private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<String, Flight>();
+
+	/**
+	 * Gets the key that identifies a request, null if the request can not be
+	 * coalesced. Only <code>GET</code> and <code>HEAD</code> requests are
+	 * coalesced, two requests are identical when they have the same URI and
+	 * headers.
+	 * 
+	 * @param request
+	 *            the http request
+	 * @return the key or null
+	 */
+	static String key(HttpRequestBase request) {
+		final String method = request.getMethod();
+		if (!HttpGet.METHOD_NAME.equals(method)
+				&& !HttpHead.METHOD_NAME.equals(method))
+			return null;
+
+		final StringBuilder key = new StringBuilder(64);
+		key.append(method).append(' ').append(request.getURI());
+		for (Header header : request.getAllHeaders())
+			key.append('\n').append(header.getName()).append(": ")
+					.append(header.getValue());
+		return key.toString();
+	}
+
+	/**
+	 * Executes the call, or waits for the identical call in flight.
+	 * 
+	 * @param <T>
+	 *            the type of the converted response
+	 * @param key
+	 *            the key of the request
+	 * @param request
+	 *            the http request
+	 * @param converter
+	 *            the converter used by the call
+	 * @param call
+	 *            executes the request and converts the response
+	 * @return the converted response
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T execute(String key, HttpRequestBase request,
+			ResponseConverter<T> converter, Callable<T> call) {
+		for (;;) {
+			final Flight flight = new Flight(converter);
+			final Flight leader = flights.putIfAbsent(key, flight);
+			if (leader == null)
+				return lead(key, flight, request, call);
+			if (leader.converter != converter)
+				return call(call);
+
+			await(leader);
+			if (!leader.abandoned)
+				return (T) result(leader);
+			// the first call was cancelled, make it again
+		}
+	}
+
+	/**
+	 * Executes the call for the threads that wait for it.
+	 * 
+	 * @param <T>
+	 *            the type of the converted response
+	 * @param key
+	 *            the key of the request
+	 * @param flight
+	 *            the call in flight
+	 * @param request
+	 *            the http request
+	 * @param call
+	 *            executes the request and converts the response
+	 * @return the converted response
+	 */
+	private <T> T lead(String key, Flight flight, HttpRequestBase request,
+			Callable<T> call) {
+		try {
+			final T result = call(call);
+			flight.result = result;
+			return result;
+		} catch (RuntimeException e) {
+			flight.failure = e;
+			flight.abandoned = request.isAborted()
+					|| Thread.currentThread().isInterrupted();
+			throw e;
+		} catch (Error e) {
+			flight.failure = e;
+			throw e;
+		} finally {
+			flights.remove(key, flight);
+			flight.done.countDown();
+		}
+	}
+
+	/**
+	 * Waits for a call in flight to complete.
+	 * 
+	 * @param flight
+	 *            the call in flight
+	 */
+	private static void await(Flight flight) {
+		try {
+			flight.done.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Gets the result of a completed call.
+	 * 
+	 * @param flight
+	 *            the completed call
+	 * @return the converted response
+	 */
+	private static Object result(Flight flight) {
+		final Throwable failure = flight.failure;
+		if (failure instanceof RuntimeException)
+			throw (RuntimeException) failure;
+		if (failure instanceof Error)
+			throw (Error) failure;
+		return flight.result;
+	}
+
+	/**
+	 * Invokes the call.
+	 * 
+	 * @param <T>
+	 *            the type of the converted response
+	 * @param call
+	 *            the call
+	 * @return the converted response
+	 */
+	private static <T> T call(Callable<T> call) {
+		try {
+			return call.call();
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
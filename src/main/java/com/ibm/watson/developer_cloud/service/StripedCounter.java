@@ -0,0 +1,85 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter that spreads concurrent updates over several padded cells, indexed
+ * by thread, so threads recording metrics at the same time rarely touch the
+ * same cache line. Reads add up all the cells and are not atomic with respect
+ * to concurrent updates.
+ */
+final class StripedCounter {
+
+	/** The number of longs between two cells, one cache line. */
+	private static final int PADDING = 8;
+
+	/** The number of cells, a power of two. */
+	private static final int STRIPES;
+
+	static {
+		final int processors = Runtime.getRuntime().availableProcessors();
+		int stripes = 1;
+		while (stripes < processors && stripes < 64) {
+			stripes <<= 1;
+		}
+		STRIPES = stripes;
+	}
+
+	/** The cells. */
+	private final AtomicLongArray cells = new AtomicLongArray(STRIPES
+			* PADDING);
+
+	/**
+	 * Adds the given value.
+	 *
+	 * @param value
+	 *            the value to add
+	 */
+	void add(long value) {
+		final int stripe = (int) Thread.currentThread().getId()
+				& (STRIPES - 1);
+		cells.addAndGet(stripe * PADDING, value);
+	}
+
+	/**
+	 * Adds one.
+	 */
+	void increment() {
+		add(1);
+	}
+
+	/**
+	 * Subtracts one.
+	 */
+	void decrement() {
+		add(-1);
+	}
+
+	/**
+	 * Gets the sum of all the cells.
+	 *
+	 * @return the sum
+	 */
+	long sum() {
+		long sum = 0;
+		for (int i = 0; i < STRIPES; i++) {
+			sum += cells.get(i * PADDING);
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.ibm.watson.developer_cloud.util.RequestUtil;
+
+/**
+ * URL path template compiled once and expanded for every request. The
+ * template uses <code>%s</code> placeholders, like
+ * {@link String#format(String, Object...)}, but it is split into literal
+ * segments up front so expanding it is a single pass over a
+ * {@link StringBuilder}. The arguments are percent-encoded, as path segments
+ * before the <code>?</code> of the template and as query values after it, so
+ * an identifier with a <code>/</code> or a space can not change the URL. <br>
+ * Example: <pre>
+ * {@code
+ *  private static final UrlTemplate CLASSIFY = UrlTemplate
+ *      .compile("/v1/classifiers/%s/classify");
+ *
+ *  HttpRequestBase request = Request.Post(CLASSIFY, classifierId).build();
+ * }</pre>
+ * Templates with other format specifiers are expanded with
+ * {@link String#format(Locale, String, Object...)} and their arguments are
+ * not encoded.
+ */
+public final class UrlTemplate {
+
+	/** The Constant ESTIMATED_ARG_LENGTH. */
+	private static final int ESTIMATED_ARG_LENGTH = 32;
+
+	/**
+	 * Compiles the URL template.
+	 *
+	 * @param template
+	 *            the URL template, for example
+	 *            <code>/v1/classifiers/%s/classify</code>
+	 * @return the compiled template
+	 */
+	public static UrlTemplate compile(String template) {
+		if (template == null)
+			throw new IllegalArgumentException("template is null");
+		return new UrlTemplate(template);
+	}
+
+	/** The literal segments, one more than the placeholders. */
+	private final String[] segments;
+
+	/** The number of placeholders in the path, before the query string. */
+	private final int pathPlaceholders;
+
+	/** The length of all the literal segments. */
+	private final int literalLength;
+
+	/** The template. */
+	private final String template;
+
+	/** Whether the template has specifiers other than %s and %%. */
+	private final boolean formatted;
+
+	/**
+	 * Instantiates a new URL template.
+	 *
+	 * @param template
+	 *            the template
+	 */
+	private UrlTemplate(String template) {
+		this.template = template;
+
+		final List<String> parts = new ArrayList<String>();
+		final StringBuilder literal = new StringBuilder(template.length());
+		boolean unsupported = false;
+		boolean query = false;
+		int inPath = 0;
+		int length = 0;
+		for (int i = 0; i < template.length(); i++) {
+			final char c = template.charAt(i);
+			if (c != '%') {
+				literal.append(c);
+				query |= c == '?';
+				continue;
+			}
+			final char next = i + 1 < template.length() ? template
+					.charAt(i + 1) : 0;
+			if (next == 's') {
+				if (!query)
+					inPath++;
+				parts.add(literal.toString());
+				length += literal.length();
+				literal.setLength(0);
+				i++;
+			} else if (next == '%') {
+				literal.append('%');
+				i++;
+			} else {
+				unsupported = true;
+				break;
+			}
+		}
+		parts.add(literal.toString());
+		length += literal.length();
+
+		formatted = unsupported;
+		pathPlaceholders = inPath;
+		segments = parts.toArray(new String[parts.size()]);
+		literalLength = length;
+	}
+
+	/**
+	 * Expands the template with the given arguments, percent-encoded.
+	 *
+	 * @param args
+	 *            the arguments, one per placeholder
+	 * @return the URL
+	 */
+	public String expand(Object... args) {
+		if (formatted)
+			return String.format(Locale.ENGLISH, template, args);
+
+		final int placeholders = segments.length - 1;
+		final int count = args == null ? 0 : args.length;
+		if (count < placeholders)
+			throw new IllegalArgumentException(template + " requires "
+					+ placeholders + " arguments but " + count
+					+ " were given");
+
+		if (placeholders == 0)
+			return segments[0];
+
+		final StringBuilder url = new StringBuilder(literalLength
+				+ placeholders * ESTIMATED_ARG_LENGTH);
+		url.append(segments[0]);
+		for (int i = 0; i < placeholders; i++) {
+			final String arg = String.valueOf(args[i]);
+			if (i < pathPlaceholders)
+				RequestUtil.appendPathSegment(arg, url);
+			else
+				RequestUtil.appendQueryComponent(arg, url);
+			url.append(segments[i + 1]);
+		}
+		return url.toString();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return template;
+	}
+}
@@ -16,28 +16,53 @@
 package com.ibm.watson.developer_cloud.service;
 
 import java.io.IOException;
+import java.net.ConnectException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.apache.commons.codec.binary.Base64;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.params.HttpClientParams;
-import org.apache.http.conn.params.ConnManagerParams;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
 import org.apache.http.impl.client.DefaultHttpClient;
 import org.apache.http.params.BasicHttpParams;
 import org.apache.http.params.HttpConnectionParams;
 import org.apache.http.params.HttpParams;
 import org.apache.http.params.HttpProtocolParams;
+import org.apache.http.protocol.HttpRequestExecutor;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.ibm.watson.developer_cloud.util.DecompressingEntity;
+import com.ibm.watson.developer_cloud.util.GsonSingleton;
+import com.ibm.watson.developer_cloud.util.GzipCompressingEntity;
 import com.ibm.watson.developer_cloud.util.MediaType;
 import com.ibm.watson.developer_cloud.util.ResponseUtil;
 
@@ -60,6 +85,10 @@ public abstract class WatsonService {
 	 * Field ACCEPT. (value is ""Accept"")
 	 */
 	private static final String ACCEPT = "Accept";
+	/**
+	 * Field ACCEPT_ENCODING. (value is ""Accept-Encoding"")
+	 */
+	private static final String ACCEPT_ENCODING = "Accept-Encoding";
 	/**
 	 * Field AUTHORIZATION. (value is ""Authorization"")
 	 */
@@ -70,18 +99,115 @@ public abstract class WatsonService {
 	 */
 	private static final int CONNECTION_TIMEOUT = 60000;
 	/**
-	 * Field MAX_TOTAL_CONNECTIONS. (value is 10)
+	 * Field ASYNC_THREAD_KEEP_ALIVE. (value is 60)
+	 */
+	private static final long ASYNC_THREAD_KEEP_ALIVE = 60;
+
+	/**
+	 * Field ASYNC_QUEUE_CAPACITY. (value is 1000)
+	 */
+	private static final int ASYNC_QUEUE_CAPACITY = 1000;
+
+	/**
+	 * Field defaultExecutorService.
 	 */
-	private static final int MAX_TOTAL_CONNECTIONS = 10;
+	private static ExecutorService defaultExecutorService;
+
+	/**
+	 * Field NO_INTERCEPTORS.
+	 */
+	private static final Interceptor[] NO_INTERCEPTORS = new Interceptor[0];
+
+	/**
+	 * Field metricsEndpoints. The endpoint names by HTTP method and URL
+	 * template, so they are not built for every request.
+	 */
+	private static final ConcurrentMap<String, ConcurrentMap<String, String>> metricsEndpoints = new ConcurrentHashMap<String, ConcurrentMap<String, String>>();
+
 	/**
 	 * Field httpClient.
 	 */
-	private HttpClient httpClient;
+	private volatile HttpClient httpClient;
+
+	/**
+	 * Field executorService.
+	 */
+	private ExecutorService executorService;
+
+	/**
+	 * Field retryPolicy.
+	 */
+	private volatile RetryPolicy retryPolicy;
+
+	/**
+	 * Field endPointSelector.
+	 */
+	private volatile EndpointSelector endPointSelector;
+
+	/**
+	 * Field rateLimiter.
+	 */
+	private volatile RateLimiter rateLimiter;
+
+	/**
+	 * Field circuitBreaker.
+	 */
+	private volatile CircuitBreaker circuitBreaker;
+
+	/**
+	 * Field callListener.
+	 */
+	private volatile CallListener callListener;
+
+	/**
+	 * Field metricsCollector.
+	 */
+	private volatile MetricsCollector metricsCollector;
+
+	/**
+	 * Field interceptors.
+	 */
+	private volatile Interceptor[] interceptors = NO_INTERCEPTORS;
+
+	/**
+	 * Field responseCache.
+	 */
+	private volatile ResponseCache responseCache;
+
+	/**
+	 * Field resultCache.
+	 */
+	private volatile ResultCache resultCache;
+
+	/**
+	 * Field responseCompression.
+	 */
+	private volatile boolean responseCompression = true;
+
+	/**
+	 * Field requestCompression.
+	 */
+	private volatile boolean requestCompression;
+
+	/**
+	 * Field requestCoalescing.
+	 */
+	private volatile boolean requestCoalescing;
+
+	/**
+	 * Field singleFlight.
+	 */
+	private final SingleFlight singleFlight = new SingleFlight();
+
+	/**
+	 * Field connectionManager.
+	 */
+	private ConnectionManager connectionManager;
 
 	/**
 	 * Field gson.
 	 */
-	private Gson gson = new Gson();
+	private Gson gson = GsonSingleton.getGson();
 	/**
 	 * Field apiKey.
 	 */
@@ -103,16 +229,17 @@ public abstract class WatsonService {
 	 * <b>From:</b> /v1/foo/bar <br>
 	 * <b>to:</b>https://host:port/api/v1/foo/bar
 	 * 
-	 * @param request
-	 *            the http request
+	 * @param endPoint
+	 *            the service end point
+	 * @param path
+	 *            the relative URI of the request
 	 * 
 	 * @return the URI including the service end point
 	 */
-	private URI buildRequestURI(HttpRequestBase request) {
-		String requestURL = getEndPoint() + request.getURI();
+	private URI buildRequestURI(String endPoint, URI path) {
+		final String requestURL = endPoint + path;
 
 		try {
-			requestURL = getEndPoint() + request.getURI();
 			return new URI(requestURL);
 		} catch (URISyntaxException e) {
 			log.log(Level.SEVERE, requestURL
@@ -130,15 +257,44 @@ public abstract class WatsonService {
 	 * @return the http response
 	 */
 	protected HttpResponse execute(HttpRequestBase request) {
-		if (getApiKey() == null)
+		final CallListener listener = callListener;
+		if (listener == null)
+			return execute(request, (CallListener) null);
+
+		listener.callStart(request, System.nanoTime());
+		CallEvents.begin(listener, request);
+		try {
+			return execute(request, listener);
+		} catch (RuntimeException e) {
+			listener.callFailed(request, System.nanoTime(), e);
+			throw e;
+		} finally {
+			CallEvents.end();
+		}
+	}
+
+	/**
+	 * Execute the Http request.
+	 * 
+	 * @param request
+	 *            the http request
+	 * @param listener
+	 *            the call listener, can be null
+	 * 
+	 * @return the http response
+	 */
+	private HttpResponse execute(HttpRequestBase request,
+			final CallListener listener) {
+		final String authorization = getAuthorization();
+		if (authorization == null)
 			throw new IllegalArgumentException(
 					"apiKey or username and password were not specified");
 		else {
-			request.addHeader(AUTHORIZATION,
-					apiKey.startsWith("Basic ") ? apiKey : "Basic " + apiKey);
+			request.addHeader(AUTHORIZATION, authorization);
 		}
 
-		if (getEndPoint() == null)
+		final EndpointSelector selector = endPointSelector;
+		if (getEndPoint() == null && selector == null)
 			throw new IllegalArgumentException(
 					"service endpoint was not specified");
 
@@ -147,13 +303,46 @@ public abstract class WatsonService {
 		}
 
 		// from /v1/foo/bar to https://host:port/api/v1/foo/bar
-		if (!request.getURI().isAbsolute()) {
-			request.setURI(buildRequestURI(request));
+		final URI path = request.getURI();
+		final String endPoint;
+		if (path.isAbsolute()) {
+			endPoint = getEndPoint() != null ? getEndPoint() : path
+					.getScheme() + "://" + path.getRawAuthority();
+		} else {
+			endPoint = selector != null ? selector.select() : getEndPoint();
+			request.setURI(buildRequestURI(endPoint, path));
+		}
+		if (responseCompression && !request.containsHeader(ACCEPT_ENCODING)) {
+			request.addHeader(ACCEPT_ENCODING, DecompressingEntity.GZIP + ", "
+					+ DecompressingEntity.DEFLATE);
+		}
+
+		if (requestCompression) {
+			compressRequestEntity(request);
 		}
+
+		final Interceptor[] chain = interceptors;
+		final ResponseCache cache = responseCache;
+		final ResultCache results = resultCache;
 		HttpResponse response;
-		log.log(Level.FINEST, "Request to: " + request.getURI());
 		try {
-			response = getHttpClient().execute(request);
+			if (chain.length == 0 && cache == null && results == null)
+				response = send(request, path, endPoint, listener);
+			else {
+				final InterceptorChain calls = new InterceptorChain(this, chain) {
+					@Override
+					HttpResponse proceedToNetwork(HttpRequestBase request)
+							throws IOException {
+						return send(request, path, endPoint, listener);
+					}
+				};
+				if (results != null && ResultCache.isCacheable(request))
+					response = results.execute(request, calls);
+				else if (cache != null)
+					response = cache.execute(request, path.getPath(), calls);
+				else
+					response = calls.proceed(request);
+			}
 		} catch (ClientProtocolException e) {
 			log.log(Level.SEVERE, "ClientProtocolException", e);
 			throw new RuntimeException(e);
@@ -161,9 +350,8 @@ public abstract class WatsonService {
 			log.log(Level.SEVERE, "IOException", e);
 			throw new RuntimeException(e);
 		}
-		final int status = response.getStatusLine().getStatusCode();
-		log.log(Level.FINEST, "Response HTTP Status: " + status);
 
+		final int status = response.getStatusLine().getStatusCode();
 		if (status >= 200 && status < 300)
 			return response;
 
@@ -210,6 +398,514 @@ public abstract class WatsonService {
 		}
 	}
 
+	/**
+	 * Sends the prepared Http request to its end point, or to the end points
+	 * of the {@link EndpointSelector} one after the other until one of them
+	 * responds without a server error. This is the last step of the
+	 * interceptor chain.
+	 * 
+	 * @param request
+	 *            the http request, with an absolute URI
+	 * @param path
+	 *            the URI of the request before the end point was added
+	 * @param endPoint
+	 *            the end point of the request
+	 * @param listener
+	 *            the call listener, can be null
+	 * 
+	 * @return the http response, whatever its status code
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred and the request
+	 *             will not be retried.
+	 */
+	private HttpResponse send(HttpRequestBase request, URI path,
+			String endPoint, CallListener listener) throws IOException {
+		final EndpointSelector selector = endPointSelector;
+		if (selector == null || path.isAbsolute())
+			return executeOnNetwork(request, endPoint, null, listener);
+
+		String current = endPoint;
+		List<String> failed = null;
+		while (true) {
+			HttpResponse response = null;
+			IOException error = null;
+			CircuitBreakerOpenException open = null;
+			boolean sent = true;
+			try {
+				response = executeOnNetwork(request, current, selector,
+						listener);
+				if (response.getStatusLine().getStatusCode() < 500)
+					return response;
+			} catch (CircuitBreakerOpenException e) {
+				open = e;
+				sent = false;
+			} catch (IOException e) {
+				error = e;
+				sent = !isConnectFailure(e);
+			}
+			selector.recordFailure(current);
+
+			if (failed == null)
+				failed = new ArrayList<String>(2);
+			failed.add(current);
+			final String next = !sent || RetryPolicy.isResendable(request) ? selector
+					.select(failed) : null;
+			if (next == null) {
+				if (response != null)
+					return response;
+				if (error != null)
+					throw error;
+				throw open;
+			}
+
+			if (response != null)
+				ResponseUtil.consume(response);
+			log.log(Level.WARNING, "Failing over " + request.getMethod()
+					+ " " + path + " from " + current + " to " + next);
+			current = next;
+			request.setURI(buildRequestURI(current, path));
+		}
+	}
+
+	/**
+	 * Checks if an I/O error happened before the request was sent.
+	 * 
+	 * @param e
+	 *            the I/O error
+	 * @return true, if the request did not leave the client
+	 */
+	private static boolean isConnectFailure(IOException e) {
+		return e instanceof ConnectException
+				|| e instanceof ConnectTimeoutException
+				|| e instanceof ConnectionPoolTimeoutException
+				|| e instanceof UnknownHostException;
+	}
+
+	/**
+	 * Executes the prepared Http request on the network, applying the rate
+	 * limiter, the circuit breaker and the retry policy of its end point.
+	 * 
+	 * @param request
+	 *            the http request, with an absolute URI
+	 * @param endPoint
+	 *            the end point of the request
+	 * @param selector
+	 *            the end point selector to report the latency of the last
+	 *            attempt to when it did not fail, can be null
+	 * @param listener
+	 *            the call listener, can be null
+	 * 
+	 * @return the http response, whatever its status code
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred and the request
+	 *             will not be retried.
+	 */
+	private HttpResponse executeOnNetwork(HttpRequestBase request,
+			String endPoint, EndpointSelector selector, CallListener listener)
+			throws IOException {
+		final MetricsCollector collector = metricsCollector;
+		final String endpoint = collector != null ? getMetricsEndpoint(request)
+				: null;
+		final long bytesSent = collector != null ? getContentLength(request) : 0;
+		final RetryPolicy policy = retryPolicy;
+		final RateLimiter limiter = rateLimiter;
+		final CircuitBreaker breaker = circuitBreaker;
+		int attempt = 0;
+		while (true) {
+			attempt++;
+			if (limiter != null)
+				acquirePermit(limiter, endPoint, collector, endpoint);
+
+			if (breaker != null && !breaker.allowRequest(endPoint))
+				throw new CircuitBreakerOpenException(
+						"Service Unavailable: circuit breaker is open for "
+								+ endPoint);
+
+			log.log(Level.FINEST, "Request to: " + request.getURI());
+			final long start = System.nanoTime();
+			if (collector != null)
+				collector.requestStarted(getName(), endpoint);
+			final HttpResponse response;
+			final long latency;
+			try {
+				response = getHttpClient().execute(request);
+				latency = System.nanoTime() - start;
+			} catch (ClientProtocolException e) {
+				if (breaker != null)
+					breaker.record(endPoint, true, System.nanoTime() - start);
+				if (collector != null)
+					collector.requestCompleted(getName(), endpoint, 0,
+							bytesSent, 0, 0, System.nanoTime() - start);
+				throw e;
+			} catch (IOException e) {
+				if (breaker != null)
+					breaker.record(endPoint, true, System.nanoTime() - start);
+				if (collector != null)
+					collector.requestCompleted(getName(), endpoint, 0,
+							bytesSent, 0, 0, System.nanoTime() - start);
+				if (policy != null && retry(policy, request, null, attempt))
+					continue;
+				throw e;
+			} finally {
+				if (collector != null)
+					collector.responseReceived(getName(), endpoint);
+			}
+			final int status = response.getStatusLine().getStatusCode();
+			if (collector != null || listener != null)
+				meterResponseEntity(request, response, collector, listener,
+						endpoint, status, bytesSent, start);
+			decompressResponseEntity(response);
+			log.log(Level.FINEST, "Response HTTP Status: " + status);
+			if (breaker != null)
+				breaker.record(endPoint, status >= 500,
+						System.nanoTime() - start);
+
+			if (status >= 200 && status < 300) {
+				if (policy != null)
+					policy.onSuccess();
+			} else if (policy != null && policy.isRetryableStatus(status)
+					&& retry(policy, request, response, attempt))
+				continue;
+
+			// without the rate limiter waits and the retry backoffs
+			if (selector != null && status < 500)
+				selector.recordSuccess(endPoint, latency, TimeUnit.NANOSECONDS);
+			return response;
+		}
+	}
+
+	/**
+	 * Gets the endpoint used to group the metrics of a request: the HTTP
+	 * method and the URL template, or the path if the request was not built
+	 * with {@link Request}. The names are cached per method and template, up
+	 * to {@link MetricsRegistry#MAX_ENDPOINTS} each.
+	 * 
+	 * @param request
+	 *            the http request
+	 * @return the endpoint
+	 */
+	static String getMetricsEndpoint(HttpRequestBase request) {
+		final Object template = request.getParams().getParameter(
+				Request.URL_TEMPLATE);
+		final String path = template != null ? template.toString() : request
+				.getURI().getPath();
+		final String method = request.getMethod();
+
+		ConcurrentMap<String, String> byPath = metricsEndpoints.get(method);
+		if (byPath == null) {
+			byPath = new ConcurrentHashMap<String, String>();
+			final ConcurrentMap<String, String> previous = metricsEndpoints
+					.putIfAbsent(method, byPath);
+			if (previous != null)
+				byPath = previous;
+		}
+
+		String endpoint = byPath.get(path);
+		if (endpoint == null) {
+			endpoint = method + " " + path;
+			if (byPath.size() < MetricsRegistry.MAX_ENDPOINTS)
+				byPath.putIfAbsent(path, endpoint);
+		}
+		return endpoint;
+	}
+
+	/**
+	 * Gets the length of the request body.
+	 * 
+	 * @param request
+	 *            the http request
+	 * @return the length of the body, 0 if there is no body or it is unknown
+	 */
+	private long getContentLength(HttpRequestBase request) {
+		if (!(request instanceof HttpEntityEnclosingRequest))
+			return 0;
+		final HttpEntity entity = ((HttpEntityEnclosingRequest) request)
+				.getEntity();
+		return entity != null ? Math.max(0, entity.getContentLength()) : 0;
+	}
+
+	/**
+	 * Wraps the response body so the request is reported to the metrics
+	 * collector and the call listener once the body is read or discarded.
+	 * Responses without a body are reported right away.
+	 * 
+	 * @param request
+	 *            the http request
+	 * @param response
+	 *            the http response
+	 * @param collector
+	 *            the metrics collector, can be null
+	 * @param listener
+	 *            the call listener, can be null
+	 * @param endpoint
+	 *            the endpoint
+	 * @param status
+	 *            the HTTP status code
+	 * @param bytesSent
+	 *            the bytes sent
+	 * @param start
+	 *            the start time in nanoseconds
+	 */
+	private void meterResponseEntity(final HttpRequestBase request,
+			HttpResponse response, final MetricsCollector collector,
+			final CallListener listener, final String endpoint,
+			final int status, final long bytesSent, final long start) {
+		final long timeToFirstByte = System.nanoTime() - start;
+		final HttpEntity entity = response.getEntity();
+		if (entity == null) {
+			if (collector != null)
+				collector.requestCompleted(getName(), endpoint, status,
+						bytesSent, 0, timeToFirstByte, timeToFirstByte);
+			if (listener != null)
+				listener.responseBodyConsumed(request, System.nanoTime(), 0);
+			return;
+		}
+
+		response.setEntity(new MeteredEntity(entity) {
+			@Override
+			void completed(long bytesReceived) {
+				final long now = System.nanoTime();
+				if (collector != null)
+					collector.requestCompleted(getName(), endpoint, status,
+							bytesSent, bytesReceived, timeToFirstByte, now
+									- start);
+				if (listener != null)
+					listener.responseBodyConsumed(request, now, bytesReceived);
+			}
+		});
+	}
+
+	/**
+	 * Compresses the body of a POST or PUT request with gzip when it is text,
+	 * JSON or a form. Binary bodies like audio or images are sent as they are.
+	 * 
+	 * @param request
+	 *            the http request
+	 */
+	private void compressRequestEntity(HttpRequestBase request) {
+		if (!(request instanceof HttpEntityEnclosingRequest))
+			return;
+
+		final HttpEntityEnclosingRequest enclosingRequest = (HttpEntityEnclosingRequest) request;
+		final HttpEntity entity = enclosingRequest.getEntity();
+		if (entity == null || entity.getContentEncoding() != null
+				|| entity.getContentType() == null)
+			return;
+
+		final String contentType = entity.getContentType().getValue();
+		if (contentType.startsWith(MediaType.APPLICATION_JSON)
+				|| contentType.startsWith(MediaType.APPLICATION_FORM_URLENCODED)
+				|| contentType.startsWith("text/")) {
+			enclosingRequest.setEntity(new GzipCompressingEntity(entity));
+		}
+	}
+
+	/**
+	 * Replaces a gzip or deflate encoded response body with one that is
+	 * decompressed as it is read.
+	 * 
+	 * @param response
+	 *            the http response
+	 */
+	private void decompressResponseEntity(HttpResponse response) {
+		final HttpEntity entity = response.getEntity();
+		if (entity == null || entity.getContentEncoding() == null)
+			return;
+
+		final String encoding = entity.getContentEncoding().getValue().trim();
+		if (DecompressingEntity.GZIP.equalsIgnoreCase(encoding)
+				|| DecompressingEntity.DEFLATE.equalsIgnoreCase(encoding)) {
+			response.setEntity(new DecompressingEntity(entity, encoding));
+		}
+	}
+
+	/**
+	 * Takes a permit from the rate limiter for an end point and the API key
+	 * of this service.
+	 * 
+	 * @param limiter
+	 *            the rate limiter
+	 * @param endPoint
+	 *            the end point
+	 * @param collector
+	 *            the metrics collector, can be null
+	 * @param endpoint
+	 *            the endpoint of the metrics
+	 */
+	private void acquirePermit(RateLimiter limiter, String endPoint,
+			MetricsCollector collector, String endpoint) {
+		final long wait;
+		if (limiter.isBlocking()) {
+			try {
+				wait = limiter.acquire(endPoint, getApiKey());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+		} else {
+			wait = limiter.tryAcquire(endPoint, getApiKey()) ? 0 : -1;
+		}
+
+		if (wait != 0 && collector != null)
+			collector.requestThrottled(getName(), endpoint, Math.max(0, wait));
+		if (wait < 0)
+			throw new TooManyRequestsException(
+					"Too many requests: client rate limit exceeded");
+	}
+
+	/**
+	 * Decides whether a failed attempt is retried and waits for the backoff
+	 * delay if it is.
+	 * 
+	 * @param policy
+	 *            the retry policy
+	 * @param request
+	 *            the http request
+	 * @param response
+	 *            the failed response, null if the request failed with an I/O
+	 *            error
+	 * @param attempt
+	 *            the number of attempts already made
+	 * 
+	 * @return true, if the request should be sent again
+	 */
+	private boolean retry(RetryPolicy policy, HttpRequestBase request,
+			HttpResponse response, int attempt) {
+		if (!policy.isRetryable(request, attempt))
+			return false;
+
+		final long delay = policy.getDelay(response, attempt);
+		if (delay < 0 || !policy.acquireRetry())
+			return false;
+
+		if (response != null)
+			ResponseUtil.consume(response);
+
+		log.log(Level.FINE, "Retrying " + request.getURI() + " in " + delay
+				+ "ms, attempt " + (attempt + 1));
+		try {
+			Thread.sleep(delay);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Execute the Http request and convert the response. Identical
+	 * <code>GET</code> requests that are in flight at the same time share one
+	 * call and the same converted response when the converter is a
+	 * {@link MaterializedResponseConverter}, see
+	 * {@link #setRequestCoalescing(boolean)}.
+	 * 
+	 * @param <T>
+	 *            the type of the converted response
+	 * @param request
+	 *            the http request
+	 * @param converter
+	 *            the response converter
+	 * 
+	 * @return the converted response
+	 */
+	protected <T> T execute(final HttpRequestBase request,
+			final ResponseConverter<T> converter) {
+		final String key = requestCoalescing
+				&& converter instanceof MaterializedResponseConverter ? SingleFlight
+				.key(request) : null;
+		if (key == null)
+			return convert(request, converter);
+
+		return singleFlight.execute(key, request, converter, new Callable<T>() {
+			@Override
+			public T call() {
+				return convert(request, converter);
+			}
+		});
+	}
+
+	/**
+	 * Execute the Http request and convert the response.
+	 * 
+	 * @param <T>
+	 *            the type of the converted response
+	 * @param request
+	 *            the http request
+	 * @param converter
+	 *            the response converter
+	 * 
+	 * @return the converted response
+	 */
+	private <T> T convert(HttpRequestBase request,
+			ResponseConverter<T> converter) {
+		final HttpResponse response = execute(request);
+		final CallListener listener = callListener;
+		try {
+			if (listener != null)
+				listener.responseConversionStart(request, System.nanoTime());
+			final T result = converter.convert(response);
+			if (listener != null)
+				listener.responseConverted(request, System.nanoTime());
+			return result;
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Execute the Http request in the {@link #getExecutorService()} and
+	 * convert the response. Cancelling the returned future aborts the Http
+	 * request.
+	 * 
+	 * @param <T>
+	 *            the type of the converted response
+	 * @param request
+	 *            the http request
+	 * @param converter
+	 *            the response converter
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * 
+	 * @return the future response
+	 * @throws RejectedExecutionException
+	 *             if the executor service does not accept more calls
+	 */
+	protected <T> Future<T> executeAsync(final HttpRequestBase request,
+			final ResponseConverter<T> converter,
+			final ServiceCallback<T> callback) {
+		final AsyncCall<T> call = new AsyncCall<T>(request, new Callable<T>() {
+			@Override
+			public T call() throws Exception {
+				return execute(request, converter);
+			}
+		}, callback);
+		getExecutorService().execute(call);
+		return call;
+	}
+
+	/**
+	 * Runs a call that executes several Http requests in the
+	 * {@link #getExecutorService()}. Cancelling the returned future interrupts
+	 * the call but does not abort the request in progress.
+	 * 
+	 * @param <T>
+	 *            the type of the result
+	 * @param call
+	 *            executes the requests and returns the result
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * 
+	 * @return the future result
+	 * @throws RejectedExecutionException
+	 *             if the executor service does not accept more calls
+	 */
+	protected <T> Future<T> executeAsync(final Callable<T> call,
+			final ServiceCallback<T> callback) {
+		final AsyncCall<T> future = new AsyncCall<T>(null, call, callback);
+		getExecutorService().execute(future);
+		return future;
+	}
+
 	/**
 	 * Gets the error message from a JSON response
 	 * 
@@ -241,6 +937,19 @@ public abstract class WatsonService {
 		return error;
 	}
 
+	/**
+	 * Gets the value of the <code>Authorization</code> header sent with the
+	 * requests.
+	 * 
+	 * @return the header value, null if there are no credentials
+	 */
+	String getAuthorization() {
+		final String key = apiKey;
+		if (key == null)
+			return null;
+		return key.startsWith("Basic ") ? key : "Basic " + key;
+	}
+
 	/**
 	 * Gets the API key.
 	 * 
@@ -251,6 +960,107 @@ public abstract class WatsonService {
 		return apiKey;
 	}
 
+	/**
+	 * Gets the call listener.
+	 * 
+	 * 
+	 * @return the call listener, null if none is registered
+	 */
+	public CallListener getCallListener() {
+		return callListener;
+	}
+
+	/**
+	 * Gets the interceptors, in the order they run.
+	 * 
+	 * 
+	 * @return an unmodifiable snapshot of the interceptors
+	 */
+	public List<Interceptor> getInterceptors() {
+		return Collections.unmodifiableList(Arrays.asList(interceptors));
+	}
+
+	/**
+	 * Gets the metrics collector.
+	 * 
+	 * 
+	 * @return the metrics collector, null if metrics are not collected
+	 */
+	public MetricsCollector getMetricsCollector() {
+		return metricsCollector;
+	}
+
+	/**
+	 * Gets the name used to identify this service in the metrics.
+	 * 
+	 * 
+	 * @return the service name
+	 */
+	protected String getName() {
+		return getClass().getSimpleName();
+	}
+
+	/**
+	 * Checks if compressed responses are requested. It is enabled by default.
+	 * 
+	 * 
+	 * @return true, if gzip and deflate responses are accepted
+	 */
+	public boolean isResponseCompression() {
+		return responseCompression;
+	}
+
+	/**
+	 * Checks if text and JSON request bodies are compressed.
+	 * 
+	 * 
+	 * @return true, if request bodies are compressed with gzip
+	 */
+	public boolean isRequestCompression() {
+		return requestCompression;
+	}
+
+	/**
+	 * Gets the response cache.
+	 * 
+	 * 
+	 * @return the response cache, null if responses are not cached
+	 */
+	public ResponseCache getResponseCache() {
+		return responseCache;
+	}
+
+	/**
+	 * Gets the result cache.
+	 * 
+	 * 
+	 * @return the result cache, null if results are not cached
+	 */
+	public ResultCache getResultCache() {
+		return resultCache;
+	}
+
+	/**
+	 * Checks if identical requests in flight are coalesced. It is disabled by
+	 * default.
+	 * 
+	 * 
+	 * @return true, if identical requests in flight share one call
+	 */
+	public boolean isRequestCoalescing() {
+		return requestCoalescing;
+	}
+
+	/**
+	 * Gets the circuit breaker.
+	 * 
+	 * 
+	 * @return the circuit breaker, null if requests are always sent
+	 */
+	public CircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
 	/**
 	 * Gets the default content type.
 	 * 
@@ -273,7 +1083,6 @@ public abstract class WatsonService {
 		HttpConnectionParams.setSoTimeout(params, CONNECTION_TIMEOUT);
 		HttpClientParams.setRedirecting(params, false);
 		HttpProtocolParams.setUserAgent(params, getUserAgent());
-		ConnManagerParams.setMaxTotalConnections(params, MAX_TOTAL_CONNECTIONS);
 
 		return params;
 	}
@@ -288,6 +1097,55 @@ public abstract class WatsonService {
 		return endPoint;
 	}
 
+	/**
+	 * Gets the executor service used to run the asynchronous calls. Unless one
+	 * was set with {@link #setExecutorService(ExecutorService)} it is a pool of
+	 * daemon threads shared by all the services and bounded by
+	 * {@link ConnectionManager#DEFAULT_MAX_TOTAL_CONNECTIONS}, more threads
+	 * would only wait for a pooled connection. Up to 1000 calls wait for a
+	 * thread, further calls are rejected with a
+	 * {@link RejectedExecutionException}.
+	 * 
+	 * 
+	 * @return the executor service
+	 */
+	protected synchronized ExecutorService getExecutorService() {
+		if (executorService == null) {
+			executorService = getDefaultExecutorService();
+		}
+		return executorService;
+	}
+
+	/**
+	 * Gets the executor service shared by all the services.
+	 * 
+	 * 
+	 * @return the default executor service
+	 */
+	private static synchronized ExecutorService getDefaultExecutorService() {
+		if (defaultExecutorService == null) {
+			final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+					ConnectionManager.DEFAULT_MAX_TOTAL_CONNECTIONS,
+					ConnectionManager.DEFAULT_MAX_TOTAL_CONNECTIONS,
+					ASYNC_THREAD_KEEP_ALIVE, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(ASYNC_QUEUE_CAPACITY),
+					new ThreadFactory() {
+						private final AtomicInteger count = new AtomicInteger();
+
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread thread = new Thread(r, "watson-async-"
+									+ count.incrementAndGet());
+							thread.setDaemon(true);
+							return thread;
+						}
+					}, new ThreadPoolExecutor.AbortPolicy());
+			executor.allowCoreThreadTimeOut(true);
+			defaultExecutorService = executor;
+		}
+		return defaultExecutorService;
+	}
+
 	/**
 	 * Gets the gson.
 	 * 
@@ -299,16 +1157,129 @@ public abstract class WatsonService {
 	};
 
 	/**
-	 * Gets the http client.
+	 * Gets the connection manager used by this service. Unless one was set
+	 * with {@link #setConnectionManager(ConnectionManager)} it is the
+	 * process-wide {@link ConnectionManager#getInstance()}.
+	 * 
+	 * 
+	 * @return the connection manager
+	 */
+	public synchronized ConnectionManager getConnectionManager() {
+		if (connectionManager == null) {
+			connectionManager = ConnectionManager.getInstance();
+		}
+		return connectionManager;
+	}
+
+	/**
+	 * Gets the http client. The client borrows its connections from
+	 * {@link #getConnectionManager()}.
 	 * 
 	 * 
 	 * @return the http client
 	 */
 	public HttpClient getHttpClient() {
-		if (httpClient == null) {
-			httpClient = new DefaultHttpClient(getDefaultRequestParams());
+		HttpClient client = httpClient;
+		if (client == null) {
+			synchronized (this) {
+				client = httpClient;
+				if (client == null) {
+					final ConnectionManager manager = getConnectionManager();
+					final ClientConnectionManager connManager = manager
+							.getClientConnectionManager();
+					final DefaultHttpClient defaultClient;
+					if (callListener == null) {
+						defaultClient = new DefaultHttpClient(connManager,
+								getDefaultRequestParams());
+					} else {
+						// report pool wait, request written and response
+						// headers to the call listener
+						defaultClient = new DefaultHttpClient(
+								new InstrumentedConnectionManager(connManager),
+								getDefaultRequestParams()) {
+							@Override
+							protected HttpRequestExecutor createRequestExecutor() {
+								return new InstrumentedRequestExecutor();
+							}
+						};
+					}
+					defaultClient.setKeepAliveStrategy(manager
+							.getKeepAliveStrategy());
+					client = defaultClient;
+					httpClient = client;
+				}
+			}
 		}
-		return httpClient;
+		return client;
+	}
+
+	/**
+	 * Opens connections to the end point of the service until the pool holds
+	 * <code>connections</code> of them, so the first calls do not pay for the
+	 * DNS lookup and the TCP and TLS handshakes. It blocks until the
+	 * connections are open. <br>
+	 * Example: <pre>
+	 * {@code
+	 *  SpeechToText service = new SpeechToText();
+	 *  service.setUsernameAndPassword("<username>", "<password>");
+	 *  service.warmUp(4);
+	 * }</pre>
+	 * 
+	 * With an {@link EndpointSelector} every end point gets
+	 * <code>connections</code>.
+	 * 
+	 * @param connections
+	 *            the number of connections
+	 * @return the number of connections opened
+	 * @see ConnectionManager#keepWarm(String, int)
+	 */
+	public int warmUp(int connections) {
+		final EndpointSelector selector = endPointSelector;
+		if (selector != null) {
+			int opened = 0;
+			for (String url : selector.getEndPoints()) {
+				opened += getConnectionManager().warmUp(url, connections,
+						getDefaultRequestParams());
+			}
+			return opened;
+		}
+
+		if (getEndPoint() == null)
+			throw new IllegalArgumentException(
+					"service endpoint was not specified");
+		return getConnectionManager().warmUp(getEndPoint(), connections,
+				getDefaultRequestParams());
+	}
+
+	/**
+	 * Gets the rate limiter.
+	 * 
+	 * 
+	 * @return the rate limiter, null if requests are not throttled
+	 */
+	public RateLimiter getRateLimiter() {
+		return rateLimiter;
+	}
+
+	/**
+	 * Gets the retry policy.
+	 * 
+	 * 
+	 * @return the retry policy, null if failed requests are not retried
+	 */
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	/**
+	 * Gets the end point selector.
+	 * 
+	 * 
+	 * @return the end point selector, null if the requests go to
+	 *         {@link #getEndPoint()}
+	 */
+	public EndpointSelector getEndPointSelector() {
+		return endPointSelector;
 	}
 
 	/**
@@ -331,6 +1302,178 @@ public abstract class WatsonService {
 		this.apiKey = apiKey;
 	}
 
+	/**
+	 * Sets the listener notified of the phases of every request: connection
+	 * lease, connect, TLS handshake, request written, response headers, body
+	 * consumed and response parsed. Set it to null, the default, to stop the
+	 * notifications. It has to be called before the first request is executed
+	 * to see the connection phases.
+	 * 
+	 * @param callListener
+	 *            the call listener
+	 */
+	public synchronized void setCallListener(CallListener callListener) {
+		this.callListener = callListener;
+		httpClient = null;
+	}
+
+	/**
+	 * Adds an interceptor that runs after the ones already added, closer to
+	 * the network. The chain is rebuilt here, not on every request, so it is
+	 * meant to be configured once when the service is created.
+	 * 
+	 * @param interceptor
+	 *            the interceptor
+	 * @see Interceptor
+	 */
+	public synchronized void addInterceptor(Interceptor interceptor) {
+		if (interceptor == null)
+			throw new IllegalArgumentException("interceptor is null");
+
+		final Interceptor[] current = interceptors;
+		final Interceptor[] updated = Arrays.copyOf(current,
+				current.length + 1);
+		updated[current.length] = interceptor;
+		interceptors = updated;
+	}
+
+	/**
+	 * Removes an interceptor. Requests already in progress keep running
+	 * through it.
+	 * 
+	 * @param interceptor
+	 *            the interceptor
+	 * @return true if the interceptor was registered
+	 */
+	public synchronized boolean removeInterceptor(Interceptor interceptor) {
+		final Interceptor[] current = interceptors;
+		for (int i = 0; i < current.length; i++) {
+			if (current[i] == interceptor) {
+				final Interceptor[] updated = new Interceptor[current.length - 1];
+				System.arraycopy(current, 0, updated, 0, i);
+				System.arraycopy(current, i + 1, updated, i, updated.length - i);
+				interceptors = updated.length == 0 ? NO_INTERCEPTORS : updated;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Sets the collector that receives the count, status, size and latency of
+	 * every request, for example a {@link MetricsRegistry}. Set it to null,
+	 * the default, to stop collecting metrics.
+	 * 
+	 * @param metricsCollector
+	 *            the metrics collector
+	 */
+	public void setMetricsCollector(MetricsCollector metricsCollector) {
+		this.metricsCollector = metricsCollector;
+	}
+
+	/**
+	 * Sets whether gzip and deflate responses are accepted. Compressed
+	 * responses are decompressed transparently.
+	 * 
+	 * @param responseCompression
+	 *            true to accept compressed responses
+	 */
+	public void setResponseCompression(boolean responseCompression) {
+		this.responseCompression = responseCompression;
+	}
+
+	/**
+	 * Sets whether text, JSON and form request bodies are compressed with
+	 * gzip. It is disabled by default since the service has to accept
+	 * <code>Content-Encoding: gzip</code>.
+	 * 
+	 * @param requestCompression
+	 *            true to compress request bodies
+	 */
+	public void setRequestCompression(boolean requestCompression) {
+		this.requestCompression = requestCompression;
+	}
+
+	/**
+	 * Sets the response cache. The cache answers before the interceptors, so
+	 * a cached response does not reach the network, the rate limiter or the
+	 * metrics collector.
+	 * 
+	 * @param responseCache
+	 *            the response cache, null to stop caching
+	 */
+	public void setResponseCache(ResponseCache responseCache) {
+		this.responseCache = responseCache;
+	}
+
+	/**
+	 * Sets the persistent cache of the requests marked with
+	 * {@link Request#withCacheable(boolean)}. Like the response cache it
+	 * answers before the interceptors.
+	 * 
+	 * @param resultCache
+	 *            the result cache, null to stop caching
+	 */
+	public void setResultCache(ResultCache resultCache) {
+		this.resultCache = resultCache;
+	}
+
+	/**
+	 * Sets whether identical idempotent requests that are in flight at the
+	 * same time are coalesced. The threads that make a <code>GET</code>
+	 * request with the same URI and headers while it is in flight wait for it
+	 * instead of making their own call, and get the same response object, or
+	 * the same exception. Callers must not modify the response, the other
+	 * threads see the change. Only the responses of a
+	 * {@link MaterializedResponseConverter} are shared, a response returned as
+	 * a stream, like the audio of the text to speech service, is read by a
+	 * single caller. It is disabled by default.
+	 * 
+	 * @param requestCoalescing
+	 *            true to coalesce identical requests in flight
+	 */
+	public void setRequestCoalescing(boolean requestCoalescing) {
+		this.requestCoalescing = requestCoalescing;
+	}
+
+	/**
+	 * Sets the circuit breaker. The breaker can be shared by several services,
+	 * each end point has its own circuit.
+	 * 
+	 * @param circuitBreaker
+	 *            the circuit breaker, null to disable it
+	 */
+	public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+		this.circuitBreaker = circuitBreaker;
+	}
+
+	/**
+	 * Sets the connection manager this service borrows its connections from.
+	 * It has to be called before the first request is executed.
+	 * 
+	 * @param connectionManager
+	 *            the connection manager
+	 */
+	public synchronized void setConnectionManager(
+			ConnectionManager connectionManager) {
+		if (connectionManager == null)
+			throw new IllegalArgumentException("connectionManager is null");
+		this.connectionManager = connectionManager;
+		httpClient = null;
+	}
+
+	/**
+	 * Sets the executor service used to run the asynchronous calls.
+	 * 
+	 * @param executorService
+	 *            the executor service
+	 */
+	public synchronized void setExecutorService(ExecutorService executorService) {
+		if (executorService == null)
+			throw new IllegalArgumentException("executorService is null");
+		this.executorService = executorService;
+	}
+
 	/**
 	 * Sets the end point.
 	 * 
@@ -341,6 +1484,49 @@ public abstract class WatsonService {
 		this.endPoint = endPoint;
 	}
 
+	/**
+	 * Sets the rate limiter. The limiter can be shared by several services,
+	 * each end point and API key gets its own permits.
+	 * 
+	 * @param rateLimiter
+	 *            the rate limiter, null to disable throttling
+	 */
+	public void setRateLimiter(RateLimiter rateLimiter) {
+		this.rateLimiter = rateLimiter;
+	}
+
+	/**
+	 * Sets the retry policy. The policy can be shared by several services so
+	 * they use the same retry budget.
+	 * 
+	 * @param retryPolicy
+	 *            the retry policy, null to disable retries
+	 */
+	public void setRetryPolicy(RetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+	}
+
+	/**
+	 * Sets several equivalent end points for the service, for example
+	 * regional deployments. Each request goes to the healthy end point with
+	 * the lowest latency and fails over to the others, the end point set with
+	 * {@link #setEndPoint(String)} is not used. The circuit breaker and the
+	 * rate limiter keep a separate state for every end point. <br>
+	 * Example: <pre>
+	 * {@code
+	 *  service.setEndPointSelector(new EndpointSelector(
+	 *      "https://gateway.watsonplatform.net/dialog-experimental/api",
+	 *      "http://localhost:8080/dialog-experimental/api"));
+	 * }</pre>
+	 * 
+	 * @param endPointSelector
+	 *            the end point selector, null to send the requests to
+	 *            {@link #getEndPoint()}
+	 */
+	public void setEndPointSelector(EndpointSelector endPointSelector) {
+		this.endPointSelector = endPointSelector;
+	}
+
 	/**
 	 * Sets the username and password.
 	 * 
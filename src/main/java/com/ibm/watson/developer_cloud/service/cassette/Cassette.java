@@ -0,0 +1,387 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service.cassette;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.Header;
+import org.apache.http.message.BasicHeader;
+
+import com.ibm.watson.developer_cloud.service.WatsonService;
+
+/**
+ * A sequence of recorded {@link Interaction interactions}. A
+ * {@link RecordingInterceptor} adds the calls made by a service to the
+ * cassette, which can be saved to a file and loaded later by a
+ * {@link ReplayInterceptor} that serves the responses from memory, without
+ * network. <br>
+ * Example: <pre>
+ * {@code
+ *  Cassette cassette = new Cassette();
+ *  service.addInterceptor(new RecordingInterceptor(cassette));
+ *  ...
+ *  cassette.save(new File("converse.cassette"));
+ *
+ *  service.addInterceptor(new ReplayInterceptor(Cassette.load(new File("converse.cassette"))));
+ * }</pre>
+ * On disk a cassette is a gzip stream in which every distinct body is stored
+ * once, and in memory interactions with the same body share it, so an hour
+ * of traffic to a few end points stays small.
+ */
+public class Cassette {
+
+	/** The Constant MAGIC, "WCAS". */
+	private static final int MAGIC = 0x57434153;
+
+	/** The Constant VERSION. */
+	private static final int VERSION = 1;
+
+	/** The Constant UTF_8. */
+	private static final String UTF_8 = "UTF-8";
+
+	/** The Constant NO_HEADERS. */
+	private static final Header[] NO_HEADERS = new Header[0];
+
+	/**
+	 * Loads a cassette from a file.
+	 * 
+	 * @param file
+	 *            the file
+	 * @return the cassette
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static Cassette load(File file) throws IOException {
+		final InputStream in = new FileInputStream(file);
+		try {
+			return read(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads a cassette from a stream, which is not closed.
+	 * 
+	 * @param in
+	 *            the input stream
+	 * @return the cassette
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred or the stream is
+	 *             not a cassette.
+	 */
+	public static Cassette read(InputStream in) throws IOException {
+		final DataInputStream data = new DataInputStream(
+				new BufferedInputStream(new GZIPInputStream(in)));
+		if (data.readInt() != MAGIC)
+			throw new IOException("Not a cassette");
+		final int version = data.readInt();
+		if (version != VERSION)
+			throw new IOException("Unsupported cassette version: " + version);
+
+		final byte[][] bodies = new byte[data.readInt()][];
+		for (int i = 0; i < bodies.length; i++) {
+			bodies[i] = new byte[data.readInt()];
+			data.readFully(bodies[i]);
+		}
+
+		final Cassette cassette = new Cassette();
+		final int count = data.readInt();
+		for (int i = 0; i < count; i++) {
+			final long offsetNanos = data.readLong();
+			final long latencyNanos = data.readLong();
+			final String method = readString(data);
+			final String uri = readString(data);
+			final String requestContentType = readString(data);
+			final byte[] requestBody = readBody(data, bodies);
+			final int status = data.readUnsignedShort();
+			final Header[] headers = new Header[data.readUnsignedShort()];
+			for (int h = 0; h < headers.length; h++) {
+				headers[h] = new BasicHeader(readString(data), readString(data));
+			}
+			final byte[] responseBody = readBody(data, bodies);
+			cassette.interactions.add(new Interaction(offsetNanos,
+					latencyNanos, method, uri, requestContentType,
+					requestBody, status, headers, responseBody));
+		}
+		for (byte[] body : bodies) {
+			cassette.bodies.put(ByteBuffer.wrap(body), body);
+		}
+		return cassette;
+	}
+
+	/**
+	 * Gets the URI of a request relative to the end point of the service,
+	 * the way it is recorded in an interaction.
+	 * 
+	 * @param service
+	 *            the service
+	 * @param uri
+	 *            the absolute URI of the request
+	 * @return the relative URI
+	 */
+	static String relativeUri(WatsonService service, URI uri) {
+		final String absolute = uri.toString();
+		final String endPoint = service.getEndPoint();
+		if (endPoint != null && absolute.startsWith(endPoint))
+			return absolute.substring(endPoint.length());
+		return uri.getRawQuery() == null ? uri.getRawPath() : uri
+				.getRawPath() + "?" + uri.getRawQuery();
+	}
+
+	/**
+	 * Reads a body reference.
+	 * 
+	 * @param data
+	 *            the data
+	 * @param bodies
+	 *            the bodies
+	 * @return the body, or null
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static byte[] readBody(DataInputStream data, byte[][] bodies)
+			throws IOException {
+		final int index = data.readInt();
+		if (index == -1)
+			return null;
+		if (index < 0 || index >= bodies.length)
+			throw new IOException("Invalid body reference: " + index);
+		return bodies[index];
+	}
+
+	/**
+	 * Reads a string that can be null or longer than 64K.
+	 * 
+	 * @param data
+	 *            the data
+	 * @return the string
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static String readString(DataInputStream data) throws IOException {
+		final int length = data.readInt();
+		if (length == -1)
+			return null;
+		final byte[] bytes = new byte[length];
+		data.readFully(bytes);
+		return new String(bytes, UTF_8);
+	}
+
+	/**
+	 * Writes a string that can be null or longer than 64K.
+	 * 
+	 * @param data
+	 *            the data
+	 * @param value
+	 *            the value
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static void writeString(DataOutputStream data, String value)
+			throws IOException {
+		if (value == null) {
+			data.writeInt(-1);
+		} else {
+			final byte[] bytes = value.getBytes(UTF_8);
+			data.writeInt(bytes.length);
+			data.write(bytes);
+		}
+	}
+
+	/** The interactions. */
+	private final List<Interaction> interactions = new ArrayList<Interaction>();
+
+	/** The distinct bodies. */
+	private final Map<ByteBuffer, byte[]> bodies = new HashMap<ByteBuffer, byte[]>();
+
+	/** The time of the first recorded interaction, in nanoseconds. */
+	private long firstStart;
+
+	/**
+	 * Adds a recorded interaction. The bodies are shared with previous
+	 * interactions that have the same content.
+	 * 
+	 * @param start
+	 *            the time the request started, from {@link System#nanoTime()}
+	 * @param latencyNanos
+	 *            the latency
+	 * @param method
+	 *            the method
+	 * @param uri
+	 *            the URI, relative to the end point
+	 * @param requestContentType
+	 *            the request content type, can be null
+	 * @param requestBody
+	 *            the request body, can be null
+	 * @param status
+	 *            the status
+	 * @param headers
+	 *            the response headers
+	 * @param responseBody
+	 *            the response body, can be null
+	 */
+	synchronized void add(long start, long latencyNanos, String method,
+			String uri, String requestContentType, byte[] requestBody,
+			int status, Header[] headers, byte[] responseBody) {
+		if (interactions.isEmpty())
+			firstStart = start;
+		interactions.add(new Interaction(start - firstStart, latencyNanos,
+				method, uri, requestContentType, intern(requestBody), status,
+				headers == null ? NO_HEADERS : headers, intern(responseBody)));
+	}
+
+	/**
+	 * Returns the body shared by the interactions that have the same one.
+	 * 
+	 * @param body
+	 *            the body, can be null
+	 * @return the shared body
+	 */
+	private byte[] intern(byte[] body) {
+		if (body == null)
+			return null;
+		final ByteBuffer key = ByteBuffer.wrap(body);
+		final byte[] shared = bodies.get(key);
+		if (shared != null)
+			return shared;
+		bodies.put(key, body);
+		return body;
+	}
+
+	/**
+	 * Gets the interactions, in the order they were recorded.
+	 * 
+	 * @return an unmodifiable snapshot of the interactions
+	 */
+	public synchronized List<Interaction> getInteractions() {
+		return Collections.unmodifiableList(new ArrayList<Interaction>(
+				interactions));
+	}
+
+	/**
+	 * Gets the number of interactions.
+	 * 
+	 * @return the number of interactions
+	 */
+	public synchronized int size() {
+		return interactions.size();
+	}
+
+	/**
+	 * Saves the cassette to a file.
+	 * 
+	 * @param file
+	 *            the file
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public void save(File file) throws IOException {
+		final OutputStream out = new FileOutputStream(file);
+		try {
+			write(out);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Writes the cassette to a stream, which is not closed.
+	 * 
+	 * @param out
+	 *            the output stream
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public void write(OutputStream out) throws IOException {
+		final List<Interaction> snapshot = getInteractions();
+
+		// the identity of the shared bodies gives their index in the table
+		final Map<byte[], Integer> index = new IdentityHashMap<byte[], Integer>();
+		final List<byte[]> table = new ArrayList<byte[]>();
+		for (Interaction interaction : snapshot) {
+			for (byte[] body : new byte[][] { interaction.getRequestBody(),
+					interaction.getResponseBody() }) {
+				if (body != null && !index.containsKey(body)) {
+					index.put(body, table.size());
+					table.add(body);
+				}
+			}
+		}
+
+		final GZIPOutputStream gzip = new GZIPOutputStream(out);
+		final DataOutputStream data = new DataOutputStream(
+				new BufferedOutputStream(gzip));
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		data.writeInt(table.size());
+		for (byte[] body : table) {
+			data.writeInt(body.length);
+			data.write(body);
+		}
+		data.writeInt(snapshot.size());
+		for (Interaction interaction : snapshot) {
+			data.writeLong(interaction.getOffsetNanos());
+			data.writeLong(interaction.getLatencyNanos());
+			writeString(data, interaction.getMethod());
+			writeString(data, interaction.getUri());
+			writeString(data, interaction.getRequestContentType());
+			data.writeInt(interaction.getRequestBody() == null ? -1 : index
+					.get(interaction.getRequestBody()));
+			data.writeShort(interaction.getStatus());
+			final Header[] headers = interaction.headers();
+			data.writeShort(headers.length);
+			for (Header header : headers) {
+				writeString(data, header.getName());
+				writeString(data, header.getValue());
+			}
+			data.writeInt(interaction.getResponseBody() == null ? -1 : index
+					.get(interaction.getResponseBody()));
+		}
+		data.flush();
+		gzip.finish();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public synchronized String toString() {
+		return "Cassette [interactions=" + interactions.size() + ", bodies="
+				+ bodies.size() + "]";
+	}
+}
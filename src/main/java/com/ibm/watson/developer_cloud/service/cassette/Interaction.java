@@ -0,0 +1,195 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service.cassette;
+
+import org.apache.http.Header;
+
+/**
+ * A request and its response, as recorded in a {@link Cassette}. The
+ * request URI is relative to the end point of the service, for example
+ * <code>/v1/dialogs/123/conversation</code>, so a cassette recorded against
+ * one end point can be replayed against any other. The credentials are never
+ * recorded.
+ */
+public final class Interaction {
+
+	/** The offset from the first interaction of the cassette, in nanoseconds. */
+	private final long offsetNanos;
+
+	/** The latency, from the request until the last byte of the response. */
+	private final long latencyNanos;
+
+	/** The method. */
+	private final String method;
+
+	/** The URI, relative to the end point. */
+	private final String uri;
+
+	/** The request content type, can be null. */
+	private final String requestContentType;
+
+	/** The request body, can be null. */
+	private final byte[] requestBody;
+
+	/** The status. */
+	private final int status;
+
+	/** The response headers. */
+	private final Header[] headers;
+
+	/** The response body, can be null. */
+	private final byte[] responseBody;
+
+	/**
+	 * Instantiates a new interaction.
+	 * 
+	 * @param offsetNanos
+	 *            the offset from the first interaction of the cassette
+	 * @param latencyNanos
+	 *            the latency
+	 * @param method
+	 *            the method
+	 * @param uri
+	 *            the URI, relative to the end point
+	 * @param requestContentType
+	 *            the request content type, can be null
+	 * @param requestBody
+	 *            the request body, can be null
+	 * @param status
+	 *            the status
+	 * @param headers
+	 *            the response headers
+	 * @param responseBody
+	 *            the response body, can be null
+	 */
+	Interaction(long offsetNanos, long latencyNanos, String method,
+			String uri, String requestContentType, byte[] requestBody,
+			int status, Header[] headers, byte[] responseBody) {
+		this.offsetNanos = offsetNanos;
+		this.latencyNanos = latencyNanos;
+		this.method = method;
+		this.uri = uri;
+		this.requestContentType = requestContentType;
+		this.requestBody = requestBody;
+		this.status = status;
+		this.headers = headers;
+		this.responseBody = responseBody;
+	}
+
+	/**
+	 * Gets the offset from the first interaction of the cassette. Replaying
+	 * the requests at these offsets reproduces the arrival times of the
+	 * recorded traffic.
+	 * 
+	 * @return the offset in nanoseconds
+	 */
+	public long getOffsetNanos() {
+		return offsetNanos;
+	}
+
+	/**
+	 * Gets the latency, from the request until the last byte of the
+	 * response was read.
+	 * 
+	 * @return the latency in nanoseconds
+	 */
+	public long getLatencyNanos() {
+		return latencyNanos;
+	}
+
+	/**
+	 * Gets the method.
+	 * 
+	 * @return the method
+	 */
+	public String getMethod() {
+		return method;
+	}
+
+	/**
+	 * Gets the URI, relative to the end point of the service.
+	 * 
+	 * @return the URI
+	 */
+	public String getUri() {
+		return uri;
+	}
+
+	/**
+	 * Gets the request content type.
+	 * 
+	 * @return the request content type, or null
+	 */
+	public String getRequestContentType() {
+		return requestContentType;
+	}
+
+	/**
+	 * Gets the request body. The array is shared, it should not be modified.
+	 * 
+	 * @return the request body, or null
+	 */
+	public byte[] getRequestBody() {
+		return requestBody;
+	}
+
+	/**
+	 * Gets the status.
+	 * 
+	 * @return the status
+	 */
+	public int getStatus() {
+		return status;
+	}
+
+	/**
+	 * Gets the response headers.
+	 * 
+	 * @return the response headers
+	 */
+	public Header[] getHeaders() {
+		return headers.clone();
+	}
+
+	/**
+	 * Gets the response headers without copying them.
+	 * 
+	 * @return the response headers
+	 */
+	Header[] headers() {
+		return headers;
+	}
+
+	/**
+	 * Gets the response body. The array is shared, it should not be
+	 * modified.
+	 * 
+	 * @return the response body, or null
+	 */
+	public byte[] getResponseBody() {
+		return responseBody;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return method + " " + uri + " -> " + status;
+	}
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service.cassette;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.BufferedHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.util.EntityUtils;
+
+import com.ibm.watson.developer_cloud.service.Interceptor;
+
+/**
+ * An {@link Interceptor} that records the requests of a service and their
+ * responses in a {@link Cassette}. The response body is read completely
+ * before the call returns, and the request body is buffered in memory when
+ * it can only be sent once. It should be the last interceptor of the
+ * service, so it records what goes to the network. <br>
+ * Example: <pre>
+ * {@code
+ *  Cassette cassette = new Cassette();
+ *  service.addInterceptor(new RecordingInterceptor(cassette));
+ * }</pre>
+ * The <code>Authorization</code> header is never recorded, and neither are
+ * the headers that describe the transfer of the body
+ * (<code>Content-Length</code>, <code>Content-Encoding</code>,
+ * <code>Transfer-Encoding</code> and <code>Connection</code>), since the
+ * recorded body is already decompressed.
+ *
+ * @see ReplayInterceptor
+ */
+public class RecordingInterceptor implements Interceptor {
+
+	/** The cassette. */
+	private final Cassette cassette;
+
+	/** Whether the request bodies are recorded. */
+	private volatile boolean recordRequestBodies = true;
+
+	/**
+	 * Instantiates a new recording interceptor.
+	 * 
+	 * @param cassette
+	 *            the cassette the interactions are added to
+	 */
+	public RecordingInterceptor(Cassette cassette) {
+		if (cassette == null)
+			throw new IllegalArgumentException("cassette is null");
+		this.cassette = cassette;
+	}
+
+	/**
+	 * Gets the cassette.
+	 * 
+	 * @return the cassette
+	 */
+	public Cassette getCassette() {
+		return cassette;
+	}
+
+	/**
+	 * Sets whether the request bodies are recorded, true by default. Without
+	 * them the cassette is smaller, for example when the requests upload
+	 * audio, but a {@link ReplayInterceptor} can not match requests by body.
+	 * 
+	 * @param recordRequestBodies
+	 *            true to record the request bodies
+	 */
+	public void setRecordRequestBodies(boolean recordRequestBodies) {
+		this.recordRequestBodies = recordRequestBodies;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.Interceptor#intercept(com.ibm.
+	 * watson.developer_cloud.service.Interceptor.Chain)
+	 */
+	@Override
+	public HttpResponse intercept(Chain chain) throws IOException {
+		final HttpRequestBase request = chain.getRequest();
+		String requestContentType = null;
+		byte[] requestBody = null;
+		if (request instanceof HttpEntityEnclosingRequest) {
+			final HttpEntity entity = ((HttpEntityEnclosingRequest) request)
+					.getEntity();
+			if (entity != null) {
+				if (entity.getContentType() != null)
+					requestContentType = entity.getContentType().getValue();
+				if (recordRequestBodies)
+					requestBody = readRequestBody(
+							(HttpEntityEnclosingRequest) request, entity);
+			}
+		}
+
+		final long start = System.nanoTime();
+		final HttpResponse response = chain.proceed(request);
+		final HttpEntity entity = response.getEntity();
+		byte[] responseBody = null;
+		if (entity != null) {
+			responseBody = EntityUtils.toByteArray(entity);
+			final ByteArrayEntity buffered = new ByteArrayEntity(responseBody);
+			buffered.setContentType(entity.getContentType());
+			response.setEntity(buffered);
+		}
+		final long latency = System.nanoTime() - start;
+
+		cassette.add(start, latency, request.getMethod(), Cassette
+				.relativeUri(chain.getService(), request.getURI()),
+				requestContentType, requestBody, response.getStatusLine()
+						.getStatusCode(), recordedHeaders(response),
+				responseBody);
+		return response;
+	}
+
+	/**
+	 * Reads the request body, buffering the entity when it can only be sent
+	 * once.
+	 * 
+	 * @param request
+	 *            the request
+	 * @param entity
+	 *            the entity of the request
+	 * @return the request body
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static byte[] readRequestBody(HttpEntityEnclosingRequest request,
+			HttpEntity entity) throws IOException {
+		HttpEntity repeatable = entity;
+		if (!entity.isRepeatable()) {
+			repeatable = new BufferedHttpEntity(entity);
+			request.setEntity(repeatable);
+		}
+		return EntityUtils.toByteArray(repeatable);
+	}
+
+	/**
+	 * Gets the response headers worth recording.
+	 * 
+	 * @param response
+	 *            the response
+	 * @return the headers
+	 */
+	private static Header[] recordedHeaders(HttpResponse response) {
+		final Header[] all = response.getAllHeaders();
+		final List<Header> headers = new ArrayList<Header>(all.length);
+		for (Header header : all) {
+			final String name = header.getName();
+			if (!HTTP.CONTENT_LEN.equalsIgnoreCase(name)
+					&& !HTTP.CONTENT_ENCODING.equalsIgnoreCase(name)
+					&& !HTTP.TRANSFER_ENCODING.equalsIgnoreCase(name)
+					&& !HTTP.CONN_DIRECTIVE.equalsIgnoreCase(name))
+				headers.add(header);
+		}
+		return headers.toArray(new Header[headers.size()]);
+	}
+}
@@ -0,0 +1,279 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service.cassette;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.BufferedHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.util.EntityUtils;
+
+import com.ibm.watson.developer_cloud.service.Interceptor;
+
+/**
+ * An {@link Interceptor} that answers the requests of a service with the
+ * responses recorded in a {@link Cassette}, without going to the network.
+ * A request is answered by the interactions recorded with the same method
+ * and URI, in the order they were recorded, starting again from the first
+ * one when all of them were served. <br>
+ * Example: <pre>
+ * {@code
+ *  Cassette cassette = Cassette.load(new File("converse.cassette"));
+ *  ReplayInterceptor replay = new ReplayInterceptor(cassette);
+ *  replay.setLatencyFactor(1.0);
+ *  service.addInterceptor(replay);
+ * }</pre>
+ * The responses share the recorded bodies, so replaying allocates little
+ * more than the response objects and whatever the service does with them.
+ * Requests with no recorded interaction fail with an
+ * {@link IllegalStateException}, unless pass through is enabled.
+ *
+ * @see RecordingInterceptor
+ */
+public class ReplayInterceptor implements Interceptor {
+
+	/**
+	 * The interactions recorded for a key and the next one to serve.
+	 */
+	private static final class Track {
+
+		/** The interactions. */
+		private final Interaction[] interactions;
+
+		/** The position of the next interaction. */
+		private final AtomicInteger next = new AtomicInteger();
+
+		/**
+		 * Instantiates a new track.
+		 * 
+		 * @param interactions
+		 *            the interactions
+		 */
+		private Track(List<Interaction> interactions) {
+			this.interactions = interactions
+					.toArray(new Interaction[interactions.size()]);
+		}
+
+		/**
+		 * Gets the next interaction.
+		 * 
+		 * @return the interaction
+		 */
+		private Interaction next() {
+			final int position = next.getAndIncrement() & Integer.MAX_VALUE;
+			return interactions[position % interactions.length];
+		}
+	}
+
+	/** The tracks by key. */
+	private final Map<String, Track> tracks;
+
+	/** Whether the request body is part of the key. */
+	private final boolean matchRequestBody;
+
+	/** The factor applied to the recorded latency, 0 for no latency. */
+	private volatile double latencyFactor;
+
+	/** Whether requests that were not recorded go to the network. */
+	private volatile boolean passThrough;
+
+	/**
+	 * Instantiates a new replay interceptor that matches requests by method
+	 * and URI.
+	 * 
+	 * @param cassette
+	 *            the cassette
+	 */
+	public ReplayInterceptor(Cassette cassette) {
+		this(cassette, false);
+	}
+
+	/**
+	 * Instantiates a new replay interceptor.
+	 * 
+	 * @param cassette
+	 *            the cassette
+	 * @param matchRequestBody
+	 *            true to match requests by method, URI and body, for
+	 *            example to answer each question with its own answer. The
+	 *            request bodies have to be in the cassette.
+	 */
+	public ReplayInterceptor(Cassette cassette, boolean matchRequestBody) {
+		if (cassette == null)
+			throw new IllegalArgumentException("cassette is null");
+		this.matchRequestBody = matchRequestBody;
+
+		final Map<String, List<Interaction>> byKey = new HashMap<String, List<Interaction>>();
+		for (Interaction interaction : cassette.getInteractions()) {
+			final String key = key(interaction.getMethod(),
+					interaction.getUri(), interaction.getRequestBody());
+			List<Interaction> list = byKey.get(key);
+			if (list == null) {
+				list = new ArrayList<Interaction>();
+				byKey.put(key, list);
+			}
+			list.add(interaction);
+		}
+		tracks = new HashMap<String, Track>();
+		for (Map.Entry<String, List<Interaction>> entry : byKey.entrySet()) {
+			tracks.put(entry.getKey(), new Track(entry.getValue()));
+		}
+	}
+
+	/**
+	 * Sets the factor applied to the recorded latency of every response,
+	 * for example 1.0 to wait as long as the recorded call took, 0.5 to
+	 * wait half of it or 0 (the default) to answer immediately.
+	 * 
+	 * @param latencyFactor
+	 *            the latency factor
+	 */
+	public void setLatencyFactor(double latencyFactor) {
+		if (latencyFactor < 0)
+			throw new IllegalArgumentException(
+					"latencyFactor should not be negative");
+		this.latencyFactor = latencyFactor;
+	}
+
+	/**
+	 * Sets whether the requests that were not recorded go to the network,
+	 * false by default.
+	 * 
+	 * @param passThrough
+	 *            true to send the requests that were not recorded
+	 */
+	public void setPassThrough(boolean passThrough) {
+		this.passThrough = passThrough;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.Interceptor#intercept(com.ibm.
+	 * watson.developer_cloud.service.Interceptor.Chain)
+	 */
+	@Override
+	public HttpResponse intercept(Chain chain) throws IOException {
+		final HttpRequestBase request = chain.getRequest();
+		final String uri = Cassette.relativeUri(chain.getService(),
+				request.getURI());
+		final Track track = tracks.get(key(request.getMethod(), uri,
+				matchRequestBody ? readRequestBody(request) : null));
+		if (track == null) {
+			if (passThrough)
+				return chain.proceed(request);
+			throw new IllegalStateException("No recorded interaction for "
+					+ request.getMethod() + " " + uri);
+		}
+
+		final Interaction interaction = track.next();
+		final double factor = latencyFactor;
+		if (factor > 0)
+			sleep((long) (interaction.getLatencyNanos() * factor));
+
+		final HttpResponse response = new BasicHttpResponse(
+				HttpVersion.HTTP_1_1, interaction.getStatus(), null);
+		final Header[] headers = interaction.headers();
+		response.setHeaders(headers);
+		final byte[] body = interaction.getResponseBody();
+		if (body != null) {
+			final ByteArrayEntity entity = new ByteArrayEntity(body);
+			entity.setContentType(response.getFirstHeader(HTTP.CONTENT_TYPE));
+			response.setEntity(entity);
+		}
+		return response;
+	}
+
+	/**
+	 * Builds the key of a request.
+	 * 
+	 * @param method
+	 *            the method
+	 * @param uri
+	 *            the URI, relative to the end point
+	 * @param body
+	 *            the request body, null if it is not matched
+	 * @return the key
+	 */
+	private String key(String method, String uri, byte[] body) {
+		if (!matchRequestBody)
+			return method + " " + uri;
+
+		final CRC32 crc = new CRC32();
+		if (body != null)
+			crc.update(body);
+		return method + " " + uri + " " + (body == null ? 0 : body.length)
+				+ ":" + crc.getValue();
+	}
+
+	/**
+	 * Reads the request body, buffering the entity when it can only be sent
+	 * once, in case the request goes to the network.
+	 * 
+	 * @param request
+	 *            the request
+	 * @return the request body, or null
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static byte[] readRequestBody(HttpRequestBase request)
+			throws IOException {
+		if (!(request instanceof HttpEntityEnclosingRequest))
+			return null;
+		final HttpEntityEnclosingRequest enclosing = (HttpEntityEnclosingRequest) request;
+		HttpEntity entity = enclosing.getEntity();
+		if (entity == null)
+			return null;
+		if (!entity.isRepeatable()) {
+			entity = new BufferedHttpEntity(entity);
+			enclosing.setEntity(entity);
+		}
+		return EntityUtils.toByteArray(entity);
+	}
+
+	/**
+	 * Waits for the recorded latency.
+	 * 
+	 * @param nanos
+	 *            the latency in nanoseconds
+	 * @throws IOException
+	 *             if the thread is interrupted
+	 */
+	private static void sleep(long nanos) throws IOException {
+		try {
+			TimeUnit.NANOSECONDS.sleep(nanos);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while replaying the latency");
+		}
+	}
+}
@@ -0,0 +1,286 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service.jfr;
+
+import org.apache.http.client.methods.HttpRequestBase;
+
+import com.ibm.watson.developer_cloud.service.CallListener;
+import com.ibm.watson.developer_cloud.service.MetricsCollector;
+
+/**
+ * Sends every callback to the Flight Recorder listener and then to the
+ * metrics collector and call listener the service had before the events were
+ * installed, so installing them keeps both working.
+ */
+final class CompositeListener extends CallListener implements MetricsCollector {
+
+	/** The Flight Recorder listener. */
+	private final JfrEventListener events;
+
+	/** The previous metrics collector, can be null. */
+	private final MetricsCollector collector;
+
+	/** The previous call listener, can be null. */
+	private final CallListener listener;
+
+	/**
+	 * Instantiates a new composite listener.
+	 *
+	 * @param events
+	 *            the Flight Recorder listener
+	 * @param collector
+	 *            the previous metrics collector, can be null
+	 * @param listener
+	 *            the previous call listener, can be null
+	 */
+	CompositeListener(JfrEventListener events, MetricsCollector collector,
+			CallListener listener) {
+		this.events = events;
+		this.collector = collector;
+		this.listener = listener;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.MetricsCollector#requestStarted
+	 * (java.lang.String, java.lang.String)
+	 */
+	@Override
+	public void requestStarted(String service, String endpoint) {
+		events.requestStarted(service, endpoint);
+		if (collector != null)
+			collector.requestStarted(service, endpoint);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.MetricsCollector#responseReceived
+	 * (java.lang.String, java.lang.String)
+	 */
+	@Override
+	public void responseReceived(String service, String endpoint) {
+		events.responseReceived(service, endpoint);
+		if (collector != null)
+			collector.responseReceived(service, endpoint);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.MetricsCollector#requestThrottled
+	 * (java.lang.String, java.lang.String, long)
+	 */
+	@Override
+	public void requestThrottled(String service, String endpoint, long waitTime) {
+		events.requestThrottled(service, endpoint, waitTime);
+		if (collector != null)
+			collector.requestThrottled(service, endpoint, waitTime);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.MetricsCollector#requestCompleted
+	 * (java.lang.String, java.lang.String, int, long, long, long, long)
+	 */
+	@Override
+	public void requestCompleted(String service, String endpoint, int status,
+			long bytesSent, long bytesReceived, long timeToFirstByte,
+			long latency) {
+		events.requestCompleted(service, endpoint, status, bytesSent,
+				bytesReceived, timeToFirstByte, latency);
+		if (collector != null)
+			collector.requestCompleted(service, endpoint, status, bytesSent,
+					bytesReceived, timeToFirstByte, latency);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.CallListener#callStart(org.apache
+	 * .http.client.methods.HttpRequestBase, long)
+	 */
+	@Override
+	public void callStart(HttpRequestBase request, long nanoTime) {
+		events.callStart(request, nanoTime);
+		if (listener != null)
+			listener.callStart(request, nanoTime);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.CallListener#connectionAcquired
+	 * (org.apache.http.client.methods.HttpRequestBase, long, long)
+	 */
+	@Override
+	public void connectionAcquired(HttpRequestBase request, long nanoTime,
+			long waitTime) {
+		events.connectionAcquired(request, nanoTime, waitTime);
+		if (listener != null)
+			listener.connectionAcquired(request, nanoTime, waitTime);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.CallListener#connectStart(org.
+	 * apache.http.client.methods.HttpRequestBase, long)
+	 */
+	@Override
+	public void connectStart(HttpRequestBase request, long nanoTime) {
+		events.connectStart(request, nanoTime);
+		if (listener != null)
+			listener.connectStart(request, nanoTime);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.CallListener#connectEnd(org.apache
+	 * .http.client.methods.HttpRequestBase, long)
+	 */
+	@Override
+	public void connectEnd(HttpRequestBase request, long nanoTime) {
+		events.connectEnd(request, nanoTime);
+		if (listener != null)
+			listener.connectEnd(request, nanoTime);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.CallListener#secureConnectStart
+	 * (org.apache.http.client.methods.HttpRequestBase, long)
+	 */
+	@Override
+	public void secureConnectStart(HttpRequestBase request, long nanoTime) {
+		events.secureConnectStart(request, nanoTime);
+		if (listener != null)
+			listener.secureConnectStart(request, nanoTime);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.CallListener#secureConnectEnd(
+	 * org.apache.http.client.methods.HttpRequestBase, long)
+	 */
+	@Override
+	public void secureConnectEnd(HttpRequestBase request, long nanoTime) {
+		events.secureConnectEnd(request, nanoTime);
+		if (listener != null)
+			listener.secureConnectEnd(request, nanoTime);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.CallListener#requestSent(org.apache
+	 * .http.client.methods.HttpRequestBase, long)
+	 */
+	@Override
+	public void requestSent(HttpRequestBase request, long nanoTime) {
+		events.requestSent(request, nanoTime);
+		if (listener != null)
+			listener.requestSent(request, nanoTime);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.CallListener#responseHeadersReceived
+	 * (org.apache.http.client.methods.HttpRequestBase, long)
+	 */
+	@Override
+	public void responseHeadersReceived(HttpRequestBase request, long nanoTime) {
+		events.responseHeadersReceived(request, nanoTime);
+		if (listener != null)
+			listener.responseHeadersReceived(request, nanoTime);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.CallListener#responseBodyConsumed
+	 * (org.apache.http.client.methods.HttpRequestBase, long, long)
+	 */
+	@Override
+	public void responseBodyConsumed(HttpRequestBase request, long nanoTime,
+			long bytesReceived) {
+		events.responseBodyConsumed(request, nanoTime, bytesReceived);
+		if (listener != null)
+			listener.responseBodyConsumed(request, nanoTime, bytesReceived);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.CallListener#responseConversionStart
+	 * (org.apache.http.client.methods.HttpRequestBase, long)
+	 */
+	@Override
+	public void responseConversionStart(HttpRequestBase request, long nanoTime) {
+		events.responseConversionStart(request, nanoTime);
+		if (listener != null)
+			listener.responseConversionStart(request, nanoTime);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.CallListener#responseConverted(
+	 * org.apache.http.client.methods.HttpRequestBase, long)
+	 */
+	@Override
+	public void responseConverted(HttpRequestBase request, long nanoTime) {
+		events.responseConverted(request, nanoTime);
+		if (listener != null)
+			listener.responseConverted(request, nanoTime);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.CallListener#callFailed(org.apache
+	 * .http.client.methods.HttpRequestBase, long, java.lang.RuntimeException)
+	 */
+	@Override
+	public void callFailed(HttpRequestBase request, long nanoTime,
+			RuntimeException e) {
+		events.callFailed(request, nanoTime, e);
+		if (listener != null)
+			listener.callFailed(request, nanoTime, e);
+	}
+}
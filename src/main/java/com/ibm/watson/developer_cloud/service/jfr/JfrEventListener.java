@@ -0,0 +1,161 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service.jfr;
+
+import org.apache.http.client.methods.HttpRequestBase;
+
+import com.ibm.watson.developer_cloud.service.CallListener;
+import com.ibm.watson.developer_cloud.service.MetricsCollector;
+
+/**
+ * Emits a Java Flight Recorder event for every request and every response
+ * conversion of a service. Use {@link JfrSupport#install} to register it, it
+ * checks that the JVM supports custom Flight Recorder events. The events are
+ * only created while a recording is enabling them. A request whose body is
+ * read by another thread than the one that sent it has no request event.
+ */
+public class JfrEventListener extends CallListener implements
+		MetricsCollector {
+
+	/** The request event started by the current thread. */
+	private static final ThreadLocal<RequestEvent> REQUEST_EVENT = new ThreadLocal<RequestEvent>();
+
+	/** The conversion event started by the current thread. */
+	private static final ThreadLocal<ResponseConversionEvent> CONVERSION_EVENT = new ThreadLocal<ResponseConversionEvent>();
+
+	/** The service name. */
+	private final String service;
+
+	/**
+	 * Instantiates a new JFR event listener.
+	 * 
+	 * @param service
+	 *            the name of the service, used in the conversion events
+	 */
+	public JfrEventListener(String service) {
+		this.service = service;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.MetricsCollector#requestStarted
+	 * (java.lang.String, java.lang.String)
+	 */
+	@Override
+	public void requestStarted(String service, String endpoint) {
+		final RequestEvent event = new RequestEvent();
+		if (!event.isEnabled()) {
+			REQUEST_EVENT.remove();
+			return;
+		}
+		event.service = service;
+		event.endpoint = endpoint;
+		event.begin();
+		REQUEST_EVENT.set(event);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.MetricsCollector#responseReceived
+	 * (java.lang.String, java.lang.String)
+	 */
+	@Override
+	public void responseReceived(String service, String endpoint) {
+		// the request event ends when the body is read
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.MetricsCollector#requestThrottled
+	 * (java.lang.String, java.lang.String, long)
+	 */
+	@Override
+	public void requestThrottled(String service, String endpoint, long waitTime) {
+		// the wait is part of the call event
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.MetricsCollector#requestCompleted
+	 * (java.lang.String, java.lang.String, int, long, long, long, long)
+	 */
+	@Override
+	public void requestCompleted(String service, String endpoint, int status,
+			long bytesSent, long bytesReceived, long timeToFirstByte,
+			long latency) {
+		final RequestEvent event = REQUEST_EVENT.get();
+		if (event == null || !event.service.equals(service)
+				|| !event.endpoint.equals(endpoint)) {
+			// the body was read by another thread, the event that began
+			// with the request is not reachable from here
+			return;
+		}
+		REQUEST_EVENT.remove();
+		event.end();
+		if (event.shouldCommit()) {
+			event.status = status;
+			event.bytesSent = bytesSent;
+			event.bytesReceived = bytesReceived;
+			event.timeToFirstByte = timeToFirstByte;
+			event.latency = latency;
+			event.commit();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.CallListener#responseConversionStart
+	 * (org.apache.http.client.methods.HttpRequestBase, long)
+	 */
+	@Override
+	public void responseConversionStart(HttpRequestBase request, long nanoTime) {
+		final ResponseConversionEvent event = new ResponseConversionEvent();
+		if (!event.isEnabled()) {
+			CONVERSION_EVENT.remove();
+			return;
+		}
+		event.service = service;
+		event.endpoint = getEndpoint(request);
+		event.begin();
+		CONVERSION_EVENT.set(event);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.CallListener#responseConverted(
+	 * org.apache.http.client.methods.HttpRequestBase, long)
+	 */
+	@Override
+	public void responseConverted(HttpRequestBase request, long nanoTime) {
+		final ResponseConversionEvent event = CONVERSION_EVENT.get();
+		if (event == null)
+			return;
+		CONVERSION_EVENT.remove();
+		event.commit();
+	}
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service.jfr;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.ibm.watson.developer_cloud.service.WatsonService;
+
+/**
+ * Registers Java Flight Recorder events on a service when the JVM supports
+ * them (JDK 8u262 or later). The events show the SDK latency next to GC
+ * pauses and lock contention in a recording, for example one started with
+ * <code>-XX:StartFlightRecording</code>. <br>
+ * Example: <pre>
+ * {@code
+ *  NaturalLanguageClassifier service = new NaturalLanguageClassifier();
+ *  JfrSupport.install(service);
+ * }</pre>
+ * Installing the events keeps the {@link WatsonService#setMetricsCollector
+ * metrics collector} and the {@link WatsonService#setCallListener call
+ * listener} the service already has, they receive every callback after the
+ * events. A collector or listener set after the installation replaces the
+ * events.
+ * <p>
+ * This class does not reference the Flight Recorder API, so it can be loaded
+ * on any JVM. The package is only built with the <code>jfr</code> profile
+ * (<code>mvn -Pjfr</code> or <code>gradle -Pjfr</code>) on a JDK that has the
+ * API.
+ */
+public final class JfrSupport {
+
+	/** The Constant log. */
+	private static final Logger log = Logger.getLogger(JfrSupport.class
+			.getName());
+
+	/**
+	 * Checks if the JVM supports custom Flight Recorder events.
+	 * 
+	 * @return true, if the Flight Recorder API is available
+	 */
+	public static boolean isAvailable() {
+		try {
+			Class.forName("jdk.jfr.Event");
+			return true;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Registers the Flight Recorder events on the service if the JVM
+	 * supports them.
+	 * 
+	 * @param service
+	 *            the service
+	 * @return true, if the events were registered
+	 */
+	public static boolean install(WatsonService service) {
+		if (service == null)
+			throw new IllegalArgumentException("service is null");
+
+		if (!isAvailable()) {
+			log.log(Level.FINE, "Flight Recorder events are not supported");
+			return false;
+		}
+
+		synchronized (service) {
+			if (service.getCallListener() instanceof CompositeListener)
+				return true;
+
+			final CompositeListener listener = new CompositeListener(
+					new JfrEventListener(service.getClass().getSimpleName()),
+					service.getMetricsCollector(), service.getCallListener());
+			service.setMetricsCollector(listener);
+			service.setCallListener(listener);
+		}
+		return true;
+	}
+
+	/**
+	 * Instantiates a new JFR support.
+	 */
+	private JfrSupport() {
+	}
+}
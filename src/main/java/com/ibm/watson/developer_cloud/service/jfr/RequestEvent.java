@@ -0,0 +1,69 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for an HTTP request to a Watson service. It starts
+ * when the request is sent and ends when the response body was read.
+ */
+@Name("com.ibm.watson.developer_cloud.Request")
+@Label("Watson Request")
+@Category({ "Watson Developer Cloud" })
+@Description("HTTP request to a Watson service")
+class RequestEvent extends Event {
+
+	/** The service. */
+	@Label("Service")
+	String service;
+
+	/** The endpoint. */
+	@Label("Endpoint")
+	@Description("HTTP method and URL template")
+	String endpoint;
+
+	/** The status. */
+	@Label("Status")
+	@Description("HTTP status code, 0 if there was no response")
+	int status;
+
+	/** The bytes sent. */
+	@Label("Bytes Sent")
+	@DataAmount
+	long bytesSent;
+
+	/** The bytes received. */
+	@Label("Bytes Received")
+	@DataAmount
+	long bytesReceived;
+
+	/** The time to first byte. */
+	@Label("Time To First Byte")
+	@Timespan
+	long timeToFirstByte;
+
+	/** The latency. */
+	@Label("Latency")
+	@Timespan
+	long latency;
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for the conversion of a response into the model
+ * object returned by a service method, usually JSON parsing.
+ */
+@Name("com.ibm.watson.developer_cloud.ResponseConversion")
+@Label("Watson Response Conversion")
+@Category({ "Watson Developer Cloud" })
+@Description("Parsing of a Watson service response")
+class ResponseConversionEvent extends Event {
+
+	/** The service. */
+	@Label("Service")
+	String service;
+
+	/** The endpoint. */
+	@Label("Endpoint")
+	@Description("HTTP method and URL template")
+	String endpoint;
+}
@@ -21,14 +21,19 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.entity.InputStreamEntity;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import com.ibm.watson.developer_cloud.service.JsonResponseConverter;
+import com.ibm.watson.developer_cloud.service.MaterializedResponseConverter;
 import com.ibm.watson.developer_cloud.service.Request;
+import com.ibm.watson.developer_cloud.service.ResponseConverter;
+import com.ibm.watson.developer_cloud.service.ServiceCallback;
+import com.ibm.watson.developer_cloud.service.UrlTemplate;
 import com.ibm.watson.developer_cloud.service.WatsonService;
 import com.ibm.watson.developer_cloud.speech_to_text.v1.model.SessionStatus;
 import com.ibm.watson.developer_cloud.speech_to_text.v1.model.SpeechModel;
@@ -54,6 +59,78 @@ public class SpeechToText extends WatsonService {
 	/** The url. */
 	private static String URL = "https://stream.watsonplatform.net/speech-to-text/api";
 
+	/** The session URL template. */
+	private static final UrlTemplate SESSION = UrlTemplate
+			.compile("/v1/sessions/%s");
+
+	/** The session recognize URL template. */
+	private static final UrlTemplate SESSION_RECOGNIZE = UrlTemplate
+			.compile("/v1/sessions/%s/recognize");
+
+	/** The model URL template. */
+	private static final UrlTemplate MODEL = UrlTemplate
+			.compile("/v1/models/%s");
+
+	/** The speech results converter. */
+	private final ResponseConverter<SpeechResults> speechResultsConverter = new JsonResponseConverter<SpeechResults>(
+			getGson(), SpeechResults.class);
+
+	/** The speech models converter. */
+	private final ResponseConverter<List<SpeechModel>> speechModelsConverter = new MaterializedResponseConverter<List<SpeechModel>>() {
+		@Override
+		public List<SpeechModel> convert(HttpResponse response)
+				throws IOException {
+			return ResponseUtil.getObject(response, getGson(),
+					SpeechModelSet.class).getModels();
+		}
+	};
+
+	/** The speech model converter. */
+	private final ResponseConverter<SpeechModel> speechModelConverter = new JsonResponseConverter<SpeechModel>(
+			getGson(), SpeechModel.class);
+
+	/** The session status converter. */
+	private final ResponseConverter<SessionStatus> sessionStatusConverter = new JsonResponseConverter<SessionStatus>(
+			getGson(), SessionStatus.class);
+
+	/** The speech session converter, keeps the session cookie. */
+	private final ResponseConverter<SpeechSession> speechSessionConverter = new MaterializedResponseConverter<SpeechSession>() {
+		@Override
+		public SpeechSession convert(HttpResponse response)
+				throws IOException {
+			SpeechSession speechSession = ResponseUtil.getObject(response,
+					getGson(), SpeechSession.class);
+			speechSession.setCookieSession(response
+					.getFirstHeader("set-cookie").getValue());
+			return speechSession;
+		}
+	};
+
+	/** The session id converter. */
+	private final ResponseConverter<String> sessionIdConverter = new MaterializedResponseConverter<String>() {
+		@Override
+		public String convert(HttpResponse response) throws IOException {
+			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
+			if (response.getStatusLine().getStatusCode() != 201) {
+				String error = jsonObject.get("error").getAsString();
+				throw new RuntimeException("Cound't create a session:" + error);
+			}
+			return jsonObject.get("session_id").getAsString();
+		}
+	};
+
+	/** The delete session converter, consumes the response body. */
+	private final ResponseConverter<Void> deleteSessionConverter = new MaterializedResponseConverter<Void>() {
+		@Override
+		public Void convert(HttpResponse response) throws IOException {
+			final int status = response.getStatusLine().getStatusCode();
+			ResponseUtil.consume(response);
+			if (status != 204)
+				throw new RuntimeException("Cound't delete session");
+			return null;
+		}
+	};
+
 	/**
 	 * Instantiates a new speech to text.
 	 */
@@ -85,20 +162,39 @@ public class SpeechToText extends WatsonService {
 	 * @return the model
 	 */
 	public SessionStatus getRecognizeStatus(final String sessionId) {
+		return execute(buildRecognizeStatusRequest(sessionId),
+				sessionStatusConverter);
+	}
+
+	/**
+	 * Gets the session status without blocking the calling thread.
+	 * 
+	 * @param sessionId
+	 *            the session id
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future session status
+	 * @see #getRecognizeStatus(String)
+	 */
+	public Future<SessionStatus> getRecognizeStatusAsync(
+			final String sessionId,
+			final ServiceCallback<SessionStatus> callback) {
+		return executeAsync(buildRecognizeStatusRequest(sessionId),
+				sessionStatusConverter, callback);
+	}
+
+	/**
+	 * Builds the recognize status request.
+	 * 
+	 * @param sessionId
+	 *            the session id
+	 * @return the recognize status request
+	 */
+	private HttpRequestBase buildRecognizeStatusRequest(final String sessionId) {
 		if (sessionId == null)
 			throw new IllegalArgumentException("sessionId was not specified");
 
-		HttpRequestBase request = Request.Get(
-				"/v1/sessions/" + sessionId + "/recognize").build();
-		try {
-			HttpResponse response = execute(request);
-			String resultJson = ResponseUtil.getString(response);
-			SessionStatus sessionStatus = new Gson().fromJson(resultJson,
-					SessionStatus.class);
-			return sessionStatus;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		return Request.Get(SESSION_RECOGNIZE, sessionId).build();
 	}
 
 	/**
@@ -109,19 +205,37 @@ public class SpeechToText extends WatsonService {
 	 * @return the model
 	 */
 	public SpeechModel getModel(final String name) {
+		return execute(buildModelRequest(name), speechModelConverter);
+	}
+
+	/**
+	 * Gets the speech model without blocking the calling thread.
+	 * 
+	 * @param name
+	 *            the name
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future model
+	 * @see #getModel(String)
+	 */
+	public Future<SpeechModel> getModelAsync(final String name,
+			final ServiceCallback<SpeechModel> callback) {
+		return executeAsync(buildModelRequest(name), speechModelConverter,
+				callback);
+	}
+
+	/**
+	 * Builds the model request.
+	 * 
+	 * @param name
+	 *            the name
+	 * @return the model request
+	 */
+	private HttpRequestBase buildModelRequest(final String name) {
 		if (name == null)
 			throw new IllegalArgumentException("name was not specified");
 
-		HttpRequestBase request = Request.Get("/v1/models/" + name).build();
-		try {
-			HttpResponse response = execute(request);
-			String resultJson = ResponseUtil.getString(response);
-			SpeechModel model = new Gson().fromJson(resultJson,
-					SpeechModel.class);
-			return model;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		return Request.Get(MODEL, name).build();
 	}
 
 	/**
@@ -136,24 +250,38 @@ public class SpeechToText extends WatsonService {
 	 * @return the session id
 	 */
 	public SpeechSession createSession(final String model) {
-		String path = "/v1/sessions";
+		return execute(buildCreateSessionRequest(model),
+				speechSessionConverter);
+	}
 
-		if (model != null && !model.isEmpty())
-			path += "?model=" + model;
+	/**
+	 * Create a session to lock an engine to the session without blocking the
+	 * calling thread.
+	 *
+	 * @param model the model
+	 * @param callback notified when the call completes, can be null
+	 * @return the future session
+	 * @see #createSession(String)
+	 */
+	public Future<SpeechSession> createSessionAsync(final String model,
+			final ServiceCallback<SpeechSession> callback) {
+		return executeAsync(buildCreateSessionRequest(model),
+				speechSessionConverter, callback);
+	}
 
-		HttpRequestBase request = Request.Post(path).build();
-		try {
-			HttpResponse response = execute(request);
-			String sessionString = ResponseUtil.getString(response);
-			SpeechSession speechSession = getGson().fromJson(sessionString,
-					SpeechSession.class);
-			speechSession.setCookieSession(response
-					.getFirstHeader("set-cookie").getValue());
-			return speechSession;
-		} catch (Exception e) {
-			throw new RuntimeException(e);
-		}
+	/**
+	 * Builds the create session request.
+	 *
+	 * @param model the model, can be null
+	 * @return the create session request
+	 */
+	private HttpRequestBase buildCreateSessionRequest(final String model) {
+		Request requestBuilder = Request.Post("/v1/sessions");
+
+		if (model != null && !model.isEmpty())
+			requestBuilder.withQuery("model", model);
 
+		return requestBuilder.build();
 	}
 
 	/**
@@ -168,19 +296,21 @@ public class SpeechToText extends WatsonService {
 	 */
 	public String createSession() {
 		HttpRequestBase request = Request.Post("/v1/sessions").build();
-		try {
-			HttpResponse response = execute(request);
-			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
-			if (response.getStatusLine().getStatusCode() != 201) {
-				String error = jsonObject.get("error").getAsString();
-				throw new RuntimeException("Cound't create a session:" + error);
-			}
-			String sessionId = jsonObject.get("session_id").getAsString();
-			return sessionId;
-		} catch (Exception e) {
-			throw new RuntimeException(e);
-		}
+		return execute(request, sessionIdConverter);
+	}
 
+	/**
+	 * Create a session without blocking the calling thread.
+	 * 
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future session id
+	 * @see #createSession()
+	 */
+	public Future<String> createSessionAsync(
+			final ServiceCallback<String> callback) {
+		HttpRequestBase request = Request.Post("/v1/sessions").build();
+		return executeAsync(request, sessionIdConverter, callback);
 	}
 
 	/**
@@ -202,14 +332,37 @@ public class SpeechToText extends WatsonService {
 	 *            the session id
 	 */
 	public void deleteSession(final String sessionId) {
+		execute(buildDeleteSessionRequest(sessionId), deleteSessionConverter);
+	}
+
+	/**
+	 * Delete a session without blocking the calling thread.
+	 * 
+	 * @param sessionId
+	 *            the session id
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future that completes when the session is deleted
+	 * @see #deleteSession(String)
+	 */
+	public Future<Void> deleteSessionAsync(final String sessionId,
+			final ServiceCallback<Void> callback) {
+		return executeAsync(buildDeleteSessionRequest(sessionId),
+				deleteSessionConverter, callback);
+	}
+
+	/**
+	 * Builds the delete session request.
+	 * 
+	 * @param sessionId
+	 *            the session id
+	 * @return the delete session request
+	 */
+	private HttpRequestBase buildDeleteSessionRequest(final String sessionId) {
 		if (sessionId == null)
 			throw new IllegalArgumentException("sessionId was not specified");
 
-		HttpRequestBase request = Request.Delete("/v1/sessions/" + sessionId)
-				.build();
-		HttpResponse response = execute(request);
-		if (response.getStatusLine().getStatusCode() != 204)
-			throw new RuntimeException("Cound't delete session");
+		return Request.Delete(SESSION, sessionId).build();
 	}
 
 	/**
@@ -219,15 +372,21 @@ public class SpeechToText extends WatsonService {
 	 */
 	public List<SpeechModel> getModels() {
 		HttpRequestBase request = Request.Get("/v1/models").build();
-		try {
-			HttpResponse response = execute(request);
-			String speechModelsJson = ResponseUtil.getString(response);
-			SpeechModelSet speechModels = new Gson().fromJson(speechModelsJson,
-					SpeechModelSet.class);
-			return speechModels.getModels();
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		return execute(request, speechModelsConverter);
+	}
+
+	/**
+	 * Gets the models without blocking the calling thread.
+	 * 
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future models
+	 * @see #getModels()
+	 */
+	public Future<List<SpeechModel>> getModelsAsync(
+			final ServiceCallback<List<SpeechModel>> callback) {
+		HttpRequestBase request = Request.Get("/v1/models").build();
+		return executeAsync(request, speechModelsConverter, callback);
 	}
 
 	/**
@@ -257,7 +416,54 @@ public class SpeechToText extends WatsonService {
 	 * @return the speech results
 	 */
 	public SpeechResults recognize(Map<String, Object> params) {
+		return execute(buildRecognizeRequest(params), speechResultsConverter);
+	}
 
+	/**
+	 * Recognize, without blocking the calling thread.
+	 * 
+	 * @param audio
+	 *            the audio file
+	 * @param contentType
+	 *            the content type
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future speech results
+	 * @see #recognize(File, String)
+	 */
+	public Future<SpeechResults> recognizeAsync(final File audio,
+			final String contentType,
+			final ServiceCallback<SpeechResults> callback) {
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("audio", audio);
+		params.put("content_type", contentType);
+		return recognizeAsync(params, callback);
+	}
+
+	/**
+	 * Recognize, without blocking the calling thread.
+	 * 
+	 * @param params
+	 *            the parameters to use for the recognition
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future speech results
+	 * @see #recognize(Map)
+	 */
+	public Future<SpeechResults> recognizeAsync(Map<String, Object> params,
+			ServiceCallback<SpeechResults> callback) {
+		return executeAsync(buildRecognizeRequest(params),
+				speechResultsConverter, callback);
+	}
+
+	/**
+	 * Builds the recognize request.
+	 * 
+	 * @param params
+	 *            the parameters to use for the recognition
+	 * @return the recognize request
+	 */
+	private HttpRequestBase buildRecognizeRequest(Map<String, Object> params) {
 		File audio = (File) params.get("audio");
 		if (audio == null || !audio.exists() || !audio.isFile())
 			throw new IllegalArgumentException(
@@ -267,14 +473,9 @@ public class SpeechToText extends WatsonService {
 		if (contentType == null)
 			throw new IllegalArgumentException("contentType was not specified");
 
-		// Build the recognize url
-		StringBuilder urlBuider = new StringBuilder();
-		urlBuider.append("/v1");
-		urlBuider.append(params.containsKey("session_id") ? "/sessions/"
-				+ params.get("session_id") : "");
-		urlBuider.append("/recognize");
-
-		Request request = Request.Post(urlBuider.toString());
+		Request request = params.containsKey("session_id") ? Request.Post(
+				SESSION_RECOGNIZE, params.get("session_id")) : Request
+				.Post("/v1/recognize");
 		request.withHeader("Content-Type", contentType);
 
 		String[] queryParameters = new String[] { "word_confidence",
@@ -293,14 +494,7 @@ public class SpeechToText extends WatsonService {
 			reqEntity.setContentType(contentType);
 			reqEntity.setChunked(true);
 			request.withEntity(reqEntity);
-
-			HttpResponse response = execute(request.build());
-			String speechResultJson;
-
-			speechResultJson = ResponseUtil.getString(response);
-			SpeechResults speechResults = new Gson().fromJson(speechResultJson,
-					SpeechResults.class);
-			return speechResults;
+			return request.build();
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
@@ -1,8 +1,8 @@
 package com.ibm.watson.developer_cloud.speech_to_text.v1.model;
 
-import com.google.gson.GsonBuilder;
 import com.google.gson.annotations.SerializedName;
 import com.ibm.watson.developer_cloud.speech_to_text.v1.SpeechToText;
+import com.ibm.watson.developer_cloud.util.GsonSingleton;
 
 /**
  * SessionStatus Status used by {@link SpeechToText}.
@@ -154,6 +154,6 @@ public class SessionStatus {
 	@Override
 	public String toString() {
 		return getClass().getName() + " "
-				+ new GsonBuilder().setPrettyPrinting().create().toJson(this);
+				+ GsonSingleton.getGsonWithPrettyPrinting().toJson(this);
 	}
 }
@@ -19,8 +19,8 @@ package com.ibm.watson.developer_cloud.speech_to_text.v1.model;
 import java.util.ArrayList;
 import java.util.List;
 
-import com.google.gson.GsonBuilder;
 import com.google.gson.annotations.Expose;
+import com.ibm.watson.developer_cloud.util.GsonSingleton;
 
 /**
  * The Class SpeechModelSet.
@@ -70,6 +70,6 @@ public class SpeechModelSet {
 	@Override
 	public String toString() {
 		return getClass().getName() + " "
-				+ new GsonBuilder().setPrettyPrinting().create().toJson(this);
+				+ GsonSingleton.getGsonWithPrettyPrinting().toJson(this);
 	}
 }
@@ -0,0 +1,279 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.speech_to_text.v1.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Reads and writes {@link SpeechResults} without reflection. Recognition
+ * results are the most frequent response of the speech to text service, one
+ * per recognize call or interim result. It reads and writes the same JSON as
+ * the reflective adapter of Gson: null values clear the object fields and are
+ * ignored by the primitive ones, and values of the wrong type fail with the
+ * same exceptions.
+ */
+public class SpeechResultsTypeAdapter extends TypeAdapter<SpeechResults> {
+
+	/** The Constant ALTERNATIVES. */
+	private static final String ALTERNATIVES = "alternatives";
+
+	/** The Constant FINAL. */
+	private static final String FINAL = "final";
+
+	/** The Constant RESULT_INDEX. */
+	private static final String RESULT_INDEX = "result_index";
+
+	/** The Constant RESULTS. */
+	private static final String RESULTS = "results";
+
+	/** The Constant TRANSCRIPT. */
+	private static final String TRANSCRIPT = "transcript";
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.google.gson.TypeAdapter#read(com.google.gson.stream.JsonReader)
+	 */
+	@Override
+	public SpeechResults read(JsonReader reader) throws IOException {
+		if (reader.peek() == JsonToken.NULL) {
+			reader.nextNull();
+			return null;
+		}
+
+		final SpeechResults speechResults = new SpeechResults();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			final String name = reader.nextName();
+			if (RESULTS.equals(name)) {
+				if (reader.peek() == JsonToken.NULL) {
+					reader.nextNull();
+					speechResults.setResults(null);
+					continue;
+				}
+				final List<Transcript> results = new ArrayList<Transcript>();
+				reader.beginArray();
+				while (reader.hasNext()) {
+					results.add(readTranscript(reader));
+				}
+				reader.endArray();
+				speechResults.setResults(results);
+			} else if (RESULT_INDEX.equals(name)
+					&& reader.peek() != JsonToken.NULL) {
+				speechResults.setResultIndex(readInt(reader));
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return speechResults;
+	}
+
+	/**
+	 * Reads a transcript.
+	 * 
+	 * @param reader
+	 *            the JSON reader
+	 * @return the transcript
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private Transcript readTranscript(JsonReader reader) throws IOException {
+		if (reader.peek() == JsonToken.NULL) {
+			reader.nextNull();
+			return null;
+		}
+
+		final Transcript transcript = new Transcript();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			final String name = reader.nextName();
+			if (ALTERNATIVES.equals(name)) {
+				if (reader.peek() == JsonToken.NULL) {
+					reader.nextNull();
+					transcript.setAlternatives(null);
+					continue;
+				}
+				final List<SpeechAlternative> alternatives = new ArrayList<SpeechAlternative>();
+				reader.beginArray();
+				while (reader.hasNext()) {
+					alternatives.add(readAlternative(reader));
+				}
+				reader.endArray();
+				transcript.setAlternatives(alternatives);
+			} else if (FINAL.equals(name) && reader.peek() != JsonToken.NULL) {
+				transcript.setFinal(readBoolean(reader));
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return transcript;
+	}
+
+	/**
+	 * Reads a speech alternative.
+	 * 
+	 * @param reader
+	 *            the JSON reader
+	 * @return the speech alternative
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private SpeechAlternative readAlternative(JsonReader reader)
+			throws IOException {
+		if (reader.peek() == JsonToken.NULL) {
+			reader.nextNull();
+			return null;
+		}
+
+		final SpeechAlternative alternative = new SpeechAlternative();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			final String name = reader.nextName();
+			if (TRANSCRIPT.equals(name)) {
+				alternative.setTranscript(readString(reader));
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return alternative;
+	}
+
+	/**
+	 * Reads a string, a boolean or a number as a string.
+	 * 
+	 * @param reader
+	 *            the JSON reader
+	 * @return the string or null
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static String readString(JsonReader reader) throws IOException {
+		final JsonToken token = reader.peek();
+		if (token == JsonToken.NULL) {
+			reader.nextNull();
+			return null;
+		}
+		if (token == JsonToken.BOOLEAN)
+			return Boolean.toString(reader.nextBoolean());
+		return reader.nextString();
+	}
+
+	/**
+	 * Reads a boolean or a string parsed as a boolean.
+	 * 
+	 * @param reader
+	 *            the JSON reader
+	 * @return the boolean
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static boolean readBoolean(JsonReader reader) throws IOException {
+		if (reader.peek() == JsonToken.STRING)
+			return Boolean.parseBoolean(reader.nextString());
+		return reader.nextBoolean();
+	}
+
+	/**
+	 * Reads an int, from a number or a string.
+	 * 
+	 * @param reader
+	 *            the JSON reader
+	 * @return the int
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static int readInt(JsonReader reader) throws IOException {
+		try {
+			return reader.nextInt();
+		} catch (NumberFormatException e) {
+			throw new JsonSyntaxException(e);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.google.gson.TypeAdapter#write(com.google.gson.stream.JsonWriter,
+	 * java.lang.Object)
+	 */
+	@Override
+	public void write(JsonWriter writer, SpeechResults speechResults)
+			throws IOException {
+		if (speechResults == null) {
+			writer.nullValue();
+			return;
+		}
+
+		writer.beginObject();
+		if (speechResults.getResults() != null) {
+			writer.name(RESULTS).beginArray();
+			for (final Transcript transcript : speechResults.getResults()) {
+				writeTranscript(writer, transcript);
+			}
+			writer.endArray();
+		}
+		writer.name(RESULT_INDEX).value(speechResults.getResultIndex());
+		writer.endObject();
+	}
+
+	/**
+	 * Writes a transcript.
+	 * 
+	 * @param writer
+	 *            the JSON writer
+	 * @param transcript
+	 *            the transcript
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private void writeTranscript(JsonWriter writer, Transcript transcript)
+			throws IOException {
+		if (transcript == null) {
+			writer.nullValue();
+			return;
+		}
+
+		writer.beginObject();
+		if (transcript.getAlternatives() != null) {
+			writer.name(ALTERNATIVES).beginArray();
+			for (final SpeechAlternative alternative : transcript
+					.getAlternatives()) {
+				if (alternative == null) {
+					writer.nullValue();
+				} else {
+					writer.beginObject();
+					if (alternative.getTranscript() != null)
+						writer.name(TRANSCRIPT).value(alternative.getTranscript());
+					writer.endObject();
+				}
+			}
+			writer.endArray();
+		}
+		writer.name(FINAL).value(transcript.isFinal());
+		writer.endObject();
+	}
+}
@@ -19,14 +19,17 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Type;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
+import com.ibm.watson.developer_cloud.service.MaterializedResponseConverter;
 import com.ibm.watson.developer_cloud.service.Request;
+import com.ibm.watson.developer_cloud.service.ResponseConverter;
+import com.ibm.watson.developer_cloud.service.ServiceCallback;
 import com.ibm.watson.developer_cloud.service.WatsonService;
 import com.ibm.watson.developer_cloud.text_to_speech.v1.model.Voice;
 import com.ibm.watson.developer_cloud.util.MediaType;
@@ -51,6 +54,23 @@ public class TextToSpeech extends WatsonService {
 	/** The list voice type. */
 	private Type listVoiceType = new TypeToken<List<Voice>>() {}.getType();
 
+	/** The voices converter. */
+	private final ResponseConverter<List<Voice>> voicesConverter = new MaterializedResponseConverter<List<Voice>>() {
+		@Override
+		public List<Voice> convert(HttpResponse response) throws IOException {
+			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
+			return getGson().fromJson(jsonObject.get("voices"), listVoiceType);
+		}
+	};
+
+	/** The audio converter, returns the response body. */
+	private final ResponseConverter<InputStream> audioConverter = new ResponseConverter<InputStream>() {
+		@Override
+		public InputStream convert(HttpResponse response) throws IOException {
+			return ResponseUtil.getInputStream(response);
+		}
+	};
+
 	/**
 	 * Instantiates a new text to speech.
 	 */
@@ -71,6 +91,44 @@ public class TextToSpeech extends WatsonService {
 	 */
 	public InputStream synthesize(final String text, final Voice voice,
 			final String format) {
+		return execute(buildSynthesizeRequest(text, voice, format),
+				audioConverter);
+	}
+
+	/**
+	 * Synthesize without blocking the calling thread.
+	 * 
+	 * @param text
+	 *            the text
+	 * @param voice
+	 *            the voice
+	 * @param format
+	 *            the output format
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future input stream
+	 * @see #synthesize(String, Voice, String)
+	 */
+	public Future<InputStream> synthesizeAsync(final String text,
+			final Voice voice, final String format,
+			final ServiceCallback<InputStream> callback) {
+		return executeAsync(buildSynthesizeRequest(text, voice, format),
+				audioConverter, callback);
+	}
+
+	/**
+	 * Builds the synthesize request.
+	 * 
+	 * @param text
+	 *            the text
+	 * @param voice
+	 *            the voice
+	 * @param format
+	 *            the output format
+	 * @return the synthesize request
+	 */
+	private HttpRequestBase buildSynthesizeRequest(final String text,
+			final Voice voice, final String format) {
 		if (text == null)
 			throw new IllegalArgumentException("text can not be null");
 		if (voice == null)
@@ -86,14 +144,7 @@ public class TextToSpeech extends WatsonService {
 
 		request.withQuery("accept", format != null ? format
 				: MediaType.AUDIO_WAV);
-
-		try {
-			HttpResponse response = execute(request.build());
-			InputStream is = ResponseUtil.getInputStream(response);
-			return is;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		return request.build();
 	}
 
 	/**
@@ -130,14 +181,20 @@ public class TextToSpeech extends WatsonService {
 	 */
 	public List<Voice> getVoices() {
 		HttpRequestBase request = Request.Get("/v1/voices").build();
-		try {
-			HttpResponse response = execute(request);
-			JsonObject jsonObject = ResponseUtil.getJsonObject(response);
-			List<Voice> voices = new Gson().fromJson(
-					jsonObject.get("voices"), listVoiceType);
-			return voices;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		return execute(request, voicesConverter);
+	}
+
+	/**
+	 * Gets the voices without blocking the calling thread.
+	 * 
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future voices
+	 * @see #getVoices()
+	 */
+	public Future<List<Voice>> getVoicesAsync(
+			ServiceCallback<List<Voice>> callback) {
+		HttpRequestBase request = Request.Get("/v1/voices").build();
+		return executeAsync(request, voicesConverter, callback);
 	}
 }
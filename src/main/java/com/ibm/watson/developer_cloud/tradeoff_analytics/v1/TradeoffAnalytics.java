@@ -15,17 +15,18 @@
  */
 package com.ibm.watson.developer_cloud.tradeoff_analytics.v1;
 
-import java.io.IOException;
+import java.util.concurrent.Future;
 
-import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
 
+import com.ibm.watson.developer_cloud.service.JsonResponseConverter;
 import com.ibm.watson.developer_cloud.service.Request;
+import com.ibm.watson.developer_cloud.service.ResponseConverter;
+import com.ibm.watson.developer_cloud.service.ServiceCallback;
 import com.ibm.watson.developer_cloud.service.WatsonService;
 import com.ibm.watson.developer_cloud.tradeoff_analytics.v1.model.Dilemma;
 import com.ibm.watson.developer_cloud.tradeoff_analytics.v1.model.Problem;
 import com.ibm.watson.developer_cloud.util.MediaType;
-import com.ibm.watson.developer_cloud.util.ResponseUtil;
 
 /**
  * The Class TradeoffAnalytics.
@@ -35,6 +36,10 @@ public class TradeoffAnalytics extends WatsonService {
 	/** The url. */
 	private static String URL = "https://gateway.watsonplatform.net/tradeoff-analytics/api";
 
+	/** The dilemma converter. */
+	private final ResponseConverter<Dilemma> dilemmaConverter = new JsonResponseConverter<Dilemma>(
+			getGson(), Dilemma.class);
+
 	/**
 	 * Instantiates a new tradeoff analytics.
 	 */
@@ -50,21 +55,40 @@ public class TradeoffAnalytics extends WatsonService {
 	 * @return the dilemma
 	 */
 	public Dilemma dilemmas(Problem problem) {
+		return execute(buildDilemmasRequest(problem), dilemmaConverter);
+	}
+
+	/**
+	 * Dilemmas, without blocking the calling thread.
+	 * 
+	 * @param problem
+	 *            the problem
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future dilemma
+	 * @see #dilemmas(Problem)
+	 */
+	public Future<Dilemma> dilemmasAsync(Problem problem,
+			ServiceCallback<Dilemma> callback) {
+		return executeAsync(buildDilemmasRequest(problem), dilemmaConverter,
+				callback);
+	}
+
+	/**
+	 * Builds the dilemmas request.
+	 * 
+	 * @param problem
+	 *            the problem
+	 * @return the dilemmas request
+	 */
+	private HttpRequestBase buildDilemmasRequest(Problem problem) {
 		if (problem == null)
 			throw new IllegalArgumentException("problem was not specified");
 
 		String contentJson = getGson().toJson(problem);
 
-		HttpRequestBase request = Request.Post("/v1/dilemmas")
-				.withContent(contentJson, MediaType.APPLICATION_JSON).build();
-
-		try {
-			HttpResponse response = execute(request);
-			String dilemmaJson = ResponseUtil.getString(response);
-			Dilemma dilemma = getGson().fromJson(dilemmaJson, Dilemma.class);
-			return dilemma;
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		return Request.Post("/v1/dilemmas")
+				.withContent(contentJson, MediaType.APPLICATION_JSON)
+				.withIdempotent(true).withCacheable(true).build();
 	}
 }
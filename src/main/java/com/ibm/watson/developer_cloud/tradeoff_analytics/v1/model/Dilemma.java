@@ -16,7 +16,7 @@
 
 package com.ibm.watson.developer_cloud.tradeoff_analytics.v1.model;
 
-import com.google.gson.GsonBuilder;
+import com.ibm.watson.developer_cloud.util.GsonSingleton;
 
 
 /**
@@ -95,7 +95,7 @@ public class Dilemma {
 	@Override
 	public String toString() {
 		return getClass().getName() + " "
-				+ new GsonBuilder().setPrettyPrinting().create().toJson(this);
+				+ GsonSingleton.getGsonWithPrettyPrinting().toJson(this);
 	}
 
 }
@@ -18,7 +18,7 @@ package com.ibm.watson.developer_cloud.tradeoff_analytics.v1.model;
 
 import java.util.HashMap;
 
-import com.google.gson.GsonBuilder;
+import com.ibm.watson.developer_cloud.util.GsonSingleton;
 
 
 /**
@@ -216,7 +216,7 @@ public class Option {
 	@Override
 	public String toString() {
 		return getClass().getName() + " "
-				+ new GsonBuilder().setPrettyPrinting().create().toJson(this);
+				+ GsonSingleton.getGsonWithPrettyPrinting().toJson(this);
 	}
 
 }
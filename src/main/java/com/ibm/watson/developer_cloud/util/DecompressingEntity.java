@@ -0,0 +1,211 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+/**
+ * Entity that decompresses a <code>gzip</code> or <code>deflate</code>
+ * encoded response body as it is read. The decoder is created on the first
+ * read, so an empty body reads as empty, and <code>deflate</code> accepts
+ * both zlib-wrapped and raw streams since servers send either.
+ */
+public class DecompressingEntity extends HttpEntityWrapper {
+
+	/** The Constant GZIP. */
+	public static final String GZIP = "gzip";
+
+	/** The Constant DEFLATE. */
+	public static final String DEFLATE = "deflate";
+
+	/** The content encoding, gzip or deflate. */
+	private final String encoding;
+
+	/**
+	 * Stream that looks at the first bytes of the compressed body to create
+	 * the decoder.
+	 */
+	private static final class LazyDecompressingStream extends InputStream {
+
+		/** The compressed body. */
+		private final PushbackInputStream in;
+
+		/** Whether the body is gzip, otherwise deflate. */
+		private final boolean gzip;
+
+		/** The decoder, null until the first read. */
+		private InputStream decoder;
+
+		/** The inflater of a deflate decoder, ended on close. */
+		private Inflater inflater;
+
+		/**
+		 * Instantiates a new lazy decompressing stream.
+		 *
+		 * @param in
+		 *            the compressed body
+		 * @param gzip
+		 *            true for gzip, false for deflate
+		 */
+		LazyDecompressingStream(InputStream in, boolean gzip) {
+			this.in = new PushbackInputStream(in, 2);
+			this.gzip = gzip;
+		}
+
+		/**
+		 * Gets the decoder, creating it from the first bytes of the body.
+		 *
+		 * @return the decoder, or the compressed body if it is empty
+		 * @throws IOException
+		 *             Signals that an I/O exception has occurred.
+		 */
+		private InputStream decoder() throws IOException {
+			if (decoder != null)
+				return decoder;
+
+			final int first = in.read();
+			if (first == -1) {
+				decoder = in;
+				return decoder;
+			}
+			final int second = in.read();
+			if (second != -1)
+				in.unread(second);
+			in.unread(first);
+
+			if (gzip) {
+				decoder = new GZIPInputStream(in, ResponseUtil.BUFFER_SIZE);
+			} else {
+				// zlib header: compression method 8 and a checksum multiple
+				// of 31, anything else is a raw deflate stream
+				final boolean zlib = second != -1 && (first & 0x0F) == 8
+						&& ((first << 8) | second) % 31 == 0;
+				inflater = new Inflater(!zlib);
+				decoder = new InflaterInputStream(in, inflater,
+						ResponseUtil.BUFFER_SIZE);
+			}
+			return decoder;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.io.InputStream#read()
+		 */
+		@Override
+		public int read() throws IOException {
+			return decoder().read();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.io.InputStream#read(byte[], int, int)
+		 */
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return decoder().read(b, off, len);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.io.InputStream#available()
+		 */
+		@Override
+		public int available() throws IOException {
+			return decoder != null ? decoder.available() : 0;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.io.InputStream#close()
+		 */
+		@Override
+		public void close() throws IOException {
+			try {
+				if (decoder != null)
+					decoder.close();
+				else
+					in.close();
+			} finally {
+				if (inflater != null)
+					inflater.end();
+			}
+		}
+	}
+
+	/**
+	 * Instantiates a new decompressing entity.
+	 *
+	 * @param entity
+	 *            the compressed entity
+	 * @param encoding
+	 *            the content encoding, gzip or deflate
+	 */
+	public DecompressingEntity(HttpEntity entity, String encoding) {
+		super(entity);
+		if (!GZIP.equalsIgnoreCase(encoding)
+				&& !DEFLATE.equalsIgnoreCase(encoding))
+			throw new IllegalArgumentException(encoding
+					+ " is not a supported content encoding");
+		this.encoding = encoding;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.apache.http.entity.HttpEntityWrapper#getContent()
+	 */
+	@Override
+	public InputStream getContent() throws IOException {
+		final InputStream is = wrappedEntity.getContent();
+		if (is == null)
+			return null;
+		return new LazyDecompressingStream(is, GZIP.equalsIgnoreCase(encoding));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.apache.http.entity.HttpEntityWrapper#getContentLength()
+	 */
+	@Override
+	public long getContentLength() {
+		// the length of the decompressed body is not known
+		return -1;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.apache.http.entity.HttpEntityWrapper#getContentEncoding()
+	 */
+	@Override
+	public Header getContentEncoding() {
+		return null;
+	}
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.util;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.ibm.watson.developer_cloud.natural_language_classifier.v1.model.Classification;
+import com.ibm.watson.developer_cloud.natural_language_classifier.v1.model.ClassificationTypeAdapter;
+import com.ibm.watson.developer_cloud.speech_to_text.v1.model.SpeechResults;
+import com.ibm.watson.developer_cloud.speech_to_text.v1.model.SpeechResultsTypeAdapter;
+
+/**
+ * Gson instances shared by all the services and model classes. Gson is thread
+ * safe and caches the type adapters it discovers by reflection, so reusing a
+ * single instance avoids repeating that work on every call. The models that
+ * are deserialized most often (recognition and classification results) have
+ * hand-written type adapters registered here.
+ */
+public final class GsonSingleton {
+
+	/** The gson. */
+	private static final Gson gson = createGsonBuilder().create();
+
+	/** The gson with pretty printing. */
+	private static final Gson prettyGson = createGsonBuilder()
+			.setPrettyPrinting().create();
+
+	/**
+	 * Creates the gson builder with the type adapters registered.
+	 *
+	 * @return the gson builder
+	 */
+	private static GsonBuilder createGsonBuilder() {
+		return new GsonBuilder().registerTypeAdapter(SpeechResults.class,
+				new SpeechResultsTypeAdapter()).registerTypeAdapter(
+				Classification.class, new ClassificationTypeAdapter());
+	}
+
+	/**
+	 * Gets the shared gson.
+	 *
+	 * @return the gson
+	 */
+	public static Gson getGson() {
+		return gson;
+	}
+
+	/**
+	 * Gets the shared gson that formats the JSON in human-readable form.
+	 *
+	 * @return the gson with pretty printing
+	 */
+	public static Gson getGsonWithPrettyPrinting() {
+		return prettyGson;
+	}
+
+	/**
+	 * Instantiates a new gson singleton.
+	 */
+	private GsonSingleton() {
+	}
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.protocol.HTTP;
+
+/**
+ * Entity that compresses the wrapped request body with <code>gzip</code>
+ * while it is written. The body is sent chunked since the compressed length
+ * is not known in advance. {@link #getContent()}, used by interceptors that
+ * read the body, compresses it into memory.
+ */
+public class GzipCompressingEntity extends HttpEntityWrapper {
+
+	/**
+	 * Instantiates a new gzip compressing entity.
+	 *
+	 * @param entity
+	 *            the entity to compress
+	 */
+	public GzipCompressingEntity(HttpEntity entity) {
+		super(entity);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.apache.http.entity.HttpEntityWrapper#getContentEncoding()
+	 */
+	@Override
+	public Header getContentEncoding() {
+		return new BasicHeader(HTTP.CONTENT_ENCODING,
+				DecompressingEntity.GZIP);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.apache.http.entity.HttpEntityWrapper#getContentLength()
+	 */
+	@Override
+	public long getContentLength() {
+		return -1;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.apache.http.entity.HttpEntityWrapper#isChunked()
+	 */
+	@Override
+	public boolean isChunked() {
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.apache.http.entity.HttpEntityWrapper#getContent()
+	 */
+	@Override
+	public InputStream getContent() throws IOException {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream(
+				ResponseUtil.BUFFER_SIZE);
+		writeTo(buffer);
+		return new ByteArrayInputStream(buffer.toByteArray());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.apache.http.entity.HttpEntityWrapper#writeTo(java.io.OutputStream)
+	 */
+	@Override
+	public void writeTo(OutputStream outstream) throws IOException {
+		final GZIPOutputStream gzip = new GZIPOutputStream(outstream,
+				ResponseUtil.BUFFER_SIZE);
+		wrappedEntity.writeTo(gzip);
+		gzip.finish();
+	}
+}
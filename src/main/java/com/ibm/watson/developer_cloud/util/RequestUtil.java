@@ -16,6 +16,7 @@
 package com.ibm.watson.developer_cloud.util;
 
 import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.util.List;
 import java.util.logging.Level;
@@ -35,18 +36,42 @@ public class RequestUtil {
 	private static final Logger log = Logger.getLogger(RequestUtil.class
 			.getName());
 	
+	/** The Constant UTF_8. */
+	private static final String UTF_8 = "UTF-8";
+
+	/** The Constant HEX_DIGITS. */
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+	/** The Constant INITIAL_BUFFER_SIZE. */
+	private static final int INITIAL_BUFFER_SIZE = 256;
+
+	/** The Constant MAX_BUFFER_SIZE, larger buffers are not reused. */
+	private static final int MAX_BUFFER_SIZE = 8192;
+
+	/** The buffer used to format query strings in the current thread. */
+	private static final ThreadLocal<StringBuilder> BUFFER = new ThreadLocal<StringBuilder>() {
+		@Override
+		protected StringBuilder initialValue() {
+			return new StringBuilder(INITIAL_BUFFER_SIZE);
+		}
+	};
+
 	/**
-	 * Encode the <code>content</code> with the given <code>encoding</code>.
+	 * Decodes an <code>application/x-www-form-urlencoded</code> string with
+	 * the given <code>encoding</code>. Strings without escape sequences are
+	 * returned as they are.
 	 * 
 	 * @param content
-	 *            the string content to encode
+	 *            the string content to decode
 	 * @param encoding
 	 *            the character encoding
-	 * @return the string encoded
+	 * @return the string decoded
 	 */
-	private static String encode(final String content, final String encoding) {
+	public static String decode(final String content, final String encoding) {
+		if (content.indexOf('%') == -1 && content.indexOf('+') == -1)
+			return content;
 		try {
-			return URLEncoder.encode(content, encoding != null ? encoding
+			return URLDecoder.decode(content, encoding != null ? encoding
 					: HTTP.DEFAULT_CONTENT_CHARSET);
 		} catch (UnsupportedEncodingException e) {
 			log.log(Level.SEVERE, encoding + " is not supported", e);
@@ -54,6 +79,132 @@ public class RequestUtil {
 		}
 	}
 
+	/**
+	 * Appends the <code>content</code> encoded with the given
+	 * <code>encoding</code> to <code>result</code>. UTF-8, the encoding used
+	 * by all the services, is percent-encoded in place with the same rules as
+	 * {@link URLEncoder}, other encodings go through {@link URLEncoder}.
+	 * 
+	 * @param content
+	 *            the string content to encode
+	 * @param encoding
+	 *            the character encoding
+	 * @param result
+	 *            the buffer to append the encoded string to
+	 */
+	private static void encode(final String content, final String encoding,
+			final StringBuilder result) {
+		if (!UTF_8.equalsIgnoreCase(encoding)) {
+			try {
+				result.append(URLEncoder.encode(content,
+						encoding != null ? encoding : HTTP.DEFAULT_CONTENT_CHARSET));
+				return;
+			} catch (UnsupportedEncodingException e) {
+				log.log(Level.SEVERE, encoding + " is not supported", e);
+				throw new IllegalArgumentException(e);
+			}
+		}
+
+		encodeUtf8(content, false, result);
+	}
+
+	/**
+	 * Appends the <code>segment</code> percent-encoded as a URL path segment
+	 * to <code>result</code>, so a <code>/</code>, <code>?</code> or space in
+	 * an identifier can not change the path.
+	 * 
+	 * @param segment
+	 *            the path segment to encode
+	 * @param result
+	 *            the buffer to append the encoded segment to
+	 */
+	public static void appendPathSegment(final String segment,
+			final StringBuilder result) {
+		if (".".equals(segment) || "..".equals(segment)) {
+			// dot segments would move up the path
+			for (int i = 0; i < segment.length(); i++)
+				appendEscaped(result, '.');
+			return;
+		}
+		encodeUtf8(segment, true, result);
+	}
+
+	/**
+	 * Appends the <code>content</code> encoded as an
+	 * <code>application/x-www-form-urlencoded</code> query component to
+	 * <code>result</code>.
+	 * 
+	 * @param content
+	 *            the string content to encode
+	 * @param result
+	 *            the buffer to append the encoded string to
+	 */
+	public static void appendQueryComponent(final String content,
+			final StringBuilder result) {
+		encodeUtf8(content, false, result);
+	}
+
+	/**
+	 * Appends the <code>content</code> percent-encoded in UTF-8 to
+	 * <code>result</code>.
+	 * 
+	 * @param content
+	 *            the string content to encode
+	 * @param pathSegment
+	 *            true to encode a path segment, false to encode a form
+	 *            component like {@link URLEncoder}
+	 * @param result
+	 *            the buffer to append the encoded string to
+	 */
+	private static void encodeUtf8(final String content,
+			final boolean pathSegment, final StringBuilder result) {
+		final int length = content.length();
+		for (int i = 0; i < length; i++) {
+			final char c = content.charAt(i);
+			if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+					|| (c >= '0' && c <= '9') || c == '.' || c == '-'
+					|| c == '_' || (pathSegment ? c == '~' : c == '*')) {
+				result.append(c);
+			} else if (c == ' ' && !pathSegment) {
+				result.append('+');
+			} else if (c < 0x80) {
+				appendEscaped(result, c);
+			} else if (c < 0x800) {
+				appendEscaped(result, 0xC0 | (c >> 6));
+				appendEscaped(result, 0x80 | (c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && i + 1 < length
+					&& Character.isLowSurrogate(content.charAt(i + 1))) {
+				final int codePoint = Character.toCodePoint(c,
+						content.charAt(++i));
+				appendEscaped(result, 0xF0 | (codePoint >> 18));
+				appendEscaped(result, 0x80 | ((codePoint >> 12) & 0x3F));
+				appendEscaped(result, 0x80 | ((codePoint >> 6) & 0x3F));
+				appendEscaped(result, 0x80 | (codePoint & 0x3F));
+			} else if (Character.isHighSurrogate(c)
+					|| Character.isLowSurrogate(c)) {
+				// unpaired surrogate, replaced like String.getBytes() does
+				appendEscaped(result, '?');
+			} else {
+				appendEscaped(result, 0xE0 | (c >> 12));
+				appendEscaped(result, 0x80 | ((c >> 6) & 0x3F));
+				appendEscaped(result, 0x80 | (c & 0x3F));
+			}
+		}
+	}
+
+	/**
+	 * Appends a byte as a <code>%XX</code> escape sequence.
+	 * 
+	 * @param result
+	 *            the buffer
+	 * @param b
+	 *            the byte
+	 */
+	private static void appendEscaped(final StringBuilder result, final int b) {
+		result.append('%').append(HEX_DIGITS[(b >> 4) & 0xF])
+				.append(HEX_DIGITS[b & 0xF]);
+	}
+
 	/**
 	 * Returns a String that is suitable for use as an
 	 * <code>application/x-www-form-urlencoded</code> list of parameters in an
@@ -70,21 +221,25 @@ public class RequestUtil {
 	public static String formatQueryString(
 			final List<? extends NameValuePair> parameters,
 			final String encoding) {
-		final StringBuilder result = new StringBuilder();
+		final StringBuilder result = BUFFER.get();
+		result.setLength(0);
+
 		for (final NameValuePair parameter : parameters) {
-			final String encodedName = encode(parameter.getName(), encoding);
-			final String value = parameter.getValue();
-			final String encodedValue = value != null ? encode(value, encoding)
-					: "";
 			if (result.length() > 0) {
-				result.append("&");
+				result.append('&');
 			}
-			result.append(encodedName);
+			encode(parameter.getName(), encoding, result);
+			final String value = parameter.getValue();
 			if (value != null) {
-				result.append("=");
-				result.append(encodedValue);
+				result.append('=');
+				encode(value, encoding, result);
 			}
 		}
-		return result.toString();
+
+		final String queryString = result.toString();
+		if (result.capacity() > MAX_BUFFER_SIZE) {
+			BUFFER.remove();
+		}
+		return queryString;
 	}
 }
\ No newline at end of file
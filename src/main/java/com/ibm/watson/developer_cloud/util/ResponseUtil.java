@@ -17,19 +17,32 @@ package com.ibm.watson.developer_cloud.util;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.protocol.HTTP;
+import org.apache.http.util.EntityUtils;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 
 /**
  * Utility class to manage service responses.
@@ -43,9 +56,31 @@ public class ResponseUtil {
 	private static final Logger log = Logger.getLogger(ResponseUtil.class
 			.getName());
 	
+	/** The Constant UTF_8. */
+	private static final String UTF_8 = "UTF-8";
+
 	/** The Constant BUFFER_SIZE. */
 	public static final int BUFFER_SIZE = 8192; // 8 kb
 
+	/** The Constant MAX_INITIAL_CAPACITY. */
+	public static final int MAX_INITIAL_CAPACITY = 1024 * 1024; // 1 mb
+
+	/** Read buffer reused by the calls made on the same thread. */
+	private static final ThreadLocal<byte[]> BYTE_BUFFER = new ThreadLocal<byte[]>() {
+		@Override
+		protected byte[] initialValue() {
+			return new byte[BUFFER_SIZE];
+		}
+	};
+
+	/** Decode buffer reused by the calls made on the same thread. */
+	private static final ThreadLocal<char[]> CHAR_BUFFER = new ThreadLocal<char[]>() {
+		@Override
+		protected char[] initialValue() {
+			return new char[BUFFER_SIZE];
+		}
+	};
+
 	/**
 	 * Returns a Json {@link String} in human-readable form.
 	 * 
@@ -56,7 +91,7 @@ public class ResponseUtil {
 	public static String formatJSON(String json) {
 		try {
 			JsonParser parser = new JsonParser();
-			Gson gson = new GsonBuilder().setPrettyPrinting().create();
+			Gson gson = GsonSingleton.getGsonWithPrettyPrinting();
 			return gson.toJson(parser.parse(json));
 		} catch (Exception e) {
 			log.log(Level.SEVERE,json + " is not valid", e);
@@ -74,12 +109,94 @@ public class ResponseUtil {
 	 *             Signals that an I/O exception has occurred.
 	 */
 	public static JsonElement getJsonElement(HttpResponse response) throws IOException {
-		final String json = getString(response);
-		if (json == null || json.length() == 0)
+		final Reader reader = getReader(response);
+		if (reader == null)
 			throw new IOException("JSON response is empty");
 
-		JsonElement element = new JsonParser().parse(json);
-		return element;
+		try {
+			JsonElement element = new JsonParser().parse(reader);
+			if (element.isJsonNull())
+				throw new IOException("JSON response is empty");
+			return element;
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Deserializes the JSON response into an object of the specified class.
+	 * The JSON is parsed as it is read from the connection, without
+	 * buffering the whole body in memory.
+	 * 
+	 * @param <T>
+	 *            the type of the object
+	 * @param response
+	 *            the HttpResponse
+	 * @param gson
+	 *            the gson used to deserialize the JSON
+	 * @param classOfT
+	 *            the class of the object
+	 * @return the object or null if the response is empty
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static <T> T getObject(HttpResponse response, Gson gson,
+			Class<T> classOfT) throws IOException {
+		return classOfT.cast(getObject(response, gson, (Type) classOfT));
+	}
+
+	/**
+	 * Deserializes the JSON response into an object of the specified type.
+	 * The JSON is parsed as it is read from the connection, without
+	 * buffering the whole body in memory.
+	 * 
+	 * @param <T>
+	 *            the type of the object
+	 * @param response
+	 *            the HttpResponse
+	 * @param gson
+	 *            the gson used to deserialize the JSON
+	 * @param typeOfT
+	 *            the type of the object, a class or a generic type
+	 * @return the object or null if the response is empty
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static <T> T getObject(HttpResponse response, Gson gson,
+			Type typeOfT) throws IOException {
+		final Reader reader = getReader(response);
+		if (reader == null)
+			return null;
+
+		try {
+			return gson.<T> fromJson(new JsonReader(reader), typeOfT);
+		} catch (JsonIOException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw e;
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Returns a {@link Reader} over the response body. The characters are
+	 * decoded with the charset of the response Content-Type or UTF-8 if it is
+	 * not specified.
+	 * 
+	 * @param response
+	 *            an HTTP response
+	 * @return the reader or null if the response has no body
+	 * @throws IOException
+	 *             network error
+	 */
+	public static Reader getReader(HttpResponse response) throws IOException {
+		final InputStream is = getInputStream(response);
+		if (is == null)
+			return null;
+
+		String charset = EntityUtils.getContentCharSet(response.getEntity());
+		return new InputStreamReader(is, charset != null ? charset : UTF_8);
 	}
 
 	/**
@@ -110,7 +227,9 @@ public class ResponseUtil {
 	}
 
 	/**
-	 * Returns a String representation of the response.
+	 * Returns a String representation of the response. The body is decoded
+	 * with the charset of the response Content-Type or UTF-8 if it is not
+	 * specified.
 	 * 
 	 * @param response
 	 *            an HTTP response
@@ -121,35 +240,178 @@ public class ResponseUtil {
 	public static String getString(HttpResponse response) throws IOException {
 		InputStream is;
 		try {
-			is = response.getEntity().getContent();
+			is = getInputStream(response);
 			if (is == null)
 				return null;
 
-			int length = BUFFER_SIZE;
-			Header contentLength = response.getFirstHeader(HTTP.CONTENT_LEN);
+			try {
+				final CharsetDecoder decoder = getCharset(response)
+						.newDecoder()
+						.onMalformedInput(CodingErrorAction.REPLACE)
+						.onUnmappableCharacter(CodingErrorAction.REPLACE);
+				final StringBuilder sb = new StringBuilder(
+						getInitialCapacity(response));
+				final ByteBuffer bytes = ByteBuffer.wrap(BYTE_BUFFER.get());
+				final CharBuffer chars = CharBuffer.wrap(CHAR_BUFFER.get());
 
-			if (contentLength != null) {
-				try {
-					length = Integer.parseInt(contentLength.getValue());
-				} catch (NumberFormatException e) {
-					log.log(Level.SEVERE,contentLength.getValue() + " is not a number", e);
-					throw new RuntimeException(e);
+				int n;
+				while ((n = is.read(bytes.array(), bytes.position(),
+						bytes.remaining())) != -1) {
+					bytes.position(bytes.position() + n);
+					decode(decoder, bytes, chars, sb, false);
 				}
+				decode(decoder, bytes, chars, sb, true);
+				decoder.flush(chars);
+				chars.flip();
+				sb.append(chars);
+				return sb.toString();
+			} finally {
+				is.close();
 			}
+		} catch (IOException e) {
+			log.log(Level.SEVERE,"Could not read service response", e);
+			throw new IOException("Could not read service response:"
+					+ e.getMessage());
+		}
+	}
 
-			final StringBuilder sb = new StringBuilder(length);
-			int n;
-			byte[] buffer = new byte[BUFFER_SIZE];
-			while ((n = is.read(buffer)) != -1) {
-				sb.append(new String(buffer, 0, n));
+	/**
+	 * Decodes the bytes read so far and appends them to the string builder.
+	 * Incomplete multi-byte characters at the end of the buffer are kept for
+	 * the next call.
+	 * 
+	 * @param decoder
+	 *            the charset decoder
+	 * @param bytes
+	 *            the bytes in write mode
+	 * @param chars
+	 *            the reusable char buffer
+	 * @param sb
+	 *            the string builder
+	 * @param endOfInput
+	 *            true if no more bytes will be read
+	 */
+	private static void decode(CharsetDecoder decoder, ByteBuffer bytes,
+			CharBuffer chars, StringBuilder sb, boolean endOfInput) {
+		bytes.flip();
+		CoderResult result;
+		do {
+			result = decoder.decode(bytes, chars, endOfInput);
+			chars.flip();
+			sb.append(chars);
+			chars.clear();
+		} while (result.isOverflow());
+		bytes.compact();
+	}
+
+	/**
+	 * Returns the response body as bytes.
+	 * 
+	 * @param response
+	 *            an HTTP response
+	 * @return the content body, an empty array if the response has no body
+	 * @throws IOException
+	 *             network error
+	 */
+	public static byte[] getBytes(HttpResponse response) throws IOException {
+		final ByteBuffer buffer = getByteBuffer(response);
+		if (buffer.remaining() == buffer.capacity())
+			return buffer.array();
+		return Arrays.copyOf(buffer.array(), buffer.remaining());
+	}
+
+	/**
+	 * Returns the response body as a {@link ByteBuffer} backed by an array
+	 * that may be larger than the body, which avoids a final copy.
+	 * 
+	 * @param response
+	 *            an HTTP response
+	 * @return the content body, between position and limit
+	 * @throws IOException
+	 *             network error
+	 */
+	public static ByteBuffer getByteBuffer(HttpResponse response)
+			throws IOException {
+		InputStream is;
+		try {
+			is = getInputStream(response);
+			if (is == null)
+				return ByteBuffer.allocate(0);
+
+			try {
+				byte[] buffer = new byte[getInitialCapacity(response)];
+				int count = 0;
+				while (true) {
+					if (count == buffer.length) {
+						// grow only if the body does not fit, a body of
+						// exactly Content-Length bytes keeps its buffer
+						final int next = is.read();
+						if (next == -1)
+							break;
+						buffer = Arrays.copyOf(buffer, buffer.length * 2);
+						buffer[count++] = (byte) next;
+					}
+					final int n = is.read(buffer, count, buffer.length - count);
+					if (n == -1)
+						break;
+					count += n;
+				}
+				return ByteBuffer.wrap(buffer, 0, count);
+			} finally {
+				is.close();
 			}
-			return sb.toString();
 		} catch (IOException e) {
 			log.log(Level.SEVERE,"Could not read service response", e);
 			throw new IOException("Could not read service response:"
 					+ e.getMessage());
 		}
 	}
+
+	/**
+	 * Gets the initial capacity of the buffer that holds the body. It is the
+	 * Content-Length capped to {@link #MAX_INITIAL_CAPACITY}, larger bodies
+	 * grow the buffer as they are read.
+	 * 
+	 * @param response
+	 *            an HTTP response
+	 * @return the initial capacity
+	 */
+	private static int getInitialCapacity(HttpResponse response) {
+		final Header contentLength = response.getFirstHeader(HTTP.CONTENT_LEN);
+		if (contentLength == null)
+			return BUFFER_SIZE;
+
+		try {
+			final long length = Long.parseLong(contentLength.getValue().trim());
+			return (int) Math.max(1, Math.min(length, MAX_INITIAL_CAPACITY));
+		} catch (NumberFormatException e) {
+			log.log(Level.WARNING, contentLength.getValue()
+					+ " is not a number", e);
+			return BUFFER_SIZE;
+		}
+	}
+
+	/**
+	 * Gets the charset of the response Content-Type or UTF-8 if it is not
+	 * specified or not supported.
+	 * 
+	 * @param response
+	 *            an HTTP response
+	 * @return the charset
+	 */
+	private static Charset getCharset(HttpResponse response) {
+		final String charset = EntityUtils.getContentCharSet(response
+				.getEntity());
+		if (charset != null) {
+			try {
+				return Charset.forName(charset);
+			} catch (IllegalArgumentException e) {
+				log.log(Level.WARNING, charset + " is not supported", e);
+			}
+		}
+		return Charset.forName(UTF_8);
+	}
+
 	/**
 	 * Returns a String representation of the response.
 	 * 
@@ -162,6 +424,8 @@ public class ResponseUtil {
 	public static InputStream getInputStream(HttpResponse response) throws IOException {
 		InputStream is;
 		try {
+			if (response.getEntity() == null)
+				return null;
 			is = response.getEntity().getContent();
 			if (is == null)
 				return null;
@@ -172,4 +436,23 @@ public class ResponseUtil {
 		}
 		return is;
 	}
+
+	/**
+	 * Consumes the response body so the connection can be reused by the
+	 * connection pool. It should be called when the response content is not
+	 * needed.
+	 * 
+	 * @param response
+	 *            an HTTP response
+	 * */
+	public static void consume(HttpResponse response) {
+		final HttpEntity entity = response.getEntity();
+		if (entity == null)
+			return;
+		try {
+			entity.consumeContent();
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Could not consume service response", e);
+		}
+	}
 }
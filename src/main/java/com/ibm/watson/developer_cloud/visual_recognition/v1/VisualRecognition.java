@@ -18,6 +18,7 @@ package com.ibm.watson.developer_cloud.visual_recognition.v1;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.concurrent.Future;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
@@ -25,8 +26,11 @@ import org.apache.http.entity.mime.MultipartEntity;
 import org.apache.http.entity.mime.content.FileBody;
 import org.apache.http.entity.mime.content.StringBody;
 
-import com.google.gson.Gson;
+import com.ibm.watson.developer_cloud.service.JsonResponseConverter;
+import com.ibm.watson.developer_cloud.service.MaterializedResponseConverter;
 import com.ibm.watson.developer_cloud.service.Request;
+import com.ibm.watson.developer_cloud.service.ResponseConverter;
+import com.ibm.watson.developer_cloud.service.ServiceCallback;
 import com.ibm.watson.developer_cloud.service.WatsonService;
 import com.ibm.watson.developer_cloud.util.ResponseUtil;
 import com.ibm.watson.developer_cloud.visual_recognition.v1.model.LabelSet;
@@ -48,6 +52,22 @@ public class VisualRecognition extends WatsonService {
 	/** The url. */
 	private static String URL = "https://gateway.watsonplatform.net/visual-recognition-beta/api";
 
+	/** The recognized image converter, returns the first image. */
+	private final ResponseConverter<RecognizedImage> recognizedImageConverter = new MaterializedResponseConverter<RecognizedImage>() {
+		@Override
+		public RecognizedImage convert(HttpResponse response)
+				throws IOException {
+			VisualRecognitionImages recognizedImages = ResponseUtil
+					.getObject(response, getGson(),
+							VisualRecognitionImages.class);
+			return recognizedImages.getImages().get(0);
+		}
+	};
+
+	/** The label set converter. */
+	private final ResponseConverter<LabelSet> labelSetConverter = new JsonResponseConverter<LabelSet>(
+			getGson(), LabelSet.class);
+
 	/**
 	 * Instantiates a new visual recognition.
 	 */
@@ -68,6 +88,40 @@ public class VisualRecognition extends WatsonService {
 	 * @return the visual recognition images
 	 */
 	public RecognizedImage recognize(File image, LabelSet labelSet) {
+		return execute(buildRecognizeRequest(image, labelSet),
+				recognizedImageConverter);
+	}
+
+	/**
+	 * Classifies the images against the label groups and labels without
+	 * blocking the calling thread.
+	 * 
+	 * @param image
+	 *            the file image
+	 * @param labelSet
+	 *            the labels to classify against, can be null
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future recognized image
+	 * @see #recognize(File, LabelSet)
+	 */
+	public Future<RecognizedImage> recognizeAsync(File image,
+			LabelSet labelSet, ServiceCallback<RecognizedImage> callback) {
+		return executeAsync(buildRecognizeRequest(image, labelSet),
+				recognizedImageConverter, callback);
+	}
+
+	/**
+	 * Builds the recognize request.
+	 * 
+	 * @param image
+	 *            the file image
+	 * @param labelSet
+	 *            the labels to classify against, can be null
+	 * @return the recognize request
+	 */
+	private HttpRequestBase buildRecognizeRequest(File image,
+			LabelSet labelSet) {
 		if (image == null)
 			throw new IllegalArgumentException("image can not be null");
 		try {
@@ -81,19 +135,14 @@ public class VisualRecognition extends WatsonService {
 			reqEntity.addPart("imgFile", bin);
 
 			if (labelSet != null) {
-				StringBody labels = new StringBody(new Gson().toJson(labelSet),
+				StringBody labels = new StringBody(getGson().toJson(labelSet),
 						Charset.forName("UTF-8"));
 
 				// Set the labels_to_check
 				reqEntity.addPart("labels_to_check", labels);
 			}
 			request.withEntity(reqEntity);
-
-			HttpResponse response = execute(request.build());
-			String resultJson = ResponseUtil.getString(response);
-			VisualRecognitionImages recognizedImages = new Gson().fromJson(
-					resultJson, VisualRecognitionImages.class);
-			return recognizedImages.getImages().get(0);
+			return request.build();
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
@@ -106,13 +155,20 @@ public class VisualRecognition extends WatsonService {
 	 */
 	public LabelSet getLabelSet() {
 		HttpRequestBase request = Request.Get("/v1/tag/labels").build();
-		try {
-			HttpResponse response = execute(request);
-			String jsonLabelSet = ResponseUtil.getString(response);
-			return new Gson().fromJson(jsonLabelSet, LabelSet.class);
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		return execute(request, labelSetConverter);
+	}
+
+	/**
+	 * Gets the labels and label groups without blocking the calling thread.
+	 * 
+	 * @param callback
+	 *            notified when the call completes, can be null
+	 * @return the future labels and label groups
+	 * @see #getLabelSet()
+	 */
+	public Future<LabelSet> getLabelSetAsync(ServiceCallback<LabelSet> callback) {
+		HttpRequestBase request = Request.Get("/v1/tag/labels").build();
+		return executeAsync(request, labelSetConverter, callback);
 	}
 
 	/**
@@ -0,0 +1,604 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.ibm.watson.developer_cloud.concept_expansion.v1.ConceptExpansion;
+import com.ibm.watson.developer_cloud.concept_expansion.v1.model.Job;
+import com.ibm.watson.developer_cloud.dialog.v1.DialogService;
+import com.ibm.watson.developer_cloud.language_identification.v1.LanguageIdentification;
+import com.ibm.watson.developer_cloud.language_translation.v2.LanguageTranslation;
+import com.ibm.watson.developer_cloud.machine_translation.v1.MachineTranslation;
+import com.ibm.watson.developer_cloud.machine_translation.v1.model.Language;
+import com.ibm.watson.developer_cloud.message_resonance.v1.MessageResonance;
+import com.ibm.watson.developer_cloud.message_resonance.v1.model.MessageResonanceDataset;
+import com.ibm.watson.developer_cloud.mock.CannedInterceptor;
+import com.ibm.watson.developer_cloud.mock.CannedResponses;
+import com.ibm.watson.developer_cloud.mock.MockResponse;
+import com.ibm.watson.developer_cloud.natural_language_classifier.v1.NaturalLanguageClassifier;
+import com.ibm.watson.developer_cloud.personality_insights.v2.PersonalityInsights;
+import com.ibm.watson.developer_cloud.question_and_answer.v1.QuestionAndAnswer;
+import com.ibm.watson.developer_cloud.question_and_answer.v1.model.QuestionAndAnswerDataset;
+import com.ibm.watson.developer_cloud.relationship_extraction.v1.RelationshipExtraction;
+import com.ibm.watson.developer_cloud.relationship_extraction.v1.model.RelationshipExtractionDataset;
+import com.ibm.watson.developer_cloud.service.WatsonService;
+import com.ibm.watson.developer_cloud.speech_to_text.v1.SpeechToText;
+import com.ibm.watson.developer_cloud.text_to_speech.v1.TextToSpeech;
+import com.ibm.watson.developer_cloud.tradeoff_analytics.v1.TradeoffAnalytics;
+import com.ibm.watson.developer_cloud.tradeoff_analytics.v1.model.Column;
+import com.ibm.watson.developer_cloud.tradeoff_analytics.v1.model.Option;
+import com.ibm.watson.developer_cloud.tradeoff_analytics.v1.model.Problem;
+import com.ibm.watson.developer_cloud.util.MediaType;
+import com.ibm.watson.developer_cloud.visual_recognition.v1.VisualRecognition;
+
+/**
+ * Guards the number of bytes allocated by a representative call of every
+ * service. Each call goes through the whole request path of the service, the
+ * response comes from a {@link CannedInterceptor} so nothing leaves the
+ * thread and the measure is deterministic.
+ * <br>
+ * The bytes per call are compared with the baseline of the running Java
+ * version, <code>allocation-baseline-{java.specification.version}.properties</code>,
+ * and a test fails when a call allocates more than the baseline plus the
+ * tolerance (20% by default, <code>-Dallocation.tolerance=0.3</code> to change
+ * it). The tests are skipped when there is no baseline for the Java version
+ * or the JVM can not measure allocations. To record a new baseline, after an
+ * intended change, run: <pre>
+ * mvn test -Dtest=AllocationRegressionTest -Dallocation.record=target/allocation.properties
+ * </pre> and copy the file to <code>src/test/resources</code>.
+ */
+public class AllocationRegressionTest {
+
+	/**
+	 * A call to measure.
+	 */
+	private interface Call {
+
+		/**
+		 * Runs the call.
+		 * 
+		 * @throws Exception
+		 *             if the call fails
+		 */
+		void run() throws Exception;
+	}
+
+	/** The Constant log. */
+	private static final Logger log = Logger
+			.getLogger(AllocationRegressionTest.class.getName());
+
+	/** The Constant BASELINE. */
+	private static final String BASELINE = "/allocation-baseline-"
+			+ System.getProperty("java.specification.version") + ".properties";
+
+	/** The Constant DEFAULT_TOLERANCE. */
+	private static final double DEFAULT_TOLERANCE = 0.2;
+
+	/** The bytes per call allowed over the baseline whatever the tolerance. */
+	private static final long SLACK = 256;
+
+	/** The number of calls made before measuring, to load classes and JIT. */
+	private static final int WARMUP = 5000;
+
+	/** The number of calls of a round. */
+	private static final int ITERATIONS = 1000;
+
+	/** The number of rounds, the smallest one is kept. */
+	private static final int ROUNDS = 5;
+
+	/** The thread bean. */
+	private static com.sun.management.ThreadMXBean threads;
+
+	/** The baseline, null when recording. */
+	private static Properties baseline;
+
+	/** The file where the measures are recorded, null when checking. */
+	private static String record;
+
+	/** The recorded measures. */
+	private static final Map<String, Long> recorded = new TreeMap<String, Long>();
+
+	/**
+	 * Checks that allocations can be measured and loads the baseline.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@BeforeClass
+	public static void setUp() throws IOException {
+		final java.lang.management.ThreadMXBean bean = ManagementFactory
+				.getThreadMXBean();
+		Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		threads = (com.sun.management.ThreadMXBean) bean;
+		Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+
+		record = System.getProperty("allocation.record");
+		if (record != null)
+			return;
+
+		final InputStream in = AllocationRegressionTest.class
+				.getResourceAsStream(BASELINE);
+		Assume.assumeTrue(in != null);
+		try {
+			baseline = new Properties();
+			baseline.load(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Writes the recorded measures.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@AfterClass
+	public static void tearDown() throws IOException {
+		if (record == null || recorded.isEmpty())
+			return;
+
+		final File file = new File(record);
+		if (file.getParentFile() != null)
+			file.getParentFile().mkdirs();
+		final Writer writer = new OutputStreamWriter(new FileOutputStream(
+				file), "ISO-8859-1");
+		try {
+			writer.write("# bytes allocated per call, Java "
+					+ System.getProperty("java.specification.version") + "\n");
+			for (Map.Entry<String, Long> entry : recorded.entrySet()) {
+				writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+			}
+		} finally {
+			writer.close();
+		}
+		log.info("Allocation baseline recorded in " + file.getAbsolutePath());
+	}
+
+	/**
+	 * Configures a service to answer every call with a fixture.
+	 * 
+	 * @param service
+	 *            the service
+	 * @param contentType
+	 *            the content type of the fixture
+	 * @param fixture
+	 *            the name of the fixture
+	 * @return the service
+	 */
+	private static <T extends WatsonService> T canned(T service,
+			String contentType, String fixture) {
+		return canned(service, MockResponse.of(200, contentType,
+				CannedResponses.getFixture(fixture)));
+	}
+
+	/**
+	 * Configures a service to answer every call with a response.
+	 * 
+	 * @param service
+	 *            the service
+	 * @param response
+	 *            the response
+	 * @return the service
+	 */
+	private static <T extends WatsonService> T canned(T service,
+			MockResponse response) {
+		service.setEndPoint("http://localhost/api");
+		service.setUsernameAndPassword("username", "password");
+		service.addInterceptor(new CannedInterceptor(response));
+		return service;
+	}
+
+	/**
+	 * Measures the bytes allocated by a call and checks them against the
+	 * baseline.
+	 * 
+	 * @param name
+	 *            the name of the call in the baseline
+	 * @param call
+	 *            the call
+	 * @throws Exception
+	 *             if the call fails
+	 */
+	private static void assertAllocation(String name, Call call)
+			throws Exception {
+		for (int i = 0; i < WARMUP; i++) {
+			call.run();
+		}
+
+		final long threadId = Thread.currentThread().getId();
+		long bytes = Long.MAX_VALUE;
+		for (int round = 0; round < ROUNDS; round++) {
+			final long before = threads.getThreadAllocatedBytes(threadId);
+			for (int i = 0; i < ITERATIONS; i++) {
+				call.run();
+			}
+			final long after = threads.getThreadAllocatedBytes(threadId);
+			bytes = Math.min(bytes, (after - before) / ITERATIONS);
+		}
+
+		if (record != null) {
+			recorded.put(name, bytes);
+			return;
+		}
+
+		final String expected = baseline.getProperty(name);
+		Assert.assertNotNull("No allocation baseline for " + name
+				+ ", it allocates " + bytes + " bytes per call", expected);
+		final double tolerance = Double.parseDouble(System.getProperty(
+				"allocation.tolerance", String.valueOf(DEFAULT_TOLERANCE)));
+		final long limit = (long) (Long.parseLong(expected) * (1 + tolerance))
+				+ SLACK;
+		if (bytes > limit)
+			Assert.fail(name + " allocates " + bytes
+					+ " bytes per call, the baseline is " + expected
+					+ " and the limit " + limit);
+	}
+
+	/**
+	 * Test classify.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testClassify() throws Exception {
+		final NaturalLanguageClassifier service = canned(
+				new NaturalLanguageClassifier(), MediaType.APPLICATION_JSON,
+				"natural_language_classifier/classify.json");
+		assertAllocation("natural_language_classifier.classify", new Call() {
+			public void run() {
+				service.classify("classifierId", "Is it sunny?");
+			}
+		});
+	}
+
+	/**
+	 * Test get classifiers.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testGetClassifiers() throws Exception {
+		final NaturalLanguageClassifier service = canned(
+				new NaturalLanguageClassifier(), MediaType.APPLICATION_JSON,
+				"natural_language_classifier/classifiers.json");
+		assertAllocation("natural_language_classifier.get_classifiers",
+				new Call() {
+					public void run() {
+						service.getClassifiers();
+					}
+				});
+	}
+
+	/**
+	 * Test get profile.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testGetProfile() throws Exception {
+		final PersonalityInsights service = canned(new PersonalityInsights(),
+				MediaType.APPLICATION_JSON, "personality_insights/profile.json");
+		assertAllocation("personality_insights.get_profile", new Call() {
+			public void run() {
+				service.getProfile("Call me Ishmael. Some years ago, never mind"
+						+ " how long precisely, having little or no money in my"
+						+ " purse, I thought I would sail about a little.");
+			}
+		});
+	}
+
+	/**
+	 * Test recognize.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testRecognize() throws Exception {
+		final SpeechToText service = canned(new SpeechToText(),
+				MediaType.APPLICATION_JSON, "speech_to_text/recognize.json");
+		final File audio = new File("src/test/resources/sample1.wav");
+		assertAllocation("speech_to_text.recognize", new Call() {
+			public void run() {
+				service.recognize(audio, MediaType.AUDIO_WAV);
+			}
+		});
+	}
+
+	/**
+	 * Test get models.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testGetSpeechModels() throws Exception {
+		final SpeechToText service = canned(new SpeechToText(),
+				MediaType.APPLICATION_JSON, "speech_to_text/models.json");
+		assertAllocation("speech_to_text.get_models", new Call() {
+			public void run() {
+				service.getModels();
+			}
+		});
+	}
+
+	/**
+	 * Test synthesize.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testSynthesize() throws Exception {
+		final TextToSpeech service = canned(new TextToSpeech(),
+				MockResponse.of(200, MediaType.AUDIO_WAV,
+						CannedResponses.getSilence()));
+		assertAllocation("text_to_speech.synthesize", new Call() {
+			public void run() throws IOException {
+				service.synthesize("Hello world", MediaType.AUDIO_WAV).close();
+			}
+		});
+	}
+
+	/**
+	 * Test get voices.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testGetVoices() throws Exception {
+		final TextToSpeech service = canned(new TextToSpeech(),
+				MediaType.APPLICATION_JSON, "text_to_speech/voices.json");
+		assertAllocation("text_to_speech.get_voices", new Call() {
+			public void run() {
+				service.getVoices();
+			}
+		});
+	}
+
+	/**
+	 * Test translate.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testTranslate() throws Exception {
+		final LanguageTranslation service = canned(new LanguageTranslation(),
+				MediaType.APPLICATION_JSON,
+				"language_translation/translate.json");
+		assertAllocation("language_translation.translate", new Call() {
+			public void run() {
+				service.translate("The IBM Watson team is awesome", "en", "es");
+			}
+		});
+	}
+
+	/**
+	 * Test identify.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testIdentify() throws Exception {
+		final LanguageTranslation service = canned(new LanguageTranslation(),
+				MediaType.APPLICATION_JSON,
+				"language_translation/identify.json");
+		assertAllocation("language_translation.identify", new Call() {
+			public void run() {
+				service.identify("The IBM Watson team is awesome");
+			}
+		});
+	}
+
+	/**
+	 * Test converse.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testConverse() throws Exception {
+		final DialogService service = canned(new DialogService(),
+				MediaType.APPLICATION_JSON, "dialog/conversation.json");
+		assertAllocation("dialog.converse", new Call() {
+			public void run() {
+				service.converse("dialogId", 123, 456, "Hi, I want a pizza");
+			}
+		});
+	}
+
+	/**
+	 * Test ask.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testAsk() throws Exception {
+		final QuestionAndAnswer service = canned(new QuestionAndAnswer(),
+				MediaType.APPLICATION_JSON, "question_and_answer/answer.json");
+		service.setDataset(QuestionAndAnswerDataset.HEALTHCARE);
+		assertAllocation("question_and_answer.ask", new Call() {
+			public void run() {
+				service.ask("What is HIV?");
+			}
+		});
+	}
+
+	/**
+	 * Test recognize image.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testRecognizeImage() throws Exception {
+		final VisualRecognition service = canned(new VisualRecognition(),
+				MediaType.APPLICATION_JSON, "visual_recognition/recognize.json");
+		final File image = new File("src/test/resources/car.png");
+		assertAllocation("visual_recognition.recognize", new Call() {
+			public void run() {
+				service.recognize(image);
+			}
+		});
+	}
+
+	/**
+	 * Test dilemmas.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testDilemmas() throws Exception {
+		final TradeoffAnalytics service = canned(new TradeoffAnalytics(),
+				MediaType.APPLICATION_JSON, "tradeoff_analytics/dilemma.json");
+		final Problem problem = new Problem("phones");
+		problem.withColumns(Arrays.asList(
+				new Column().withKey("price").withType("NUMERIC")
+						.withGoal("min").withIsObjective(true),
+				new Column().withKey("weight").withType("NUMERIC")
+						.withGoal("min").withIsObjective(true)));
+		problem.withOptions(Arrays.asList(
+				new Option().withKey("1").withName("Galaxy S4")
+						.withValue("price", "249").withValue("weight", "130"),
+				new Option().withKey("2").withName("iPhone 5")
+						.withValue("price", "449").withValue("weight", "112")));
+		assertAllocation("tradeoff_analytics.dilemmas", new Call() {
+			public void run() {
+				service.dilemmas(problem);
+			}
+		});
+	}
+
+	/**
+	 * Test get job result.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testGetJobResult() throws Exception {
+		final ConceptExpansion service = canned(new ConceptExpansion(),
+				MediaType.APPLICATION_JSON, "concept_expansion/result.json");
+		final Job job = new Job("jobId");
+		assertAllocation("concept_expansion.get_job_result", new Call() {
+			public void run() {
+				service.getJobResult(job);
+			}
+		});
+	}
+
+	/**
+	 * Test identify language.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testIdentifyLanguage() throws Exception {
+		final LanguageIdentification service = canned(
+				new LanguageIdentification(), MediaType.APPLICATION_JSON,
+				"language_identification/identify.json");
+		assertAllocation("language_identification.identify", new Call() {
+			public void run() {
+				service.identify("The IBM Watson team is awesome");
+			}
+		});
+	}
+
+	/**
+	 * Test extract.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testExtract() throws Exception {
+		final RelationshipExtraction service = canned(
+				new RelationshipExtraction(), "text/xml; charset=utf-8",
+				"relationship_extraction/extract.xml");
+		service.setDataset(RelationshipExtractionDataset.ENGLISH_NEWS);
+		assertAllocation("relationship_extraction.extract", new Call() {
+			public void run() {
+				service.extract("IBM Watson developer cloud");
+			}
+		});
+	}
+
+	/**
+	 * Test machine translation.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testMachineTranslation() throws Exception {
+		final MachineTranslation service = canned(new MachineTranslation(),
+				MediaType.TEXT_PLAIN + "; charset=utf-8",
+				"machine_translation/translate.txt");
+		assertAllocation("machine_translation.translate", new Call() {
+			public void run() {
+				service.translate("The IBM Watson team is awesome",
+						Language.ENGLISH, Language.SPANISH);
+			}
+		});
+	}
+
+	/**
+	 * Test get resonance.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testGetResonance() throws Exception {
+		final MessageResonance service = canned(new MessageResonance(),
+				MediaType.APPLICATION_JSON, "message_resonance/ringscore.json");
+		service.setDataset(MessageResonanceDataset.BIG_DATA);
+		assertAllocation("message_resonance.get_resonance", new Call() {
+			public void run() {
+				service.getResonance("IBM Watson");
+			}
+		});
+	}
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.mock;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHttpResponse;
+
+import com.ibm.watson.developer_cloud.service.Interceptor;
+
+/**
+ * An {@link Interceptor} that answers every request with a
+ * {@link MockResponse} instead of going to the network. Latency, throttling,
+ * timeouts and disconnects are ignored, only the status, headers and body are
+ * used. It lets tests run the whole request path of a service in the calling
+ * thread, without sockets.
+ * <br>
+ * Example: <pre>
+ * {@code
+ *  service.addInterceptor(new CannedInterceptor(MockResponse.json("{}")));
+ * }</pre>
+ */
+public class CannedInterceptor implements Interceptor {
+
+	/** The response. */
+	private final MockResponse response;
+
+	/**
+	 * Instantiates a new canned interceptor.
+	 * 
+	 * @param response
+	 *            the response returned for every request
+	 */
+	public CannedInterceptor(MockResponse response) {
+		if (response == null)
+			throw new IllegalArgumentException("response is null");
+		this.response = response;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.ibm.watson.developer_cloud.service.Interceptor#intercept(com.ibm.
+	 * watson.developer_cloud.service.Interceptor.Chain)
+	 */
+	@Override
+	public HttpResponse intercept(Chain chain) throws IOException {
+		final HttpResponse httpResponse = new BasicHttpResponse(
+				HttpVersion.HTTP_1_1, response.getStatus(), null);
+		for (Map.Entry<String, String> header : response.getHeaders()
+				.entrySet()) {
+			httpResponse.addHeader(header.getKey(), header.getValue());
+		}
+		final ByteArrayEntity entity = new ByteArrayEntity(response.getBody());
+		entity.setContentType(response.getHeaders().get("Content-Type"));
+		httpResponse.setEntity(entity);
+		return httpResponse;
+	}
+}
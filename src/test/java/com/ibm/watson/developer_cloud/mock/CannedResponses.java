@@ -0,0 +1,261 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.mock;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.ibm.watson.developer_cloud.util.MediaType;
+
+/**
+ * The default responses of the {@link MockWatsonServer}, one for every
+ * endpoint called by the SDK. The bodies are fixtures stored next to this
+ * class in the test resources, in the format returned by the real services.
+ */
+public final class CannedResponses {
+
+	/** The Constant XML. */
+	private static final String XML = "text/xml; charset=utf-8";
+
+	/** The Constant TEXT. */
+	private static final String TEXT = MediaType.TEXT_PLAIN + "; charset=utf-8";
+
+	/** The sample rate of the synthesized audio. */
+	private static final int SAMPLE_RATE = 22050;
+
+	/**
+	 * Private constructor.
+	 */
+	private CannedResponses() {
+	}
+
+	/**
+	 * Gets a fixture, for example
+	 * <code>natural_language_classifier/classify.json</code>.
+	 * 
+	 * @param name
+	 *            the name of the fixture
+	 * @return the content of the fixture
+	 */
+	public static byte[] getFixture(String name) {
+		final InputStream in = CannedResponses.class.getResourceAsStream(name);
+		if (in == null)
+			throw new IllegalArgumentException(name + " was not found");
+
+		try {
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		} finally {
+			try {
+				in.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	/**
+	 * Builds a WAV file with one second of silence, the body of the
+	 * synthesize endpoint.
+	 * 
+	 * @return the audio
+	 */
+	public static byte[] getSilence() {
+		final int dataLength = SAMPLE_RATE * 2;
+		final byte[] wav = new byte[44 + dataLength];
+		writeAscii(wav, 0, "RIFF");
+		writeInt(wav, 4, 36 + dataLength);
+		writeAscii(wav, 8, "WAVEfmt ");
+		writeInt(wav, 16, 16); // format chunk length
+		writeShort(wav, 20, 1); // PCM
+		writeShort(wav, 22, 1); // mono
+		writeInt(wav, 24, SAMPLE_RATE);
+		writeInt(wav, 28, SAMPLE_RATE * 2); // byte rate
+		writeShort(wav, 32, 2); // block align
+		writeShort(wav, 34, 16); // bits per sample
+		writeAscii(wav, 36, "data");
+		writeInt(wav, 40, dataLength);
+		return wav;
+	}
+
+	/**
+	 * Registers the default responses.
+	 * 
+	 * @param server
+	 *            the server
+	 */
+	static void register(MockWatsonServer server) {
+		// speech to text
+		json(server, "POST", "/v1/recognize", "speech_to_text/recognize.json");
+		json(server, "POST", "/v1/sessions/*/recognize",
+				"speech_to_text/recognize.json");
+		json(server, "GET", "/v1/sessions/*/recognize",
+				"speech_to_text/session_status.json");
+		server.setResponse("POST", "/v1/sessions", MockResponse.of(201,
+				MediaType.APPLICATION_JSON,
+				getFixture("speech_to_text/session.json")));
+		server.setResponse("DELETE", "/v1/sessions/*",
+				MockResponse.of(204, null, new byte[0]));
+		json(server, "GET", "/v1/models", "speech_to_text/models.json");
+		json(server, "GET", "/v1/models/*", "speech_to_text/model.json");
+
+		// text to speech
+		server.setResponse("GET", "/v1/synthesize",
+				MockResponse.of(200, MediaType.AUDIO_WAV, getSilence()));
+		json(server, "GET", "/v1/voices", "text_to_speech/voices.json");
+
+		// language translation
+		json(server, "POST", "/v2/translate",
+				"language_translation/translate.json");
+		json(server, "POST", "/v2/identify",
+				"language_translation/identify.json");
+		json(server, "GET", "/v2/models", "language_translation/models.json");
+		json(server, "GET", "/v2/identifiable_languages",
+				"language_translation/identifiable_languages.json");
+
+		// natural language classifier
+		json(server, "POST", "/v1/classifiers/*/classify",
+				"natural_language_classifier/classify.json");
+		json(server, "GET", "/v1/classifiers",
+				"natural_language_classifier/classifiers.json");
+		json(server, "GET", "/v1/classifiers/*",
+				"natural_language_classifier/classifier.json");
+		json(server, "POST", "/v1/classifiers",
+				"natural_language_classifier/classifier_training.json");
+		json(server, "DELETE", "/v1/classifiers/*", "{}");
+
+		// personality insights
+		json(server, "POST", "/v2/profile",
+				"personality_insights/profile.json");
+
+		// dialog
+		json(server, "POST", "/v1/dialogs/*/conversation",
+				"dialog/conversation.json");
+		json(server, "GET", "/v1/dialogs/*/conversation",
+				"dialog/conversation_data.json");
+		json(server, "GET", "/v1/dialogs", "dialog/dialogs.json");
+		server.setResponse("POST", "/v1/dialogs", MockResponse.of(201,
+				MediaType.APPLICATION_JSON, getFixture("dialog/dialog.json")));
+		json(server, "PUT", "/v1/dialogs/*", "dialog/dialog.json");
+		json(server, "DELETE", "/v1/dialogs/*", "{}");
+		json(server, "GET", "/v1/dialogs/*/content", "dialog/content.json");
+		json(server, "PUT", "/v1/dialogs/*/content", "{}");
+		json(server, "GET", "/v1/dialogs/*/profile", "dialog/profile.json");
+		json(server, "PUT", "/v1/dialogs/*/profile", "{}");
+
+		// question and answer
+		json(server, "POST", "/v1/question/*",
+				"question_and_answer/answer.json");
+
+		// visual recognition
+		json(server, "POST", "/v1/tag/recognize",
+				"visual_recognition/recognize.json");
+		json(server, "GET", "/v1/tag/labels", "visual_recognition/labels.json");
+
+		// tradeoff analytics
+		json(server, "POST", "/v1/dilemmas", "tradeoff_analytics/dilemma.json");
+
+		// concept expansion
+		json(server, "POST", "/v1/upload", "concept_expansion/job.json");
+		json(server, "GET", "/v1/status", "concept_expansion/status.json");
+		json(server, "PUT", "/v1/result", "concept_expansion/result.json");
+
+		// language identification, relationship extraction, machine
+		// translation and message resonance
+		json(server, "POST", "/v1/txtlid/0",
+				"language_identification/identify.json");
+		server.setResponse("POST", "/v1/sire/0", MockResponse.of(200, XML,
+				getFixture("relationship_extraction/extract.xml")));
+		server.setResponse("POST", "/v1/smt/0", MockResponse.of(200, TEXT,
+				getFixture("machine_translation/translate.txt")));
+		json(server, "GET", "/v1/ringscore", "message_resonance/ringscore.json");
+	}
+
+	/**
+	 * Registers a JSON response.
+	 * 
+	 * @param server
+	 *            the server
+	 * @param method
+	 *            the method
+	 * @param path
+	 *            the path
+	 * @param fixture
+	 *            the name of the fixture, or the body if it starts with
+	 *            <code>{</code>
+	 */
+	private static void json(MockWatsonServer server, String method,
+			String path, String fixture) {
+		final MockResponse response = fixture.startsWith("{") ? MockResponse
+				.json(fixture) : MockResponse.of(200,
+				MediaType.APPLICATION_JSON, getFixture(fixture));
+		server.setResponse(method, path, response);
+	}
+
+	/**
+	 * Writes an ASCII string.
+	 * 
+	 * @param buffer
+	 *            the buffer
+	 * @param offset
+	 *            the offset
+	 * @param value
+	 *            the value
+	 */
+	private static void writeAscii(byte[] buffer, int offset, String value) {
+		for (int i = 0; i < value.length(); i++) {
+			buffer[offset + i] = (byte) value.charAt(i);
+		}
+	}
+
+	/**
+	 * Writes a little-endian int.
+	 * 
+	 * @param buffer
+	 *            the buffer
+	 * @param offset
+	 *            the offset
+	 * @param value
+	 *            the value
+	 */
+	private static void writeInt(byte[] buffer, int offset, int value) {
+		writeShort(buffer, offset, value);
+		writeShort(buffer, offset + 2, value >>> 16);
+	}
+
+	/**
+	 * Writes a little-endian short.
+	 * 
+	 * @param buffer
+	 *            the buffer
+	 * @param offset
+	 *            the offset
+	 * @param value
+	 *            the value
+	 */
+	private static void writeShort(byte[] buffer, int offset, int value) {
+		buffer[offset] = (byte) value;
+		buffer[offset + 1] = (byte) (value >>> 8);
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.mock;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The distribution of the latency added by the {@link MockWatsonServer}
+ * before it answers a request.
+ * <br>
+ * Example: <pre>
+ * {@code
+ *  // median of 40ms with a tail of 400ms at the 99th percentile
+ *  server.setLatency(LatencyDistribution.logNormal(40, 400, TimeUnit.MILLISECONDS));
+ * }</pre>
+ */
+public abstract class LatencyDistribution {
+
+	/** The z-score of the 99th percentile of the normal distribution. */
+	private static final double Z_99 = 2.326348;
+
+	/** No latency. */
+	public static final LatencyDistribution NONE = fixed(0,
+			TimeUnit.NANOSECONDS);
+
+	/**
+	 * Always the same latency.
+	 * 
+	 * @param delay
+	 *            the latency
+	 * @param unit
+	 *            the unit of the latency
+	 * @return the latency distribution
+	 */
+	public static LatencyDistribution fixed(long delay, TimeUnit unit) {
+		if (delay < 0)
+			throw new IllegalArgumentException("delay should not be negative");
+
+		final long nanos = unit.toNanos(delay);
+		return new LatencyDistribution() {
+			@Override
+			public long nextDelay(Random random) {
+				return nanos;
+			}
+		};
+	}
+
+	/**
+	 * A latency uniformly distributed between <code>min</code> and
+	 * <code>max</code>.
+	 * 
+	 * @param min
+	 *            the minimum latency
+	 * @param max
+	 *            the maximum latency
+	 * @param unit
+	 *            the unit of the latency
+	 * @return the latency distribution
+	 */
+	public static LatencyDistribution uniform(long min, long max,
+			TimeUnit unit) {
+		if (min < 0 || max < min)
+			throw new IllegalArgumentException(
+					"min should not be negative or greater than max");
+
+		final long minNanos = unit.toNanos(min);
+		final long rangeNanos = unit.toNanos(max) - minNanos;
+		return new LatencyDistribution() {
+			@Override
+			public long nextDelay(Random random) {
+				return minNanos + (long) (random.nextDouble() * rangeNanos);
+			}
+		};
+	}
+
+	/**
+	 * An exponentially distributed latency, the time between events of a
+	 * Poisson process.
+	 * 
+	 * @param mean
+	 *            the mean latency
+	 * @param unit
+	 *            the unit of the latency
+	 * @return the latency distribution
+	 */
+	public static LatencyDistribution exponential(long mean, TimeUnit unit) {
+		if (mean < 0)
+			throw new IllegalArgumentException("mean should not be negative");
+
+		final long meanNanos = unit.toNanos(mean);
+		return new LatencyDistribution() {
+			@Override
+			public long nextDelay(Random random) {
+				return (long) (-meanNanos * Math.log(1 - random.nextDouble()));
+			}
+		};
+	}
+
+	/**
+	 * A log-normally distributed latency, the usual shape of the latency of a
+	 * web service: most requests close to the median and a long tail.
+	 * 
+	 * @param median
+	 *            the median latency
+	 * @param p99
+	 *            the latency at the 99th percentile
+	 * @param unit
+	 *            the unit of the latency
+	 * @return the latency distribution
+	 */
+	public static LatencyDistribution logNormal(long median, long p99,
+			TimeUnit unit) {
+		if (median <= 0 || p99 < median)
+			throw new IllegalArgumentException(
+					"median should be greater than 0 and not greater than p99");
+
+		final double mu = Math.log(unit.toNanos(median));
+		final double sigma = (Math.log(unit.toNanos(p99)) - mu) / Z_99;
+		return new LatencyDistribution() {
+			@Override
+			public long nextDelay(Random random) {
+				return (long) Math.exp(mu + sigma * random.nextGaussian());
+			}
+		};
+	}
+
+	/**
+	 * Gets the latency of the next request.
+	 * 
+	 * @param random
+	 *            the source of randomness
+	 * @return the latency in nanoseconds
+	 */
+	public abstract long nextDelay(Random random);
+}
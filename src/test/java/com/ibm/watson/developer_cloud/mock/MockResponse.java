@@ -0,0 +1,312 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.mock;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.ibm.watson.developer_cloud.util.MediaType;
+
+/**
+ * A canned response of the {@link MockWatsonServer}. Besides the status,
+ * headers and body it can add its own latency, stream the body slowly, never
+ * answer (a timeout) or drop the connection.
+ * <br>
+ * Example: <pre>
+ * {@code
+ *  server.setResponse("GET", "/v1/synthesize",
+ *      MockResponse.of(200, "audio/wav", audio)
+ *          .withThrottledBody(4096, 50, TimeUnit.MILLISECONDS));
+ *  server.addFault(0.01, MockResponse.error(429, "Too many requests"));
+ *  server.addFault(0.001, MockResponse.timeout());
+ * }</pre>
+ * A response is shared by all the requests it answers, it has to be
+ * configured before the server starts handling them.
+ */
+public class MockResponse {
+
+	/** The Constant UTF_8. */
+	private static final String UTF_8 = "UTF-8";
+
+	/**
+	 * Builds a response from its status, content type and body.
+	 * 
+	 * @param status
+	 *            the HTTP status code
+	 * @param contentType
+	 *            the content type, can be null
+	 * @param body
+	 *            the body
+	 * @return the response
+	 */
+	public static MockResponse of(int status, String contentType, byte[] body) {
+		final MockResponse response = new MockResponse();
+		response.status = status;
+		response.body = body;
+		if (contentType != null)
+			response.headers.put("Content-Type", contentType);
+		return response;
+	}
+
+	/**
+	 * Builds a response from its status, content type and body.
+	 * 
+	 * @param status
+	 *            the HTTP status code
+	 * @param contentType
+	 *            the content type, can be null
+	 * @param body
+	 *            the body, encoded as UTF-8
+	 * @return the response
+	 */
+	public static MockResponse of(int status, String contentType, String body) {
+		try {
+			return of(status, contentType, body.getBytes(UTF_8));
+		} catch (UnsupportedEncodingException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Builds a 200 JSON response.
+	 * 
+	 * @param json
+	 *            the body
+	 * @return the response
+	 */
+	public static MockResponse json(String json) {
+		return json(200, json);
+	}
+
+	/**
+	 * Builds a JSON response.
+	 * 
+	 * @param status
+	 *            the HTTP status code
+	 * @param json
+	 *            the body
+	 * @return the response
+	 */
+	public static MockResponse json(int status, String json) {
+		return of(status, MediaType.APPLICATION_JSON + "; charset=utf-8", json);
+	}
+
+	/**
+	 * Builds an error response with the body used by the Watson services.
+	 * 
+	 * @param status
+	 *            the HTTP status code
+	 * @param message
+	 *            the error message
+	 * @return the response
+	 */
+	public static MockResponse error(int status, String message) {
+		return json(status, "{\"code\":" + status + ",\"error\":\""
+				+ message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}");
+	}
+
+	/**
+	 * Builds a response that never answers. The connection is closed without
+	 * a response when the server stops.
+	 * 
+	 * @return the response
+	 */
+	public static MockResponse timeout() {
+		return timeout(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Builds a response that does not answer for the given time, and then
+	 * closes the connection without a response.
+	 * 
+	 * @param duration
+	 *            the time to wait
+	 * @param unit
+	 *            the unit of the time to wait
+	 * @return the response
+	 */
+	public static MockResponse timeout(long duration, TimeUnit unit) {
+		final MockResponse response = new MockResponse();
+		response.timeoutNanos = unit.toNanos(duration);
+		return response;
+	}
+
+	/**
+	 * Builds a response that closes the connection right away, as if it was
+	 * reset by the server or a proxy.
+	 * 
+	 * @return the response
+	 */
+	public static MockResponse disconnect() {
+		final MockResponse response = new MockResponse();
+		response.disconnect = true;
+		return response;
+	}
+
+	/** The status. */
+	private int status = 200;
+
+	/** The headers. */
+	private final Map<String, String> headers = new LinkedHashMap<String, String>();
+
+	/** The body. */
+	private byte[] body = new byte[0];
+
+	/** The latency, null to use the one of the server. */
+	private LatencyDistribution latency;
+
+	/** The number of bytes written at a time, 0 for the whole body. */
+	private int chunkSize;
+
+	/** The delay between chunks in nanoseconds. */
+	private long chunkDelayNanos;
+
+	/** The time to wait before closing without a response, -1 to answer. */
+	private long timeoutNanos = -1;
+
+	/** The disconnect. */
+	private boolean disconnect;
+
+	/**
+	 * Instantiates a new mock response, use the static factory methods.
+	 */
+	private MockResponse() {
+	}
+
+	/**
+	 * Adds a header, replacing a previous value.
+	 * 
+	 * @param name
+	 *            the header name
+	 * @param value
+	 *            the header value
+	 * @return this response
+	 */
+	public MockResponse withHeader(String name, String value) {
+		headers.put(name, value);
+		return this;
+	}
+
+	/**
+	 * Sets the latency of this response, replacing the latency of the server.
+	 * 
+	 * @param latency
+	 *            the latency distribution
+	 * @return this response
+	 */
+	public MockResponse withLatency(LatencyDistribution latency) {
+		this.latency = latency;
+		return this;
+	}
+
+	/**
+	 * Streams the body <code>chunkSize</code> bytes at a time, waiting
+	 * <code>delay</code> between chunks, to emulate a slow network or a
+	 * service that produces the body progressively.
+	 * 
+	 * @param chunkSize
+	 *            the number of bytes written at a time
+	 * @param delay
+	 *            the delay between chunks
+	 * @param unit
+	 *            the unit of the delay
+	 * @return this response
+	 */
+	public MockResponse withThrottledBody(int chunkSize, long delay,
+			TimeUnit unit) {
+		if (chunkSize < 1)
+			throw new IllegalArgumentException(
+					"chunkSize should be greater than 0");
+		this.chunkSize = chunkSize;
+		this.chunkDelayNanos = unit.toNanos(delay);
+		return this;
+	}
+
+	/**
+	 * Gets the status.
+	 * 
+	 * @return the status
+	 */
+	public int getStatus() {
+		return status;
+	}
+
+	/**
+	 * Gets the headers.
+	 * 
+	 * @return the headers
+	 */
+	public Map<String, String> getHeaders() {
+		return Collections.unmodifiableMap(headers);
+	}
+
+	/**
+	 * Gets the body.
+	 * 
+	 * @return the body
+	 */
+	public byte[] getBody() {
+		return body;
+	}
+
+	/**
+	 * Gets the latency.
+	 * 
+	 * @return the latency, null if the latency of the server is used
+	 */
+	public LatencyDistribution getLatency() {
+		return latency;
+	}
+
+	/**
+	 * Gets the chunk size.
+	 * 
+	 * @return the chunk size, 0 if the body is written at once
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Gets the delay between chunks.
+	 * 
+	 * @return the delay in nanoseconds
+	 */
+	public long getChunkDelayNanos() {
+		return chunkDelayNanos;
+	}
+
+	/**
+	 * Gets the time to wait before closing the connection without a response.
+	 * 
+	 * @return the time in nanoseconds, -1 if the response is sent
+	 */
+	public long getTimeoutNanos() {
+		return timeoutNanos;
+	}
+
+	/**
+	 * Checks if the connection is dropped without a response.
+	 * 
+	 * @return true, if the connection is dropped
+	 */
+	public boolean isDisconnect() {
+		return disconnect;
+	}
+}
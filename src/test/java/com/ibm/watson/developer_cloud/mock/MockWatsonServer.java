@@ -0,0 +1,489 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.mock;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import com.ibm.watson.developer_cloud.service.WatsonService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Embedded HTTP server that emulates the Watson services with canned
+ * responses, to measure the SDK without the real gateways. Every endpoint
+ * called by the SDK has a default response (see {@link CannedResponses}) that
+ * can be replaced, and the server can add latency and inject errors,
+ * timeouts, dropped connections and slow bodies.
+ * <br>
+ * Example: <pre>
+ * {@code
+ *  MockWatsonServer server = new MockWatsonServer();
+ *  server.setLatency(LatencyDistribution.logNormal(20, 200, TimeUnit.MILLISECONDS));
+ *  server.addFault(0.01, MockResponse.error(503, "Service Unavailable"));
+ *  server.start();
+ *
+ *  NaturalLanguageClassifier service = new NaturalLanguageClassifier();
+ *  server.configure(service);
+ *  service.classify("classifier", "Is it sunny?");
+ *
+ *  server.stop();
+ * }</pre>
+ * Paths are matched on their end, so a service can use the server with or
+ * without the path of its real end point. A <code>*</code> matches one path
+ * segment.
+ */
+public class MockWatsonServer {
+
+	/**
+	 * A response registered for a method and a path.
+	 */
+	private static final class Route {
+
+		/** The method. */
+		private final String method;
+
+		/** The path. */
+		private final String path;
+
+		/** The pattern. */
+		private final Pattern pattern;
+
+		/** The response. */
+		private final MockResponse response;
+
+		/** The number of requests. */
+		private final AtomicLong count = new AtomicLong();
+
+		/**
+		 * Instantiates a new route.
+		 * 
+		 * @param method
+		 *            the method
+		 * @param path
+		 *            the path
+		 * @param response
+		 *            the response
+		 */
+		private Route(String method, String path, MockResponse response) {
+			this.method = method;
+			this.path = path;
+			this.response = response;
+			final String[] parts = path.split("\\*", -1);
+			final StringBuilder regex = new StringBuilder("(?:/.*)?");
+			for (int i = 0; i < parts.length; i++) {
+				if (i > 0)
+					regex.append("[^/]+");
+				regex.append(Pattern.quote(parts[i]));
+			}
+			pattern = Pattern.compile(regex.append("/?").toString());
+		}
+
+		/**
+		 * Checks if the route matches a request.
+		 * 
+		 * @param method
+		 *            the method of the request
+		 * @param path
+		 *            the path of the request
+		 * @return true, if it matches
+		 */
+		private boolean matches(String method, String path) {
+			return this.method.equals(method)
+					&& pattern.matcher(path).matches();
+		}
+	}
+
+	/**
+	 * An error returned instead of the route response with some probability.
+	 */
+	private static final class Fault {
+
+		/** The probability. */
+		private final double probability;
+
+		/** The response. */
+		private final MockResponse response;
+
+		/**
+		 * Instantiates a new fault.
+		 * 
+		 * @param probability
+		 *            the probability
+		 * @param response
+		 *            the response
+		 */
+		private Fault(double probability, MockResponse response) {
+			this.probability = probability;
+			this.response = response;
+		}
+	}
+
+	/** The Constant log. */
+	private static final Logger log = Logger.getLogger(MockWatsonServer.class
+			.getName());
+
+	/** The Constant BACKLOG. */
+	private static final int BACKLOG = 1024;
+
+	/** The Constant NOT_FOUND. */
+	private static final MockResponse NOT_FOUND = MockResponse.error(404,
+			"Not Found");
+
+	static {
+		// the JDK server writes the headers and the body separately, without
+		// TCP_NODELAY every response would wait for a delayed ACK (~40ms)
+		if (System.getProperty("sun.net.httpserver.nodelay") == null)
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+	}
+
+	/** The routes. */
+	private final List<Route> routes = new CopyOnWriteArrayList<Route>();
+
+	/** The faults. */
+	private final List<Fault> faults = new CopyOnWriteArrayList<Fault>();
+
+	/** The request count. */
+	private final AtomicLong requestCount = new AtomicLong();
+
+	/** The latch released when the server stops. */
+	private final CountDownLatch stopped = new CountDownLatch(1);
+
+	/** The port. */
+	private final int port;
+
+	/** The latency. */
+	private volatile LatencyDistribution latency = LatencyDistribution.NONE;
+
+	/** The random. */
+	private volatile Random random = new Random();
+
+	/** The server. */
+	private HttpServer server;
+
+	/** The executor. */
+	private ExecutorService executor;
+
+	/**
+	 * Instantiates a new mock server on a free port, with the default
+	 * responses of every endpoint.
+	 */
+	public MockWatsonServer() {
+		this(0);
+	}
+
+	/**
+	 * Instantiates a new mock server with the default responses of every
+	 * endpoint.
+	 * 
+	 * @param port
+	 *            the port, 0 for a free port
+	 */
+	public MockWatsonServer(int port) {
+		this.port = port;
+		CannedResponses.register(this);
+	}
+
+	/**
+	 * Sets the response of an endpoint, replacing the previous one.
+	 * 
+	 * @param method
+	 *            the HTTP method
+	 * @param path
+	 *            the path, for example
+	 *            <code>/v1/classifiers/*&#47;classify</code>
+	 * @param response
+	 *            the response
+	 */
+	public void setResponse(String method, String path, MockResponse response) {
+		if (method == null || path == null || response == null)
+			throw new IllegalArgumentException(
+					"method, path and response can not be null");
+
+		final Route route = new Route(method, path, response);
+		synchronized (routes) {
+			for (int i = 0; i < routes.size(); i++) {
+				final Route existing = routes.get(i);
+				if (existing.method.equals(method) && existing.path.equals(path)) {
+					routes.set(i, route);
+					return;
+				}
+			}
+			routes.add(route);
+		}
+	}
+
+	/**
+	 * Sets the latency added to the responses that do not have their own.
+	 * 
+	 * @param latency
+	 *            the latency distribution
+	 */
+	public void setLatency(LatencyDistribution latency) {
+		if (latency == null)
+			throw new IllegalArgumentException("latency can not be null");
+		this.latency = latency;
+	}
+
+	/**
+	 * Returns <code>response</code> instead of the endpoint response for a
+	 * fraction of the requests. The probabilities of all the faults add up.
+	 * 
+	 * @param probability
+	 *            the probability, between 0 and 1
+	 * @param response
+	 *            the response, for example an error or a timeout
+	 */
+	public void addFault(double probability, MockResponse response) {
+		if (probability < 0 || probability > 1)
+			throw new IllegalArgumentException(
+					"probability should be between 0 and 1");
+		if (response == null)
+			throw new IllegalArgumentException("response can not be null");
+		faults.add(new Fault(probability, response));
+	}
+
+	/**
+	 * Removes the faults.
+	 */
+	public void clearFaults() {
+		faults.clear();
+	}
+
+	/**
+	 * Seeds the latencies and faults to make a run reproducible.
+	 * 
+	 * @param seed
+	 *            the seed
+	 */
+	public void setSeed(long seed) {
+		random = new Random(seed);
+	}
+
+	/**
+	 * Starts the server.
+	 * 
+	 * @throws IOException
+	 *             Signals that the port could not be bound.
+	 */
+	public synchronized void start() throws IOException {
+		if (server != null)
+			throw new IllegalStateException("the server is already started");
+
+		final AtomicInteger threads = new AtomicInteger();
+		executor = Executors.newCachedThreadPool(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				final Thread thread = new Thread(runnable, "mock-watson-"
+						+ threads.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", port),
+				BACKLOG);
+		server.setExecutor(executor);
+		server.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				try {
+					respond(exchange);
+				} finally {
+					exchange.close();
+				}
+			}
+		});
+		server.start();
+	}
+
+	/**
+	 * Stops the server, closing the connections of the requests that are
+	 * waiting for a timeout.
+	 */
+	public synchronized void stop() {
+		stopped.countDown();
+		if (server != null) {
+			server.stop(0);
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Gets the port.
+	 * 
+	 * @return the port the server listens on
+	 */
+	public synchronized int getPort() {
+		if (server == null)
+			throw new IllegalStateException("the server is not started");
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Gets the URL of the server.
+	 * 
+	 * @return the URL, for example <code>http://127.0.0.1:8080</code>
+	 */
+	public String getUrl() {
+		return "http://127.0.0.1:" + getPort();
+	}
+
+	/**
+	 * Points a service to this server, with dummy credentials.
+	 * 
+	 * @param service
+	 *            the service
+	 */
+	public void configure(WatsonService service) {
+		service.setEndPoint(getUrl());
+		service.setUsernameAndPassword("username", "password");
+	}
+
+	/**
+	 * Gets the number of requests received.
+	 * 
+	 * @return the request count
+	 */
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	/**
+	 * Gets the number of requests answered by an endpoint, faults included.
+	 * 
+	 * @param method
+	 *            the HTTP method
+	 * @param path
+	 *            the path the endpoint was registered with
+	 * @return the request count
+	 */
+	public long getRequestCount(String method, String path) {
+		for (Route route : routes) {
+			if (route.method.equals(method) && route.path.equals(path))
+				return route.count.get();
+		}
+		return 0;
+	}
+
+	/**
+	 * Answers a request.
+	 * 
+	 * @param exchange
+	 *            the exchange
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private void respond(HttpExchange exchange) throws IOException {
+		requestCount.incrementAndGet();
+		discard(exchange.getRequestBody());
+
+		final String method = exchange.getRequestMethod();
+		final String path = exchange.getRequestURI().getPath();
+		MockResponse response = NOT_FOUND;
+		for (Route route : routes) {
+			if (route.matches(method, path)) {
+				route.count.incrementAndGet();
+				response = route.response;
+				break;
+			}
+		}
+
+		final Random random = this.random;
+		if (!faults.isEmpty()) {
+			double roll = random.nextDouble();
+			for (Fault fault : faults) {
+				roll -= fault.probability;
+				if (roll < 0) {
+					response = fault.response;
+					break;
+				}
+			}
+		}
+
+		try {
+			final LatencyDistribution distribution = response.getLatency() != null ? response
+					.getLatency() : latency;
+			final long delay = distribution.nextDelay(random);
+			if (delay > 0)
+				TimeUnit.NANOSECONDS.sleep(delay);
+
+			if (response.isDisconnect())
+				return;
+
+			if (response.getTimeoutNanos() >= 0) {
+				stopped.await(response.getTimeoutNanos(), TimeUnit.NANOSECONDS);
+				return;
+			}
+
+			for (Map.Entry<String, String> header : response.getHeaders()
+					.entrySet())
+				exchange.getResponseHeaders().set(header.getKey(),
+						header.getValue());
+
+			final byte[] body = response.getBody();
+			exchange.sendResponseHeaders(response.getStatus(),
+					body.length == 0 ? -1 : body.length);
+			final OutputStream out = exchange.getResponseBody();
+			final int chunkSize = response.getChunkSize();
+			if (chunkSize == 0 || body.length <= chunkSize) {
+				out.write(body);
+				return;
+			}
+			for (int offset = 0; offset < body.length; offset += chunkSize) {
+				if (offset > 0)
+					TimeUnit.NANOSECONDS.sleep(response.getChunkDelayNanos());
+				out.write(body, offset, Math.min(chunkSize, body.length - offset));
+				out.flush();
+			}
+		} catch (InterruptedException e) {
+			log.log(Level.FINEST, "Request interrupted: " + path);
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Reads and discards the request body, so that the connection can be
+	 * reused.
+	 * 
+	 * @param in
+	 *            the request body
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private void discard(InputStream in) throws IOException {
+		final byte[] buffer = new byte[8192];
+		while (in.read(buffer) != -1) {
+			// discard
+		}
+	}
+}
@@ -0,0 +1,275 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.watson.developer_cloud.mock.LatencyDistribution;
+import com.ibm.watson.developer_cloud.mock.MockResponse;
+import com.ibm.watson.developer_cloud.mock.MockWatsonServer;
+import com.ibm.watson.developer_cloud.speech_to_text.v1.SpeechToText;
+import com.ibm.watson.developer_cloud.speech_to_text.v1.model.SpeechModel;
+import com.ibm.watson.developer_cloud.util.ResponseUtil;
+
+/**
+ * Tests the asynchronous calls run by
+ * {@link WatsonService#executeAsync(HttpRequestBase, ResponseConverter, ServiceCallback)}
+ * .
+ */
+public class AsyncCallTest {
+
+	/** The time to wait for a callback. */
+	private static final long TIMEOUT_SECONDS = 5;
+
+	/** The converter of the calls. */
+	private static final ResponseConverter<String> CONVERTER = new ResponseConverter<String>() {
+		@Override
+		public String convert(HttpResponse response) throws IOException {
+			return ResponseUtil.getString(response);
+		}
+	};
+
+	/** The server. */
+	private MockWatsonServer server;
+
+	/** The service. */
+	private WatsonService service;
+
+	/**
+	 * Records the outcome of a call.
+	 */
+	private static final class RecordingCallback implements
+			ServiceCallback<String> {
+
+		/** Counted down when the call completes. */
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		/** The response. */
+		private final AtomicReference<String> response = new AtomicReference<String>();
+
+		/** The failure. */
+		private final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see com.ibm.watson.developer_cloud.service.ServiceCallback#onResponse(java.lang.Object)
+		 */
+		@Override
+		public void onResponse(String response) {
+			this.response.set(response);
+			done.countDown();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see com.ibm.watson.developer_cloud.service.ServiceCallback#onFailure(java.lang.Exception)
+		 */
+		@Override
+		public void onFailure(Exception e) {
+			failure.set(e);
+			done.countDown();
+		}
+
+		/**
+		 * Waits for the call to complete.
+		 * 
+		 * @return true if the call completed
+		 * @throws InterruptedException
+		 *             the interrupted exception
+		 */
+		boolean await() throws InterruptedException {
+			return done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Starts the server.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		server = new MockWatsonServer();
+		server.start();
+		service = new WatsonService() {
+		};
+		server.configure(service);
+	}
+
+	/**
+	 * Stops the server.
+	 */
+	@After
+	public void tearDown() {
+		server.stop();
+	}
+
+	/**
+	 * The callback gets the converted response.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testCallbackOnSuccess() throws Exception {
+		server.setResponse("GET", "/v1/async/ok", MockResponse
+				.json("{\"ok\":true}"));
+		final RecordingCallback callback = new RecordingCallback();
+		final Future<String> future = service.executeAsync(Request.Get(
+				"/v1/async/ok").build(), CONVERTER, callback);
+
+		Assert.assertTrue(callback.await());
+		Assert.assertEquals("{\"ok\":true}", callback.response.get());
+		Assert.assertNull(callback.failure.get());
+		Assert.assertEquals("{\"ok\":true}", future.get());
+	}
+
+	/**
+	 * The callback gets the exception of a failed call.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testCallbackOnFailure() throws Exception {
+		server.setResponse("GET", "/v1/async/bad", MockResponse.error(400,
+				"bad request"));
+		final RecordingCallback callback = new RecordingCallback();
+		service.executeAsync(Request.Get("/v1/async/bad").build(), CONVERTER,
+				callback);
+
+		Assert.assertTrue(callback.await());
+		Assert.assertNull(callback.response.get());
+		Assert.assertTrue(callback.failure.get() instanceof BadRequestException);
+	}
+
+	/**
+	 * Cancelling the future aborts the request in flight and skips the
+	 * callback.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testCancelAbortsRequest() throws Exception {
+		server.setResponse("GET", "/v1/async/slow", MockResponse.json("{}")
+				.withLatency(LatencyDistribution.fixed(30, TimeUnit.SECONDS)));
+		final RecordingCallback callback = new RecordingCallback();
+		final HttpRequestBase request = Request.Get("/v1/async/slow").build();
+		final Future<String> future = service.executeAsync(request, CONVERTER,
+				callback);
+
+		final long deadline = System.currentTimeMillis() + TIMEOUT_SECONDS
+				* 1000;
+		while (server.getRequestCount("GET", "/v1/async/slow") == 0
+				&& System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+		Assert.assertEquals(1, server.getRequestCount("GET", "/v1/async/slow"));
+
+		Assert.assertTrue(future.cancel(true));
+		Assert.assertTrue(request.isAborted());
+		try {
+			future.get();
+			Assert.fail();
+		} catch (CancellationException e) {
+			// expected
+		}
+		Assert.assertFalse(callback.await());
+	}
+
+	/**
+	 * A call is rejected when the queue of the executor is full.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testFullQueueRejected() throws Exception {
+		server.setResponse("GET", "/v1/async/slow", MockResponse.json("{}")
+				.withLatency(LatencyDistribution.fixed(30, TimeUnit.SECONDS)));
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0,
+				TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(1));
+		service.setExecutorService(executor);
+		try {
+			final Future<String> running = service.executeAsync(Request.Get(
+					"/v1/async/slow").build(), CONVERTER, null);
+			final Future<String> queued = service.executeAsync(Request.Get(
+					"/v1/async/slow").build(), CONVERTER, null);
+			try {
+				service.executeAsync(Request.Get("/v1/async/slow").build(),
+						CONVERTER, null);
+				Assert.fail();
+			} catch (RejectedExecutionException e) {
+				// expected
+			}
+			queued.cancel(true);
+			running.cancel(true);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * The asynchronous variant of a service call returns what the blocking
+	 * call returns.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testServiceVariant() throws Exception {
+		final SpeechToText speechToText = new SpeechToText();
+		server.configure(speechToText);
+		final List<SpeechModel> models = speechToText.getModelsAsync(null)
+				.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		final List<SpeechModel> expected = speechToText.getModels();
+		Assert.assertEquals(expected.size(), models.size());
+		for (int i = 0; i < expected.size(); i++)
+			Assert.assertEquals(expected.get(i).getName(), models.get(i)
+					.getName());
+	}
+
+	/**
+	 * The shared executor has a bounded queue and rejects further calls.
+	 */
+	@Test
+	public void testDefaultExecutorBounded() {
+		final ThreadPoolExecutor executor = (ThreadPoolExecutor) service
+				.getExecutorService();
+		Assert.assertEquals(1000, executor.getQueue().size()
+				+ executor.getQueue().remainingCapacity());
+		Assert.assertTrue(executor.getRejectedExecutionHandler() instanceof ThreadPoolExecutor.AbortPolicy);
+	}
+}
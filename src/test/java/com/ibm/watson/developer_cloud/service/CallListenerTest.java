@@ -0,0 +1,394 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.scheme.LayeredSocketFactory;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.params.HttpParams;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.watson.developer_cloud.mock.MockResponse;
+import com.ibm.watson.developer_cloud.mock.MockWatsonServer;
+import com.ibm.watson.developer_cloud.util.ResponseUtil;
+
+/**
+ * Tests the phases reported to a {@link CallListener} for calls to
+ * {@link MockWatsonServer}.
+ */
+public class CallListenerTest {
+
+	/** The converter of the calls. */
+	private static final ResponseConverter<String> CONVERTER = new ResponseConverter<String>() {
+		@Override
+		public String convert(HttpResponse response) throws IOException {
+			return ResponseUtil.getString(response);
+		}
+	};
+
+	/**
+	 * Records the phases and their timestamps.
+	 */
+	private static final class RecordingListener extends CallListener {
+
+		/** The phases. */
+		private final List<String> phases = new ArrayList<String>();
+
+		/** The timestamps. */
+		private final List<Long> timestamps = new ArrayList<Long>();
+
+		/**
+		 * Records a phase.
+		 * 
+		 * @param phase
+		 *            the phase
+		 * @param nanoTime
+		 *            the timestamp
+		 */
+		private synchronized void record(String phase, long nanoTime) {
+			phases.add(phase);
+			timestamps.add(nanoTime);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see com.ibm.watson.developer_cloud.service.CallListener#callStart(org.apache.http.client.methods.HttpRequestBase, long)
+		 */
+		@Override
+		public void callStart(HttpRequestBase request, long nanoTime) {
+			record("callStart", nanoTime);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see com.ibm.watson.developer_cloud.service.CallListener#connectionAcquired(org.apache.http.client.methods.HttpRequestBase, long, long)
+		 */
+		@Override
+		public void connectionAcquired(HttpRequestBase request,
+				long nanoTime, long waitTime) {
+			record("connectionAcquired", nanoTime);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see com.ibm.watson.developer_cloud.service.CallListener#connectStart(org.apache.http.client.methods.HttpRequestBase, long)
+		 */
+		@Override
+		public void connectStart(HttpRequestBase request, long nanoTime) {
+			record("connectStart", nanoTime);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see com.ibm.watson.developer_cloud.service.CallListener#connectEnd(org.apache.http.client.methods.HttpRequestBase, long)
+		 */
+		@Override
+		public void connectEnd(HttpRequestBase request, long nanoTime) {
+			record("connectEnd", nanoTime);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see com.ibm.watson.developer_cloud.service.CallListener#secureConnectStart(org.apache.http.client.methods.HttpRequestBase, long)
+		 */
+		@Override
+		public void secureConnectStart(HttpRequestBase request, long nanoTime) {
+			record("secureConnectStart", nanoTime);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see com.ibm.watson.developer_cloud.service.CallListener#secureConnectEnd(org.apache.http.client.methods.HttpRequestBase, long)
+		 */
+		@Override
+		public void secureConnectEnd(HttpRequestBase request, long nanoTime) {
+			record("secureConnectEnd", nanoTime);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see com.ibm.watson.developer_cloud.service.CallListener#requestSent(org.apache.http.client.methods.HttpRequestBase, long)
+		 */
+		@Override
+		public void requestSent(HttpRequestBase request, long nanoTime) {
+			record("requestSent", nanoTime);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see com.ibm.watson.developer_cloud.service.CallListener#responseHeadersReceived(org.apache.http.client.methods.HttpRequestBase, long)
+		 */
+		@Override
+		public void responseHeadersReceived(HttpRequestBase request,
+				long nanoTime) {
+			record("responseHeadersReceived", nanoTime);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see com.ibm.watson.developer_cloud.service.CallListener#responseBodyConsumed(org.apache.http.client.methods.HttpRequestBase, long, long)
+		 */
+		@Override
+		public void responseBodyConsumed(HttpRequestBase request,
+				long nanoTime, long bytesReceived) {
+			record("responseBodyConsumed", nanoTime);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see com.ibm.watson.developer_cloud.service.CallListener#responseConversionStart(org.apache.http.client.methods.HttpRequestBase, long)
+		 */
+		@Override
+		public void responseConversionStart(HttpRequestBase request,
+				long nanoTime) {
+			record("responseConversionStart", nanoTime);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see com.ibm.watson.developer_cloud.service.CallListener#responseConverted(org.apache.http.client.methods.HttpRequestBase, long)
+		 */
+		@Override
+		public void responseConverted(HttpRequestBase request, long nanoTime) {
+			record("responseConverted", nanoTime);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see com.ibm.watson.developer_cloud.service.CallListener#callFailed(org.apache.http.client.methods.HttpRequestBase, long, java.lang.RuntimeException)
+		 */
+		@Override
+		public void callFailed(HttpRequestBase request, long nanoTime,
+				RuntimeException e) {
+			record("callFailed", nanoTime);
+		}
+
+		/**
+		 * Asserts the phases and that their timestamps never go back.
+		 * 
+		 * @param expected
+		 *            the expected phases
+		 */
+		synchronized void assertPhases(String... expected) {
+			Assert.assertEquals(Arrays.asList(expected), phases);
+			for (int i = 1; i < timestamps.size(); i++)
+				Assert.assertTrue(phases.get(i) + " went back in time",
+						timestamps.get(i) >= timestamps.get(i - 1));
+		}
+	}
+
+	/**
+	 * TLS layer that hands back the plain socket, so the secure connection
+	 * phases can be observed against the plain HTTP mock server.
+	 */
+	private static final class PassThroughLayer implements
+			LayeredSocketFactory {
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see org.apache.http.conn.scheme.LayeredSocketFactory#createSocket(java.net.Socket, java.lang.String, int, boolean)
+		 */
+		@Override
+		public Socket createSocket(Socket socket, String host, int port,
+				boolean autoClose) {
+			return socket;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see org.apache.http.conn.scheme.SocketFactory#createSocket()
+		 */
+		@Override
+		public Socket createSocket() {
+			return new Socket();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see org.apache.http.conn.scheme.SocketFactory#connectSocket(java.net.Socket, java.lang.String, int, java.net.InetAddress, int, org.apache.http.params.HttpParams)
+		 */
+		@Override
+		public Socket connectSocket(Socket sock, String host, int port,
+				InetAddress localAddress, int localPort, HttpParams params) {
+			throw new UnsupportedOperationException();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see org.apache.http.conn.scheme.SocketFactory#isSecure(java.net.Socket)
+		 */
+		@Override
+		public boolean isSecure(Socket sock) {
+			return true;
+		}
+	}
+
+	/** The server. */
+	private MockWatsonServer server;
+
+	/** The service. */
+	private WatsonService service;
+
+	/** The connection manager. */
+	private ConnectionManager manager;
+
+	/**
+	 * Starts the server.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		server = new MockWatsonServer();
+		server.start();
+		server.setResponse("GET", "/v1/phases", MockResponse
+				.json("{\"phase\":\"converted\"}"));
+		service = new WatsonService() {
+		};
+		server.configure(service);
+		manager = new ConnectionManager();
+		service.setConnectionManager(manager);
+	}
+
+	/**
+	 * Stops the server.
+	 */
+	@After
+	public void tearDown() {
+		manager.shutdown();
+		server.stop();
+	}
+
+	/**
+	 * A call on a new connection reports every phase in order, a call on the
+	 * pooled connection skips the connection phases.
+	 */
+	@Test
+	public void testPhasesInOrder() {
+		RecordingListener listener = new RecordingListener();
+		service.setCallListener(listener);
+		Assert.assertEquals("{\"phase\":\"converted\"}", service.execute(
+				Request.Get("/v1/phases").build(), CONVERTER));
+		listener.assertPhases("callStart", "connectionAcquired",
+				"connectStart", "connectEnd", "requestSent",
+				"responseHeadersReceived", "responseConversionStart",
+				"responseBodyConsumed", "responseConverted");
+
+		listener = new RecordingListener();
+		service.setCallListener(listener);
+		service.execute(Request.Get("/v1/phases").build(), CONVERTER);
+		listener.assertPhases("callStart", "connectionAcquired",
+				"requestSent", "responseHeadersReceived",
+				"responseConversionStart", "responseBodyConsumed",
+				"responseConverted");
+	}
+
+	/**
+	 * A new HTTPS connection reports the TLS handshake after the TCP
+	 * connection.
+	 */
+	@Test
+	public void testSecureConnectPhases() {
+		manager.getClientConnectionManager().getSchemeRegistry().register(
+				new Scheme("https", new InstrumentedSSLSocketFactory(
+						PlainSocketFactory.getSocketFactory(),
+						new PassThroughLayer()), 443));
+		service.setEndPoint(server.getUrl().replaceFirst("^http:", "https:"));
+		final RecordingListener listener = new RecordingListener();
+		service.setCallListener(listener);
+		service.execute(Request.Get("/v1/phases").build(), CONVERTER);
+		listener.assertPhases("callStart", "connectionAcquired",
+				"connectStart", "connectEnd", "secureConnectStart",
+				"secureConnectEnd", "requestSent",
+				"responseHeadersReceived", "responseConversionStart",
+				"responseBodyConsumed", "responseConverted");
+	}
+
+	/**
+	 * A failed call reports the failure last.
+	 */
+	@Test
+	public void testCallFailed() {
+		server.setResponse("GET", "/v1/phases/missing", MockResponse.error(
+				404, "not found"));
+		final RecordingListener listener = new RecordingListener();
+		service.setCallListener(listener);
+		try {
+			service.execute(Request.Get("/v1/phases/missing").build(),
+					CONVERTER);
+			Assert.fail();
+		} catch (NotFoundException e) {
+			// expected
+		}
+		Assert.assertEquals("callFailed", listener.phases
+				.get(listener.phases.size() - 1));
+		listener.assertPhases(listener.phases.toArray(new String[0]));
+	}
+
+	/**
+	 * Without a listener no call is bound to the thread, so the connection
+	 * manager, socket factories and request executor skip the dispatch.
+	 */
+	@Test
+	public void testNoListenerSkipsDispatch() {
+		final List<CallEvents> seen = new ArrayList<CallEvents>();
+		service.addInterceptor(new Interceptor() {
+			@Override
+			public HttpResponse intercept(Chain chain) throws IOException {
+				seen.add(CallEvents.current());
+				return chain.proceed(chain.getRequest());
+			}
+		});
+		service.execute(Request.Get("/v1/phases").build(), CONVERTER);
+		Assert.assertEquals(1, seen.size());
+		Assert.assertNull(seen.get(0));
+
+		final RecordingListener listener = new RecordingListener();
+		service.setCallListener(listener);
+		service.execute(Request.Get("/v1/phases").build(), CONVERTER);
+		Assert.assertSame(listener, seen.get(1).listener);
+		Assert.assertNull(CallEvents.current());
+	}
+}
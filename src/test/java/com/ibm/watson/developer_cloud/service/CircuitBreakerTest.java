@@ -0,0 +1,241 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.watson.developer_cloud.mock.MockResponse;
+import com.ibm.watson.developer_cloud.mock.MockWatsonServer;
+
+/**
+ * Tests the state transitions of {@link CircuitBreaker}.
+ */
+public class CircuitBreakerTest {
+
+	/** The end point. */
+	private static final String END_POINT = "https://localhost/api";
+
+	/** The latency of a fast call in nanoseconds. */
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+	/**
+	 * Records the state changes.
+	 */
+	private static final class StateChanges implements CircuitBreakerListener {
+
+		/** The changes, as "FROM>TO". */
+		private final List<String> changes = new ArrayList<String>();
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see
+		 * com.ibm.watson.developer_cloud.service.CircuitBreakerListener#onStateChange
+		 * (java.lang.String, com.ibm.watson.developer_cloud.service.CircuitBreaker.State,
+		 * com.ibm.watson.developer_cloud.service.CircuitBreaker.State)
+		 */
+		@Override
+		public synchronized void onStateChange(String endPoint,
+				CircuitBreaker.State from, CircuitBreaker.State to) {
+			changes.add(from + ">" + to);
+		}
+	}
+
+	/**
+	 * Records calls until the window is full.
+	 * 
+	 * @param breaker
+	 *            the breaker
+	 * @param failures
+	 *            the number of failed calls
+	 * @param successes
+	 *            the number of successful calls
+	 */
+	private static void record(CircuitBreaker breaker, int failures,
+			int successes) {
+		for (int i = 0; i < successes; i++) {
+			Assert.assertTrue(breaker.allowRequest(END_POINT));
+			breaker.record(END_POINT, false, FAST);
+		}
+		for (int i = 0; i < failures; i++) {
+			Assert.assertTrue(breaker.allowRequest(END_POINT));
+			breaker.record(END_POINT, true, FAST);
+		}
+	}
+
+	/**
+	 * The circuit stays closed below the failure rate and opens when a full
+	 * window reaches it.
+	 */
+	@Test
+	public void testOpensAtFailureRate() {
+		final CircuitBreaker breaker = new CircuitBreaker().withWindowSize(10)
+				.withFailureRateThreshold(0.5);
+		record(breaker, 4, 6);
+		Assert.assertEquals(CircuitBreaker.State.CLOSED,
+				breaker.getState(END_POINT));
+
+		record(breaker, 1, 0);
+		Assert.assertEquals(CircuitBreaker.State.OPEN,
+				breaker.getState(END_POINT));
+		Assert.assertFalse(breaker.allowRequest(END_POINT));
+	}
+
+	/**
+	 * Slow calls open the circuit even when they succeed.
+	 */
+	@Test
+	public void testOpensAtSlowCallRate() {
+		final CircuitBreaker breaker = new CircuitBreaker().withWindowSize(4)
+				.withSlowCallThreshold(100, TimeUnit.MILLISECONDS, 0.5);
+		for (int i = 0; i < 4; i++) {
+			Assert.assertTrue(breaker.allowRequest(END_POINT));
+			breaker.record(END_POINT, false, i % 2 == 0 ? FAST
+					: TimeUnit.SECONDS.toNanos(1));
+		}
+		Assert.assertEquals(CircuitBreaker.State.OPEN,
+				breaker.getState(END_POINT));
+	}
+
+	/**
+	 * After the open duration trial calls are sent, the circuit closes when
+	 * all of them succeed.
+	 * 
+	 * @throws InterruptedException
+	 *             the interrupted exception
+	 */
+	@Test
+	public void testHalfOpenCloses() throws InterruptedException {
+		final StateChanges listener = new StateChanges();
+		final CircuitBreaker breaker = new CircuitBreaker().withWindowSize(2)
+				.withOpenDuration(50, TimeUnit.MILLISECONDS)
+				.withHalfOpenCalls(2).addListener(listener);
+		record(breaker, 2, 0);
+		Assert.assertFalse(breaker.allowRequest(END_POINT));
+
+		Thread.sleep(60);
+		Assert.assertTrue(breaker.allowRequest(END_POINT));
+		Assert.assertTrue(breaker.allowRequest(END_POINT));
+		Assert.assertFalse(breaker.allowRequest(END_POINT));
+		breaker.record(END_POINT, false, FAST);
+		breaker.record(END_POINT, false, FAST);
+		Assert.assertEquals(CircuitBreaker.State.CLOSED,
+				breaker.getState(END_POINT));
+		Assert.assertEquals("[CLOSED>OPEN, OPEN>HALF_OPEN, HALF_OPEN>CLOSED]",
+				listener.changes.toString());
+	}
+
+	/**
+	 * A failed trial call opens the circuit again.
+	 * 
+	 * @throws InterruptedException
+	 *             the interrupted exception
+	 */
+	@Test
+	public void testHalfOpenReopens() throws InterruptedException {
+		final CircuitBreaker breaker = new CircuitBreaker().withWindowSize(2)
+				.withOpenDuration(50, TimeUnit.MILLISECONDS);
+		record(breaker, 2, 0);
+		Thread.sleep(60);
+		Assert.assertTrue(breaker.allowRequest(END_POINT));
+		breaker.record(END_POINT, true, FAST);
+		Assert.assertEquals(CircuitBreaker.State.OPEN,
+				breaker.getState(END_POINT));
+		Assert.assertFalse(breaker.allowRequest(END_POINT));
+	}
+
+	/**
+	 * Every end point has its own circuit.
+	 */
+	@Test
+	public void testCircuitPerEndPoint() {
+		final CircuitBreaker breaker = new CircuitBreaker().withWindowSize(2);
+		record(breaker, 2, 0);
+		Assert.assertFalse(breaker.allowRequest(END_POINT));
+		Assert.assertTrue(breaker.allowRequest("https://other/api"));
+	}
+
+	/**
+	 * Changing the window size after a circuit exists keeps the window of
+	 * that circuit and applies to the circuits created afterwards.
+	 */
+	@Test
+	public void testWindowSizeChangedInUse() {
+		final CircuitBreaker breaker = new CircuitBreaker().withWindowSize(4);
+		record(breaker, 0, 1);
+		breaker.withWindowSize(50);
+		record(breaker, 1, 4);
+		Assert.assertEquals(CircuitBreaker.State.CLOSED,
+				breaker.getState(END_POINT));
+		record(breaker, 1, 0);
+		Assert.assertEquals(CircuitBreaker.State.OPEN,
+				breaker.getState(END_POINT));
+
+		final String other = "https://other/api";
+		for (int i = 0; i < 49; i++) {
+			Assert.assertTrue(breaker.allowRequest(other));
+			breaker.record(other, true, FAST);
+		}
+		Assert.assertEquals(CircuitBreaker.State.CLOSED,
+				breaker.getState(other));
+		breaker.record(other, true, FAST);
+		Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState(other));
+	}
+
+	/**
+	 * A service whose end point returns 5xx errors fails fast once the circuit
+	 * is open.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testServiceFailsFast() throws Exception {
+		final MockWatsonServer server = new MockWatsonServer();
+		server.start();
+		try {
+			final WatsonService service = new WatsonService() {
+			};
+			server.configure(service);
+			server.setResponse("GET", "/v1/test",
+					MockResponse.error(500, "internal error"));
+			service.setCircuitBreaker(new CircuitBreaker().withWindowSize(3));
+
+			for (int i = 0; i < 3; i++) {
+				try {
+					service.execute(Request.Get("/v1/test").build());
+					Assert.fail();
+				} catch (InternalServerErrorException e) {
+					// expected
+				}
+			}
+			try {
+				service.execute(Request.Get("/v1/test").build());
+				Assert.fail();
+			} catch (CircuitBreakerOpenException e) {
+				// expected
+			}
+			Assert.assertEquals(3, server.getRequestCount("GET", "/v1/test"));
+		} finally {
+			server.stop();
+		}
+	}
+}
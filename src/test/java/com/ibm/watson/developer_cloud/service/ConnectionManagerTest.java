@@ -0,0 +1,326 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.net.ServerSocket;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.message.BasicHttpResponse;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.watson.developer_cloud.mock.MockResponse;
+import com.ibm.watson.developer_cloud.mock.MockWatsonServer;
+import com.ibm.watson.developer_cloud.speech_to_text.v1.SpeechToText;
+import com.ibm.watson.developer_cloud.util.ResponseUtil;
+
+/**
+ * Tests the connection pool shared by the services.
+ */
+public class ConnectionManagerTest {
+
+	/** The server. */
+	private MockWatsonServer server;
+
+	/** The connection manager. */
+	private ConnectionManager manager;
+
+	/** The executor. */
+	private ExecutorService executor;
+
+	/**
+	 * Starts the server.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		server = new MockWatsonServer();
+		server.start();
+		manager = new ConnectionManager(1, 1);
+		executor = Executors.newSingleThreadExecutor();
+	}
+
+	/**
+	 * Stops the server and closes the connections.
+	 */
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+		manager.shutdown();
+		server.stop();
+	}
+
+	/**
+	 * The services share one instance until it is replaced.
+	 */
+	@Test
+	public void testSharedInstance() {
+		final ConnectionManager shared = ConnectionManager.getInstance();
+		Assert.assertSame(shared, ConnectionManager.getInstance());
+		Assert.assertSame(shared, new WatsonService() {
+		}.getConnectionManager());
+		try {
+			ConnectionManager.setInstance(null);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * The limits should be positive.
+	 */
+	@Test
+	public void testInvalidLimits() {
+		try {
+			new ConnectionManager(0, 1);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			new ConnectionManager(1, 0);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			manager.setMaxForRoute(server.getUrl(), 0);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Consecutive calls reuse the pooled connection.
+	 */
+	@Test
+	public void testConnectionReused() {
+		final WatsonService service = new WatsonService() {
+		};
+		server.configure(service);
+		service.setConnectionManager(manager);
+		for (int i = 0; i < 5; i++)
+			ResponseUtil.consume(service.execute(Request.Get("/v1/voices")
+					.build()));
+		Assert.assertEquals(1, manager.getConnectionsInPool());
+	}
+
+	/**
+	 * A failed void call releases its connection, with a pool of one
+	 * connection the next call would otherwise wait forever.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testUnexpectedStatusReleasesConnection() throws Exception {
+		server.setResponse("DELETE", "/v1/sessions/*", MockResponse
+				.json("{}"));
+		final SpeechToText service = new SpeechToText();
+		server.configure(service);
+		service.setConnectionManager(manager);
+		try {
+			service.deleteSession("session");
+			Assert.fail();
+		} catch (RuntimeException e) {
+			// expected, the server did not answer 204
+		}
+
+		final int models = executor.submit(new Callable<Integer>() {
+			@Override
+			public Integer call() {
+				return service.getModels().size();
+			}
+		}).get(5, TimeUnit.SECONDS);
+		Assert.assertTrue(models > 0);
+	}
+
+	private static final class ConnectListener extends CallListener {
+
+		private final AtomicInteger connects = new AtomicInteger();
+
+		@Override
+		public void connectStart(HttpRequestBase request, long nanoTime) {
+			connects.incrementAndGet();
+		}
+	}
+
+	private void awaitConnectionsInPool(ConnectionManager warm, int expected)
+			throws InterruptedException {
+		final long deadline = System.currentTimeMillis() + 5000;
+		while (warm.getConnectionsInPool() != expected
+				&& System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+		Assert.assertEquals(expected, warm.getConnectionsInPool());
+	}
+
+	@Test
+	public void testWarmUp() {
+		final ConnectionManager warm = new ConnectionManager(10, 4);
+		try {
+			final WatsonService service = new WatsonService() {
+			};
+			server.configure(service);
+			service.setConnectionManager(warm);
+			ResponseUtil.consume(service.execute(Request.Get("/v1/voices")
+					.build()));
+
+			// the idle connection counts, only the missing ones are opened
+			Assert.assertEquals(2, warm.warmUp(server.getUrl(), 3));
+			Assert.assertEquals(3, warm.getConnectionsInPool());
+			Assert.assertEquals(0, warm.warmUp(server.getUrl(), 3));
+			Assert.assertEquals(1, warm.warmUp(server.getUrl(), 10));
+			Assert.assertEquals(4, warm.getConnectionsInPool());
+
+			// the requests use the warm connections
+			final ConnectListener listener = new ConnectListener();
+			service.setCallListener(listener);
+			for (int i = 0; i < 4; i++)
+				ResponseUtil.consume(service.execute(Request.Get(
+						"/v1/voices").build()));
+			Assert.assertEquals(0, listener.connects.get());
+			Assert.assertEquals(4, warm.getConnectionsInPool());
+		} finally {
+			warm.shutdown();
+		}
+	}
+
+	@Test
+	public void testWarmUpFullPool() throws Exception {
+		// the only connection of the pool is leased by a request in flight
+		final ManagedClientConnection leased = manager
+				.getClientConnectionManager().requestConnection(
+						new HttpRoute(new HttpHost("127.0.0.1", server
+								.getPort(), "http")), null)
+				.getConnection(1, TimeUnit.SECONDS);
+		try {
+			final long start = System.currentTimeMillis();
+			Assert.assertEquals(0, manager.warmUp("http://localhost:"
+					+ server.getPort(), 1));
+			Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+			Assert.assertEquals(1, manager.getConnectionsInPool());
+		} finally {
+			manager.getClientConnectionManager().releaseConnection(leased, 0,
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@Test
+	public void testWarmUpUnreachable() throws Exception {
+		final ServerSocket socket = new ServerSocket(0);
+		final int port = socket.getLocalPort();
+		socket.close();
+
+		final ConnectionManager warm = new ConnectionManager(10, 4);
+		try {
+			Assert.assertEquals(0, warm.warmUp("http://127.0.0.1:" + port, 2));
+			Assert.assertEquals(0, warm.getConnectionsInPool());
+		} finally {
+			warm.shutdown();
+		}
+	}
+
+	@Test
+	public void testKeepWarm() throws Exception {
+		final ConnectionManager warm = new ConnectionManager(10, 4);
+		try {
+			warm.setKeepAlive(100, TimeUnit.MILLISECONDS);
+			Assert.assertEquals(2, warm.keepWarm(server.getUrl(), 2));
+			Assert.assertEquals(2, warm.getConnectionsInPool());
+
+			// the evictor opens again the connections closed meanwhile
+			warm.closeIdleConnections(0, TimeUnit.MILLISECONDS);
+			awaitConnectionsInPool(warm, 2);
+
+			Assert.assertEquals(0, warm.keepWarm(server.getUrl(), 0));
+			warm.closeIdleConnections(0, TimeUnit.MILLISECONDS);
+			Thread.sleep(300);
+			Assert.assertEquals(0, warm.getConnectionsInPool());
+		} finally {
+			warm.shutdown();
+		}
+		try {
+			warm.keepWarm(null, 1);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testKeepAliveStrategy() {
+		final ConnectionKeepAliveStrategy strategy = manager
+				.getKeepAliveStrategy();
+		final HttpResponse response = new BasicHttpResponse(
+				HttpVersion.HTTP_1_1, 200, "OK");
+		Assert.assertEquals(TimeUnit.SECONDS
+				.toMillis(ConnectionManager.DEFAULT_KEEP_ALIVE_SECONDS),
+				strategy.getKeepAliveDuration(response, null));
+
+		response.setHeader("Keep-Alive", "timeout=5, max=100");
+		Assert.assertEquals(5000, strategy.getKeepAliveDuration(response,
+				null));
+		response.setHeader("Keep-Alive", "timeout=3600");
+		Assert.assertEquals(TimeUnit.SECONDS
+				.toMillis(ConnectionManager.DEFAULT_KEEP_ALIVE_SECONDS),
+				strategy.getKeepAliveDuration(response, null));
+		response.setHeader("Keep-Alive", "timeout=soon");
+		Assert.assertEquals(TimeUnit.SECONDS
+				.toMillis(ConnectionManager.DEFAULT_KEEP_ALIVE_SECONDS),
+				strategy.getKeepAliveDuration(response, null));
+
+		manager.setKeepAlive(2, TimeUnit.SECONDS);
+		response.setHeader("Keep-Alive", "timeout=5");
+		Assert.assertEquals(2000, strategy.getKeepAliveDuration(response,
+				null));
+	}
+
+	@Test
+	public void testKeepAliveHeaderExpiresConnection() throws Exception {
+		server.setResponse("GET", "/v1/keep-alive", MockResponse.json("{}")
+				.withHeader("Keep-Alive", "timeout=1"));
+		final WatsonService service = new WatsonService() {
+		};
+		server.configure(service);
+		service.setConnectionManager(manager);
+		ResponseUtil.consume(service.execute(Request.Get("/v1/keep-alive")
+				.build()));
+		manager.closeIdleConnections(1, TimeUnit.HOURS);
+		Assert.assertEquals(1, manager.getConnectionsInPool());
+
+		Thread.sleep(1100);
+		manager.closeIdleConnections(1, TimeUnit.HOURS);
+		Assert.assertEquals(0, manager.getConnectionsInPool());
+	}
+}
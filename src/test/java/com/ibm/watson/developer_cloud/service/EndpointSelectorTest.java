@@ -0,0 +1,265 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.apache.http.Header;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.client.HttpClient;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.protocol.HttpContext;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.watson.developer_cloud.mock.LatencyDistribution;
+import com.ibm.watson.developer_cloud.mock.MockResponse;
+import com.ibm.watson.developer_cloud.mock.MockWatsonServer;
+import com.ibm.watson.developer_cloud.util.ResponseUtil;
+
+/**
+ * Tests the health of the end points of an {@link EndpointSelector} and its
+ * health probes.
+ */
+public class EndpointSelectorTest {
+
+	/** The path of the health probes. */
+	private static final String HEALTH = "/v1/health";
+
+	/** The server. */
+	private MockWatsonServer server;
+
+	/** The selector. */
+	private EndpointSelector selector;
+
+	/**
+	 * Starts the server.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		server = new MockWatsonServer();
+		server.start();
+		selector = new EndpointSelector(server.getUrl()).withFailureThreshold(
+				1).withBackoff(1, 1, TimeUnit.HOURS);
+	}
+
+	/**
+	 * Stops the probes and the server.
+	 */
+	@After
+	public void tearDown() {
+		selector.stopHealthProbes();
+		server.stop();
+	}
+
+	/**
+	 * Waits until the health of the end point is the expected one.
+	 * 
+	 * @param healthy
+	 *            the expected health
+	 * @throws InterruptedException
+	 *             the interrupted exception
+	 */
+	private void awaitHealth(boolean healthy) throws InterruptedException {
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (selector.isHealthy(server.getUrl()) != healthy
+				&& System.nanoTime() - deadline < 0)
+			Thread.sleep(10);
+		Assert.assertEquals(healthy, selector.isHealthy(server.getUrl()));
+	}
+
+	/**
+	 * Waits until the server got a number of probes.
+	 * 
+	 * @param count
+	 *            the number of probes
+	 * @throws InterruptedException
+	 *             the interrupted exception
+	 */
+	private void awaitProbes(long count) throws InterruptedException {
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (server.getRequestCount("GET", HEALTH) < count
+				&& System.nanoTime() - deadline < 0)
+			Thread.sleep(10);
+		Assert.assertTrue(server.getRequestCount("GET", HEALTH) >= count);
+	}
+
+	/**
+	 * The warning is logged when an end point becomes unhealthy, not for
+	 * every further failure.
+	 */
+	@Test
+	public void testWarningOnTransition() {
+		final AtomicInteger warnings = new AtomicInteger();
+		final Handler handler = new Handler() {
+			@Override
+			public void publish(LogRecord record) {
+				if (record.getLevel() == Level.WARNING)
+					warnings.incrementAndGet();
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		final Logger log = Logger.getLogger(EndpointSelector.class.getName());
+		log.addHandler(handler);
+		try {
+			final String url = server.getUrl();
+			selector.recordFailure(url);
+			selector.recordFailure(url);
+			selector.recordFailure(url);
+			Assert.assertFalse(selector.isHealthy(url));
+			Assert.assertEquals(1, warnings.get());
+
+			selector.recordSuccess(url, 10, TimeUnit.MILLISECONDS);
+			Assert.assertTrue(selector.isHealthy(url));
+			selector.recordFailure(url);
+			Assert.assertEquals(2, warnings.get());
+		} finally {
+			log.removeHandler(handler);
+		}
+	}
+
+	/**
+	 * A probe response outside the healthy statuses keeps the end point
+	 * unhealthy, a healthy one brings it back.
+	 * 
+	 * @throws InterruptedException
+	 *             the interrupted exception
+	 */
+	@Test
+	public void testProbeStatus() throws InterruptedException {
+		server.setResponse("GET", HEALTH, MockResponse.error(401,
+				"Not Authorized"));
+		selector.withHealthProbe(HEALTH, 200, 299);
+		selector.recordFailure(server.getUrl());
+		selector.startHealthProbes(new DefaultHttpClient(), 10,
+				TimeUnit.MILLISECONDS);
+		awaitProbes(2);
+		Assert.assertFalse(selector.isHealthy(server.getUrl()));
+
+		server.setResponse("GET", HEALTH, MockResponse.json("{}"));
+		awaitHealth(true);
+	}
+
+	/**
+	 * By default any status below 500 is healthy.
+	 * 
+	 * @throws InterruptedException
+	 *             the interrupted exception
+	 */
+	@Test
+	public void testDefaultProbeStatus() throws InterruptedException {
+		server.setResponse("GET", HEALTH, MockResponse.error(500, "Error"));
+		selector.withHealthProbe(HEALTH, 0, 499);
+		selector.startHealthProbes(new DefaultHttpClient(), 10,
+				TimeUnit.MILLISECONDS);
+		awaitHealth(false);
+
+		server.setResponse("GET", HEALTH, MockResponse.error(404,
+				"Not Found"));
+		awaitHealth(true);
+	}
+
+	/**
+	 * The probes started with a service send its credentials.
+	 * 
+	 * @throws InterruptedException
+	 *             the interrupted exception
+	 */
+	@Test
+	public void testProbeCredentials() throws InterruptedException {
+		final AtomicReference<String> authorization = new AtomicReference<String>();
+		final DefaultHttpClient client = new DefaultHttpClient();
+		client.addRequestInterceptor(new HttpRequestInterceptor() {
+			@Override
+			public void process(HttpRequest request, HttpContext context) {
+				final Header header = request.getFirstHeader("Authorization");
+				if (header != null)
+					authorization.set(header.getValue());
+			}
+		});
+		final WatsonService service = new WatsonService() {
+			@Override
+			public HttpClient getHttpClient() {
+				return client;
+			}
+		};
+		service.setUsernameAndPassword("user", "pass");
+
+		server.setResponse("GET", HEALTH, MockResponse.json("{}"));
+		selector.withHealthProbe(HEALTH, 200, 299);
+		selector.startHealthProbes(service, 10, TimeUnit.MILLISECONDS);
+		awaitProbes(1);
+		Assert.assertEquals("Basic dXNlcjpwYXNz", authorization.get());
+	}
+
+	/**
+	 * Invalid probe settings are rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidProbeStatus() {
+		selector.withHealthProbe(HEALTH, 300, 200);
+	}
+
+	/**
+	 * The latency of a call is measured on the network, without the wait for
+	 * a rate limiter permit.
+	 */
+	@Test
+	public void testLatencyWithoutRateLimiterWait() {
+		server.setResponse("GET", "/v1/latency", MockResponse.json("{}")
+				.withLatency(LatencyDistribution.fixed(50,
+						TimeUnit.MILLISECONDS)));
+		final WatsonService service = new WatsonService() {
+		};
+		server.configure(service);
+		service.setEndPointSelector(selector.withSmoothing(1));
+		service.setRateLimiter(new RateLimiter(2, 1));
+
+		ResponseUtil.consume(service.execute(Request.Get("/v1/latency")
+				.build()));
+		final long start = System.nanoTime();
+		ResponseUtil.consume(service.execute(Request.Get("/v1/latency")
+				.build()));
+		final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime()
+				- start);
+
+		// the second call waited about 500 ms for its permit
+		final long latency = selector.getLatency(server.getUrl(),
+				TimeUnit.MILLISECONDS);
+		Assert.assertTrue("elapsed " + elapsed, elapsed >= 400);
+		Assert.assertTrue("latency " + latency, latency >= 50);
+		Assert.assertTrue("latency " + latency, latency < elapsed - 300);
+	}
+}
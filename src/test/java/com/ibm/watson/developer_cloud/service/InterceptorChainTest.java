@@ -0,0 +1,328 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.watson.developer_cloud.mock.MockResponse;
+import com.ibm.watson.developer_cloud.mock.MockWatsonServer;
+import com.ibm.watson.developer_cloud.util.ResponseUtil;
+
+/**
+ * Tests how {@link InterceptorChain#proceed} walks the interceptors of a
+ * service.
+ */
+public class InterceptorChainTest {
+
+	/** The path of the calls. */
+	private static final String PATH = "/v1/chain";
+
+	/** The converter of the calls. */
+	private static final ResponseConverter<String> CONVERTER = new ResponseConverter<String>() {
+		@Override
+		public String convert(HttpResponse response) throws IOException {
+			return ResponseUtil.getString(response);
+		}
+	};
+
+	/**
+	 * Logs when the call enters and leaves it.
+	 */
+	private static final class LoggingInterceptor implements Interceptor {
+
+		/** The name. */
+		private final String name;
+
+		/** The log. */
+		private final List<String> log;
+
+		/**
+		 * Instantiates a new logging interceptor.
+		 * 
+		 * @param name
+		 *            the name
+		 * @param log
+		 *            the log
+		 */
+		private LoggingInterceptor(String name, List<String> log) {
+			this.name = name;
+			this.log = log;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see
+		 * com.ibm.watson.developer_cloud.service.Interceptor#intercept(com.ibm
+		 * .watson.developer_cloud.service.Interceptor.Chain)
+		 */
+		@Override
+		public HttpResponse intercept(Chain chain) throws IOException {
+			log.add(name + ">");
+			final HttpResponse response = chain.proceed(chain.getRequest());
+			log.add("<" + name);
+			return response;
+		}
+	}
+
+	/** The server. */
+	private MockWatsonServer server;
+
+	/** The service. */
+	private WatsonService service;
+
+	/** The log of the interceptors. */
+	private List<String> log;
+
+	/**
+	 * Starts the server.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		server = new MockWatsonServer();
+		server.start();
+		server.setResponse("GET", PATH, MockResponse.json("{}"));
+		service = new WatsonService() {
+		};
+		server.configure(service);
+		log = Collections.synchronizedList(new ArrayList<String>());
+	}
+
+	/**
+	 * Stops the server.
+	 */
+	@After
+	public void tearDown() {
+		server.stop();
+	}
+
+	/**
+	 * Executes a GET request.
+	 * 
+	 * @return the response body
+	 */
+	private String get() {
+		return service.execute(Request.Get(PATH).build(), CONVERTER);
+	}
+
+	/**
+	 * Test that the interceptors run in the order they were added.
+	 */
+	@Test
+	public void testOrder() {
+		service.addInterceptor(new LoggingInterceptor("a", log));
+		service.addInterceptor(new LoggingInterceptor("b", log));
+		service.addInterceptor(new LoggingInterceptor("c", log));
+		Assert.assertEquals("{}", get());
+		Assert.assertEquals(Arrays.asList("a>", "b>", "c>", "<c", "<b", "<a"),
+				log);
+		Assert.assertEquals(1, server.getRequestCount("GET", PATH));
+	}
+
+	/**
+	 * Test an interceptor that proceeds twice, as a retry would.
+	 */
+	@Test
+	public void testProceedTwice() {
+		service.addInterceptor(new Interceptor() {
+			@Override
+			public HttpResponse intercept(Chain chain) throws IOException {
+				final HttpResponse first = chain.proceed(chain.getRequest());
+				first.getEntity().consumeContent();
+				return chain.proceed(chain.getRequest());
+			}
+		});
+		service.addInterceptor(new LoggingInterceptor("b", log));
+		Assert.assertEquals("{}", get());
+		Assert.assertEquals(Arrays.asList("b>", "<b", "b>", "<b"), log);
+		Assert.assertEquals(2, server.getRequestCount("GET", PATH));
+	}
+
+	/**
+	 * Test an interceptor that answers without proceeding.
+	 */
+	@Test
+	public void testShortCircuit() {
+		service.addInterceptor(new LoggingInterceptor("a", log));
+		service.addInterceptor(new Interceptor() {
+			@Override
+			public HttpResponse intercept(Chain chain) throws IOException {
+				final HttpResponse response = new BasicHttpResponse(
+						HttpVersion.HTTP_1_1, 200, "OK");
+				response.setEntity(new StringEntity("{\"cached\":true}"));
+				return response;
+			}
+		});
+		service.addInterceptor(new LoggingInterceptor("c", log));
+		Assert.assertEquals("{\"cached\":true}", get());
+		Assert.assertEquals(Arrays.asList("a>", "<a"), log);
+		Assert.assertEquals(0, server.getRequestCount("GET", PATH));
+	}
+
+	/**
+	 * Test that a null response from an interceptor is rejected.
+	 */
+	@Test
+	public void testNullResponse() {
+		final Interceptor broken = new Interceptor() {
+			@Override
+			public HttpResponse intercept(Chain chain) throws IOException {
+				chain.proceed(chain.getRequest()).getEntity().consumeContent();
+				return null;
+			}
+		};
+		service.addInterceptor(new LoggingInterceptor("a", log));
+		service.addInterceptor(broken);
+		try {
+			get();
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().endsWith(
+					" returned a null response"));
+		}
+		Assert.assertEquals(Arrays.asList("a>"), log);
+
+		// the next call walks the chain from the start
+		service.removeInterceptor(broken);
+		log.clear();
+		Assert.assertEquals("{}", get());
+		Assert.assertEquals(Arrays.asList("a>", "<a"), log);
+	}
+
+	/**
+	 * Test that an interceptor sees its own request again once the request it
+	 * passed on returns.
+	 */
+	@Test
+	public void testGetRequestAfterNestedProceed() {
+		final List<HttpRequestBase> seen = new ArrayList<HttpRequestBase>();
+		service.addInterceptor(new Interceptor() {
+			@Override
+			public HttpResponse intercept(Chain chain) throws IOException {
+				final HttpRequestBase original = chain.getRequest();
+				final HttpGet replacement = new HttpGet(original.getURI());
+				seen.add(original);
+				seen.add(replacement);
+				final HttpResponse response = chain.proceed(replacement);
+				seen.add(chain.getRequest());
+				return response;
+			}
+		});
+		service.addInterceptor(new Interceptor() {
+			@Override
+			public HttpResponse intercept(Chain chain) throws IOException {
+				seen.add(chain.getRequest());
+				return chain.proceed(chain.getRequest());
+			}
+		});
+		get();
+		Assert.assertEquals(4, seen.size());
+		Assert.assertSame(seen.get(1), seen.get(2));
+		Assert.assertSame(seen.get(0), seen.get(3));
+	}
+
+	/**
+	 * Test that proceed rejects a null request.
+	 */
+	@Test
+	public void testProceedNullRequest() {
+		service.addInterceptor(new Interceptor() {
+			@Override
+			public HttpResponse intercept(Chain chain) throws IOException {
+				return chain.proceed(null);
+			}
+		});
+		try {
+			get();
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertEquals("request is null", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test that removing an interceptor does not change a call in flight.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testRemoveInterceptorInFlight() throws Exception {
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch removed = new CountDownLatch(1);
+		service.addInterceptor(new Interceptor() {
+			@Override
+			public HttpResponse intercept(Chain chain) throws IOException {
+				entered.countDown();
+				try {
+					removed.await();
+				} catch (InterruptedException e) {
+					throw new IOException(e.toString());
+				}
+				return chain.proceed(chain.getRequest());
+			}
+		});
+		final Interceptor removable = new LoggingInterceptor("b", log);
+		service.addInterceptor(removable);
+
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			final Future<String> call = executor.submit(new Callable<String>() {
+				@Override
+				public String call() {
+					return get();
+				}
+			});
+			Assert.assertTrue(entered.await(5, TimeUnit.SECONDS));
+			Assert.assertTrue(service.removeInterceptor(removable));
+			removed.countDown();
+			Assert.assertEquals("{}", call.get(5, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+		Assert.assertEquals(Arrays.asList("b>", "<b"), log);
+
+		// the next call runs without it
+		log.clear();
+		Assert.assertEquals("{}", get());
+		Assert.assertTrue(log.isEmpty());
+		Assert.assertEquals(1, service.getInterceptors().size());
+	}
+}
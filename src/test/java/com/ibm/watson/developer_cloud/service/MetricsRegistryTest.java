@@ -0,0 +1,215 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.http.HttpResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.watson.developer_cloud.mock.MockResponse;
+import com.ibm.watson.developer_cloud.mock.MockWatsonServer;
+import com.ibm.watson.developer_cloud.util.ResponseUtil;
+
+/**
+ * Tests the counters of {@link MetricsRegistry} for requests executed by a
+ * service.
+ */
+public class MetricsRegistryTest {
+
+	/**
+	 * A named service, anonymous classes have no name.
+	 */
+	private static final class MetricsService extends WatsonService {
+	}
+
+	/** The service name. */
+	private static final String SERVICE = "MetricsService";
+
+	/** The server. */
+	private MockWatsonServer server;
+
+	/** The service. */
+	private WatsonService service;
+
+	/** The registry. */
+	private MetricsRegistry registry;
+
+	/**
+	 * Starts the server.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		server = new MockWatsonServer();
+		server.start();
+		service = new MetricsService();
+		server.configure(service);
+		registry = new MetricsRegistry(false);
+		service.setMetricsCollector(registry);
+	}
+
+	/**
+	 * Stops the server.
+	 */
+	@After
+	public void tearDown() {
+		server.stop();
+	}
+
+	/**
+	 * Requests are grouped by method and URL template.
+	 */
+	@Test
+	public void testGroupedByTemplate() {
+		final UrlTemplate template = UrlTemplate.compile("/v1/classifiers/%s");
+		server.setResponse("GET", "/v1/classifiers/*", MockResponse.json("{}"));
+		ResponseUtil.consume(service.execute(Request.Get(template, "a").build()));
+		ResponseUtil.consume(service.execute(Request.Get(template, "b").build()));
+
+		final EndpointMetrics metrics = registry.getMetrics(SERVICE,
+				"GET /v1/classifiers/%s");
+		Assert.assertNotNull(metrics);
+		Assert.assertEquals(2, metrics.getRequestCount());
+		Assert.assertEquals(2, metrics.getSuccessCount());
+		Assert.assertEquals(1, registry.getMetrics().size());
+	}
+
+	/**
+	 * The endpoint name of a template is built once.
+	 */
+	@Test
+	public void testEndpointNameIsCached() {
+		final String first = WatsonService.getMetricsEndpoint(Request.Post(
+				"/v1/classifiers/%s/classify", "a").build());
+		final String second = WatsonService.getMetricsEndpoint(Request.Post(
+				"/v1/classifiers/%s/classify", "b").build());
+		Assert.assertEquals("POST /v1/classifiers/%s/classify", first);
+		Assert.assertSame(first, second);
+	}
+
+	/**
+	 * A response whose body is never read is not counted as in flight.
+	 */
+	@Test
+	public void testInFlightWithoutReadingTheBody() {
+		final HttpResponse response = service.execute(Request.Get(
+				"/v1/voices").build());
+		final EndpointMetrics metrics = registry.getMetrics(SERVICE,
+				"GET /v1/voices");
+		Assert.assertEquals(0, metrics.getInFlight());
+		Assert.assertEquals(0, metrics.getRequestCount());
+
+		ResponseUtil.consume(response);
+		Assert.assertEquals(0, metrics.getInFlight());
+		Assert.assertEquals(1, metrics.getRequestCount());
+	}
+
+	/**
+	 * Errors are counted by status class and I/O errors have their own
+	 * counter.
+	 */
+	@Test
+	public void testErrors() {
+		server.setResponse("GET", "/v1/missing", MockResponse.error(404,
+				"not found"));
+		server.setResponse("GET", "/v1/broken", MockResponse.disconnect());
+		try {
+			service.execute(Request.Get("/v1/missing").build());
+			Assert.fail();
+		} catch (NotFoundException e) {
+			// expected
+		}
+		try {
+			service.execute(Request.Get("/v1/broken").build());
+			Assert.fail();
+		} catch (RuntimeException e) {
+			// expected
+		}
+
+		Assert.assertEquals(1, registry.getMetrics(SERVICE, "GET /v1/missing")
+				.getClientErrorCount());
+		final EndpointMetrics broken = registry.getMetrics(SERVICE,
+				"GET /v1/broken");
+		Assert.assertEquals(1, broken.getIOErrorCount());
+		Assert.assertEquals(0, broken.getInFlight());
+	}
+
+	/**
+	 * Registries in the same JVM register the same endpoint under their own
+	 * name.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testJmxNamePerRegistry() throws Exception {
+		final MetricsRegistry first = new MetricsRegistry();
+		final MetricsRegistry second = new MetricsRegistry("second", true);
+		Assert.assertFalse(first.getName().equals(second.getName()));
+		final MBeanServer mbeanServer = ManagementFactory
+				.getPlatformMBeanServer();
+		final ObjectName pattern = new ObjectName(MetricsRegistry.JMX_DOMAIN
+				+ ":type=EndpointMetrics,service=" + ObjectName.quote(SERVICE)
+				+ ",endpoint=" + ObjectName.quote("GET /v1/jmx") + ",*");
+		try {
+			first.requestStarted(SERVICE, "GET /v1/jmx");
+			second.requestStarted(SERVICE, "GET /v1/jmx");
+			Assert.assertEquals(2, mbeanServer.queryNames(pattern, null).size());
+			Assert.assertTrue(mbeanServer.isRegistered(new ObjectName(
+					MetricsRegistry.JMX_DOMAIN
+							+ ":type=EndpointMetrics,registry="
+							+ ObjectName.quote("second") + ",service="
+							+ ObjectName.quote(SERVICE) + ",endpoint="
+							+ ObjectName.quote("GET /v1/jmx"))));
+
+			first.unregister();
+			Assert.assertEquals(1, mbeanServer.queryNames(pattern, null).size());
+		} finally {
+			first.unregister();
+			second.unregister();
+		}
+		Assert.assertTrue(mbeanServer.queryNames(pattern, null).isEmpty());
+	}
+
+	/**
+	 * Endpoints past the maximum are counted together.
+	 */
+	@Test
+	public void testMaxEndpoints() {
+		for (int i = 0; i < MetricsRegistry.MAX_ENDPOINTS + 10; i++) {
+			registry.requestStarted(SERVICE, "GET /v1/path" + i);
+			registry.responseReceived(SERVICE, "GET /v1/path" + i);
+			registry.requestCompleted(SERVICE, "GET /v1/path" + i, 200, 0, 0,
+					0, 0);
+		}
+		Assert.assertEquals(MetricsRegistry.MAX_ENDPOINTS + 1, registry
+				.getMetrics().size());
+		Assert.assertEquals(10,
+				registry.getMetrics(SERVICE, MetricsRegistry.OTHER_ENDPOINT)
+						.getRequestCount());
+		Assert.assertNull(registry.getMetrics(SERVICE, "GET /v1/path"
+				+ MetricsRegistry.MAX_ENDPOINTS));
+	}
+}
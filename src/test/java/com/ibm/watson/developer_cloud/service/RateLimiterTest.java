@@ -0,0 +1,142 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.watson.developer_cloud.mock.MockWatsonServer;
+
+/**
+ * Tests the token buckets, the max wait and the metrics of
+ * {@link RateLimiter}.
+ */
+public class RateLimiterTest {
+
+	/** The end point. */
+	private static final String END_POINT = "https://localhost/api";
+
+	/**
+	 * The burst is available right away, the next permit is borrowed and
+	 * waited for.
+	 * 
+	 * @throws InterruptedException
+	 *             the interrupted exception
+	 */
+	@Test
+	public void testBurstThenWait() throws InterruptedException {
+		final RateLimiter limiter = new RateLimiter(10, 2);
+		Assert.assertEquals(0, limiter.acquire(END_POINT, "key"));
+		Assert.assertEquals(0, limiter.acquire(END_POINT, "key"));
+		final long wait = limiter.acquire(END_POINT, "key");
+		Assert.assertTrue(wait > TimeUnit.MILLISECONDS.toNanos(50));
+		Assert.assertTrue(wait <= TimeUnit.MILLISECONDS.toNanos(100));
+		Assert.assertEquals(1, limiter.getThrottledRequests());
+		Assert.assertTrue(limiter.getWaitTime(TimeUnit.MILLISECONDS) >= 50);
+	}
+
+	/**
+	 * Every API key gets its own bucket.
+	 */
+	@Test
+	public void testBucketPerApiKey() {
+		final RateLimiter limiter = new RateLimiter(1, 1);
+		Assert.assertTrue(limiter.tryAcquire(END_POINT, "first"));
+		Assert.assertFalse(limiter.tryAcquire(END_POINT, "first"));
+		Assert.assertTrue(limiter.tryAcquire(END_POINT, "second"));
+	}
+
+	/**
+	 * A request that would wait longer than the max wait fails without taking
+	 * a permit.
+	 * 
+	 * @throws InterruptedException
+	 *             the interrupted exception
+	 */
+	@Test
+	public void testMaxWait() throws InterruptedException {
+		final RateLimiter limiter = new RateLimiter(10, 1).withMaxWait(150,
+				TimeUnit.MILLISECONDS);
+		Assert.assertEquals(0, limiter.acquire(END_POINT, "key"));
+		limiter.withMaxWait(0, TimeUnit.MILLISECONDS);
+		for (int i = 0; i < 10; i++) {
+			Assert.assertEquals(-1, limiter.acquire(END_POINT, "key"));
+		}
+		// the rejected requests did not borrow permits
+		limiter.withMaxWait(150, TimeUnit.MILLISECONDS);
+		Assert.assertTrue(limiter.acquire(END_POINT, "key") > 0);
+	}
+
+	/**
+	 * An interrupted wait gives the permit back.
+	 * 
+	 * @throws InterruptedException
+	 *             the interrupted exception
+	 */
+	@Test
+	public void testInterruptReleasesPermit() throws InterruptedException {
+		final RateLimiter limiter = new RateLimiter(10, 1).withMaxWait(150,
+				TimeUnit.MILLISECONDS);
+		Assert.assertEquals(0, limiter.acquire(END_POINT, "key"));
+		Thread.currentThread().interrupt();
+		try {
+			limiter.acquire(END_POINT, "key");
+			Assert.fail();
+		} catch (InterruptedException e) {
+			// expected
+		}
+		// without the permit given back the wait would be 200ms
+		Assert.assertTrue(limiter.acquire(END_POINT, "key") > 0);
+	}
+
+	/**
+	 * Rejected requests fail with a {@link TooManyRequestsException} and are
+	 * reported to the metrics registry.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testServiceThrottling() throws Exception {
+		final MockWatsonServer server = new MockWatsonServer();
+		server.start();
+		try {
+			final WatsonService service = new WatsonService() {
+			};
+			server.configure(service);
+			final MetricsRegistry registry = new MetricsRegistry(false);
+			service.setMetricsCollector(registry);
+			service.setRateLimiter(new RateLimiter(0.1, 1).withMaxWait(10,
+					TimeUnit.MILLISECONDS));
+
+			service.execute(Request.Get("/v1/voices").build());
+			try {
+				service.execute(Request.Get("/v1/voices").build());
+				Assert.fail();
+			} catch (TooManyRequestsException e) {
+				// expected
+			}
+			Assert.assertEquals(1, server.getRequestCount());
+			final EndpointMetrics metrics = registry.getMetrics().iterator()
+					.next();
+			Assert.assertEquals(1, metrics.getThrottledCount());
+		} finally {
+			server.stop();
+		}
+	}
+}
@@ -0,0 +1,238 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.watson.developer_cloud.mock.MockResponse;
+import com.ibm.watson.developer_cloud.mock.MockWatsonServer;
+import com.ibm.watson.developer_cloud.util.MediaType;
+import com.ibm.watson.developer_cloud.util.ResponseUtil;
+
+/**
+ * Tests the time to live, the revalidation and the invalidation of the
+ * responses of a {@link ResponseCache}.
+ */
+public class ResponseCacheTest {
+
+	/** The server. */
+	private MockWatsonServer server;
+
+	/** The service. */
+	private WatsonService service;
+
+	/** The cache. */
+	private ResponseCache cache;
+
+	/** The If-None-Match header of the last request sent. */
+	private final AtomicReference<String> ifNoneMatch = new AtomicReference<String>();
+
+	/**
+	 * Starts the server.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		server = new MockWatsonServer();
+		server.start();
+		service = new WatsonService() {
+		};
+		server.configure(service);
+		service.addInterceptor(new Interceptor() {
+			@Override
+			public HttpResponse intercept(Chain chain) throws IOException {
+				final Header header = chain.getRequest().getFirstHeader(
+						"If-None-Match");
+				ifNoneMatch.set(header != null ? header.getValue() : null);
+				return chain.proceed(chain.getRequest());
+			}
+		});
+		cache = new ResponseCache(1024 * 1024);
+		service.setResponseCache(cache);
+	}
+
+	/**
+	 * Stops the server.
+	 */
+	@After
+	public void tearDown() {
+		server.stop();
+	}
+
+	/**
+	 * Executes a request and reads the body of the response.
+	 * 
+	 * @param request
+	 *            the request
+	 * @return the body
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private String call(Request request) throws IOException {
+		return ResponseUtil.getString(service.execute(request.build()));
+	}
+
+	/**
+	 * Responses of a path with a time to live are reused until they expire,
+	 * the other paths always go to the server.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testTtl() throws Exception {
+		cache.withTtl("/v1/items", 200, TimeUnit.MILLISECONDS);
+		server.setResponse("GET", "/v1/items", MockResponse.json("{\"n\":1}"));
+		server.setResponse("GET", "/v1/other", MockResponse.json("{}"));
+
+		Assert.assertEquals("{\"n\":1}", call(Request.Get("/v1/items")));
+		Assert.assertEquals("{\"n\":1}", call(Request.Get("/v1/items")));
+		call(Request.Get("/v1/other"));
+		call(Request.Get("/v1/other"));
+		Assert.assertEquals(1, server.getRequestCount("GET", "/v1/items"));
+		Assert.assertEquals(2, server.getRequestCount("GET", "/v1/other"));
+		Assert.assertEquals(1, cache.getHitCount());
+		Assert.assertEquals(1, cache.getMissCount());
+		Assert.assertEquals(1, cache.size());
+
+		Thread.sleep(300);
+		call(Request.Get("/v1/items"));
+		Assert.assertEquals(2, server.getRequestCount("GET", "/v1/items"));
+	}
+
+	/**
+	 * An expired response with an ETag is revalidated, and the headers of the
+	 * <code>304 Not Modified</code> response replace the cached ones.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testETagRevalidation() throws Exception {
+		cache.withTtl("/v1/items", 0, TimeUnit.SECONDS);
+		server.setResponse("GET", "/v1/items", MockResponse.json("{\"n\":1}")
+				.withHeader("ETag", "\"1\"")
+				.withHeader("Cache-Control", "max-age=0"));
+		call(Request.Get("/v1/items"));
+		Assert.assertNull(ifNoneMatch.get());
+		Assert.assertEquals(1, cache.size());
+
+		server.setResponse("GET", "/v1/items", MockResponse.of(304, null,
+				new byte[0]).withHeader("ETag", "\"2\"")
+				.withHeader("Cache-Control", "max-age=60"));
+		final HttpResponse response = service.execute(Request.Get("/v1/items")
+				.build());
+		Assert.assertEquals("\"1\"", ifNoneMatch.get());
+		Assert.assertEquals(200, response.getStatusLine().getStatusCode());
+		Assert.assertEquals("\"2\"", response.getFirstHeader("ETag")
+				.getValue());
+		Assert.assertEquals(1, response.getHeaders("ETag").length);
+		Assert.assertEquals("max-age=60",
+				response.getFirstHeader("Cache-Control").getValue());
+		Assert.assertTrue(response.getFirstHeader("Content-Type").getValue()
+				.startsWith(MediaType.APPLICATION_JSON));
+		Assert.assertEquals("{\"n\":1}", ResponseUtil.getString(response));
+
+		call(Request.Get("/v1/items"));
+		Assert.assertEquals("\"2\"", ifNoneMatch.get());
+		Assert.assertEquals(2, cache.getRevalidationCount());
+		Assert.assertEquals(1, cache.getMissCount());
+	}
+
+	/**
+	 * A <code>DELETE</code> removes the responses of its path and of the
+	 * parent path, a <code>POST</code> does not remove any.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testInvalidation() throws Exception {
+		cache.withTtl("/v1/classifiers", 1, TimeUnit.HOURS).withTtl(
+				"/v1/classifiers/*", 1, TimeUnit.HOURS);
+		server.setResponse("GET", "/v1/classifiers", MockResponse
+				.json("{\"classifiers\":[]}"));
+		server.setResponse("GET", "/v1/classifiers/*", MockResponse
+				.json("{\"status\":\"Available\"}"));
+		server.setResponse("POST", "/v1/classifiers/*/classify", MockResponse
+				.json("{\"top_class\":\"temperature\"}"));
+		server.setResponse("DELETE", "/v1/classifiers/*", MockResponse
+				.json("{}"));
+
+		call(Request.Get("/v1/classifiers"));
+		call(Request.Get("/v1/classifiers/abc"));
+		call(Request.Get("/v1/classifiers/def"));
+		call(Request.Post("/v1/classifiers/abc/classify").withContent(
+				"{\"text\":\"How hot will it be today?\"}",
+				MediaType.APPLICATION_JSON));
+		Assert.assertEquals(3, cache.size());
+		Assert.assertEquals(0, cache.getInvalidationCount());
+
+		call(Request.Delete("/v1/classifiers/abc"));
+		Assert.assertEquals(1, cache.size());
+		Assert.assertEquals(2, cache.getInvalidationCount());
+		call(Request.Get("/v1/classifiers/def"));
+		Assert.assertEquals(2, server.getRequestCount("GET",
+				"/v1/classifiers/*"));
+	}
+
+	/**
+	 * The counters of a registered cache can be read from JMX.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testJmx() throws Exception {
+		cache.withTtl("/v1/voices", 1, TimeUnit.HOURS);
+		call(Request.Get("/v1/voices"));
+		call(Request.Get("/v1/voices"));
+
+		final MetricsRegistry registry = new MetricsRegistry();
+		registry.register("ResponseCacheTest", cache);
+		Assert.assertSame(cache, registry.getResponseCache("ResponseCacheTest"));
+		final MBeanServer mbeanServer = ManagementFactory
+				.getPlatformMBeanServer();
+		final ObjectName name = new ObjectName(MetricsRegistry.JMX_DOMAIN
+				+ ":type=ResponseCache,registry="
+				+ ObjectName.quote(registry.getName()) + ",name="
+				+ ObjectName.quote("ResponseCacheTest"));
+		try {
+			Assert.assertEquals(1L, mbeanServer.getAttribute(name, "HitCount"));
+			Assert.assertEquals(1, mbeanServer.getAttribute(name, "EntryCount"));
+			mbeanServer.invoke(name, "clear", new Object[0], new String[0]);
+			Assert.assertEquals(0, cache.size());
+		} finally {
+			registry.unregister();
+		}
+		Assert.assertFalse(mbeanServer.isRegistered(name));
+	}
+}
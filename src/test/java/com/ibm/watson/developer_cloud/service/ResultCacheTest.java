@@ -0,0 +1,245 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.ibm.watson.developer_cloud.mock.MockResponse;
+import com.ibm.watson.developer_cloud.mock.MockWatsonServer;
+import com.ibm.watson.developer_cloud.util.MediaType;
+import com.ibm.watson.developer_cloud.util.ResponseUtil;
+
+/**
+ * Tests the persistence and the keys of a {@link ResultCache}.
+ */
+public class ResultCacheTest {
+
+	/** The path of the requests. */
+	private static final String CLASSIFY = "/v1/results/classify";
+
+	/** The request body. */
+	private static final String BODY = "{\"text\":\"How hot will it be today?\"}";
+
+	/** The cached result. */
+	private static final String RESULT = "{\"top_class\":\"temperature\"}";
+
+	/** The temporary folder. */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/** The server. */
+	private MockWatsonServer server;
+
+	/** The service. */
+	private WatsonService service;
+
+	/** The cache file. */
+	private File file;
+
+	/** The cache. */
+	private ResultCache cache;
+
+	/**
+	 * Starts the server and opens the cache.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		server = new MockWatsonServer();
+		server.start();
+		server.setResponse("POST", CLASSIFY, MockResponse.json(RESULT));
+		service = new WatsonService() {
+		};
+		server.configure(service);
+		file = new File(folder.getRoot(), "watson.cache");
+		cache = ResultCache.open(file, 1000, 1024 * 1024);
+		service.setResultCache(cache);
+	}
+
+	/**
+	 * Closes the cache and stops the server.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@After
+	public void tearDown() throws Exception {
+		cache.close();
+		server.stop();
+	}
+
+	/**
+	 * Classifies the text.
+	 * 
+	 * @param service
+	 *            the service
+	 * @return the result
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static String classify(WatsonService service) throws IOException {
+		return ResponseUtil.getString(service.execute(Request.Post(CLASSIFY)
+				.withContent(BODY, MediaType.APPLICATION_JSON)
+				.withCacheable(true).withIdempotent(true).build()));
+	}
+
+	/**
+	 * Reopens the cache file.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private void reopen() throws IOException {
+		cache.close();
+		cache = ResultCache.open(file, 1000, 1024 * 1024);
+		service.setResultCache(cache);
+	}
+
+	/**
+	 * Results are reused, also after the file is closed and opened again.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testPersistsAcrossReopen() throws Exception {
+		Assert.assertEquals(RESULT, classify(service));
+		Assert.assertEquals(RESULT, classify(service));
+		Assert.assertEquals(1, server.getRequestCount("POST", CLASSIFY));
+		Assert.assertEquals(1, cache.getHitCount());
+		Assert.assertEquals(1, cache.getMissCount());
+
+		reopen();
+		Assert.assertEquals(1, cache.size());
+		Assert.assertEquals(RESULT, classify(service));
+		Assert.assertEquals(1, server.getRequestCount("POST", CLASSIFY));
+		Assert.assertEquals(1, cache.getHitCount());
+	}
+
+	/**
+	 * Requests that are not marked as cacheable always go to the server.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testNotCacheable() throws Exception {
+		for (int i = 0; i < 2; i++)
+			ResponseUtil.getString(service.execute(Request.Post(CLASSIFY)
+					.withContent(BODY, MediaType.APPLICATION_JSON).build()));
+		Assert.assertEquals(2, server.getRequestCount("POST", CLASSIFY));
+		Assert.assertEquals(0, cache.size());
+	}
+
+	/**
+	 * The results of an end point are not used for another one.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testKeyIncludesEndpoint() throws Exception {
+		final MockWatsonServer other = new MockWatsonServer();
+		other.start();
+		try {
+			other.setResponse("POST", CLASSIFY, MockResponse.json(RESULT));
+			classify(service);
+			other.configure(service);
+			classify(service);
+			Assert.assertEquals(1, other.getRequestCount("POST", CLASSIFY));
+			Assert.assertEquals(2, cache.size());
+
+			server.configure(service);
+			classify(service);
+			Assert.assertEquals(1, server.getRequestCount("POST", CLASSIFY));
+			Assert.assertEquals(1, cache.getHitCount());
+		} finally {
+			other.stop();
+		}
+	}
+
+	/**
+	 * A result that failed over is stored for the end point that answered.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testFailover() throws Exception {
+		final MockWatsonServer backup = new MockWatsonServer();
+		backup.start();
+		try {
+			server.setResponse("POST", CLASSIFY, MockResponse.error(503,
+					"Service Unavailable"));
+			backup.setResponse("POST", CLASSIFY, MockResponse.json(RESULT));
+			service.setEndPointSelector(new EndpointSelector(server.getUrl(),
+					backup.getUrl()).withExploration(0));
+			Assert.assertEquals(RESULT, classify(service));
+			Assert.assertEquals(1, backup.getRequestCount("POST", CLASSIFY));
+
+			service.setEndPointSelector(null);
+			backup.configure(service);
+			Assert.assertEquals(RESULT, classify(service));
+			Assert.assertEquals(1, backup.getRequestCount("POST", CLASSIFY));
+			Assert.assertEquals(1, cache.getHitCount());
+		} finally {
+			backup.stop();
+		}
+	}
+
+	/**
+	 * A result whose bytes do not match its checksum, like one that is not
+	 * completely written, is not used.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testChecksum() throws Exception {
+		classify(service);
+		cache.close();
+
+		final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			final byte[] bytes = new byte[(int) raf.length()];
+			raf.readFully(bytes);
+			final int position = new String(bytes, "ISO-8859-1")
+					.indexOf("temperature");
+			Assert.assertTrue(position > 0);
+			raf.seek(position);
+			raf.write('T');
+		} finally {
+			raf.close();
+		}
+
+		cache = ResultCache.open(file, 1000, 1024 * 1024);
+		service.setResultCache(cache);
+		Assert.assertEquals(RESULT, classify(service));
+		Assert.assertEquals(2, server.getRequestCount("POST", CLASSIFY));
+		Assert.assertEquals(0, cache.getHitCount());
+	}
+}
@@ -0,0 +1,216 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.impl.cookie.DateUtils;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.watson.developer_cloud.mock.MockResponse;
+import com.ibm.watson.developer_cloud.mock.MockWatsonServer;
+
+/**
+ * Tests the backoff, the <code>Retry-After</code> parsing and the retry budget
+ * of {@link RetryPolicy}.
+ */
+public class RetryPolicyTest {
+
+	/** The server. */
+	private MockWatsonServer server;
+
+	/** The service. */
+	private WatsonService service;
+
+	/**
+	 * Starts the server.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		server = new MockWatsonServer();
+		server.start();
+		service = new WatsonService() {
+		};
+		server.configure(service);
+	}
+
+	/**
+	 * Stops the server.
+	 */
+	@After
+	public void tearDown() {
+		server.stop();
+	}
+
+	/**
+	 * Creates a 503 response with a <code>Retry-After</code> header.
+	 * 
+	 * @param retryAfter
+	 *            the header value, null to leave it out
+	 * @return the response
+	 */
+	private static HttpResponse unavailable(String retryAfter) {
+		final HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1,
+				503, "Service Unavailable");
+		if (retryAfter != null)
+			response.addHeader("Retry-After", retryAfter);
+		return response;
+	}
+
+	/**
+	 * The backoff is a random value below the exponential ceiling, capped by
+	 * the max backoff.
+	 */
+	@Test
+	public void testGetDelay() {
+		final RetryPolicy policy = new RetryPolicy().withBackoff(100, 1000,
+				TimeUnit.MILLISECONDS);
+		for (int i = 0; i < 100; i++) {
+			final long first = policy.getDelay(null, 1);
+			Assert.assertTrue(first >= 0 && first < 100);
+			final long third = policy.getDelay(unavailable(null), 3);
+			Assert.assertTrue(third >= 0 && third < 400);
+			final long capped = policy.getDelay(null, 40);
+			Assert.assertTrue(capped >= 0 && capped < 1000);
+		}
+	}
+
+	/**
+	 * A <code>Retry-After</code> within the max backoff is waited for exactly,
+	 * a longer one gives up.
+	 */
+	@Test
+	public void testGetDelayWithRetryAfter() {
+		final RetryPolicy policy = new RetryPolicy().withBackoff(100, 5000,
+				TimeUnit.MILLISECONDS);
+		Assert.assertEquals(2000, policy.getDelay(unavailable("2"), 1));
+		Assert.assertEquals(-1, policy.getDelay(unavailable("60"), 1));
+	}
+
+	/**
+	 * <code>Retry-After</code> in seconds.
+	 */
+	@Test
+	public void testGetRetryAfterSeconds() {
+		Assert.assertEquals(3000, RetryPolicy.getRetryAfter(unavailable("3")));
+		Assert.assertEquals(0, RetryPolicy.getRetryAfter(unavailable(" 0 ")));
+		Assert.assertEquals(0, RetryPolicy.getRetryAfter(unavailable("-5")));
+	}
+
+	/**
+	 * <code>Retry-After</code> as an HTTP date.
+	 */
+	@Test
+	public void testGetRetryAfterDate() {
+		final Date date = new Date(System.currentTimeMillis() + 10000);
+		final long delay = RetryPolicy.getRetryAfter(unavailable(DateUtils
+				.formatDate(date)));
+		Assert.assertTrue(delay > 8000 && delay <= 10000);
+
+		final Date past = new Date(System.currentTimeMillis() - 10000);
+		Assert.assertEquals(0,
+				RetryPolicy.getRetryAfter(unavailable(DateUtils.formatDate(past))));
+	}
+
+	/**
+	 * A missing or invalid <code>Retry-After</code>.
+	 */
+	@Test
+	public void testGetRetryAfterInvalid() {
+		Assert.assertEquals(-1, RetryPolicy.getRetryAfter(unavailable(null)));
+		Assert.assertEquals(-1, RetryPolicy.getRetryAfter(unavailable("soon")));
+	}
+
+	/**
+	 * Retries take tokens until half of the budget is left and successful
+	 * requests give them back.
+	 */
+	@Test
+	public void testRetryBudget() {
+		final RetryPolicy policy = new RetryPolicy().withRetryBudget(4, 0.5);
+		Assert.assertTrue(policy.acquireRetry());
+		Assert.assertFalse(policy.acquireRetry());
+		Assert.assertFalse(policy.acquireRetry());
+
+		policy.onSuccess();
+		Assert.assertTrue(policy.acquireRetry());
+		Assert.assertFalse(policy.acquireRetry());
+	}
+
+	/**
+	 * POST requests are only retried when marked as idempotent, and no
+	 * request is retried past the max attempts.
+	 */
+	@Test
+	public void testIsRetryable() {
+		final RetryPolicy policy = new RetryPolicy().withMaxAttempts(2);
+		Assert.assertTrue(policy.isRetryable(Request.Get("/v1/test").build(), 1));
+		Assert.assertFalse(policy.isRetryable(Request.Get("/v1/test").build(), 2));
+		Assert.assertFalse(policy.isRetryable(Request.Post("/v1/test").build(), 1));
+		Assert.assertTrue(policy.isRetryable(Request.Post("/v1/test")
+				.withIdempotent(true).build(), 1));
+	}
+
+	/**
+	 * A failing GET is sent max attempts times.
+	 */
+	@Test
+	public void testRetriesUntilMaxAttempts() {
+		server.setResponse("GET", "/v1/test",
+				MockResponse.error(503, "unavailable").withHeader("Retry-After", "0"));
+		service.setRetryPolicy(new RetryPolicy().withMaxAttempts(3));
+		try {
+			service.execute(Request.Get("/v1/test").build());
+			Assert.fail();
+		} catch (ServiceUnavailableException e) {
+			Assert.assertEquals(3, server.getRequestCount("GET", "/v1/test"));
+		}
+
+	}
+
+	/**
+	 * Failures that are not retried, like a POST or the last attempt, do not
+	 * take tokens out of the budget.
+	 */
+	@Test
+	public void testFailuresNotRetriedKeepTheBudget() {
+		server.setResponse("POST", "/v1/test",
+				MockResponse.error(503, "unavailable").withHeader("Retry-After", "0"));
+		final RetryPolicy policy = new RetryPolicy().withMaxAttempts(1)
+				.withRetryBudget(4, 0.5);
+		service.setRetryPolicy(policy);
+		for (int i = 0; i < 10; i++) {
+			try {
+				service.execute(Request.Post("/v1/test").build());
+				Assert.fail();
+			} catch (ServiceUnavailableException e) {
+				// expected
+			}
+		}
+		Assert.assertEquals(10, server.getRequestCount("POST", "/v1/test"));
+		Assert.assertTrue(policy.acquireRetry());
+	}
+}
@@ -0,0 +1,384 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.watson.developer_cloud.mock.LatencyDistribution;
+import com.ibm.watson.developer_cloud.mock.MockWatsonServer;
+import com.ibm.watson.developer_cloud.text_to_speech.v1.TextToSpeech;
+import com.ibm.watson.developer_cloud.text_to_speech.v1.model.Voice;
+import com.ibm.watson.developer_cloud.util.MediaType;
+import com.ibm.watson.developer_cloud.util.ResponseUtil;
+
+/**
+ * Tests the coalescing of identical requests in flight by
+ * {@link SingleFlight}.
+ */
+public class SingleFlightTest {
+
+	/** The time the follower threads get to join the call in flight. */
+	private static final long JOIN_MILLIS = 200;
+
+	/** The converter of the calls. */
+	private static final ResponseConverter<String> CONVERTER = new MaterializedResponseConverter<String>() {
+		@Override
+		public String convert(HttpResponse response) throws IOException {
+			return ResponseUtil.getString(response);
+		}
+	};
+
+	/** The executor. */
+	private ExecutorService executor;
+
+	/** The single flight. */
+	private SingleFlight singleFlight;
+
+	/**
+	 * Creates the executor.
+	 */
+	@Before
+	public void setUp() {
+		executor = Executors.newCachedThreadPool();
+		singleFlight = new SingleFlight();
+	}
+
+	/**
+	 * Stops the executor.
+	 */
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * A call that counts its invocations and waits for a latch.
+	 */
+	private static final class BlockingCall implements Callable<String> {
+
+		/** The result. */
+		private final String result;
+
+		/** The latch that releases the call. */
+		private final CountDownLatch release;
+
+		/** The invocations. */
+		private final AtomicInteger invocations;
+
+		/**
+		 * Instantiates a new blocking call.
+		 * 
+		 * @param result
+		 *            the result
+		 * @param release
+		 *            the latch that releases the call
+		 * @param invocations
+		 *            the invocations
+		 */
+		BlockingCall(String result, CountDownLatch release,
+				AtomicInteger invocations) {
+			this.result = result;
+			this.release = release;
+			this.invocations = invocations;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		@Override
+		public String call() throws Exception {
+			invocations.incrementAndGet();
+			release.await();
+			return result;
+		}
+	}
+
+	/**
+	 * Executes a call through the single flight in another thread.
+	 * 
+	 * @param request
+	 *            the request
+	 * @param converter
+	 *            the converter
+	 * @param call
+	 *            the call
+	 * @return the future result
+	 */
+	private Future<String> submit(final HttpGet request,
+			final ResponseConverter<String> converter,
+			final Callable<String> call) {
+		return executor.submit(new Callable<String>() {
+			@Override
+			public String call() {
+				return singleFlight.execute(SingleFlight.key(request),
+						request, converter, call);
+			}
+		});
+	}
+
+	/**
+	 * Threads that make the same call while it is in flight share it.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testCoalesced() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger invocations = new AtomicInteger();
+		final List<Future<String>> results = new ArrayList<Future<String>>();
+		for (int i = 0; i < 4; i++)
+			results.add(submit(new HttpGet("http://localhost/v1/voices"),
+					CONVERTER, new BlockingCall("voices", release, invocations)));
+		Thread.sleep(JOIN_MILLIS);
+		release.countDown();
+
+		for (Future<String> result : results)
+			Assert.assertEquals("voices", result.get(5, TimeUnit.SECONDS));
+		Assert.assertEquals(1, invocations.get());
+	}
+
+	/**
+	 * Calls with another converter or URI are not shared, and nothing is
+	 * kept once the call completes.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testNotCoalesced() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger invocations = new AtomicInteger();
+		final Future<String> first = submit(new HttpGet(
+				"http://localhost/v1/voices"), CONVERTER, new BlockingCall(
+				"a", release, invocations));
+		final Future<String> otherUri = submit(new HttpGet(
+				"http://localhost/v1/models"), CONVERTER, new BlockingCall(
+				"b", release, invocations));
+		final Future<String> otherConverter = submit(new HttpGet(
+				"http://localhost/v1/voices"),
+				new MaterializedResponseConverter<String>() {
+					@Override
+					public String convert(HttpResponse response) {
+						return null;
+					}
+				}, new BlockingCall("c", release, invocations));
+		Thread.sleep(JOIN_MILLIS);
+		release.countDown();
+
+		Assert.assertEquals("a", first.get(5, TimeUnit.SECONDS));
+		Assert.assertEquals("b", otherUri.get(5, TimeUnit.SECONDS));
+		Assert.assertEquals("c", otherConverter.get(5, TimeUnit.SECONDS));
+		Assert.assertEquals("d", submit(new HttpGet(
+				"http://localhost/v1/voices"), CONVERTER,
+				new BlockingCall("d", release, invocations)).get(5,
+				TimeUnit.SECONDS));
+		Assert.assertEquals(4, invocations.get());
+		Assert.assertNull(SingleFlight.key(new HttpPost(
+				"http://localhost/v1/voices")));
+	}
+
+	/**
+	 * The threads waiting for a failed call get its exception.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testFailureShared() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger invocations = new AtomicInteger();
+		final Callable<String> failing = new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				invocations.incrementAndGet();
+				release.await();
+				throw new ServiceUnavailableException("unavailable", null);
+			}
+		};
+		final Future<String> leader = submit(new HttpGet(
+				"http://localhost/v1/voices"), CONVERTER, failing);
+		final Future<String> follower = submit(new HttpGet(
+				"http://localhost/v1/voices"), CONVERTER, failing);
+		Thread.sleep(JOIN_MILLIS);
+		release.countDown();
+
+		final List<Future<String>> results = new ArrayList<Future<String>>();
+		results.add(leader);
+		results.add(follower);
+		for (Future<String> result : results) {
+			try {
+				result.get(5, TimeUnit.SECONDS);
+				Assert.fail();
+			} catch (ExecutionException e) {
+				Assert.assertTrue(e.getCause() instanceof ServiceUnavailableException);
+			}
+		}
+		Assert.assertEquals(1, invocations.get());
+	}
+
+	/**
+	 * Cancelling the first call does not fail the threads waiting for it,
+	 * they make the call again.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testLeaderCancelled() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		final HttpGet leaderRequest = new HttpGet("http://localhost/v1/voices");
+		final Future<String> leader = submit(leaderRequest, CONVERTER,
+				new Callable<String>() {
+					@Override
+					public String call() throws Exception {
+						release.await();
+						leaderRequest.abort();
+						throw new RuntimeException("Request aborted");
+					}
+				});
+		Thread.sleep(JOIN_MILLIS);
+		final AtomicInteger invocations = new AtomicInteger();
+		final CountDownLatch followerRelease = new CountDownLatch(1);
+		final Future<String> follower = submit(new HttpGet(
+				"http://localhost/v1/voices"), CONVERTER, new BlockingCall(
+				"voices", followerRelease, invocations));
+		Thread.sleep(JOIN_MILLIS);
+		Assert.assertEquals(0, invocations.get());
+		release.countDown();
+		followerRelease.countDown();
+
+		try {
+			leader.get(5, TimeUnit.SECONDS);
+			Assert.fail();
+		} catch (ExecutionException e) {
+			// expected
+		}
+		Assert.assertEquals("voices", follower.get(5, TimeUnit.SECONDS));
+		Assert.assertEquals(1, invocations.get());
+	}
+
+	/**
+	 * Coalescing is disabled by default. Once enabled, concurrent identical
+	 * requests of a service make one call.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testServiceCoalescing() throws Exception {
+		final MockWatsonServer server = new MockWatsonServer();
+		server.setLatency(LatencyDistribution.fixed(JOIN_MILLIS * 2,
+				TimeUnit.MILLISECONDS));
+		server.start();
+		try {
+			final WatsonService service = new WatsonService() {
+			};
+			server.configure(service);
+			Assert.assertFalse(service.isRequestCoalescing());
+			service.setRequestCoalescing(true);
+
+			final List<Future<String>> results = new ArrayList<Future<String>>();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(new Callable<String>() {
+					@Override
+					public String call() {
+						return service.execute(Request.Get("/v1/voices")
+								.build(), CONVERTER);
+					}
+				}));
+			}
+			final String first = results.get(0).get(5, TimeUnit.SECONDS);
+			for (Future<String> result : results)
+				Assert.assertSame(first, result.get(5, TimeUnit.SECONDS));
+			Assert.assertEquals(1, server.getRequestCount("GET", "/v1/voices"));
+		} finally {
+			server.stop();
+		}
+	}
+
+	/**
+	 * A response returned as a stream is not shared, every caller gets its
+	 * own call and stream.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Test
+	public void testStreamingNotCoalesced() throws Exception {
+		final MockWatsonServer server = new MockWatsonServer();
+		server.setLatency(LatencyDistribution.fixed(JOIN_MILLIS * 2,
+				TimeUnit.MILLISECONDS));
+		server.start();
+		try {
+			final TextToSpeech service = new TextToSpeech();
+			server.configure(service);
+			service.setRequestCoalescing(true);
+
+			final List<Future<InputStream>> results = new ArrayList<Future<InputStream>>();
+			for (int i = 0; i < 4; i++) {
+				results.add(executor.submit(new Callable<InputStream>() {
+					@Override
+					public InputStream call() {
+						return service.synthesize("hello", Voice.EN_LISA,
+								MediaType.AUDIO_WAV);
+					}
+				}));
+			}
+			final Set<InputStream> streams = new HashSet<InputStream>();
+			for (Future<InputStream> result : results) {
+				final InputStream stream = result.get(5, TimeUnit.SECONDS);
+				Assert.assertTrue(streams.add(stream));
+				try {
+					long length = 0;
+					final byte[] buffer = new byte[4096];
+					for (int n; (n = stream.read(buffer)) != -1;)
+						length += n;
+					Assert.assertTrue(length > 0);
+				} finally {
+					stream.close();
+				}
+			}
+			Assert.assertEquals(4, server.getRequestCount("GET",
+					"/v1/synthesize"));
+		} finally {
+			server.stop();
+		}
+	}
+}
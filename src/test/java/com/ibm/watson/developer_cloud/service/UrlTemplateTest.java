@@ -0,0 +1,141 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service;
+
+import org.apache.http.client.methods.HttpRequestBase;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the expansion and the encoding of {@link UrlTemplate}.
+ */
+public class UrlTemplateTest {
+
+	/** The classify template. */
+	private static final UrlTemplate CLASSIFY = UrlTemplate
+			.compile("/v1/classifiers/%s/classify");
+
+	/**
+	 * Plain arguments are inserted as they are.
+	 */
+	@Test
+	public void testExpand() {
+		Assert.assertEquals("/v1/classifiers/A1-b_2.3~/classify",
+				CLASSIFY.expand("A1-b_2.3~"));
+		Assert.assertEquals("/v1/a/1/b/true",
+				UrlTemplate.compile("/v1/a/%s/b/%s").expand(1, true));
+		Assert.assertEquals("/v1/models", UrlTemplate.compile("/v1/models")
+				.expand());
+		Assert.assertEquals("/v1/classifiers/%s/classify", CLASSIFY.toString());
+	}
+
+	/**
+	 * Path arguments are encoded as a single path segment.
+	 */
+	@Test
+	public void testPathEncoding() {
+		Assert.assertEquals("/v1/classifiers/a%2Fb/classify",
+				CLASSIFY.expand("a/b"));
+		Assert.assertEquals("/v1/classifiers/a%20b%3Fc%23d/classify",
+				CLASSIFY.expand("a b?c#d"));
+		Assert.assertEquals("/v1/classifiers/%C3%A9%E2%82%AC%F0%9F%98%80/classify",
+				CLASSIFY.expand("\u00e9\u20ac\ud83d\ude00"));
+		Assert.assertEquals("/v1/classifiers/%25/classify", CLASSIFY.expand("%"));
+	}
+
+	/**
+	 * Dot segments can not move up the path.
+	 */
+	@Test
+	public void testDotSegments() {
+		Assert.assertEquals("/v1/classifiers/%2E%2E/classify",
+				CLASSIFY.expand(".."));
+		Assert.assertEquals("/v1/classifiers/%2E/classify", CLASSIFY.expand("."));
+		Assert.assertEquals("/v1/classifiers/.../classify",
+				CLASSIFY.expand("..."));
+	}
+
+	/**
+	 * Arguments after the <code>?</code> are encoded as query values.
+	 */
+	@Test
+	public void testQueryEncoding() {
+		final UrlTemplate template = UrlTemplate
+				.compile("/v1/dialogs/%s/profile?client_id=%s");
+		Assert.assertEquals("/v1/dialogs/a%20b/profile?client_id=c+d%26e%3Df",
+				template.expand("a b", "c d&e=f"));
+	}
+
+	/**
+	 * <code>%%</code> is a literal percent sign.
+	 */
+	@Test
+	public void testEscapedPercent() {
+		Assert.assertEquals("/v1/100%/a", UrlTemplate.compile("/v1/100%%/%s")
+				.expand("a"));
+	}
+
+	/**
+	 * Other format specifiers go through {@link String#format}.
+	 */
+	@Test
+	public void testFormatted() {
+		Assert.assertEquals("/v1/smt/7", UrlTemplate.compile("/v1/smt/%d")
+				.expand(7));
+	}
+
+	/**
+	 * Missing arguments are rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testMissingArguments() {
+		CLASSIFY.expand();
+	}
+
+	/**
+	 * The string overloads of {@link Request} expand the same way and keep the
+	 * template for the metrics.
+	 */
+	@Test
+	public void testRequest() {
+		final HttpRequestBase fromString = Request.Post(
+				"/v1/classifiers/%s/classify", "a b").build();
+		final HttpRequestBase fromTemplate = Request.Post(CLASSIFY, "a b")
+				.build();
+		Assert.assertEquals("/v1/classifiers/a%20b/classify", fromString
+				.getURI().getRawPath());
+		Assert.assertEquals(fromTemplate.getURI(), fromString.getURI());
+		Assert.assertEquals("/v1/classifiers/%s/classify", fromString
+				.getParams().getParameter(Request.URL_TEMPLATE));
+		Assert.assertEquals("a b", fromString.getURI().getPath()
+				.split("/")[3]);
+	}
+
+	/**
+	 * A query string in the template becomes query parameters of the
+	 * request.
+	 */
+	@Test
+	public void testRequestQuery() {
+		final HttpRequestBase request = Request.Get(
+				"/v1/dialogs/%s/profile?client_id=%s", "d", "x y")
+				.withQuery("name", "n").build();
+		Assert.assertEquals("client_id=x+y&name=n", request.getURI()
+				.getRawQuery());
+		Assert.assertEquals("/v1/dialogs/%s/profile", request.getParams()
+				.getParameter(Request.URL_TEMPLATE));
+	}
+}
@@ -0,0 +1,267 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service.cassette;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.http.HttpResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.watson.developer_cloud.mock.MockResponse;
+import com.ibm.watson.developer_cloud.mock.MockWatsonServer;
+import com.ibm.watson.developer_cloud.service.Request;
+import com.ibm.watson.developer_cloud.service.WatsonService;
+import com.ibm.watson.developer_cloud.util.MediaType;
+import com.ibm.watson.developer_cloud.util.ResponseUtil;
+
+/**
+ * Records calls against the mock server, saves and loads the cassette and
+ * replays it without the network.
+ */
+public class CassetteTest {
+
+	/** An end point with nothing listening, replayed calls never reach it. */
+	private static final String UNREACHABLE = "http://localhost:1/api";
+
+	/** The request body. */
+	private static final String BODY = "{\"text\":\"How hot will it be today?\"}";
+
+	/** The server. */
+	private MockWatsonServer server;
+
+	/**
+	 * A service whose calls return the body of the response.
+	 */
+	private static final class CassetteService extends WatsonService {
+
+		/**
+		 * Executes a request.
+		 * 
+		 * @param request
+		 *            the request
+		 * @return the response
+		 */
+		HttpResponse send(Request request) {
+			return execute(request.build());
+		}
+
+		/**
+		 * Executes a request and reads the body of the response.
+		 * 
+		 * @param request
+		 *            the request
+		 * @return the body
+		 * @throws IOException
+		 *             Signals that an I/O exception has occurred.
+		 */
+		String call(Request request) throws IOException {
+			return ResponseUtil.getString(execute(request.build()));
+		}
+	}
+
+	/** The service. */
+	private CassetteService service;
+
+	/**
+	 * Starts the server.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		server = new MockWatsonServer();
+		server.start();
+		server.setResponse("GET", "/v1/items", MockResponse.json("{\"n\":1}")
+				.withHeader("ETag", "\"1\""));
+		server.setResponse("POST", "/v1/classify",
+				MockResponse.json("{\"top_class\":\"temperature\"}"));
+		service = new CassetteService();
+		server.configure(service);
+	}
+
+	/**
+	 * Stops the server.
+	 */
+	@After
+	public void tearDown() {
+		server.stop();
+	}
+
+	/**
+	 * Decompresses a gzip body.
+	 * 
+	 * @param body
+	 *            the body
+	 * @return the decompressed body
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static String gunzip(byte[] body) throws IOException {
+		final GZIPInputStream in = new GZIPInputStream(
+				new ByteArrayInputStream(body));
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[256];
+		int read;
+		while ((read = in.read(buffer)) != -1)
+			out.write(buffer, 0, read);
+		in.close();
+		return out.toString("UTF-8");
+	}
+
+	/**
+	 * Writes a cassette and reads it back.
+	 * 
+	 * @param cassette
+	 *            the cassette
+	 * @return the cassette read back
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static Cassette roundTrip(Cassette cassette) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		cassette.write(out);
+		return Cassette.read(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	/**
+	 * Creates a service that replays a cassette.
+	 * 
+	 * @param cassette
+	 *            the cassette
+	 * @param matchRequestBody
+	 *            whether requests are matched by body
+	 * @return the service
+	 */
+	private static CassetteService replaying(Cassette cassette,
+			boolean matchRequestBody) {
+		final CassetteService replay = new CassetteService();
+		replay.setEndPoint(UNREACHABLE);
+		replay.setUsernameAndPassword("user", "password");
+		replay.addInterceptor(new ReplayInterceptor(cassette, matchRequestBody));
+		return replay;
+	}
+
+	/**
+	 * Recorded calls are replayed with the same status, headers and bodies
+	 * after the cassette is saved and loaded.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testRoundTrip() throws IOException {
+		final Cassette cassette = new Cassette();
+		service.addInterceptor(new RecordingInterceptor(cassette));
+		final String items = service.call(Request.Get("/v1/items"));
+		final String classify = service.call(Request.Post("/v1/classify")
+				.withContent(BODY, MediaType.APPLICATION_JSON));
+		Assert.assertEquals(2, cassette.size());
+
+		final Cassette loaded = roundTrip(cassette);
+		Assert.assertEquals(2, loaded.size());
+		final Interaction first = loaded.getInteractions().get(0);
+		Assert.assertEquals("GET", first.getMethod());
+		Assert.assertEquals("/v1/items", first.getUri());
+		Assert.assertEquals(200, first.getStatus());
+
+		final long requests = server.getRequestCount();
+		final CassetteService replay = replaying(loaded, false);
+		final HttpResponse response = replay.send(Request.Get("/v1/items"));
+		Assert.assertEquals("\"1\"", response.getFirstHeader("ETag")
+				.getValue());
+		Assert.assertEquals(items, ResponseUtil.getString(response));
+		Assert.assertEquals(classify, replay.call(Request.Post("/v1/classify")
+				.withContent(BODY, MediaType.APPLICATION_JSON)));
+		Assert.assertEquals(requests, server.getRequestCount());
+	}
+
+	/**
+	 * Interactions with the same request are served in recorded order and
+	 * cycle when exhausted.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testRecordedOrder() throws IOException {
+		final Cassette cassette = new Cassette();
+		service.addInterceptor(new RecordingInterceptor(cassette));
+		service.call(Request.Get("/v1/items"));
+		server.setResponse("GET", "/v1/items", MockResponse.json("{\"n\":2}"));
+		service.call(Request.Get("/v1/items"));
+
+		final CassetteService replay = replaying(roundTrip(cassette), false);
+		Assert.assertEquals("{\"n\":1}", replay.call(Request.Get("/v1/items")));
+		Assert.assertEquals("{\"n\":2}", replay.call(Request.Get("/v1/items")));
+		Assert.assertEquals("{\"n\":1}", replay.call(Request.Get("/v1/items")));
+	}
+
+	/**
+	 * A compressed request body is recorded as sent and matched when the
+	 * replaying service compresses too.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testCompressedRequestBody() throws IOException {
+		final Cassette cassette = new Cassette();
+		service.setRequestCompression(true);
+		service.addInterceptor(new RecordingInterceptor(cassette));
+		final String classify = service.call(Request.Post("/v1/classify")
+				.withContent(BODY, MediaType.APPLICATION_JSON));
+
+		final Cassette loaded = roundTrip(cassette);
+		final byte[] recorded = loaded.getInteractions().get(0)
+				.getRequestBody();
+		Assert.assertEquals(BODY, gunzip(recorded));
+
+		final CassetteService replay = replaying(loaded, true);
+		replay.setRequestCompression(true);
+		Assert.assertEquals(classify, replay.call(Request.Post("/v1/classify")
+				.withContent(BODY, MediaType.APPLICATION_JSON)));
+	}
+
+	/**
+	 * A request that was not recorded fails unless it can pass through.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testUnrecordedRequest() throws IOException {
+		final CassetteService replay = replaying(new Cassette(), false);
+		try {
+			replay.call(Request.Get("/v1/items"));
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		final ReplayInterceptor passThrough = new ReplayInterceptor(
+				new Cassette());
+		passThrough.setPassThrough(true);
+		service.addInterceptor(passThrough);
+		Assert.assertEquals("{\"n\":1}", service.call(Request.Get("/v1/items")));
+	}
+}
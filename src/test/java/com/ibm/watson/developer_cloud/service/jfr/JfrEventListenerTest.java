@@ -0,0 +1,160 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service.jfr;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.watson.developer_cloud.mock.MockResponse;
+import com.ibm.watson.developer_cloud.mock.MockWatsonServer;
+import com.ibm.watson.developer_cloud.service.jfr.JfrSupportTest.JfrService;
+
+/**
+ * Tests the Flight Recorder events emitted by {@link JfrEventListener} for
+ * calls to {@link MockWatsonServer}.
+ */
+public class JfrEventListenerTest {
+
+	/** The request event name. */
+	private static final String REQUEST = "com.ibm.watson.developer_cloud.Request";
+
+	/** The response conversion event name. */
+	private static final String CONVERSION = "com.ibm.watson.developer_cloud.ResponseConversion";
+
+	/** The server. */
+	private MockWatsonServer server;
+
+	/** The service. */
+	private JfrService service;
+
+	/**
+	 * Starts the server and installs the events.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		server = new MockWatsonServer();
+		server.start();
+		server.setResponse("GET", "/v1/jfr", MockResponse.json("{}"));
+		service = new JfrService();
+		server.configure(service);
+		Assert.assertTrue(JfrSupport.install(service));
+	}
+
+	/**
+	 * Stops the server.
+	 */
+	@After
+	public void tearDown() {
+		server.stop();
+	}
+
+	/**
+	 * Runs a call while a recording is enabling the given events and
+	 * disabling the others.
+	 * 
+	 * @param request
+	 *            whether the request events are enabled
+	 * @param conversion
+	 *            whether the conversion events are enabled
+	 * @return the events of the recording, by name
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private Map<String, RecordedEvent> record(boolean request,
+			boolean conversion) throws IOException {
+		final Recording recording = new Recording();
+		final File file = File.createTempFile("watson", ".jfr");
+		try {
+			if (request)
+				recording.enable(REQUEST).withoutThreshold();
+			else
+				recording.disable(REQUEST);
+			if (conversion)
+				recording.enable(CONVERSION).withoutThreshold();
+			else
+				recording.disable(CONVERSION);
+			recording.start();
+			service.get("/v1/jfr");
+			recording.stop();
+			recording.dump(file.toPath());
+
+			final Map<String, RecordedEvent> events = new HashMap<String, RecordedEvent>();
+			for (RecordedEvent event : RecordingFile.readAllEvents(file
+					.toPath())) {
+				final String name = event.getEventType().getName();
+				if (REQUEST.equals(name) || CONVERSION.equals(name))
+					Assert.assertNull(name, events.put(name, event));
+			}
+			return events;
+		} finally {
+			recording.close();
+			file.delete();
+		}
+	}
+
+	/**
+	 * Test the request and conversion events of a call.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testEvents() throws IOException {
+		final Map<String, RecordedEvent> events = record(true, true);
+		Assert.assertEquals(2, events.size());
+
+		final RecordedEvent conversion = events.get(CONVERSION);
+		Assert.assertEquals("JfrService", conversion.getString("service"));
+		Assert.assertEquals("GET /v1/jfr", conversion.getString("endpoint"));
+
+		final RecordedEvent request = events.get(REQUEST);
+		Assert.assertEquals("JfrService", request.getString("service"));
+		Assert.assertEquals("GET /v1/jfr", request.getString("endpoint"));
+		Assert.assertEquals(200, request.getInt("status"));
+		Assert.assertEquals(2, request.getLong("bytesReceived"));
+		Assert.assertTrue(request.getLong("latency") > 0);
+	}
+
+	/**
+	 * Test that disabled events are not created.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testDisabledEvents() throws IOException {
+		Assert.assertEquals(Collections.singleton(CONVERSION), record(false,
+				true).keySet());
+		Assert.assertEquals(Collections.singleton(REQUEST), record(true,
+				false).keySet());
+		Assert.assertTrue(record(false, false).isEmpty());
+	}
+}
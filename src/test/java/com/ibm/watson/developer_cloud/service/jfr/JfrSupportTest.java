@@ -0,0 +1,292 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.service.jfr;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.watson.developer_cloud.mock.MockResponse;
+import com.ibm.watson.developer_cloud.mock.MockWatsonServer;
+import com.ibm.watson.developer_cloud.service.CallListener;
+import com.ibm.watson.developer_cloud.service.MetricsCollector;
+import com.ibm.watson.developer_cloud.service.Request;
+import com.ibm.watson.developer_cloud.service.ResponseConverter;
+import com.ibm.watson.developer_cloud.service.WatsonService;
+import com.ibm.watson.developer_cloud.util.ResponseUtil;
+
+/**
+ * Tests that {@link JfrSupport#install} registers the Flight Recorder events
+ * once and keeps the collector and listener the service already had.
+ */
+public class JfrSupportTest {
+
+	/**
+	 * A named service that executes GET requests.
+	 */
+	static final class JfrService extends WatsonService {
+
+		/** The converter of the calls. */
+		private static final ResponseConverter<String> CONVERTER = new ResponseConverter<String>() {
+			@Override
+			public String convert(HttpResponse response) throws IOException {
+				return ResponseUtil.getString(response);
+			}
+		};
+
+		/**
+		 * Executes a GET request.
+		 * 
+		 * @param path
+		 *            the path
+		 * @return the response body
+		 */
+		String get(String path) {
+			return execute(Request.Get(path).build(), CONVERTER);
+		}
+	}
+
+	/**
+	 * Records the callbacks it receives, both as a listener and as a
+	 * collector.
+	 */
+	static final class RecordingListener extends CallListener implements
+			MetricsCollector {
+
+		/** The callbacks. */
+		final List<String> calls = new ArrayList<String>();
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see
+		 * com.ibm.watson.developer_cloud.service.MetricsCollector#requestStarted
+		 * (java.lang.String, java.lang.String)
+		 */
+		@Override
+		public void requestStarted(String service, String endpoint) {
+			calls.add("requestStarted");
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see
+		 * com.ibm.watson.developer_cloud.service.MetricsCollector#responseReceived
+		 * (java.lang.String, java.lang.String)
+		 */
+		@Override
+		public void responseReceived(String service, String endpoint) {
+			calls.add("responseReceived");
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see
+		 * com.ibm.watson.developer_cloud.service.MetricsCollector#requestThrottled
+		 * (java.lang.String, java.lang.String, long)
+		 */
+		@Override
+		public void requestThrottled(String service, String endpoint,
+				long waitTime) {
+			calls.add("requestThrottled");
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see
+		 * com.ibm.watson.developer_cloud.service.MetricsCollector#requestCompleted
+		 * (java.lang.String, java.lang.String, int, long, long, long, long)
+		 */
+		@Override
+		public void requestCompleted(String service, String endpoint,
+				int status, long bytesSent, long bytesReceived,
+				long timeToFirstByte, long latency) {
+			calls.add("requestCompleted");
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see
+		 * com.ibm.watson.developer_cloud.service.CallListener#callStart(org.
+		 * apache.http.client.methods.HttpRequestBase, long)
+		 */
+		@Override
+		public void callStart(HttpRequestBase request, long nanoTime) {
+			calls.add("callStart");
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see
+		 * com.ibm.watson.developer_cloud.service.CallListener#responseConverted
+		 * (org.apache.http.client.methods.HttpRequestBase, long)
+		 */
+		@Override
+		public void responseConverted(HttpRequestBase request, long nanoTime) {
+			calls.add("responseConverted");
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see
+		 * com.ibm.watson.developer_cloud.service.CallListener#callFailed(org.
+		 * apache.http.client.methods.HttpRequestBase, long,
+		 * java.lang.RuntimeException)
+		 */
+		@Override
+		public void callFailed(HttpRequestBase request, long nanoTime,
+				RuntimeException e) {
+			calls.add("callFailed");
+		}
+	}
+
+	/** The server. */
+	private MockWatsonServer server;
+
+	/** The service. */
+	private JfrService service;
+
+	/**
+	 * Starts the server.
+	 * 
+	 * @throws Exception
+	 *             the exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		server = new MockWatsonServer();
+		server.start();
+		server.setResponse("GET", "/v1/jfr", MockResponse.json("{}"));
+		service = new JfrService();
+		server.configure(service);
+	}
+
+	/**
+	 * Stops the server.
+	 */
+	@After
+	public void tearDown() {
+		server.stop();
+	}
+
+	/**
+	 * Test install on a service without collector and listener.
+	 */
+	@Test
+	public void testInstall() {
+		Assert.assertTrue(JfrSupport.isAvailable());
+		Assert.assertTrue(JfrSupport.install(service));
+		Assert.assertTrue(service.getCallListener() instanceof CompositeListener);
+		Assert.assertSame(service.getCallListener(), service
+				.getMetricsCollector());
+		Assert.assertEquals("{}", service.get("/v1/jfr"));
+	}
+
+	/**
+	 * Test that installing twice keeps the first listener.
+	 */
+	@Test
+	public void testInstallTwice() {
+		final RecordingListener previous = new RecordingListener();
+		service.setCallListener(previous);
+		Assert.assertTrue(JfrSupport.install(service));
+		final CallListener installed = service.getCallListener();
+
+		Assert.assertTrue(JfrSupport.install(service));
+		Assert.assertSame(installed, service.getCallListener());
+		Assert.assertSame(installed, service.getMetricsCollector());
+
+		// the previous listener is not wrapped twice
+		service.get("/v1/jfr");
+		Assert.assertEquals(Arrays.asList("callStart", "responseConverted"),
+				previous.calls);
+	}
+
+	/**
+	 * Test that the existing collector and listener keep receiving callbacks.
+	 */
+	@Test
+	public void testInstallKeepsExistingListener() {
+		final RecordingListener collector = new RecordingListener();
+		final RecordingListener listener = new RecordingListener();
+		service.setMetricsCollector(collector);
+		service.setCallListener(listener);
+		Assert.assertTrue(JfrSupport.install(service));
+		Assert.assertNotSame(listener, service.getCallListener());
+
+		service.get("/v1/jfr");
+		Assert.assertEquals(Arrays.asList("requestStarted",
+				"responseReceived", "requestCompleted"), collector.calls);
+		Assert.assertEquals(Arrays.asList("callStart", "responseConverted"),
+				listener.calls);
+
+		try {
+			service.get("/v1/jfr/missing");
+			Assert.fail();
+		} catch (RuntimeException e) {
+			Assert.assertEquals("callFailed", listener.calls.get(listener.calls
+					.size() - 1));
+		}
+	}
+
+	/**
+	 * Test that the composite listener forwards every callback.
+	 */
+	@Test
+	public void testCompositeListenerForwards() {
+		final RecordingListener previous = new RecordingListener();
+		final CompositeListener composite = new CompositeListener(
+				new JfrEventListener("JfrService"), previous, previous);
+		final HttpGet request = new HttpGet("http://localhost/v1/jfr");
+		composite.requestThrottled("JfrService", "GET /v1/jfr", 10);
+		composite.callStart(request, 1);
+		composite.responseConverted(request, 2);
+		composite.callFailed(request, 3, new IllegalStateException());
+		Assert.assertEquals(Arrays.asList("requestThrottled", "callStart",
+				"responseConverted", "callFailed"), previous.calls);
+
+		// without previous collector and listener
+		final CompositeListener alone = new CompositeListener(
+				new JfrEventListener("JfrService"), null, null);
+		alone.requestStarted("JfrService", "GET /v1/jfr");
+		alone.responseConversionStart(request, 1);
+		alone.responseConverted(request, 2);
+		alone.requestCompleted("JfrService", "GET /v1/jfr", 200, 0, 2, 1, 2);
+	}
+
+	/**
+	 * Test install with a null service.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testInstallNull() {
+		JfrSupport.install(null);
+	}
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.entity.ByteArrayEntity;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the {@link DecompressingEntity} with the encodings servers send.
+ */
+public class DecompressingEntityTest {
+
+	/** The body. */
+	private static final String BODY = "{\"voices\":[{\"name\":\"en-US_MichaelVoice\"},{\"name\":\"en-US_AllisonVoice\"}]}";
+
+	/**
+	 * Reads a stream into a UTF-8 string and closes it.
+	 * 
+	 * @param in
+	 *            the stream
+	 * @return the string
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	static String read(InputStream in) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[256];
+		try {
+			int read;
+			while ((read = in.read(buffer)) != -1)
+				out.write(buffer, 0, read);
+		} finally {
+			in.close();
+		}
+		return out.toString("UTF-8");
+	}
+
+	/**
+	 * Decompresses a body.
+	 * 
+	 * @param compressed
+	 *            the compressed body
+	 * @param encoding
+	 *            the content encoding
+	 * @return the body
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static String decompress(byte[] compressed, String encoding)
+			throws IOException {
+		final DecompressingEntity entity = new DecompressingEntity(
+				new ByteArrayEntity(compressed), encoding);
+		Assert.assertNull(entity.getContentEncoding());
+		Assert.assertEquals(-1, entity.getContentLength());
+		return read(entity.getContent());
+	}
+
+	/**
+	 * Compresses the body.
+	 * 
+	 * @param deflater
+	 *            the deflater, null for gzip
+	 * @return the compressed body
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static byte[] compress(Deflater deflater) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final DeflaterOutputStream compressor = deflater == null ? new GZIPOutputStream(
+				out) : new DeflaterOutputStream(out, deflater);
+		compressor.write(BODY.getBytes("UTF-8"));
+		compressor.close();
+		if (deflater != null)
+			deflater.end();
+		return out.toByteArray();
+	}
+
+	/**
+	 * A gzip body.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testGzip() throws IOException {
+		Assert.assertEquals(BODY,
+				decompress(compress(null), DecompressingEntity.GZIP));
+	}
+
+	/**
+	 * A zlib wrapped deflate body, as the HTTP specification says.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testZlibDeflate() throws IOException {
+		Assert.assertEquals(BODY, decompress(compress(new Deflater()),
+				DecompressingEntity.DEFLATE));
+	}
+
+	/**
+	 * A raw deflate body, as some servers send.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testRawDeflate() throws IOException {
+		Assert.assertEquals(BODY, decompress(compress(new Deflater(
+				Deflater.DEFAULT_COMPRESSION, true)),
+				DecompressingEntity.DEFLATE));
+	}
+
+	/**
+	 * An empty body, for example a <code>204</code> that still declares an
+	 * encoding.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testEmptyBody() throws IOException {
+		Assert.assertEquals("", decompress(new byte[0], DecompressingEntity.GZIP));
+		Assert.assertEquals("",
+				decompress(new byte[0], DecompressingEntity.DEFLATE));
+	}
+
+	/**
+	 * Unknown encodings are rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedEncoding() {
+		new DecompressingEntity(new ByteArrayEntity(new byte[0]), "br");
+	}
+}
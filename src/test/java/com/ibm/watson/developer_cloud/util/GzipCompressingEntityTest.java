@@ -0,0 +1,103 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.http.entity.BufferedHttpEntity;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the {@link GzipCompressingEntity}.
+ */
+public class GzipCompressingEntityTest {
+
+	/** The body. */
+	private static final String BODY = "{\"text\":\"The quick brown fox jumps over the lazy dog\"}";
+
+	/**
+	 * Decompresses a gzip body.
+	 * 
+	 * @param compressed
+	 *            the compressed body
+	 * @return the body
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static String gunzip(byte[] compressed) throws IOException {
+		return DecompressingEntityTest.read(new GZIPInputStream(
+				new ByteArrayInputStream(compressed)));
+	}
+
+	/**
+	 * The written body is gzip.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testWriteTo() throws IOException {
+		final GzipCompressingEntity entity = new GzipCompressingEntity(
+				new StringEntity(BODY, "UTF-8"));
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		entity.writeTo(out);
+		Assert.assertEquals(BODY, gunzip(out.toByteArray()));
+		Assert.assertEquals(DecompressingEntity.GZIP, entity
+				.getContentEncoding().getValue());
+		Assert.assertEquals(-1, entity.getContentLength());
+	}
+
+	/**
+	 * The content can be read, as interceptors that record or match the
+	 * request body do.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testGetContent() throws IOException {
+		final GzipCompressingEntity entity = new GzipCompressingEntity(
+				new StringEntity(BODY, "UTF-8"));
+		Assert.assertTrue(entity.isRepeatable());
+		Assert.assertEquals(BODY, gunzip(EntityUtils.toByteArray(entity)));
+		Assert.assertEquals(BODY, gunzip(EntityUtils.toByteArray(entity)));
+	}
+
+	/**
+	 * A non-repeatable body can be buffered.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testBufferedStream() throws IOException {
+		final GzipCompressingEntity entity = new GzipCompressingEntity(
+				new InputStreamEntity(new ByteArrayInputStream(
+						BODY.getBytes("UTF-8")), -1));
+		Assert.assertFalse(entity.isRepeatable());
+		final BufferedHttpEntity buffered = new BufferedHttpEntity(entity);
+		Assert.assertEquals(BODY, gunzip(EntityUtils.toByteArray(buffered)));
+		Assert.assertEquals(DecompressingEntity.GZIP, buffered
+				.getContentEncoding().getValue());
+	}
+}
@@ -0,0 +1,225 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests how {@link ResponseUtil} reads and decodes response bodies.
+ */
+public class ResponseUtilTest {
+
+	/**
+	 * Stream that returns at most a few bytes per read, like a slow
+	 * connection.
+	 */
+	private static final class ShortReadStream extends FilterInputStream {
+
+		/** The maximum bytes per read. */
+		private final int maxRead;
+
+		/**
+		 * Instantiates a new short read stream.
+		 * 
+		 * @param body
+		 *            the body
+		 * @param maxRead
+		 *            the maximum bytes per read
+		 */
+		ShortReadStream(byte[] body, int maxRead) {
+			super(new ByteArrayInputStream(body));
+			this.maxRead = maxRead;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.io.FilterInputStream#read(byte[], int, int)
+		 */
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return super.read(b, off, Math.min(len, maxRead));
+		}
+	}
+
+	/**
+	 * Creates a response.
+	 * 
+	 * @param body
+	 *            the body
+	 * @param contentType
+	 *            the content type, can be null
+	 * @param contentLength
+	 *            the Content-Length header, null to leave it out
+	 * @return the response
+	 */
+	private static HttpResponse response(byte[] body, String contentType,
+			String contentLength) {
+		final HttpResponse response = new BasicHttpResponse(
+				HttpVersion.HTTP_1_1, 200, "OK");
+		final ByteArrayEntity entity = new ByteArrayEntity(body);
+		entity.setContentType(contentType);
+		response.setEntity(entity);
+		if (contentLength != null)
+			response.setHeader("Content-Length", contentLength);
+		return response;
+	}
+
+	/**
+	 * Creates a body of random bytes.
+	 * 
+	 * @param length
+	 *            the length
+	 * @return the body
+	 */
+	private static byte[] body(int length) {
+		final byte[] body = new byte[length];
+		new Random(length).nextBytes(body);
+		return body;
+	}
+
+	/**
+	 * The body is decoded with the charset of the Content-Type, or UTF-8.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testGetStringCharset() throws IOException {
+		final String text = "caf\u00e9 \u00fcber";
+		Assert.assertEquals(text, ResponseUtil.getString(response(text
+				.getBytes("ISO-8859-1"), "text/plain; charset=ISO-8859-1",
+				null)));
+		Assert.assertEquals(text, ResponseUtil.getString(response(text
+				.getBytes("UTF-8"), "text/plain", null)));
+		Assert.assertEquals(text, ResponseUtil.getString(response(text
+				.getBytes("UTF-8"), "text/plain; charset=x-unknown", null)));
+	}
+
+	/**
+	 * A multibyte character split across the end of the read buffer is
+	 * decoded once its last bytes are read.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testGetStringSplitCharacter() throws IOException {
+		for (int prefix = ResponseUtil.BUFFER_SIZE - 3; prefix < ResponseUtil.BUFFER_SIZE; prefix++) {
+			final char[] chars = new char[prefix];
+			Arrays.fill(chars, 'a');
+			final String text = new String(chars) + "\u20ac\u00e9 end";
+			Assert.assertEquals(text, ResponseUtil.getString(response(text
+					.getBytes("UTF-8"), "application/json; charset=utf-8",
+					null)));
+		}
+	}
+
+	/**
+	 * The body is read with and without a Content-Length header, and a body
+	 * of exactly Content-Length bytes does not grow the buffer.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testGetByteBuffer() throws IOException {
+		final byte[] body = body(20000);
+		ByteBuffer buffer = ResponseUtil.getByteBuffer(response(body, null,
+				"20000"));
+		Assert.assertEquals(20000, buffer.capacity());
+		Assert.assertEquals(ByteBuffer.wrap(body), buffer);
+
+		buffer = ResponseUtil.getByteBuffer(response(body, null, null));
+		Assert.assertEquals(ByteBuffer.wrap(body), buffer);
+
+		final byte[] exact = body(ResponseUtil.BUFFER_SIZE);
+		buffer = ResponseUtil.getByteBuffer(response(exact, null, null));
+		Assert.assertEquals(ResponseUtil.BUFFER_SIZE, buffer.capacity());
+		Assert.assertEquals(ByteBuffer.wrap(exact), buffer);
+
+		buffer = ResponseUtil.getByteBuffer(response(body, null, "1000"));
+		Assert.assertEquals(ByteBuffer.wrap(body), buffer);
+
+		buffer = ResponseUtil.getByteBuffer(response(body, null, "abc"));
+		Assert.assertEquals(ByteBuffer.wrap(body), buffer);
+	}
+
+	/**
+	 * The bytes are returned without a copy when the body fills the buffer.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testGetBytes() throws IOException {
+		final byte[] body = body(20000);
+		Assert.assertArrayEquals(body, ResponseUtil.getBytes(response(body,
+				null, "20000")));
+		Assert.assertArrayEquals(body, ResponseUtil.getBytes(response(body,
+				null, null)));
+
+		final HttpResponse slow = new BasicHttpResponse(HttpVersion.HTTP_1_1,
+				200, "OK");
+		final InputStream in = new ShortReadStream(body, 1000);
+		slow.setEntity(new InputStreamEntity(in, -1));
+		Assert.assertArrayEquals(body, ResponseUtil.getBytes(slow));
+
+		Assert.assertEquals(0, ResponseUtil.getBytes(response(new byte[0],
+				null, "0")).length);
+		Assert.assertEquals(0, ResponseUtil.getBytes(new BasicHttpResponse(
+				HttpVersion.HTTP_1_1, 204, "No Content")).length);
+	}
+
+	/**
+	 * The buffer is not pre-sized beyond
+	 * {@link ResponseUtil#MAX_INITIAL_CAPACITY}, whatever the Content-Length
+	 * says.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testInitialCapacityCap() throws IOException {
+		final byte[] small = body(100);
+		ByteBuffer buffer = ResponseUtil.getByteBuffer(response(small, null,
+				String.valueOf(Integer.MAX_VALUE * 2L)));
+		Assert.assertEquals(ResponseUtil.MAX_INITIAL_CAPACITY, buffer
+				.capacity());
+		Assert.assertEquals(ByteBuffer.wrap(small), buffer);
+
+		final byte[] large = body(ResponseUtil.MAX_INITIAL_CAPACITY + 1);
+		buffer = ResponseUtil.getByteBuffer(response(large, null, String
+				.valueOf(large.length)));
+		Assert.assertEquals(2 * ResponseUtil.MAX_INITIAL_CAPACITY, buffer
+				.capacity());
+		Assert.assertEquals(ByteBuffer.wrap(large), buffer);
+	}
+}
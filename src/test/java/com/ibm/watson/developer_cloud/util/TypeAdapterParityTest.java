@@ -0,0 +1,221 @@
+/**
+ * Copyright 2015 IBM Corp. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.watson.developer_cloud.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.ibm.watson.developer_cloud.natural_language_classifier.v1.model.Classification;
+import com.ibm.watson.developer_cloud.natural_language_classifier.v1.model.ClassificationTypeAdapter;
+import com.ibm.watson.developer_cloud.speech_to_text.v1.model.SpeechResults;
+import com.ibm.watson.developer_cloud.speech_to_text.v1.model.SpeechResultsTypeAdapter;
+
+/**
+ * Tests that {@link SpeechResultsTypeAdapter} and
+ * {@link ClassificationTypeAdapter} read and write the same JSON as the
+ * reflective adapter of Gson.
+ */
+public class TypeAdapterParityTest {
+
+	/** The gson with the hand-written adapters. */
+	private static final Gson ADAPTERS = GsonSingleton.getGson();
+
+	/** The gson that uses reflection. */
+	private static final Gson REFLECTIVE = new Gson();
+
+	/** The mock fixtures. */
+	private static final String FIXTURES = "/com/ibm/watson/developer_cloud/mock/";
+
+	/**
+	 * Reads a mock fixture.
+	 * 
+	 * @param name
+	 *            the fixture name
+	 * @return the fixture
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static String fixture(String name) throws IOException {
+		final InputStream in = TypeAdapterParityTest.class
+				.getResourceAsStream(FIXTURES + name);
+		Assert.assertNotNull(name, in);
+		final Reader reader = new InputStreamReader(in, "UTF-8");
+		final StringWriter writer = new StringWriter();
+		try {
+			final char[] buffer = new char[1024];
+			int n;
+			while ((n = reader.read(buffer)) != -1)
+				writer.write(buffer, 0, n);
+		} finally {
+			reader.close();
+		}
+		return writer.toString();
+	}
+
+	/**
+	 * Parses the JSON and describes the outcome, the object serialized by
+	 * reflection or the class of the exception.
+	 * 
+	 * @param gson
+	 *            the gson
+	 * @param json
+	 *            the JSON
+	 * @param type
+	 *            the type
+	 * @return the outcome
+	 */
+	private static String parse(Gson gson, String json, Class<?> type) {
+		try {
+			return REFLECTIVE.toJson(gson.fromJson(json, type));
+		} catch (RuntimeException e) {
+			return e.getClass().getName();
+		}
+	}
+
+	/**
+	 * Asserts that both adapters parse the JSON the same way.
+	 * 
+	 * @param json
+	 *            the JSON, with single quotes
+	 * @param type
+	 *            the type
+	 */
+	private static void assertParity(String json, Class<?> type) {
+		final String doubleQuoted = json.replace('\'', '"');
+		Assert.assertEquals(json, parse(REFLECTIVE, doubleQuoted, type),
+				parse(ADAPTERS, doubleQuoted, type));
+	}
+
+	/**
+	 * Asserts that the object read from the JSON is written as reflection
+	 * writes it, and that the written JSON is read back as reflection reads
+	 * it.
+	 * 
+	 * @param json
+	 *            the JSON, with single quotes
+	 * @param type
+	 *            the type
+	 * @return the written JSON
+	 */
+	private static String assertRoundTrip(String json, Class<?> type) {
+		final Object object = ADAPTERS.fromJson(json.replace('\'', '"'),
+				type);
+		final String written = ADAPTERS.toJson(object);
+		Assert.assertEquals(REFLECTIVE.toJson(object), written);
+		Assert.assertEquals(written, parse(REFLECTIVE, written, type), parse(
+				ADAPTERS, written, type));
+		return written;
+	}
+
+	/**
+	 * The fixtures are read and written as reflection does.
+	 * 
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Test
+	public void testFixtures() throws IOException {
+		final String recognize = fixture("speech_to_text/recognize.json");
+		Assert.assertEquals(parse(REFLECTIVE, recognize, SpeechResults.class),
+				parse(ADAPTERS, recognize, SpeechResults.class));
+		final String speech = assertRoundTrip(recognize, SpeechResults.class);
+		Assert.assertEquals(speech, parse(ADAPTERS, speech,
+				SpeechResults.class));
+
+		final String classify = fixture("natural_language_classifier/classify.json");
+		Assert.assertEquals(parse(REFLECTIVE, classify, Classification.class),
+				parse(ADAPTERS, classify, Classification.class));
+		final String classification = assertRoundTrip(classify,
+				Classification.class);
+		Assert.assertEquals(classification, parse(ADAPTERS, classification,
+				Classification.class));
+	}
+
+	/**
+	 * Null values are handled as reflection does.
+	 */
+	@Test
+	public void testNullFields() {
+		final String[] speech = { "null", "{}",
+				"{'results':null,'result_index':null}",
+				"{'results':[null,{'final':null,'alternatives':null}]}",
+				"{'results':[{'alternatives':[null,{'transcript':null}]}]}" };
+		for (String json : speech) {
+			assertParity(json, SpeechResults.class);
+			if (!"null".equals(json))
+				assertRoundTrip(json, SpeechResults.class);
+		}
+
+		final String[] classification = { "null", "{}",
+				"{'classifier_id':null,'url':null,'text':null,'top_class':null,'classes':null}",
+				"{'classes':[null,{'class_name':null,'confidence':null}]}" };
+		for (String json : classification) {
+			assertParity(json, Classification.class);
+			if (!"null".equals(json))
+				assertRoundTrip(json, Classification.class);
+		}
+	}
+
+	/**
+	 * Unknown fields are skipped, whatever their value.
+	 */
+	@Test
+	public void testUnknownFields() {
+		assertParity("{'x':1,'results':[{'y':{'z':[1,2]},'final':true,"
+				+ "'alternatives':[{'transcript':'a','confidence':0.5,"
+				+ "'timestamps':[['a',0.1,0.2]]}]}],'result_index':2,'w':null}",
+				SpeechResults.class);
+		assertParity("{'x':[{}],'text':'t','classes':[{'class_name':'c',"
+				+ "'confidence':0.5,'y':false}],'z':null}",
+				Classification.class);
+	}
+
+	/**
+	 * Values of the wrong type are converted or rejected as reflection does.
+	 */
+	@Test
+	public void testWrongTypeFields() {
+		final String[] speech = { "[]", "{'results':'x'}", "{'results':{}}",
+				"{'results':['x']}", "{'results':[{'alternatives':{}}]}",
+				"{'results':[{'alternatives':[1]}]}",
+				"{'result_index':'7'}", "{'result_index':'x'}",
+				"{'result_index':1.5}", "{'result_index':true}",
+				"{'result_index':[]}", "{'results':[{'final':'true'}]}",
+				"{'results':[{'final':'yes'}]}", "{'results':[{'final':1}]}",
+				"{'results':[{'alternatives':[{'transcript':7}]}]}",
+				"{'results':[{'alternatives':[{'transcript':false}]}]}",
+				"{'results':[{'alternatives':[{'transcript':{}}]}]}" };
+		for (String json : speech)
+			assertParity(json, SpeechResults.class);
+
+		final String[] classification = { "[]", "'x'",
+				"{'classifier_id':5}", "{'text':true}", "{'url':[]}",
+				"{'top_class':{}}", "{'classes':'x'}", "{'classes':[1]}",
+				"{'classes':[{'class_name':1.5}]}",
+				"{'classes':[{'confidence':'0.5'}]}",
+				"{'classes':[{'confidence':'x'}]}",
+				"{'classes':[{'confidence':true}]}" };
+		for (String json : classification)
+			assertParity(json, Classification.class);
+	}
+}